@@ -5,7 +5,6 @@ import eu.hansolo.enzo.gauge.Gauge;
 import javafx.scene.Node;
 import javafx.scene.chart.LineChart;
 import javafx.scene.chart.NumberAxis;
-import javafx.scene.chart.XYChart;
 import javafx.scene.paint.Color;
 
 import java.util.*;
@@ -27,10 +26,13 @@ public class GaugeController {
     private Gauge gauge;
 
     // chart
-    private int numberOfDataPoints;
     private LineChart<Number, Number> chart;
+    private volatile StripChartSeries series;
     private Color chartColor;
 
+    // waveform
+    private volatile WaveformView waveform;
+
     public GaugeController(String label) {
         this.label = label;
     }
@@ -47,14 +49,24 @@ public class GaugeController {
 
     public GaugeController setChart(LineChart<Number, Number> chart) {
         this.chart = chart;
-        numberOfDataPoints = (int) ((NumberAxis) chart.getXAxis()).getUpperBound();
+        int numberOfDataPoints = (int) ((NumberAxis) chart.getXAxis()).getUpperBound();
 
-        clearChart();
+        StripChartSeries series = new StripChartSeries(numberOfDataPoints + 1);
+        chart.getData().setAll(Collections.singleton(series.getSeries()));
+        this.series = series;
+        updateSeries();
         updateChart();
 
         return this;
     }
 
+    public GaugeController setWaveform(WaveformView waveform) {
+        this.waveform = waveform;
+        updateSeries();
+        updateWaveformRange();
+        return this;
+    }
+
     public GaugeController putSettings(Mode mode, GaugeSettings settings) {
         settingsMap.put(mode, settings);
         return this;
@@ -73,12 +85,14 @@ public class GaugeController {
 
     private void update() {
         updateGauge();
-        clearChart();
+        updateSeries();
         updateChart();
+        updateWaveformRange();
     }
 
     public GaugeController setTranslator(ValueTranslator translator) {
         this.translator = translator;
+        updateSeries();
         return this;
     }
 
@@ -95,32 +109,66 @@ public class GaugeController {
         if (gauge != null) {
             gauge.setValue(value);
         }
-        if (chart != null) {
-            addChartValue(value);
-        }
     }
 
-    private void clearChart() {
-        chart.getData().setAll(Collections.singleton(new XYChart.Series<>()));
+    /**
+     * Adds a raw value to the chart; may be called from any one thread at any rate (see {@link #render()}).
+     *
+     * @param timestamp Nanoseconds.
+     */
+    public void addChartValue(long timestamp, float value) {
+        StripChartSeries series = this.series;
+        if (series != null) {
+            series.add(timestamp, value);
+        }
     }
 
-    public void addChartValue(float value) {
-        XYChart.Series<Number, Number> series = chart.getData().get(0);
-        while (series.getData().size() > numberOfDataPoints) {
-            series.getData().remove(0);
+    /**
+     * Redraws the chart from the newest values if any were added; called from the FX thread once per frame.
+     */
+    public void render() {
+        StripChartSeries series = this.series;
+        if (series != null) {
+            series.render();
         }
+    }
 
-        reindexData();
-        series.getData().add(new XYChart.Data<>(series.getData().size(), value));
+    /**
+     * Adds a raw sample to the waveform; may be called from any one thread at any rate (see {@link #renderWaveform()}).
+     *
+     * @param timestamp Nanoseconds.
+     */
+    public void addWaveformSample(long timestamp, float value) {
+        WaveformView waveform = this.waveform;
+        if (waveform != null) {
+            waveform.add(timestamp, value);
+        }
     }
 
     /**
-     * Sets the X values to match their indices.
+     * Redraws the waveform if it changed; called from the FX thread once per frame while it is shown.
      */
-    private void reindexData() {
-        XYChart.Series<Number, Number> series = chart.getData().get(0);
-        for (int i = 0; i < series.getData().size(); i++) {
-            series.getData().get(i).setXValue(i);
+    public void renderWaveform() {
+        WaveformView waveform = this.waveform;
+        if (waveform != null) {
+            waveform.render();
+        }
+    }
+
+    private void updateSeries() {
+        ValueTranslator t = mode == Mode.TRANSLATED ? translator : null;
+        if (series != null) {
+            series.setTranslator(t);
+        }
+        if (waveform != null) {
+            waveform.setTranslator(t);
+        }
+    }
+
+    private void updateWaveformRange() {
+        GaugeSettings settings = getActiveSettings();
+        if (waveform != null && settings != null) {
+            waveform.setRange(0f, (float) settings.maxValue, settings.unit);
         }
     }
 
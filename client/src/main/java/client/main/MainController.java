@@ -1,15 +1,16 @@
 package client.main;
 
 import client.Launcher;
-import edu.sdsu.rocket.core.helpers.AtomicIntFloat;
-import edu.sdsu.rocket.core.helpers.Logger;
+import edu.sdsu.rocket.core.helpers.AtomicSample;
 import edu.sdsu.rocket.core.helpers.PressureValueTranslatorFactory;
-import edu.sdsu.rocket.core.io.devices.ADS11xxOutputStream;
+import edu.sdsu.rocket.core.io.RecordingHeader;
+import edu.sdsu.rocket.core.io.radio.RadioSensorReceiver;
 import edu.sdsu.rocket.core.models.Sensors;
 import edu.sdsu.rocket.core.net.SensorClient;
 import eu.hansolo.enzo.common.Section;
 import eu.hansolo.enzo.gauge.Gauge;
 import eu.hansolo.enzo.gauge.GaugeBuilder;
+import javafx.animation.AnimationTimer;
 import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
@@ -21,14 +22,12 @@ import javafx.stage.DirectoryChooser;
 import javafx.stage.Stage;
 
 import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.net.InetAddress;
 import java.text.DecimalFormat;
 import java.text.Format;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import java.util.prefs.Preferences;
@@ -52,26 +51,96 @@ public class MainController {
     private static final String STOP       = "Stop";
 
     private static final int PORT = 4444;
+
+    /**
+     * Where the sensor data comes from: the server over the network, or a ground radio's serial stream.
+     */
+    private enum Source {
+        NETWORK("Network", null),
+        RADIO_RAW("Radio", RadioSensorReceiver.Mode.RAW),
+        RADIO_API("Radio (API)", RadioSensorReceiver.Mode.API),
+        RADIO_API_ESCAPED("Radio (API escaped)", RadioSensorReceiver.Mode.API_ESCAPED);
+
+        private final String label;
+        private final RadioSensorReceiver.Mode mode; // null for the network
+
+        Source(String label, RadioSensorReceiver.Mode mode) {
+            this.label = label;
+            this.mode = mode;
+        }
+
+        boolean isRadio() {
+            return mode != null;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    // kinds of UI update, the low byte is the sensors mask
+    private static final int SENSORS_UPDATE = 0xFF;
+    private static final int LATENCY_UPDATE = 1 << 8;
+    private final UpdateDispatcher dispatcher = new UpdateDispatcher(this::onUpdate);
+    private volatile long latency; // nanoseconds
     private final Sensors sensors = new Sensors();
     private final SensorClient client = new SensorClient(sensors);
+    private final RadioSensorReceiver receiver = new RadioSensorReceiver(sensors);
+    private Source source = Source.NETWORK; // of the current connection
+    private String host;
+    private String device; // serial port or pty of the ground radio, configured (e.g. baud rate) beforehand
+    private final Sensors frame = new Sensors(); // coherent copy of sensors for display
+    private final AtomicSample.Reading chartReading = new AtomicSample.Reading(); // only used by network thread
+    private final AnimationTimer chartTimer = new AnimationTimer() {
+        private long recordStatusTime;
+
+        @Override
+        public void handle(long now) {
+            boolean isWaveformShown = waveformTab.isSelected();
+            for (GaugeController gaugeController : gaugeControllers) {
+                gaugeController.render();
+                if (isWaveformShown) {
+                    gaugeController.renderWaveform();
+                }
+            }
+            if (now - recordStatusTime >= RECORD_STATUS_INTERVAL) {
+                recordStatusTime = now;
+                recordStatusLabel.setText(recorder.getStatus());
+            }
+        }
+    };
     private Thread pingThread;
     private Thread statusThread;
 
-    private volatile boolean isRecording;
-    private Logger logger;
-    private ADS11xxOutputStream[] log;
+    private static final long RECORD_STATUS_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+    private final AtomicSample.Reading analogReading = new AtomicSample.Reading();
+    private final Recorder recorder = new Recorder();
+    private final SensorClient.SampleListener sampleListener = (channel, sequence, timestamp, value) -> {
+        if (channel < gaugeControllers.length) {
+            gaugeControllers[channel].addWaveformSample(timestamp, value);
+        }
+        recorder.record(channel, timestamp, value); // every sample rather than only those displayed
+    };
 
     private Stage stage;
+    @FXML private ChoiceBox<Source> sourceChoiceBox;
+    @FXML private Label hostLabel;
     @FXML private TextField hostTextField;
     @FXML private Button connectButton;
     @FXML private Button recordButton;
+    @FXML private Label recordStatusLabel;
+    @FXML private CheckBox compressCheckBox;
     @FXML private Slider frequencySlider;
     @FXML private Label frequencyLabel;
+    @FXML private CheckBox pushCheckBox;
     @FXML private Label latencyLabel;
     @FXML private Label temperatureLabel;
     @FXML private Label signalLabel;
     @FXML private GridPane gaugePane;
     @FXML private GridPane chartPane;
+    @FXML private GridPane waveformPane;
+    @FXML private Tab waveformTab;
 
     private static final Format LATENCY_FORMAT = new DecimalFormat("#.#");
     private static final Format TEMPERATURE_FORMAT = new DecimalFormat("#.#");
@@ -82,17 +151,25 @@ public class MainController {
      * Called prior to the initialize() method.
      */
     public MainController() {
-        client.setListener(new SensorClient.SensorClientListener() {
+        SensorClient.SensorClientListener listener = new SensorClient.SensorClientListener() {
             @Override
             public void onPingResponse(final long latency) {
-                Platform.runLater(() -> updateLatency((float) latency / NANOSECONDS_PER_MILLISECOND));
+                MainController.this.latency = latency;
+                dispatcher.mark(LATENCY_UPDATE);
             }
 
             @Override
             public void onSensorsUpdated(byte mask) {
-                Platform.runLater(() -> updateSensors(mask));
+                if ((mask & Sensors.ANALOG_MASK) != 0) {
+                    addChartValues();
+                }
+                dispatcher.mark(mask & SENSORS_UPDATE);
             }
-        });
+        };
+        client.setListener(listener);
+        client.setSampleListener(sampleListener); // every sample for the waveforms (and recording)
+        receiver.setListener(listener); // radio telemetry updates the same sensors
+        receiver.setSampleListener(sampleListener);
     }
 
     /**
@@ -104,6 +181,21 @@ public class MainController {
      */
     @FXML
     private void initialize() {
+        sourceChoiceBox.getItems().setAll(Source.values());
+        sourceChoiceBox.valueProperty().addListener((observable, oldValue, newValue) -> {
+            // the text field holds the host for the network and the device path for the radio
+            if (oldValue != null && oldValue.isRadio() != newValue.isRadio()) {
+                if (oldValue.isRadio()) {
+                    device = hostTextField.getText();
+                    hostTextField.setText(host);
+                } else {
+                    host = hostTextField.getText();
+                    hostTextField.setText(device);
+                }
+            }
+            hostLabel.setText(newValue.isRadio() ? "Device" : "Host");
+        });
+
         frequencySlider.valueProperty().addListener((observable, oldValue, newValue) -> {
             int value = newValue.intValue();
             frequencyLabel.setText(String.valueOf(value));
@@ -112,6 +204,7 @@ public class MainController {
 
         setupGauges();
         loadSettings();
+        chartTimer.start();
     }
 
     public void setStage(Stage stage) {
@@ -206,6 +299,10 @@ public class MainController {
 
             LineChart<Number, Number> chart = (LineChart<Number, Number>) chartPane.getChildren().get(i);
             controller.setChart(chart);
+
+            WaveformView waveform = new WaveformView(controller.getLabel());
+            controller.setWaveform(waveform);
+            waveformPane.add(waveform, col, row);
         }
     }
 
@@ -225,11 +322,25 @@ public class MainController {
                 .build();
     }
 
+    /**
+     * Applies the latest state for every kind of update marked since the previous frame.
+     */
+    private void onUpdate(int mask) {
+        if ((mask & LATENCY_UPDATE) != 0) {
+            updateLatency((float) latency / NANOSECONDS_PER_MILLISECOND);
+        }
+        if ((mask & SENSORS_UPDATE) != 0) {
+            updateSensors((byte) (mask & SENSORS_UPDATE));
+        }
+    }
+
     private void updateLatency(float latency) {
         latencyLabel.setText(LATENCY_FORMAT.format(latency));
     }
 
     private void updateSensors(byte mask) {
+        sensors.snapshot(frame);
+
         if ((mask & Sensors.RADIO_MASK) != 0) {
             updateSignalStrength();
         }
@@ -244,11 +355,11 @@ public class MainController {
     }
 
     private void updateTemperature() {
-        if (sensors.system.getRawTemperature() == 0) {
+        if (frame.system.getRawTemperature() == 0) {
             temperatureLabel.setText("?");
         } else {
             try {
-                temperatureLabel.setText(TEMPERATURE_FORMAT.format(sensors.system.getTemperatureF()));
+                temperatureLabel.setText(TEMPERATURE_FORMAT.format(frame.system.getTemperatureF()));
             } catch (IllegalArgumentException e) {
                 System.err.println("Failed to format temperature value for display: " + e);
             }
@@ -256,11 +367,11 @@ public class MainController {
     }
 
     private void updateSignalStrength() {
-        if (sensors.radio.getSignalStrength() == 0) {
+        if (frame.radio.getSignalStrength() == 0) {
             signalLabel.setText("?");
         } else {
             try {
-                signalLabel.setText("-" + sensors.radio.getSignalStrength());
+                signalLabel.setText("-" + frame.radio.getSignalStrength());
             } catch (IllegalArgumentException e) {
                 System.err.println("Failed to format signal strength value for display: " + e);
             }
@@ -268,35 +379,25 @@ public class MainController {
     }
 
     private void onAnalogSensorsUpdated() {
-        for (int i = 0; i < sensors.analog.length; i++) {
-            long raw = sensors.analog[i].get();
-            float value = AtomicIntFloat.getFloatValue(raw);
+        for (int i = 0; i < frame.analog.length; i++) {
+            AtomicSample.Reading reading = frame.analog[i].get(analogReading);
+            float value = reading.value;
 
             if (i < gaugeControllers.length) {
                 GaugeController gaugeController = gaugeControllers[i];
                 gaugeController.setValue(value);
             }
-
-            if (isRecording) {
-                long timestamp = TimeUnit.MILLISECONDS.toNanos(AtomicIntFloat.getIntValue(raw));
-                writeSensor(i, timestamp, value);
-            }
         }
     }
 
-    private void writeSensor(int i, long timestamp, float value) {
-        try {
-            log[i].writeValue(timestamp, value);
-        } catch (IOException e) {
-            e.printStackTrace();
-
-            stopRecording();
-
-            Alert alert = new Alert(Alert.AlertType.ERROR);
-            alert.setTitle(Launcher.NAME);
-            alert.setHeaderText("Recording failed.");
-            alert.setContentText(e.getMessage());
-            alert.show();
+    /**
+     * Buffers the newest analog values for the charts (rendered once per frame by the chart timer); called from the
+     * network thread.
+     */
+    private void addChartValues() {
+        for (int i = 0; i < sensors.analog.length && i < gaugeControllers.length; i++) {
+            AtomicSample.Reading reading = sensors.analog[i].get(chartReading);
+            gaugeControllers[i].addChartValue(reading.timestamp, reading.value);
         }
     }
 
@@ -322,13 +423,21 @@ public class MainController {
     private void onConnect(ActionEvent event) {
         if (CONNECT.equals(connectButton.getText())) {
             try {
-                InetAddress addr = InetAddress.getByName(hostTextField.getText());
-                client.setFrequency((float) frequencySlider.getValue());
-                client.start(addr, PORT);
-
-                startPingThread();
-                startStatusThread();
+                source = sourceChoiceBox.getValue();
+                if (source.isRadio()) {
+                    receiver.setMode(source.mode);
+                    receiver.start(new FileInputStream(hostTextField.getText()));
+                } else {
+                    InetAddress addr = InetAddress.getByName(hostTextField.getText());
+                    client.setMode(pushCheckBox.isSelected() ? SensorClient.Mode.PUSH : SensorClient.Mode.POLL);
+                    client.setFrequency((float) frequencySlider.getValue());
+                    client.start(addr, PORT);
+
+                    startPingThread();
+                    startStatusThread();
+                }
 
+                sourceChoiceBox.setDisable(true);
                 connectButton.setText(DISCONNECT);
             } catch (IOException e) {
                 e.printStackTrace();
@@ -340,19 +449,32 @@ public class MainController {
                 alert.showAndWait();
             }
         } else {
-            stopPingThread();
-            stopStatusThread();
-
-            client.stop();
+            if (source.isRadio()) {
+                receiver.stop();
+                System.out.println(receiver);
+            } else {
+                stopPingThread();
+                stopStatusThread();
+
+                client.stop();
+            }
 
             latencyLabel.setText("?");
             temperatureLabel.setText("?");
+            signalLabel.setText("?");
+            sourceChoiceBox.setDisable(false);
             connectButton.setText(CONNECT);
         }
 
         event.consume();
     }
 
+    @FXML
+    private void onPush(ActionEvent event) {
+        client.setMode(pushCheckBox.isSelected() ? SensorClient.Mode.PUSH : SensorClient.Mode.POLL);
+        event.consume();
+    }
+
     @FXML
     private void onRecord(ActionEvent event) {
         if (RECORD.equals(recordButton.getText())) {
@@ -377,20 +499,14 @@ public class MainController {
         if (selectedDirectory != null) {
             String path = selectedDirectory.getAbsolutePath();
 
-            File dir = new File(path);
-            List<File> dirs = Collections.singletonList(dir);
-            logger = new Logger(dirs);
-            log = new ADS11xxOutputStream[sensors.analog.length];
-
             try {
-                for (int i = 0; i < sensors.analog.length; i++) {
-                    log[i] = new ADS11xxOutputStream(logger.create("A" + i + ".log"));
-                }
-            } catch (FileNotFoundException e) {
+                RecordingHeader.Encoding encoding = compressCheckBox.isSelected()
+                        ? RecordingHeader.Encoding.GORILLA
+                        : RecordingHeader.Encoding.RAW;
+                recorder.start(new File(path), sensors.analog.length, encoding);
+            } catch (IOException e) {
                 e.printStackTrace();
 
-                logger.close();
-
                 Alert alert = new Alert(Alert.AlertType.ERROR);
                 alert.setTitle(Launcher.NAME);
                 alert.setHeaderText("Unable to start recording.");
@@ -403,19 +519,15 @@ public class MainController {
             prefs.put("logDir", path);
 
             recordButton.setText(STOP);
-            isRecording = true;
+            compressCheckBox.setDisable(true);
         }
     }
 
     private void stopRecording() {
-        isRecording = false;
-
         recordButton.setText(RECORD);
-
-        if (logger != null) {
-            logger.close();
-            logger = null;
-        }
+        recorder.stop();
+        recordStatusLabel.setText("");
+        compressCheckBox.setDisable(false);
     }
 
     private void startStatusThread() {
@@ -490,14 +602,34 @@ public class MainController {
 
     private void saveSettings() {
         Preferences prefs = Preferences.userRoot().node(this.getClass().getName());
-        prefs.put("host", hostTextField.getText());
+        if (sourceChoiceBox.getValue().isRadio()) {
+            device = hostTextField.getText();
+        } else {
+            host = hostTextField.getText();
+        }
+        prefs.put("source", sourceChoiceBox.getValue().name());
+        prefs.put("host", host);
+        prefs.put("device", device);
         prefs.putInt("frequency", (int) frequencySlider.getValue());
+        prefs.putBoolean("push", pushCheckBox.isSelected());
+        prefs.putBoolean("compress", compressCheckBox.isSelected());
     }
 
     private void loadSettings() {
         Preferences prefs = Preferences.userRoot().node(this.getClass().getName());
-        hostTextField.setText(prefs.get("host", "raspberrypi"));
+        host = prefs.get("host", "raspberrypi");
+        device = prefs.get("device", "/dev/ttyUSB0");
+        Source source;
+        try {
+            source = Source.valueOf(prefs.get("source", Source.NETWORK.name()));
+        } catch (IllegalArgumentException e) {
+            source = Source.NETWORK;
+        }
+        sourceChoiceBox.setValue(source);
+        hostTextField.setText(source.isRadio() ? device : host);
         frequencySlider.setValue(prefs.getInt("frequency", 1));
+        pushCheckBox.setSelected(prefs.getBoolean("push", false));
+        compressCheckBox.setSelected(prefs.getBoolean("compress", false));
     }
 
     /**
@@ -512,7 +644,11 @@ public class MainController {
         alert.setContentText("Are you sure you want to quit?");
 
         Optional<ButtonType> result = alert.showAndWait();
-        return result.isPresent() && result.get() == ButtonType.OK;
+        if (result.isPresent() && result.get() == ButtonType.OK) {
+            recorder.stop(); // write out any queued samples
+            return true;
+        }
+        return false;
     }
 
 }
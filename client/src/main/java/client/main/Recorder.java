@@ -0,0 +1,152 @@
+package client.main;
+
+import edu.sdsu.rocket.core.helpers.Logger;
+import edu.sdsu.rocket.core.io.RecordingHeader;
+import edu.sdsu.rocket.core.io.RecordingWriter;
+import edu.sdsu.rocket.core.io.SampleLogWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records analog samples to a directory without blocking the thread that receives them.
+ *
+ * Samples are offered from the network thread to a lock-free queue per channel and interleaved in the blocks of a
+ * single recording by the {@link SampleLogWriter} thread, so disk latency never reaches the network or FX threads. A
+ * sample is dropped (and counted) if its queue is full rather than stalling the receiver; write errors are counted
+ * rather than interrupting the session.
+ */
+public class Recorder {
+
+    public static final String FILENAME = "recording.rec";
+    private static final String UNIT = "mV";
+
+    private Logger logger;
+    private RecordingWriter recording;
+    private SampleLogWriter writer;
+    private volatile SampleLogWriter.Channel[] channels;
+
+    // status, only accessed by FX thread
+    private long statusTime; // nanoseconds
+    private long statusWritten;
+    private long statusBytes;
+
+    /**
+     * Creates a recording of the channels (A0, A1, ...) in the directory and starts the writer thread.
+     *
+     * @param encoding Encoding of the recording's blocks (e.g. compressed for long sessions).
+     */
+    public void start(File directory, int channelCount, RecordingHeader.Encoding encoding) throws IOException {
+        if (writer != null) {
+            throw new IllegalStateException(getClass().getSimpleName() + " already started");
+        }
+
+        // the server's device configs are not sent to the client and timestamps are relative to the server's start
+        RecordingHeader header = new RecordingHeader().setEncoding(encoding);
+        for (int i = 0; i < channelCount; i++) {
+            header.add(new RecordingHeader.Channel("A" + i, UNIT, 0, 0f, 0f));
+        }
+
+        Logger logger = new Logger(Collections.singletonList(directory));
+        RecordingWriter recording;
+        try {
+            recording = new RecordingWriter(logger.createChannel(FILENAME), header);
+        } catch (IOException e) {
+            logger.close();
+            throw e;
+        }
+        SampleLogWriter writer = new SampleLogWriter(recording, SampleLogWriter.DEFAULT_QUEUE_CAPACITY);
+        SampleLogWriter.Channel[] channels = new SampleLogWriter.Channel[channelCount];
+        for (int i = 0; i < channelCount; i++) {
+            channels[i] = writer.add("A" + i);
+        }
+        writer.setFlushInterval(250, TimeUnit.MILLISECONDS);
+        writer.start();
+
+        this.logger = logger;
+        this.recording = recording;
+        this.writer = writer;
+        statusTime = System.nanoTime();
+        statusWritten = 0;
+        statusBytes = 0;
+        this.channels = channels; // publish last so samples are only offered to a running writer
+    }
+
+    /**
+     * Stops recording after every queued sample has been written and the recording finished.
+     */
+    public void stop() {
+        channels = null;
+        if (writer != null) {
+            writer.stop();
+            writer = null;
+            recording = null;
+        }
+        if (logger != null) {
+            logger.close();
+            logger = null;
+        }
+    }
+
+    public boolean isRecording() {
+        return channels != null;
+    }
+
+    /**
+     * Queues a sample for writing; never blocks. Must only be called from one thread.
+     *
+     * @return {@code false} if not recording or the sample was dropped.
+     */
+    public boolean record(int channel, long timestamp, float value) {
+        SampleLogWriter.Channel[] channels = this.channels;
+        return channels != null && channel < channels.length && channels[channel].writeValue(timestamp, value);
+    }
+
+    /**
+     * Summarizes write throughput since the previous call along with the current backlog and drop counts; called
+     * periodically from the FX thread.
+     */
+    public String getStatus() {
+        SampleLogWriter.Channel[] channels = this.channels;
+        if (channels == null) {
+            return "";
+        }
+
+        long written = 0;
+        long backlog = 0;
+        long dropped = 0;
+        long errors = writer.getErrors();
+        for (SampleLogWriter.Channel channel : channels) {
+            written += channel.getWritten();
+            backlog += channel.getQueueDepth();
+            dropped += channel.getDropped();
+            errors += channel.getErrors();
+        }
+
+        long bytes = recording.getBytesWritten();
+        long now = System.nanoTime();
+        double seconds = (now - statusTime) / 1e9;
+        double rate = seconds > 0 ? (written - statusWritten) / seconds : 0;
+        double byteRate = seconds > 0 ? (bytes - statusBytes) / seconds : 0;
+        statusTime = now;
+        statusWritten = written;
+        statusBytes = bytes;
+
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format("%.0f S/s (%.1f KB/s), backlog %d, dropped %d",
+                rate, byteRate / 1024, backlog, dropped));
+        if (errors != 0) {
+            builder.append(", errors ").append(errors);
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public String toString() {
+        SampleLogWriter writer = this.writer;
+        return getClass().getSimpleName() + ": " + (writer == null ? "stopped" : writer.toString());
+    }
+
+}
@@ -0,0 +1,92 @@
+package client.main;
+
+import edu.sdsu.rocket.core.helpers.SampleRing;
+import edu.sdsu.rocket.core.helpers.ValueTranslator;
+import javafx.collections.ObservableList;
+import javafx.scene.chart.XYChart;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Strip chart series backed by a {@link SampleRing} of the newest samples.
+ *
+ * Samples may be added from a single (e.g. network) thread at any rate. {@link #render()} is called from the FX
+ * thread, typically once per frame, and copies the newest samples into preallocated data points whose X values never
+ * change, so samples are neither boxed into new points nor reindexed as they arrive.
+ */
+public class StripChartSeries {
+
+    private final int size;
+    private final SampleRing ring;
+    private final SampleRing.Batch batch; // only accessed by FX thread
+    private final XYChart.Series<Number, Number> series = new XYChart.Series<>();
+    private final List<XYChart.Data<Number, Number>> points;
+
+    private ValueTranslator translator;
+    private long rendered; // sequence of newest sample rendered
+    private boolean isInvalid = true;
+
+    /**
+     * @param size Number of points displayed.
+     */
+    public StripChartSeries(int size) {
+        this.size = size;
+        ring = new SampleRing(size);
+        batch = new SampleRing.Batch(size);
+        points = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            points.add(new XYChart.Data<>(i, 0f));
+        }
+    }
+
+    public XYChart.Series<Number, Number> getSeries() {
+        return series;
+    }
+
+    /**
+     * Adds a sample; must only be called from one thread.
+     *
+     * @param timestamp Nanoseconds.
+     */
+    public void add(long timestamp, float value) {
+        ring.add(timestamp, value);
+    }
+
+    /**
+     * Sets the translation applied to values when rendered ({@code null} to display raw values).
+     */
+    public void setTranslator(ValueTranslator translator) {
+        this.translator = translator;
+        isInvalid = true;
+    }
+
+    /**
+     * Updates the points from the newest samples if any were added since the last render.
+     *
+     * @return {@code true} if the points were updated.
+     */
+    public boolean render() {
+        long sequence = ring.getSequence();
+        if (sequence == rendered && !isInvalid) {
+            return false;
+        }
+
+        int count = ring.read(Math.max(0, sequence - size), batch);
+        ObservableList<XYChart.Data<Number, Number>> data = series.getData();
+        if (data.size() < count) {
+            data.addAll(points.subList(data.size(), count)); // only until the chart is full
+        }
+
+        ValueTranslator translator = this.translator;
+        for (int i = 0; i < count; i++) {
+            float value = batch.values[i];
+            points.get(i).setYValue(translator == null ? value : translator.translate(value));
+        }
+
+        rendered = batch.last();
+        isInvalid = false;
+        return true;
+    }
+
+}
@@ -0,0 +1,83 @@
+package client.main;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalesces UI updates marked from any thread into at most one pending {@link Platform#runLater(Runnable)}.
+ *
+ * Each kind of update is a bit of a dirty mask. Marking ORs bits into the mask and only schedules a pulse if the mask
+ * was clean; the pulse takes (and clears) every bit marked so far and passes them to the handler on the FX thread,
+ * which then reads the latest state. Any number of marks between pulses therefore cost a single update, and marking
+ * does not allocate.
+ */
+public class UpdateDispatcher {
+
+    public interface Handler {
+        /**
+         * Called from the FX thread.
+         *
+         * @param mask Bits marked since the previous pulse.
+         */
+        void onUpdate(int mask);
+    }
+
+    private final Handler handler;
+    private final AtomicInteger dirty = new AtomicInteger();
+    private final AtomicLong marks = new AtomicLong();
+    private volatile long pulses;
+
+    private final Runnable pulse = new Runnable() {
+        @Override
+        public void run() {
+            int mask = dirty.getAndSet(0);
+            if (mask != 0) {
+                pulses++;
+                handler.onUpdate(mask);
+            }
+        }
+    };
+
+    public UpdateDispatcher(Handler handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * Marks the updates as pending; may be called from any thread at any rate.
+     *
+     * @param bits Kinds of update (non-zero).
+     */
+    public void mark(int bits) {
+        marks.incrementAndGet();
+        int previous;
+        do {
+            previous = dirty.get();
+        } while (!dirty.compareAndSet(previous, previous | bits));
+
+        if (previous == 0) {
+            Platform.runLater(pulse); // a pulse is only pending while the mask is dirty
+        }
+    }
+
+    /**
+     * Number of times updates were marked.
+     */
+    public long getMarkCount() {
+        return marks.get();
+    }
+
+    /**
+     * Number of updates run on the FX thread.
+     */
+    public long getPulseCount() {
+        return pulses;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + ": marks=" + marks.get() + ", pulses=" + pulses;
+    }
+
+}
@@ -0,0 +1,340 @@
+package client.main;
+
+import edu.sdsu.rocket.core.helpers.SampleRing;
+import edu.sdsu.rocket.core.helpers.ValueTranslator;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.input.MouseButton;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.scene.text.TextAlignment;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Waveform of every sample of a channel drawn on a {@link Canvas}.
+ *
+ * Samples are buffered in a {@link SampleRing} by a single (e.g. network) thread and mirrored into primitive arrays
+ * on the FX thread when rendered. Each pixel column is drawn from the minimum to the maximum of the samples it spans,
+ * so spikes remain visible however many samples share a column. Scrolling zooms the time span, dragging pans back
+ * through the buffered history and double-clicking returns to the live view; none of these allocate.
+ */
+public class WaveformView extends Region {
+
+    public static final int DEFAULT_CAPACITY = 1 << 16; // samples, over a minute at 860 SPS
+    public static final long DEFAULT_SPAN = TimeUnit.SECONDS.toNanos(10);
+    private static final long MINIMUM_SPAN = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long MAXIMUM_SPAN = TimeUnit.MINUTES.toNanos(5);
+    private static final double ZOOM_FACTOR = 1.25;
+    private static final int GRID_DIVISIONS = 4;
+    private static final double PADDING = 4;
+
+    private static final Color BACKGROUND_COLOR = Color.WHITE;
+    private static final Color GRID_COLOR = Color.gray(0.9);
+    private static final Color TEXT_COLOR = Color.gray(0.4);
+    private static final Color WAVEFORM_COLOR = Color.rgb(0xF3, 0x62, 0x2D);
+
+    private final Canvas canvas = new Canvas();
+    private final SampleRing ring;
+
+    // mirror of the ring, only accessed by FX thread
+    private final SampleRing.Batch batch = new SampleRing.Batch(1024);
+    private final long[] timestamps;
+    private final float[] values;
+    private final int mask;
+    private long newest; // sequence of newest sample mirrored
+    private long oldest = 1; // sequence of oldest sample mirrored
+
+    // per pixel column envelope (grows with the canvas only)
+    private float[] minimums = new float[0];
+    private float[] maximums = new float[0];
+
+    private final String title;
+    private ValueTranslator translator;
+    private float lowerBound;
+    private float upperBound = 5000f;
+    private String lowerLabel = "0";
+    private String upperLabel = "5000";
+
+    private long span = DEFAULT_SPAN; // nanoseconds
+    private long end; // timestamp at the right edge when not live
+    private boolean isLive = true;
+    private String spanLabel;
+    private boolean isInvalid = true;
+
+    private double dragX;
+    private long dragEnd;
+
+    public WaveformView(String title) {
+        this(title, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity Number of samples retained (rounded up to a power of two).
+     */
+    public WaveformView(String title, int capacity) {
+        this.title = title;
+        ring = new SampleRing(capacity);
+        timestamps = new long[ring.capacity()];
+        values = new float[ring.capacity()];
+        mask = ring.capacity() - 1;
+        spanLabel = formatSpan(span);
+
+        getChildren().add(canvas);
+        setMinSize(0, 0);
+        setPrefSize(100, 100);
+
+        setOnScroll(event -> {
+            if (event.getDeltaY() == 0) return;
+            setSpan(event.getDeltaY() > 0 ? (long) (span / ZOOM_FACTOR) : (long) (span * ZOOM_FACTOR));
+            event.consume();
+        });
+        setOnMousePressed(event -> {
+            dragX = event.getX();
+            dragEnd = isLive ? newestTimestamp() : end;
+        });
+        setOnMouseDragged(event -> {
+            double width = canvas.getWidth();
+            if (width <= 0 || newest == 0) return;
+            long shift = (long) ((event.getX() - dragX) / width * span);
+            long e = dragEnd - shift;
+            if (e >= newestTimestamp()) {
+                isLive = true;
+            } else {
+                isLive = false;
+                end = Math.max(e, timestamps[(int) (oldest & mask)] + span);
+            }
+            isInvalid = true;
+            event.consume();
+        });
+        setOnMouseClicked(event -> {
+            if (event.getButton() == MouseButton.PRIMARY && event.getClickCount() == 2) {
+                isLive = true;
+                isInvalid = true;
+            }
+        });
+    }
+
+    /**
+     * Adds a sample; must only be called from one thread.
+     *
+     * @param timestamp Nanoseconds.
+     */
+    public void add(long timestamp, float value) {
+        ring.add(timestamp, value);
+    }
+
+    /**
+     * Sets the translation applied to values when drawn ({@code null} to draw raw values).
+     */
+    public void setTranslator(ValueTranslator translator) {
+        this.translator = translator;
+        isInvalid = true;
+    }
+
+    /**
+     * Sets the range of (translated) values shown.
+     */
+    public void setRange(float lowerBound, float upperBound, String unit) {
+        this.lowerBound = lowerBound;
+        this.upperBound = upperBound;
+        lowerLabel = format(lowerBound) + " " + unit;
+        upperLabel = format(upperBound) + " " + unit;
+        isInvalid = true;
+    }
+
+    /**
+     * @param span Duration shown across the width of the view (in nanoseconds).
+     */
+    public void setSpan(long span) {
+        span = Math.max(MINIMUM_SPAN, Math.min(span, MAXIMUM_SPAN));
+        if (this.span != span) {
+            this.span = span;
+            spanLabel = formatSpan(span);
+            isInvalid = true;
+        }
+    }
+
+    public long getSpan() {
+        return span;
+    }
+
+    public boolean isLive() {
+        return isLive;
+    }
+
+    @Override
+    protected void layoutChildren() {
+        double width = Math.floor(getWidth());
+        double height = Math.floor(getHeight());
+        if (canvas.getWidth() != width || canvas.getHeight() != height) {
+            canvas.setWidth(width);
+            canvas.setHeight(height);
+            int columns = (int) width;
+            if (minimums.length < columns) {
+                minimums = new float[columns];
+                maximums = new float[columns];
+            }
+            isInvalid = true;
+        }
+    }
+
+    /**
+     * Redraws the waveform if samples were added or the view changed; called from the FX thread once per frame.
+     *
+     * @return {@code true} if the waveform was redrawn.
+     */
+    public boolean render() {
+        boolean isUpdated = mirror();
+        if (!isInvalid && !(isUpdated && isLive)) {
+            return false;
+        }
+        isInvalid = false;
+        draw();
+        return true;
+    }
+
+    /**
+     * Copies samples added since the last render from the ring.
+     *
+     * @return {@code true} if any samples were copied.
+     */
+    private boolean mirror() {
+        boolean isUpdated = false;
+        int count;
+        while ((count = ring.read(newest, batch)) != 0) {
+            if (batch.first > newest + 1) {
+                oldest = batch.first; // samples were overwritten before they could be copied
+            }
+            for (int i = 0; i < count; i++) {
+                int index = (int) ((batch.first + i) & mask);
+                timestamps[index] = batch.timestamps[i];
+                values[index] = batch.values[i];
+            }
+            newest = batch.last();
+            oldest = Math.max(oldest, newest - mask);
+            isUpdated = true;
+        }
+        return isUpdated;
+    }
+
+    private long newestTimestamp() {
+        return timestamps[(int) (newest & mask)];
+    }
+
+    private void draw() {
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        double width = canvas.getWidth();
+        double height = canvas.getHeight();
+        int columns = (int) width;
+
+        gc.setFill(BACKGROUND_COLOR);
+        gc.fillRect(0, 0, width, height);
+
+        gc.setStroke(GRID_COLOR);
+        gc.setLineWidth(1);
+        for (int i = 0; i <= GRID_DIVISIONS; i++) {
+            double y = Math.floor(i * (height - 1) / GRID_DIVISIONS) + 0.5;
+            gc.strokeLine(0, y, width, y);
+        }
+
+        if (newest != 0 && columns > 0) {
+            long end = isLive ? newestTimestamp() : this.end;
+            long start = end - span;
+            envelope(start, columns);
+            stroke(gc, columns, height);
+        }
+
+        gc.setFill(TEXT_COLOR);
+        gc.setTextAlign(TextAlignment.LEFT);
+        gc.setTextBaseline(VPos.TOP);
+        gc.fillText(title, PADDING, PADDING);
+        gc.setTextAlign(TextAlignment.RIGHT);
+        gc.fillText(upperLabel, width - PADDING, PADDING);
+        gc.setTextBaseline(VPos.BOTTOM);
+        gc.fillText(lowerLabel, width - PADDING, height - PADDING);
+        gc.setTextAlign(TextAlignment.LEFT);
+        gc.fillText(isLive ? spanLabel : spanLabel + " (paused)", PADDING, height - PADDING);
+    }
+
+    /**
+     * Reduces the samples from {@code start} over the span to the raw minimum and maximum of each column (empty
+     * columns have a minimum greater than their maximum).
+     */
+    private void envelope(long start, int columns) {
+        Arrays.fill(minimums, 0, columns, Float.POSITIVE_INFINITY);
+        Arrays.fill(maximums, 0, columns, Float.NEGATIVE_INFINITY);
+
+        long end = start + span;
+        for (long sequence = first(start); sequence <= newest; sequence++) {
+            int index = (int) (sequence & mask);
+            long timestamp = timestamps[index];
+            if (timestamp > end) break;
+
+            int column = (int) Math.min(columns - 1, (timestamp - start) * columns / span);
+            float value = values[index];
+            if (value < minimums[column]) minimums[column] = value;
+            if (value > maximums[column]) maximums[column] = value;
+        }
+    }
+
+    /**
+     * Sequence of the first mirrored sample at or after the timestamp (timestamps are ascending).
+     */
+    private long first(long timestamp) {
+        long low = oldest;
+        long high = newest + 1;
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            if (timestamps[(int) (middle & mask)] < timestamp) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void stroke(GraphicsContext gc, int columns, double height) {
+        ValueTranslator translator = this.translator;
+        double scale = (height - 1) / (upperBound - lowerBound);
+
+        gc.setStroke(WAVEFORM_COLOR);
+        gc.beginPath();
+        boolean isStarted = false;
+        for (int column = 0; column < columns; column++) {
+            float min = minimums[column];
+            float max = maximums[column];
+            if (min > max) continue; // no samples
+
+            if (translator != null) {
+                min = translator.translate(min);
+                max = translator.translate(max);
+            }
+            double x = column + 0.5;
+            double y1 = height - 1 - (min - lowerBound) * scale;
+            double y2 = height - 1 - (max - lowerBound) * scale;
+            if (isStarted) {
+                gc.lineTo(x, y1);
+            } else {
+                gc.moveTo(x, y1);
+                isStarted = true;
+            }
+            gc.lineTo(x, y2);
+        }
+        gc.stroke();
+    }
+
+    private static String format(float value) {
+        return value == (long) value ? String.valueOf((long) value) : String.valueOf(value);
+    }
+
+    private static String formatSpan(long span) {
+        return span >= TimeUnit.SECONDS.toNanos(1)
+                ? String.format("%.1f s", span / 1e9)
+                : String.format("%.0f ms", span / 1e6);
+    }
+
+}
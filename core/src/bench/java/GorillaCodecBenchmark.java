@@ -0,0 +1,138 @@
+import edu.sdsu.rocket.core.io.GorillaCodec;
+import edu.sdsu.rocket.core.io.RecordingHeader;
+import edu.sdsu.rocket.core.io.RecordingWriter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Random;
+
+/**
+ * Measures the size and speed of the Gorilla codec, and of recordings written with each block encoding, on ADC samples
+ * at 860 SPS with 10 us of scheduling jitter and values quantized to the ADS1114's 0.1875 mV resolution.
+ *
+ * Timed by the wall clock on a single thread of the machine it runs on, so figures only apply to the flight computer
+ * when run on the Raspberry Pi itself (e.g. {@code gradle :core:bench} on the target); a development machine is
+ * several times faster. Usage: GorillaCodecBenchmark [seconds per measurement]
+ */
+public class GorillaCodecBenchmark {
+
+    private static final int COUNT = 100000; // samples per series
+    private static final int CHANNELS = 6;
+
+    private static volatile long sink; // keeps decoded results live
+
+    public static void main(String[] args) throws IOException {
+        double seconds = args.length > 0 ? Double.parseDouble(args[0]) : 2;
+        long[] timestamps = new long[COUNT];
+        float[] values = new float[COUNT];
+        adc(timestamps, values, new Random(1));
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(GorillaCodec.maxEncodedSize(COUNT));
+        GorillaCodec.Encoder encoder = new GorillaCodec.Encoder();
+        GorillaCodec.Decoder decoder = new GorillaCodec.Decoder();
+
+        encode(encoder, buffer, timestamps, values);
+        System.out.println(String.format("size: %.2f bytes/sample (raw recording %d)",
+                (double) buffer.position() / COUNT, RecordingWriter.RECORD_SIZE));
+
+        for (int pass = 0; pass < 2; pass++) { // the first pass warms up the JIT
+            String label = pass == 0 ? "warm up " : "";
+
+            long start = System.nanoTime();
+            long samples = 0;
+            do {
+                encode(encoder, buffer, timestamps, values);
+                samples += COUNT;
+            } while (System.nanoTime() - start < seconds * 1e9);
+            report(label + "encode", samples, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            samples = 0;
+            do {
+                buffer.flip();
+                decoder.reset(buffer);
+                long sum = 0;
+                for (int i = 0; i < COUNT; i++) {
+                    decoder.next();
+                    sum += decoder.getTimestamp() + Float.floatToRawIntBits(decoder.getValue());
+                }
+                sink = sum;
+                samples += COUNT;
+            } while (System.nanoTime() - start < seconds * 1e9);
+            report(label + "decode", samples, System.nanoTime() - start);
+
+            for (RecordingHeader.Encoding encoding : RecordingHeader.Encoding.values()) {
+                record(label, encoding, timestamps, values, seconds);
+            }
+        }
+    }
+
+    /**
+     * Writes the samples round-robin across the channels of a recording to a channel that discards them.
+     */
+    private static void record(String label, RecordingHeader.Encoding encoding, long[] timestamps, float[] values,
+                               double seconds) throws IOException {
+        RecordingHeader header = new RecordingHeader().setEncoding(encoding);
+        for (int i = 0; i < CHANNELS; i++) {
+            header.add(new RecordingHeader.Channel("A" + i, "mV", 0, 0f, 0f));
+        }
+        RecordingWriter recording = new RecordingWriter(new NullChannel(), header);
+        long start = System.nanoTime();
+        long samples = 0;
+        do {
+            for (int i = 0; i < COUNT; i++) {
+                recording.write(i % CHANNELS, timestamps[i], values[i]);
+            }
+            samples += COUNT;
+        } while (System.nanoTime() - start < seconds * 1e9);
+        recording.finish();
+        long elapsed = System.nanoTime() - start;
+        report(label + "record " + encoding.name().toLowerCase(), samples, elapsed);
+        System.out.println(String.format("  %.2f bytes/sample", (double) recording.getBytesWritten() / samples));
+    }
+
+    private static void encode(GorillaCodec.Encoder encoder, ByteBuffer buffer, long[] timestamps, float[] values) {
+        buffer.clear();
+        encoder.reset(buffer);
+        for (int i = 0; i < COUNT; i++) {
+            encoder.add(timestamps[i], values[i]);
+        }
+        encoder.finish();
+    }
+
+    private static void report(String name, long samples, long nanoseconds) {
+        System.out.println(String.format("%s: %.1f M samples/s", name, samples * 1e3 / nanoseconds));
+    }
+
+    /**
+     * 860 SPS with scheduling jitter, a slowly varying signal and 0.1875 mV quantization.
+     */
+    private static void adc(long[] timestamps, float[] values, Random random) {
+        long timestamp = 123456789L;
+        for (int i = 0; i < timestamps.length; i++) {
+            timestamp += 1162790 + random.nextInt(20000) - 10000;
+            timestamps[i] = timestamp;
+            values[i] = Math.round(2500 + 1000 * Math.sin(i / 500.0) + random.nextGaussian() * 2) * 0.1875f;
+        }
+    }
+
+    private static class NullChannel implements WritableByteChannel {
+        @Override
+        public int write(ByteBuffer src) {
+            int n = src.remaining();
+            src.position(src.limit());
+            return n;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+}
@@ -0,0 +1,135 @@
+package edu.sdsu.rocket.core.helpers;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A timestamped sample (64-bit nanosecond timestamp, {@code float} value and sequence number) that may be read
+ * consistently without locks.
+ *
+ * Implemented as a sequence lock: the version is odd while a write is in progress and readers retry until they observe
+ * the same even version before and after reading the fields. The sequence number of the sample is half the version, so
+ * it increases by one with every {@link #set(long, float)}.
+ *
+ * Only a single thread may write to a sample; any number of threads may read from it.
+ */
+public class AtomicSample {
+
+    /**
+     * Size of a sample when written to a {@link ByteBuffer} (in bytes).
+     */
+    public static final int BYTES = 8 + 4 + 8; // long timestamp + float value + long sequence
+
+    public static class Reading {
+        public long timestamp; // nanoseconds
+        public float value;
+        public long sequence;
+
+        @Override
+        public String toString() {
+            return "[" + timestamp + "," + value + "," + sequence + "]";
+        }
+    }
+
+    private volatile long version;
+    private volatile long timestamp;
+    private volatile float value;
+
+    public AtomicSample() {
+    }
+
+    public AtomicSample(long timestamp, float value) {
+        set(timestamp, value);
+    }
+
+    /**
+     * Sets the sample, incrementing the sequence number.
+     *
+     * @param timestamp Nanoseconds.
+     */
+    public void set(long timestamp, float value) {
+        set(timestamp, value, (version >>> 1) + 1);
+    }
+
+    /**
+     * Sets the sample with an explicit sequence number (e.g. when mirroring a remote sample).
+     *
+     * @param timestamp Nanoseconds.
+     */
+    public void set(long timestamp, float value, long sequence) {
+        version = version | 1; // odd, write in progress
+        this.timestamp = timestamp;
+        this.value = value;
+        version = sequence << 1;
+    }
+
+    /**
+     * Sets this sample to a consistent copy of {@code sample}, including its sequence number.
+     */
+    public void set(AtomicSample sample) {
+        long v, t;
+        float f;
+        do {
+            v = sample.version;
+            t = sample.timestamp;
+            f = sample.value;
+        } while ((v & 1) != 0 || v != sample.version);
+        set(t, f, v >>> 1);
+    }
+
+    /**
+     * Reads the sample consistently into {@code out}.
+     *
+     * @return {@code out}
+     */
+    public Reading get(Reading out) {
+        long v;
+        do {
+            v = version;
+            out.timestamp = timestamp;
+            out.value = value;
+        } while ((v & 1) != 0 || v != version);
+        out.sequence = v >>> 1;
+        return out;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public float getValue() {
+        return value;
+    }
+
+    public long getSequence() {
+        return version >>> 1;
+    }
+
+    /**
+     * Writes a consistent copy of the sample as timestamp, value and sequence ({@link #BYTES} bytes).
+     */
+    public void toByteBuffer(ByteBuffer buffer) {
+        long v, t;
+        float f;
+        do {
+            v = version;
+            t = timestamp;
+            f = value;
+        } while ((v & 1) != 0 || v != version);
+        buffer.putLong(t);
+        buffer.putFloat(f);
+        buffer.putLong(v >>> 1);
+    }
+
+    public void fromByteBuffer(ByteBuffer buffer) {
+        long t = buffer.getLong();
+        float f = buffer.getFloat();
+        long s = buffer.getLong();
+        set(t, f, s);
+    }
+
+    @Override
+    public String toString() {
+        return get(new Reading()).toString();
+    }
+
+}
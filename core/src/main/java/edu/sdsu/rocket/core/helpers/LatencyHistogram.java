@@ -0,0 +1,90 @@
+package edu.sdsu.rocket.core.helpers;
+
+import java.util.Locale;
+
+/**
+ * Histogram of latencies (in nanoseconds) with logarithmic buckets, each power of two being split into eight, so
+ * percentiles are reported to within 12.5% over the full range of a long without allocating while recording.
+ *
+ * Recorded by one thread; other threads may read a slightly stale view.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final long[] counts = new long[(64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS];
+    private volatile long count;
+    private volatile double total; // nanoseconds, as a long sum could overflow
+    private volatile long max;
+
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts[index(nanos)]++;
+        total += nanos;
+        if (nanos > max) max = nanos;
+        count++;
+    }
+
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * @return Largest value falling in the bucket.
+     */
+    static long highestValue(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int sub = index % SUB_BUCKETS;
+        int shift = exponent - SUB_BUCKET_BITS;
+        long lowest = (long) (SUB_BUCKETS + sub) << shift;
+        return lowest + ((1L << shift) - 1);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public long getMean() {
+        long count = this.count;
+        return count == 0 ? 0 : (long) (total / count);
+    }
+
+    /**
+     * @param percentile From 0 to 100.
+     * @return Upper bound of the bucket holding the percentile (nanoseconds), never more than the maximum.
+     */
+    public long getPercentile(double percentile) {
+        long count = this.count;
+        if (count == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highestValue(i), max);
+            }
+        }
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "n=%d, mean=%.1f us, p50=%.1f us, p99=%.1f us, p99.9=%.1f us, max=%.1f us",
+                count, getMean() / 1e3, getPercentile(50) / 1e3, getPercentile(99) / 1e3, getPercentile(99.9) / 1e3,
+                max / 1e3);
+    }
+
+}
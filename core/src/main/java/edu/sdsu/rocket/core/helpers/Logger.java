@@ -1,13 +1,21 @@
 package edu.sdsu.rocket.core.helpers;
 
+import edu.sdsu.rocket.core.io.ChannelMultiplexer;
+import edu.sdsu.rocket.core.io.DurableFileChannel;
+import edu.sdsu.rocket.core.io.Durability;
+import edu.sdsu.rocket.core.io.MirroredLogWriter;
 import edu.sdsu.rocket.core.io.OutputStreamMultiplexer;
+import edu.sdsu.rocket.core.io.SegmentedLogChannel;
 
 import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 public class Logger {
 
@@ -15,10 +23,33 @@ public class Logger {
     private static final DateFormat DATE_FORMAT = new SimpleDateFormat("yyyyMMddHHmmss");
 
     private final List<File> directories;
-    private final List<OutputStream> streams = new ArrayList<>();
+    private final List<Closeable> streams = new ArrayList<>();
+    private final MirroredLogWriter mirror;
+    private final List<WritableByteChannel> files = new ArrayList<>(); // durable channels of each directory
 
+    private Durability durability = Durability.BUFFERED;
+    private long forceInterval; // nanoseconds
+
+    /**
+     * Writes every directory in turn on the thread writing a log.
+     */
     public Logger(List<File> directories) {
         this.directories = appendTimestampDirectory(directories);
+        this.mirror = null;
+    }
+
+    /**
+     * Writes each directory from its own thread and bounded queue, the first directory being the primary.
+     *
+     * @param queueCapacity Number of bytes that may be queued per directory before the policy applies.
+     */
+    public Logger(List<File> directories, MirroredLogWriter.Policy policy, long queueCapacity) {
+        this.directories = appendTimestampDirectory(directories);
+        this.mirror = new MirroredLogWriter(policy, queueCapacity);
+        for (File directory : this.directories) {
+            mirror.add(directory.toString());
+        }
+        mirror.start();
     }
 
     private static List<File> appendTimestampDirectory(List<File> directories) {
@@ -38,7 +69,31 @@ public class Logger {
         return timestampDirectories;
     }
 
+    /**
+     * @return Writer of the directories or {@code null} if they are written on the caller's thread.
+     */
+    public MirroredLogWriter getMirror() {
+        return mirror;
+    }
+
+    /**
+     * Sets how the channels created from now on are forced to the device; text logs are left buffered.
+     *
+     * @param forceInterval Minimum time between forces in {@link Durability#PERIODIC} mode.
+     */
+    public void setDurability(Durability durability, long forceInterval, TimeUnit unit) {
+        this.durability = durability;
+        this.forceInterval = unit.toNanos(forceInterval);
+    }
+
     public OutputStream create(String filename) throws FileNotFoundException {
+        if (mirror != null) {
+            final List<WritableByteChannel> channels = new ArrayList<>();
+            for (File directory : directories) {
+                channels.add(new FileOutputStream(new File(directory + FILE_SEPARATOR + filename)).getChannel());
+            }
+            return Channels.newOutputStream(multiplex(channels));
+        }
         final OutputStreamMultiplexer multiplexer = new OutputStreamMultiplexer();
         for (File directory : directories) {
             File f = new File(directory + FILE_SEPARATOR + filename);
@@ -48,14 +103,79 @@ public class Logger {
         return multiplexer;
     }
 
+    public WritableByteChannel createChannel(String filename) throws FileNotFoundException {
+        final List<WritableByteChannel> channels = new ArrayList<>();
+        for (File directory : directories) {
+            File f = new File(directory + FILE_SEPARATOR + filename);
+            DurableFileChannel channel = new DurableFileChannel(f.getPath(), new FileOutputStream(f).getChannel(),
+                    durability, forceInterval, TimeUnit.NANOSECONDS);
+            channels.add(channel);
+            files.add(channel);
+        }
+        return multiplex(channels);
+    }
+
+    /**
+     * Creates a log written as preallocated, memory-mapped segments (e.g. A0.000.seg) in each directory.
+     *
+     * @param segmentSize Size of each segment (in bytes).
+     * @param rollInterval Maximum time a segment is written to (zero to roll only when full).
+     */
+    public WritableByteChannel createSegmentedChannel(String name, long segmentSize, long rollInterval, TimeUnit unit) throws IOException {
+        final List<WritableByteChannel> channels = new ArrayList<>();
+        try {
+            for (File directory : directories) {
+                SegmentedLogChannel channel = new SegmentedLogChannel(directory, name, segmentSize);
+                channel.setRollInterval(rollInterval, unit);
+                channel.setDurability(durability, forceInterval, TimeUnit.NANOSECONDS);
+                channels.add(channel);
+            }
+        } catch (IOException e) {
+            for (WritableByteChannel channel : channels) {
+                channel.close();
+            }
+            throw e;
+        }
+        files.addAll(channels);
+        return multiplex(channels);
+    }
+
+    /**
+     * Combines the channels of each directory into one, closed with the logger.
+     */
+    private WritableByteChannel multiplex(List<WritableByteChannel> channels) {
+        WritableByteChannel[] array = channels.toArray(new WritableByteChannel[channels.size()]);
+        WritableByteChannel multiplexer = mirror == null ? new ChannelMultiplexer(array) : mirror.createChannel(array);
+        streams.add(multiplexer);
+        return multiplexer;
+    }
+
     public void close() {
-        for (OutputStream stream : streams) {
+        for (Closeable stream : streams) {
             try {
                 stream.close();
             } catch (IOException e) {
                 e.printStackTrace();
             }
         }
+        if (mirror != null) {
+            mirror.stop();
+        }
+    }
+
+    /**
+     * Lists the write and force latencies of each durable channel.
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(getClass().getSimpleName()).append(": durability=").append(durability);
+        if (durability == Durability.PERIODIC) {
+            builder.append(" (").append(TimeUnit.NANOSECONDS.toMillis(forceInterval)).append(" ms)");
+        }
+        for (WritableByteChannel file : files) {
+            builder.append(System.lineSeparator()).append("  ").append(file);
+        }
+        return builder.toString();
     }
 
 }
@@ -0,0 +1,222 @@
+package edu.sdsu.rocket.core.helpers;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drift-free periodic timer based on absolute deadlines.
+ *
+ * Each period is measured from the previous deadline (not from when the caller finished its work) so the achieved
+ * rate does not drift. Waiting parks the thread until shortly before the deadline and then spins for the remainder
+ * (the spin threshold), trading a small amount of CPU for sub-millisecond accuracy.
+ *
+ * A timer is meant to be driven by a single thread; statistics may be read from any thread.
+ */
+public class PeriodicTimer {
+
+    public enum OverrunPolicy {
+        /**
+         * Run missed periods back-to-back until the schedule is caught up.
+         */
+        CATCH_UP,
+        /**
+         * Drop missed periods and resume at the next deadline in the future.
+         */
+        SKIP,
+    }
+
+    public static final long DEFAULT_SPIN_THRESHOLD = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private volatile long period; // nanoseconds
+    private volatile long spinThreshold = DEFAULT_SPIN_THRESHOLD; // nanoseconds
+    private volatile OverrunPolicy policy = OverrunPolicy.SKIP;
+
+    private volatile long deadline; // may be rebased by setPeriod from another thread
+
+    // statistics
+    private volatile long count;
+    private volatile long overruns;
+    private volatile long skipped;
+    private volatile long jitterSum; // nanoseconds
+    private volatile long jitterMax; // nanoseconds
+
+    public PeriodicTimer() {
+        this(0L);
+    }
+
+    /**
+     * @param period Nanoseconds between deadlines, 0 to never wait.
+     */
+    public PeriodicTimer(long period) {
+        setPeriod(period);
+        reset();
+    }
+
+    /**
+     * Sets the period, restarting the schedule if it changed (a deadline kept from the old period, e.g. from a period of
+     * 0 which never advances it, would otherwise be reported as an overrun or caught up in a burst).
+     */
+    public void setPeriod(long nanoseconds) {
+        if (nanoseconds < 0) {
+            throw new IllegalArgumentException("Period cannot be negative: " + nanoseconds);
+        }
+        if (nanoseconds != period) {
+            period = nanoseconds;
+            reset();
+        }
+    }
+
+    public long getPeriod() {
+        return period;
+    }
+
+    /**
+     * Sets the period from a frequency (in Hz).
+     */
+    public void setFrequency(double frequency) {
+        if (frequency <= 0) {
+            throw new IllegalArgumentException("Frequency must be positive: " + frequency);
+        }
+        setPeriod(Math.round(TimeUnit.SECONDS.toNanos(1) / frequency));
+    }
+
+    /**
+     * Sets how long before a deadline the timer stops parking and begins spinning (in nanoseconds).
+     */
+    public void setSpinThreshold(long nanoseconds) {
+        spinThreshold = nanoseconds;
+    }
+
+    public long getSpinThreshold() {
+        return spinThreshold;
+    }
+
+    public void setOverrunPolicy(OverrunPolicy policy) {
+        this.policy = policy;
+    }
+
+    public OverrunPolicy getOverrunPolicy() {
+        return policy;
+    }
+
+    /**
+     * Restarts the schedule such that the next deadline is one period from now.
+     */
+    public void reset() {
+        reset(System.nanoTime());
+    }
+
+    /**
+     * Restarts the schedule such that the next deadline is one period from the given time.
+     *
+     * @param now Current time (nanoseconds).
+     */
+    public void reset(long now) {
+        deadline = now + period;
+    }
+
+    public long getDeadline() {
+        return deadline;
+    }
+
+    public boolean isDue(long now) {
+        return now - deadline >= 0;
+    }
+
+    /**
+     * Waits for the next deadline then advances the schedule.
+     */
+    public void await() throws InterruptedException {
+        if (period == 0) {
+            count++;
+            return;
+        }
+        sleepUntil(deadline, spinThreshold);
+        advance(System.nanoTime());
+    }
+
+    /**
+     * Records the lateness of the current deadline and advances to the next deadline according to the overrun policy.
+     *
+     * @param now Current time (nanoseconds).
+     */
+    public void advance(long now) {
+        long late = now - deadline;
+        if (late > 0) {
+            jitterSum += late;
+            if (late > jitterMax) jitterMax = late;
+        }
+        count++;
+
+        deadline += period;
+        if (period != 0 && now - deadline >= 0) {
+            overruns++;
+            if (policy == OverrunPolicy.SKIP) {
+                long missed = (now - deadline) / period + 1;
+                deadline += missed * period;
+                skipped += missed;
+            }
+        }
+    }
+
+    /**
+     * Parks until {@code spinThreshold} nanoseconds before the deadline then spins until the deadline is reached.
+     *
+     * @param deadline {@link System#nanoTime()} to wait for.
+     * @param spinThreshold Nanoseconds before the deadline at which to stop parking.
+     */
+    public static void sleepUntil(long deadline, long spinThreshold) throws InterruptedException {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            if (remaining > spinThreshold) {
+                LockSupport.parkNanos(remaining - spinThreshold);
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getOverruns() {
+        return overruns;
+    }
+
+    public long getSkipped() {
+        return skipped;
+    }
+
+    /**
+     * Average lateness of deadlines (in nanoseconds).
+     */
+    public long getMeanJitter() {
+        long n = count;
+        return n == 0 ? 0 : jitterSum / n;
+    }
+
+    /**
+     * Maximum lateness of a deadline (in nanoseconds).
+     */
+    public long getMaxJitter() {
+        return jitterMax;
+    }
+
+    public void resetStatistics() {
+        count = 0;
+        overruns = 0;
+        skipped = 0;
+        jitterSum = 0;
+        jitterMax = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "jitter=" + TimeUnit.NANOSECONDS.toMicros(getMeanJitter()) + "/" + TimeUnit.NANOSECONDS.toMicros(jitterMax) + " us (mean/max)"
+                + ", overruns=" + overruns
+                + ", skipped=" + skipped;
+    }
+
+}
@@ -2,12 +2,13 @@ package edu.sdsu.rocket.core.helpers;
 
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Runs {@link #loop()} periodically using a {@link PeriodicTimer}, so the loop period is measured between absolute
+ * deadlines rather than from the end of each loop.
+ */
 public abstract class RateLimitedRunnable implements Runnable {
 	
-	private static final long NANOSECONDS_PER_MILLISECOND = 1000000L;
-
-	private long sleep_ms;
-	private long sleep_ns;
+	private final PeriodicTimer timer = new PeriodicTimer();
 
 	private final Object lock = new Object();
 	private boolean isPaused;
@@ -44,47 +45,42 @@ public abstract class RateLimitedRunnable implements Runnable {
 		if (frequency == 0f) {
 			throw new IllegalArgumentException("Frequency cannot be zero");
 		}
-
-        if (frequency > 60f) {
-            setSleepNanoseconds(Math.round(NANOSECONDS_PER_MILLISECOND * 1000f / frequency));
-        } else {
-            setSleep(Math.round(1000f / frequency));
-        }
+		timer.setFrequency(frequency);
 	}
 	
 	/**
-	 * Sets the duration runnable sleeps per loop (in milliseconds).
+	 * Sets the loop period (in milliseconds).
 	 */
 	public void setSleep(long milliseconds) {
-		sleep_ms = milliseconds;
-		sleep_ns = 0;
+		timer.setPeriod(TimeUnit.MILLISECONDS.toNanos(milliseconds));
 	}
 	
 	/**
-	 * Sets the duration runnable sleeps per loop (in nanoseconds).
+	 * Sets the loop period (in nanoseconds).
 	 */
 	public void setSleepNanoseconds(long nanoseconds) {
-		// http://stackoverflow.com/q/4300653/196486
-		if (nanoseconds >= NANOSECONDS_PER_MILLISECOND) {
-			sleep_ms = nanoseconds / NANOSECONDS_PER_MILLISECOND;
-			sleep_ns = TimeUnit.NANOSECONDS.toMillis(nanoseconds);
-		} else {
-			sleep_ms = 0;
-			sleep_ns = nanoseconds;
-		}
+		timer.setPeriod(nanoseconds);
 	}
 	
 	/**
-	 * Returns the duration runnable sleeps per loop (in milliseconds).
+	 * Returns the loop period (in milliseconds).
 	 * 
 	 * @return
 	 */
 	public long getSleep() {
-		return sleep_ms;
+		return TimeUnit.NANOSECONDS.toMillis(timer.getPeriod());
 	}
 	
 	public long getSleepNanoseconds() {
-		return sleep_ms * NANOSECONDS_PER_MILLISECOND + sleep_ns;
+		return timer.getPeriod();
+	}
+	
+	/**
+	 * Timer used to schedule the loop; may be used to adjust the spin threshold and overrun policy or to read jitter
+	 * and overrun statistics.
+	 */
+	public PeriodicTimer getTimer() {
+		return timer;
 	}
 	
 	public void pause() {
@@ -108,24 +104,18 @@ public abstract class RateLimitedRunnable implements Runnable {
 	
 	@Override
 	public final void run() {
+		timer.reset();
 		while (!Thread.currentThread().isInterrupted() && isRunning) {
 			try {
 				loop();
-				
-				if (sleep_ms != 0 || sleep_ns != 0) {
-					Thread.sleep(sleep_ms);
-
-                    // How to suspend a java thread for a small period of time, like 100 nanoseconds?
-                    // http://stackoverflow.com/a/11499351/196486
-
-					// busy wait for the nanosecond portion :(
-					long start = System.nanoTime();
-					while (start + sleep_ns >= System.nanoTime());
-				}
+				timer.await();
 				
 				synchronized (lock) {
-					while (isPaused) {
-						lock.wait();
+					if (isPaused) {
+						while (isPaused) {
+							lock.wait();
+						}
+						timer.reset(); // don't try to catch up on time spent paused
 					}
 				}
 			} catch (InterruptedException e) {
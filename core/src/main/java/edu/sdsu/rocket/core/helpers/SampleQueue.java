@@ -0,0 +1,94 @@
+package edu.sdsu.rocket.core.helpers;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded single-producer/single-consumer queue of {@code long} timestamp and {@code float} value pairs.
+ *
+ * Samples are stored in primitive arrays so that offering a sample never allocates. When the queue is full the
+ * offered sample is dropped (and counted) rather than blocking the producer.
+ */
+public class SampleQueue {
+
+    public interface SampleConsumer {
+        void accept(long timestamp, float value);
+    }
+
+    private final long[] timestamps;
+    private final float[] values;
+    private final int mask;
+
+    private final AtomicLong head = new AtomicLong(); // next index to read
+    private final AtomicLong tail = new AtomicLong(); // next index to write
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * @param capacity Maximum number of queued samples (rounded up to a power of two).
+     */
+    public SampleQueue(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) size <<= 1;
+
+        timestamps = new long[size];
+        values = new float[size];
+        mask = size - 1;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Adds a sample to the queue; must only be called from the producer thread.
+     *
+     * @return {@code false} if the queue was full and the sample was dropped.
+     */
+    public boolean offer(long timestamp, float value) {
+        long t = tail.get();
+        if (t - head.get() > mask) {
+            dropped.incrementAndGet();
+            return false;
+        }
+
+        int i = (int) (t & mask);
+        timestamps[i] = timestamp;
+        values[i] = value;
+        tail.lazySet(t + 1); // publish
+        return true;
+    }
+
+    /**
+     * Removes up to {@code max} samples, passing each to the consumer; must only be called from the consumer thread.
+     *
+     * @return Number of samples drained.
+     */
+    public int drain(SampleConsumer consumer, int max) {
+        long h = head.get();
+        int count = (int) Math.min(tail.get() - h, max);
+        for (int n = 0; n < count; n++) {
+            int i = (int) ((h + n) & mask);
+            consumer.accept(timestamps[i], values[i]);
+        }
+        head.lazySet(h + count);
+        return count;
+    }
+
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Number of samples dropped because the queue was full.
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+}
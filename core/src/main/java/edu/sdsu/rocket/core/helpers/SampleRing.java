@@ -0,0 +1,129 @@
+package edu.sdsu.rocket.core.helpers;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static java.lang.Float.floatToIntBits;
+import static java.lang.Float.intBitsToFloat;
+
+/**
+ * Single-writer/multi-reader ring of the most recent {@code long} timestamp and {@code float} value pairs.
+ *
+ * Each sample is assigned a sequence number (starting at 1) so that readers may request every sample after the last
+ * one they have seen. The writer never waits for readers; once the ring is full the oldest samples are overwritten and
+ * readers that fall behind skip ahead to the oldest sample still available.
+ */
+public class SampleRing {
+
+    /**
+     * Samples copied out of a ring by {@link #read(long, Batch)}.
+     */
+    public static class Batch {
+        public final long[] timestamps;
+        public final float[] values;
+        public long first; // sequence of first sample
+        public int count;
+
+        /**
+         * @param capacity Maximum number of samples to copy per read.
+         */
+        public Batch(int capacity) {
+            timestamps = new long[capacity];
+            values = new float[capacity];
+        }
+
+        public int capacity() {
+            return timestamps.length;
+        }
+
+        /**
+         * Sequence of the last sample in the batch (or {@code first - 1} if empty).
+         */
+        public long last() {
+            return first + count - 1;
+        }
+    }
+
+    private final AtomicLongArray timestamps;
+    private final AtomicIntegerArray values; // float bits
+    private final int mask;
+
+    private volatile long head; // sequence of newest sample, 0 if empty
+
+    /**
+     * @param capacity Number of samples retained (rounded up to a power of two).
+     */
+    public SampleRing(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) size <<= 1;
+
+        timestamps = new AtomicLongArray(size);
+        values = new AtomicIntegerArray(size);
+        mask = size - 1;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Adds a sample, overwriting the oldest if full; must only be called from the writer thread.
+     *
+     * @return Sequence number of the sample.
+     */
+    public long add(long timestamp, float value) {
+        long sequence = head + 1;
+        int i = (int) (sequence & mask);
+        timestamps.set(i, timestamp);
+        values.set(i, floatToIntBits(value));
+        head = sequence; // publish
+        return sequence;
+    }
+
+    /**
+     * Sequence number of the newest sample (0 if no samples have been added).
+     */
+    public long getSequence() {
+        return head;
+    }
+
+    /**
+     * Copies samples with a sequence greater than {@code after} into {@code batch}, oldest first, up to the capacity
+     * of the batch. If samples following {@code after} have already been overwritten, the batch starts at the oldest
+     * sample available (i.e. {@code batch.first > after + 1}).
+     *
+     * @return Number of samples copied.
+     */
+    public int read(long after, Batch batch) {
+        return read(after, batch, batch.capacity());
+    }
+
+    /**
+     * @param max Maximum number of samples to copy (no greater than the capacity of the batch).
+     * @see #read(long, Batch)
+     */
+    public int read(long after, Batch batch, int max) {
+        max = Math.min(max, batch.capacity());
+        for (;;) {
+            long newest = head;
+            long first = Math.max(after + 1, newest - mask + 1);
+            int count = (int) Math.max(0, Math.min(newest - first + 1, max));
+            for (int n = 0; n < count; n++) {
+                int i = (int) ((first + n) & mask);
+                batch.timestamps[n] = timestamps.get(i);
+                batch.values[n] = intBitsToFloat(values.get(i));
+            }
+
+            // the slot of a sample is reused once the writer begins adding the sample 'capacity' after it
+            if (count == 0 || first > head - mask) {
+                batch.first = first;
+                batch.count = count;
+                return count;
+            }
+        }
+    }
+
+}
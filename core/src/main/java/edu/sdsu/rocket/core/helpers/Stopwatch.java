@@ -20,5 +20,15 @@ public class Stopwatch {
     public long nanoSecondsElapsed() {
         return System.nanoTime() - start;
     }
+
+    /**
+     * Converts a time elapsed since reset to {@link System#nanoTime()}.
+     *
+     * @param elapsed Time elapsed since reset (nanoseconds).
+     * @return Value of {@link System#nanoTime()} at that time.
+     */
+    public long toNanoTime(long elapsed) {
+        return start + elapsed;
+    }
     
 }
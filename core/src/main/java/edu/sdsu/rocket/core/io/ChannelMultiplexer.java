@@ -0,0 +1,54 @@
+package edu.sdsu.rocket.core.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes the same bytes to each of the added channels.
+ */
+public class ChannelMultiplexer implements WritableByteChannel {
+
+    private final List<WritableByteChannel> channels = new ArrayList<>();
+    private boolean isOpen = true;
+
+    public ChannelMultiplexer(WritableByteChannel ... channels) {
+        for (WritableByteChannel channel : channels) {
+            this.channels.add(channel);
+        }
+    }
+
+    public void add(WritableByteChannel channel) {
+        channels.add(channel);
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        final int position = src.position();
+        final int limit = src.limit();
+        for (WritableByteChannel channel : channels) {
+            src.position(position);
+            while (src.hasRemaining()) {
+                channel.write(src);
+            }
+        }
+        src.position(limit);
+        return limit - position;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return isOpen;
+    }
+
+    @Override
+    public void close() throws IOException {
+        isOpen = false;
+        for (WritableByteChannel channel : channels) {
+            channel.close();
+        }
+    }
+
+}
@@ -0,0 +1,14 @@
+package edu.sdsu.rocket.core.io;
+
+/**
+ * How often logged data is forced from the page cache to the storage device, trading throughput for the amount of
+ * data lost on a power cut.
+ */
+public enum Durability {
+    /** Leave write back to the operating system (data may be lost up to its dirty page expiry, often 30 s). */
+    BUFFERED,
+    /** Force at most once per force interval, checked as each block is written. */
+    PERIODIC,
+    /** Force after every block written. */
+    BLOCK,
+}
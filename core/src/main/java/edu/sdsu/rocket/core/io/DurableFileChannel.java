@@ -0,0 +1,110 @@
+package edu.sdsu.rocket.core.io;
+
+import edu.sdsu.rocket.core.helpers.LatencyHistogram;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes a file, forcing it to the device as set by its {@link Durability} and recording the latency of each write and
+ * force so the cost of each mode can be measured.
+ *
+ * Only file content is forced ({@code fdatasync}), which includes the length of a file being appended to.
+ *
+ * Not thread safe; written by a single thread (e.g. a {@link SampleLogWriter}).
+ */
+public class DurableFileChannel implements WritableByteChannel {
+
+    private final String name;
+    private final FileChannel channel;
+    private final Durability durability;
+    private final long forceInterval; // nanoseconds
+
+    private long lastForce; // nanoseconds
+    private boolean isDirty;
+
+    private final LatencyHistogram writeLatency = new LatencyHistogram();
+    private final LatencyHistogram forceLatency = new LatencyHistogram();
+
+    /**
+     * @param forceInterval Minimum time between forces in {@link Durability#PERIODIC} mode.
+     */
+    public DurableFileChannel(String name, FileChannel channel, Durability durability, long forceInterval, TimeUnit unit) {
+        this.name = name;
+        this.channel = channel;
+        this.durability = durability;
+        this.forceInterval = unit.toNanos(forceInterval);
+        this.lastForce = System.nanoTime();
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        long start = System.nanoTime();
+        int count = 0;
+        while (src.hasRemaining()) {
+            count += channel.write(src);
+        }
+        long end = System.nanoTime();
+        writeLatency.record(end - start);
+        isDirty = true;
+
+        if (durability == Durability.BLOCK || durability == Durability.PERIODIC && end - lastForce >= forceInterval) {
+            force();
+        }
+        return count;
+    }
+
+    /**
+     * Forces data written since the last force to the device.
+     */
+    public void force() throws IOException {
+        if (!isDirty) return;
+        long start = System.nanoTime();
+        channel.force(false);
+        long end = System.nanoTime();
+        forceLatency.record(end - start);
+        lastForce = end;
+        isDirty = false;
+    }
+
+    public Durability getDurability() {
+        return durability;
+    }
+
+    public LatencyHistogram getWriteLatency() {
+        return writeLatency;
+    }
+
+    public LatencyHistogram getForceLatency() {
+        return forceLatency;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return channel.isOpen();
+    }
+
+    /**
+     * Forces any remaining data (unless {@link Durability#BUFFERED}) and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!channel.isOpen()) return;
+        try {
+            if (durability != Durability.BUFFERED) {
+                force();
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return name + ": durability=" + durability + ", write=[" + writeLatency + "], force=[" + forceLatency + "]";
+    }
+
+}
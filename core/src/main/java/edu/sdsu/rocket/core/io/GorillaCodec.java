@@ -0,0 +1,220 @@
+package edu.sdsu.rocket.core.io;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Gorilla style compression of a series of timestamped samples.
+ *
+ * Timestamps are encoded as the difference between successive deltas (delta-of-delta), which is zero or small for
+ * regularly sampled data; the buckets are sized for nanosecond timestamps with microseconds of scheduling jitter.
+ * Values are encoded as the XOR of their bits with the previous value's, storing only the meaningful bits and reusing
+ * the previous leading/trailing zero window when they fit. A series is written byte aligned so that several series
+ * may follow each other in a buffer.
+ *
+ * See "Gorilla: A Fast, Scalable, In-Memory Time Series Database" (Pelkonen et al., VLDB 2015).
+ */
+public class GorillaCodec {
+
+    /**
+     * Worst case encoded bits per sample: a 64-bit delta-of-delta with its 4-bit prefix and a value with a new window.
+     */
+    private static final int MAX_BITS_PER_SAMPLE = (4 + 64) + (2 + 5 + 5 + 32);
+
+    /**
+     * @return Maximum number of bytes a series of the number of samples may encode to.
+     */
+    public static int maxEncodedSize(int count) {
+        return (int) (((long) count * MAX_BITS_PER_SAMPLE + 7) / 8);
+    }
+
+    public static class Encoder {
+
+        private ByteBuffer out;
+        private long bits; // pending bits (low order)
+        private int pending; // number of pending bits
+
+        private int count;
+        private long timestamp;
+        private long delta;
+        private int value;
+        private int leading;
+        private int trailing;
+
+        /**
+         * Starts a series at the position of the buffer.
+         */
+        public void reset(ByteBuffer out) {
+            this.out = out;
+            bits = 0;
+            pending = 0;
+            count = 0;
+        }
+
+        public void add(long timestamp, float value) {
+            int valueBits = Float.floatToRawIntBits(value);
+            if (count == 0) {
+                write(timestamp >>> 32, 32);
+                write(timestamp, 32);
+                write(valueBits, 32);
+                delta = 0;
+                leading = Integer.MAX_VALUE; // no window
+            } else {
+                long delta = timestamp - this.timestamp;
+                writeDeltaOfDelta(delta - this.delta);
+                this.delta = delta;
+                writeXor(valueBits ^ this.value);
+            }
+            this.timestamp = timestamp;
+            this.value = valueBits;
+            count++;
+        }
+
+        /**
+         * Writes any pending bits, padding the series to a whole byte.
+         */
+        public void finish() {
+            if (pending > 0) {
+                out.put((byte) (bits << (8 - pending)));
+                pending = 0;
+            }
+        }
+
+        private void writeDeltaOfDelta(long dod) {
+            if (dod == 0) {
+                write(0b0, 1);
+            } else if (dod >= -(1 << 11) && dod < (1 << 11)) {
+                write(0b10, 2);
+                write(dod, 12);
+            } else if (dod >= -(1 << 19) && dod < (1 << 19)) {
+                write(0b110, 3);
+                write(dod, 20);
+            } else if (dod >= Integer.MIN_VALUE && dod <= Integer.MAX_VALUE) {
+                write(0b1110, 4);
+                write(dod, 32);
+            } else {
+                write(0b1111, 4);
+                write(dod >>> 32, 32);
+                write(dod, 32);
+            }
+        }
+
+        private void writeXor(int xor) {
+            if (xor == 0) {
+                write(0b0, 1);
+                return;
+            }
+            int leading = Integer.numberOfLeadingZeros(xor);
+            int trailing = Integer.numberOfTrailingZeros(xor);
+            if (leading >= this.leading && trailing >= this.trailing) {
+                write(0b10, 2);
+                write(xor >>> this.trailing, 32 - this.leading - this.trailing);
+            } else {
+                int length = 32 - leading - trailing;
+                write(0b11, 2);
+                write(leading, 5);
+                write(length - 1, 5);
+                write(xor >>> trailing, length);
+                this.leading = leading;
+                this.trailing = trailing;
+            }
+        }
+
+        /**
+         * @param count Number of low order bits of the value to write (at most 32).
+         */
+        private void write(long value, int count) {
+            bits = (bits << count) | (value & (-1L >>> (64 - count)));
+            pending += count;
+            while (pending >= 8) {
+                pending -= 8;
+                out.put((byte) (bits >>> pending));
+            }
+        }
+    }
+
+    public static class Decoder {
+
+        private ByteBuffer in;
+        private long bits;
+        private int available;
+
+        private int count;
+        private long timestamp;
+        private long delta;
+        private int value;
+        private int leading;
+        private int trailing;
+
+        /**
+         * Starts reading a series at the position of the buffer.
+         */
+        public void reset(ByteBuffer in) {
+            this.in = in;
+            bits = 0;
+            available = 0;
+            count = 0;
+        }
+
+        /**
+         * Decodes the next sample of the series; the timestamp and value are then available from
+         * {@link #getTimestamp()} and {@link #getValue()}. After the last sample the buffer is positioned after the
+         * series.
+         */
+        public void next() {
+            if (count == 0) {
+                timestamp = (read(32) << 32) | read(32);
+                value = (int) read(32);
+                delta = 0;
+            } else {
+                delta += readDeltaOfDelta();
+                timestamp += delta;
+                value ^= readXor();
+            }
+            count++;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public float getValue() {
+            return Float.intBitsToFloat(value);
+        }
+
+        private long readDeltaOfDelta() {
+            if (read(1) == 0) return 0;
+            if (read(1) == 0) return signed(read(12), 12);
+            if (read(1) == 0) return signed(read(20), 20);
+            if (read(1) == 0) return signed(read(32), 32);
+            return (read(32) << 32) | read(32);
+        }
+
+        private int readXor() {
+            if (read(1) == 0) return 0;
+            if (read(1) == 0) {
+                return (int) read(32 - leading - trailing) << trailing;
+            }
+            leading = (int) read(5);
+            int length = (int) read(5) + 1;
+            trailing = 32 - leading - length;
+            return (int) read(length) << trailing;
+        }
+
+        /**
+         * @param count Number of bits to read (at most 32).
+         */
+        private long read(int count) {
+            while (available < count) {
+                bits = (bits << 8) | (in.get() & 0xFF);
+                available += 8;
+            }
+            available -= count;
+            return (bits >>> available) & (-1L >>> (64 - count));
+        }
+
+        private static long signed(long value, int bits) {
+            return (value << (64 - bits)) >> (64 - bits);
+        }
+    }
+
+}
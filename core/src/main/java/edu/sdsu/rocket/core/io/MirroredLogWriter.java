@@ -0,0 +1,412 @@
+package edu.sdsu.rocket.core.io;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes mirrored logs through one thread and bounded queue per target (e.g. per log directory), so a slow or failing
+ * device only delays the copies of the logs on that device.
+ *
+ * Each write to a {@link Channel} is copied once and queued to every target. The first target is the primary and
+ * always waits for space in its queue, so it receives every byte; the {@link Policy} decides what happens when the
+ * queue of one of the other targets (mirrors) is full.
+ *
+ * Nothing is printed from the writer threads, as the logs written may include {@link System#err}; errors are counted
+ * per target and reported by {@link #toString()}.
+ */
+public class MirroredLogWriter {
+
+    public enum Policy {
+        /** Wait for space, keeping mirrors identical at the cost of stalling writers behind the slowest target. */
+        BLOCK,
+        /** Drop the write for that mirror only, leaving a gap in its copy of the log. */
+        DROP,
+        /** Stop writing every mirror for the rest of the session; their copies end where the first fell behind. */
+        PRIMARY_ONLY,
+    }
+
+    public static final long DEFAULT_QUEUE_CAPACITY = 4L * 1024 * 1024; // bytes
+
+    private final Policy policy;
+    private final long queueCapacity;
+    private final List<Target> targets = new ArrayList<>();
+    private volatile boolean isDegraded;
+
+    /**
+     * @param queueCapacity Number of bytes that may be queued per target before the policy applies.
+     */
+    public MirroredLogWriter(Policy policy, long queueCapacity) {
+        this.policy = policy;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Adds a target, the first being the primary.
+     */
+    public void add(String name) {
+        targets.add(new Target(name));
+    }
+
+    public List<Target> getTargets() {
+        return targets;
+    }
+
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * @return {@code true} if the mirrors were abandoned under {@link Policy#PRIMARY_ONLY}.
+     */
+    public boolean isDegraded() {
+        return isDegraded;
+    }
+
+    /**
+     * Mirrors writes to one channel per target (in the order the targets were added).
+     */
+    public Channel createChannel(WritableByteChannel ... channels) {
+        if (channels.length != targets.size()) {
+            throw new IllegalArgumentException("Expected " + targets.size() + " channels, got " + channels.length);
+        }
+        return new Channel(channels);
+    }
+
+    public void start() {
+        for (Target target : targets) {
+            target.start();
+        }
+    }
+
+    /**
+     * Stops the writer threads after everything queued has been written.
+     */
+    public void stop() {
+        for (Target target : targets) {
+            target.stop();
+        }
+    }
+
+    private void degrade() {
+        isDegraded = true;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < targets.size(); i++) {
+            if (i != 0) builder.append("; ");
+            builder.append(targets.get(i));
+        }
+        return getClass().getSimpleName() + ": policy=" + policy + (isDegraded ? " (degraded)" : "")
+                + ", [" + builder.toString() + "]";
+    }
+
+    /**
+     * A write, or the closing of a channel, queued to a target.
+     */
+    private static class Operation {
+        final WritableByteChannel channel;
+        final ByteBuffer data; // null to close the channel
+        final long time; // nanoseconds
+
+        Operation(WritableByteChannel channel, ByteBuffer data, long time) {
+            this.channel = channel;
+            this.data = data;
+            this.time = time;
+        }
+
+        int size() {
+            return data == null ? 0 : data.remaining();
+        }
+    }
+
+    public class Target implements Runnable {
+
+        private final String name;
+        private final ArrayDeque<Operation> queue = new ArrayDeque<>(); // guarded by this
+        private long queued; // bytes, guarded by this
+        private boolean isRunning; // guarded by this
+        private Thread thread;
+
+        private volatile long maxQueued;
+        private volatile long maxLagNanos;
+        private volatile long writes;
+        private volatile long bytes;
+        private volatile long dropped;
+        private volatile long droppedBytes;
+        private volatile long errors;
+        private volatile IOException lastError;
+
+        private Target(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        private synchronized void start() {
+            if (thread != null) {
+                throw new IllegalStateException(name + " already started");
+            }
+            isRunning = true;
+            thread = new Thread(this);
+            thread.setName(MirroredLogWriter.class.getSimpleName() + "-" + name);
+            thread.start();
+        }
+
+        private void stop() {
+            Thread thread;
+            synchronized (this) {
+                isRunning = false;
+                notifyAll();
+                thread = this.thread;
+            }
+            if (thread != null) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    System.err.println(e);
+                }
+            }
+        }
+
+        /**
+         * Queues an operation, a write larger than the capacity being accepted into an empty queue.
+         *
+         * @param wait Wait for space rather than giving up.
+         * @return {@code false} if the queue is full and not waiting.
+         * @throws ClosedChannelException if the target is not running.
+         */
+        private synchronized boolean offer(Operation operation, boolean wait) throws IOException {
+            int size = operation.size();
+            while (isRunning && queued != 0 && queued + size > queueCapacity) {
+                if (!wait) {
+                    dropped++;
+                    droppedBytes += size;
+                    return false;
+                }
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException();
+                }
+            }
+            if (!isRunning) {
+                throw new ClosedChannelException();
+            }
+            queue.add(operation);
+            queued += size;
+            if (queued > maxQueued) {
+                maxQueued = queued;
+            }
+            notifyAll();
+            return true;
+        }
+
+        private synchronized void skip(int size) {
+            dropped++;
+            droppedBytes += size;
+        }
+
+        /**
+         * Writes queued operations until stopped and the queue is empty. Interrupting the thread stops the target
+         * after what is queued has been written.
+         */
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    Operation operation;
+                    synchronized (this) {
+                        while (isRunning && queue.isEmpty()) {
+                            try {
+                                wait();
+                            } catch (InterruptedException e) {
+                                isRunning = false; // fail new writes rather than leave them waiting
+                                notifyAll();
+                            }
+                        }
+                        operation = queue.peek(); // stays queued (and counted) until written
+                        if (operation == null) return;
+                    }
+                    perform(operation);
+                }
+            } finally {
+                synchronized (this) {
+                    isRunning = false;
+                    queue.clear();
+                    queued = 0;
+                    notifyAll();
+                }
+            }
+        }
+
+        private void perform(Operation operation) {
+            maxLagNanos = Math.max(maxLagNanos, System.nanoTime() - operation.time);
+            int size = operation.size();
+            try {
+                if (operation.data == null) {
+                    operation.channel.close();
+                } else {
+                    while (operation.data.hasRemaining()) {
+                        operation.channel.write(operation.data);
+                    }
+                    writes++;
+                    bytes += size;
+                }
+            } catch (IOException e) {
+                errors++;
+                lastError = e;
+            } catch (RuntimeException e) {
+                errors++;
+                lastError = new IOException(e);
+            }
+
+            synchronized (this) {
+                queue.poll();
+                queued -= size;
+                notifyAll();
+            }
+        }
+
+        /**
+         * @return Number of bytes queued (including a write in progress).
+         */
+        public synchronized long getQueued() {
+            return queued;
+        }
+
+        /**
+         * @return Age of the oldest queued write (nanoseconds).
+         */
+        public long getLagNanos() {
+            Operation head;
+            synchronized (this) {
+                head = queue.peek();
+            }
+            return head == null ? 0 : System.nanoTime() - head.time;
+        }
+
+        public long getMaxLagNanos() {
+            return maxLagNanos;
+        }
+
+        public long getWrites() {
+            return writes;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        /**
+         * @return Number of writes dropped because the queue was full or the mirror was abandoned.
+         */
+        public long getDropped() {
+            return dropped;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public IOException getLastError() {
+            return lastError;
+        }
+
+        @Override
+        public String toString() {
+            IOException lastError = this.lastError;
+            return name + ": queued=" + getQueued() / 1024 + " KB (max " + maxQueued / 1024 + " KB)"
+                    + ", lag=" + TimeUnit.NANOSECONDS.toMillis(getLagNanos()) + " ms"
+                    + " (max " + TimeUnit.NANOSECONDS.toMillis(maxLagNanos) + " ms)"
+                    + ", writes=" + writes + ", bytes=" + bytes
+                    + ", dropped=" + dropped + " (" + droppedBytes + " bytes)"
+                    + ", errors=" + errors + (lastError == null ? "" : " (" + lastError + ")");
+        }
+
+    }
+
+    /**
+     * Queues each write to every target.
+     *
+     * Writes to one channel must not be concurrent, but each channel may be written by a different thread.
+     */
+    public class Channel implements WritableByteChannel {
+
+        private final WritableByteChannel[] channels;
+        private boolean isOpen = true;
+
+        private Channel(WritableByteChannel[] channels) {
+            this.channels = channels;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            if (!isOpen) {
+                throw new ClosedChannelException();
+            }
+            int count = src.remaining();
+            ByteBuffer data = ByteBuffer.allocate(count);
+            data.put(src).flip();
+
+            long now = System.nanoTime();
+            for (int i = 0; i < channels.length; i++) {
+                Target target = targets.get(i);
+                if (i != 0 && isDegraded) {
+                    target.skip(count);
+                } else if (!target.offer(new Operation(channels[i], data.duplicate(), now), i == 0 || policy == Policy.BLOCK)
+                        && policy == Policy.PRIMARY_ONLY) {
+                    degrade();
+                }
+            }
+            return count;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return isOpen;
+        }
+
+        /**
+         * Closes the channel of each target after its queued writes, or at once if the target has been stopped.
+         */
+        @Override
+        public void close() throws IOException {
+            if (!isOpen) return;
+            isOpen = false;
+            IOException exception = null;
+            for (int i = 0; i < channels.length; i++) {
+                try {
+                    if (!offerClose(targets.get(i), channels[i])) {
+                        channels[i].close();
+                    }
+                } catch (IOException e) {
+                    exception = e;
+                }
+            }
+            if (exception != null) {
+                throw exception;
+            }
+        }
+
+        private boolean offerClose(Target target, WritableByteChannel channel) throws IOException {
+            try {
+                return target.offer(new Operation(channel, null, System.nanoTime()), true);
+            } catch (ClosedChannelException e) {
+                return false;
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,220 @@
+package edu.sdsu.rocket.core.io;
+
+import edu.sdsu.rocket.core.helpers.Stopwatch;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Header of a recording written by {@link RecordingWriter}, describing every channel interleaved in its blocks.
+ *
+ * Layout (big-endian): magic, version, block encoding (since version 2), wall-clock anchor (epoch nanoseconds at
+ * timestamp zero, or zero if unknown), channel count and, per channel, name, unit, device config, gain and sample
+ * rate, followed by a CRC32 of the preceding bytes.
+ */
+public class RecordingHeader {
+
+    public static final int MAGIC = 0x53524543; // "SREC"
+    public static final short VERSION = 3; // 3: index entries hold the maximum timestamp of each block
+
+    /**
+     * Encoding of the records of every block.
+     */
+    public enum Encoding {
+        /** Fixed size records in the order they were appended. */
+        RAW,
+        /** Records grouped by channel and compressed with {@link GorillaCodec}. */
+        GORILLA,
+        ;
+
+        static Encoding valueOf(int ordinal) throws IOException {
+            if (ordinal < 0 || ordinal >= values().length) {
+                throw new IOException("Unknown recording encoding " + ordinal);
+            }
+            return values()[ordinal];
+        }
+    }
+
+    public static class Channel {
+        public final String name;
+        public final String unit;
+        public final int config; // device config register (zero if unknown)
+        public final float gain; // zero if unknown
+        public final float rate; // samples per second (zero if unknown)
+
+        public Channel(String name, String unit, int config, float gain, float rate) {
+            this.name = name;
+            this.unit = unit;
+            this.config = config;
+            this.gain = gain;
+            this.rate = rate;
+        }
+
+        @Override
+        public String toString() {
+            return name + ": unit=" + unit + ", config=0x" + Integer.toHexString(config) + ", gain=" + gain + ", rate=" + rate;
+        }
+    }
+
+    private final List<Channel> channels = new ArrayList<>();
+    private short version = VERSION;
+    private Encoding encoding = Encoding.RAW;
+    private long anchor;
+
+    /**
+     * Adds a channel; channels are numbered in the order they are added.
+     *
+     * @return Index of the channel.
+     */
+    public int add(Channel channel) {
+        if (indexOf(channel.name) != -1) {
+            throw new IllegalArgumentException("Duplicate channel: " + channel.name);
+        }
+        channels.add(channel);
+        return channels.size() - 1;
+    }
+
+    public List<Channel> getChannels() {
+        return Collections.unmodifiableList(channels);
+    }
+
+    public Channel getChannel(int index) {
+        return channels.get(index);
+    }
+
+    /**
+     * @return Index of the named channel or -1 if there is none.
+     */
+    public int indexOf(String name) {
+        for (int i = 0; i < channels.size(); i++) {
+            if (channels.get(i).name.equals(name)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * @return Version of the format the recording was written in.
+     */
+    public short getVersion() {
+        return version;
+    }
+
+    public RecordingHeader setEncoding(Encoding encoding) {
+        this.encoding = encoding;
+        return this;
+    }
+
+    public Encoding getEncoding() {
+        return encoding;
+    }
+
+    /**
+     * @param anchor Wall-clock time (epoch nanoseconds) of timestamp zero, or zero if unknown.
+     */
+    public RecordingHeader setAnchor(long anchor) {
+        this.anchor = anchor;
+        return this;
+    }
+
+    /**
+     * Anchors timestamp zero to the stopwatch's reset, estimated from the current wall-clock time.
+     */
+    public RecordingHeader setAnchor(Stopwatch stopwatch) {
+        return setAnchor(TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis()) - stopwatch.nanoSecondsElapsed());
+    }
+
+    public long getAnchor() {
+        return anchor;
+    }
+
+    /**
+     * @return Encoded header including its CRC.
+     */
+    public byte[] toByteArray() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(MAGIC);
+            out.writeShort(version);
+            if (version >= 2) {
+                out.writeByte(encoding.ordinal());
+            }
+            out.writeLong(anchor);
+            out.writeShort(channels.size());
+            for (Channel channel : channels) {
+                out.writeUTF(channel.name);
+                out.writeUTF(channel.unit);
+                out.writeInt(channel.config);
+                out.writeFloat(channel.gain);
+                out.writeFloat(channel.rate);
+            }
+            CRC32 crc = new CRC32();
+            crc.update(bytes.toByteArray());
+            out.writeInt((int) crc.getValue());
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // not thrown by a byte array
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reads and verifies a header.
+     *
+     * @throws IOException if the header is not a supported recording header or fails its CRC.
+     */
+    public static RecordingHeader read(DataInput in) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream copy = new DataOutputStream(bytes); // header bytes re-encoded for the CRC
+
+        int magic = in.readInt();
+        if (magic != MAGIC) {
+            throw new IOException("Not a recording (magic 0x" + Integer.toHexString(magic) + ")");
+        }
+        short version = in.readShort();
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Unsupported recording version " + version);
+        }
+        RecordingHeader header = new RecordingHeader();
+        header.version = version;
+        copy.writeInt(magic);
+        copy.writeShort(version);
+        if (version >= 2) {
+            int encoding = in.readUnsignedByte();
+            copy.writeByte(encoding);
+            header.encoding = Encoding.valueOf(encoding);
+        }
+        header.anchor = in.readLong();
+        int count = in.readUnsignedShort();
+        copy.writeLong(header.anchor);
+        copy.writeShort(count);
+        for (int i = 0; i < count; i++) {
+            Channel channel = new Channel(in.readUTF(), in.readUTF(), in.readInt(), in.readFloat(), in.readFloat());
+            copy.writeUTF(channel.name);
+            copy.writeUTF(channel.unit);
+            copy.writeInt(channel.config);
+            copy.writeFloat(channel.gain);
+            copy.writeFloat(channel.rate);
+            header.channels.add(channel);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        if (in.readInt() != (int) crc.getValue()) {
+            throw new IOException("Recording header CRC mismatch");
+        }
+        return header;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + ": version=" + version + ", encoding=" + encoding + ", anchor=" + anchor + ", channels=" + channels;
+    }
+
+}
@@ -0,0 +1,367 @@
+package edu.sdsu.rocket.core.io;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import static edu.sdsu.rocket.core.io.RecordingWriter.BLOCK_HEADER_SIZE;
+import static edu.sdsu.rocket.core.io.RecordingWriter.BLOCK_MAGIC;
+import static edu.sdsu.rocket.core.io.RecordingWriter.CRC_SIZE;
+import static edu.sdsu.rocket.core.io.RecordingWriter.FOOTER_MAGIC;
+import static edu.sdsu.rocket.core.io.RecordingWriter.FOOTER_SIZE;
+import static edu.sdsu.rocket.core.io.RecordingWriter.INDEX_ENTRY_SIZE;
+import static edu.sdsu.rocket.core.io.RecordingWriter.INDEX_MAGIC;
+import static edu.sdsu.rocket.core.io.RecordingWriter.RECORD_SIZE;
+import static edu.sdsu.rocket.core.io.RecordingWriter.SERIES_HEADER_SIZE;
+import static edu.sdsu.rocket.core.io.RecordingWriter.V2_INDEX_ENTRY_SIZE;
+import static edu.sdsu.rocket.core.io.RecordingWriter.V1_BLOCK_HEADER_SIZE;
+
+/**
+ * Reads a recording written by {@link RecordingWriter}.
+ *
+ * Records of a raw block are read in the order they were appended; those of a compressed block are grouped by channel
+ * (in the order they were appended to each channel).
+ *
+ * The block index is loaded from the end of a finished recording. A recording that was never finished (or whose
+ * index is damaged) is recovered by hopping from block header to block header, which reads a few bytes per block
+ * rather than the whole file, up to the last block whose CRC is valid. Blocks are found by time with a binary search
+ * of the running maximum of their timestamps, as blocks need not be in time order (e.g. when a backlog of each channel
+ * is drained in turn), and verified against their CRC when read.
+ */
+public class RecordingReader implements Closeable {
+
+    public static class Block {
+        public int count;
+        public long minTimestamp;
+        public long maxTimestamp;
+        public short[] channels = new short[0];
+        public long[] timestamps = new long[0];
+        public float[] values = new float[0];
+    }
+
+    private final FileChannel in;
+    private final RecordingHeader header;
+    private final long dataOffset; // offset of first block
+    private final int blockHeaderSize;
+    private final RecordingHeader.Encoding encoding;
+    private long end; // offset after last valid block
+    private boolean isRecovered;
+
+    private long[] indexTimestamps = new long[0];
+    private long[] indexMaxTimestamps = new long[0];
+    private long[] indexOffsets = new long[0];
+    private long[] runningMaxTimestamps = new long[0]; // maximum timestamp of the block or any before it
+    private int blocks;
+
+    private ByteBuffer buffer = ByteBuffer.allocate(RecordingWriter.DEFAULT_BLOCK_SIZE);
+    private final CRC32 crc = new CRC32();
+    private final GorillaCodec.Decoder decoder = new GorillaCodec.Decoder();
+
+    public RecordingReader(File file) throws IOException {
+        this(new RandomAccessFile(file, "r").getChannel());
+    }
+
+    /**
+     * Reads the header and the index, recovering the index from the blocks if necessary.
+     */
+    public RecordingReader(FileChannel in) throws IOException {
+        this.in = in;
+        in.position(0);
+        header = RecordingHeader.read(new DataInputStream(new BufferedInputStream(Channels.newInputStream(in))));
+        dataOffset = header.toByteArray().length;
+        blockHeaderSize = header.getVersion() >= 2 ? BLOCK_HEADER_SIZE : V1_BLOCK_HEADER_SIZE;
+        encoding = header.getEncoding();
+
+        if (!readIndex()) {
+            recover();
+            isRecovered = true;
+        }
+
+        runningMaxTimestamps = new long[blocks];
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < blocks; i++) {
+            max = Math.max(max, indexMaxTimestamps[i]);
+            runningMaxTimestamps[i] = max;
+        }
+    }
+
+    public RecordingHeader getHeader() {
+        return header;
+    }
+
+    /**
+     * @return {@code true} if the recording was not finished and its index was rebuilt from the blocks.
+     */
+    public boolean isRecovered() {
+        return isRecovered;
+    }
+
+    /**
+     * @return Number of bytes of the file holding the header and valid blocks.
+     */
+    public long getValidLength() {
+        return end;
+    }
+
+    public int getBlockCount() {
+        return blocks;
+    }
+
+    /**
+     * @return Minimum timestamp of the block.
+     */
+    public long getBlockTimestamp(int block) {
+        return indexTimestamps[block];
+    }
+
+    /**
+     * @return Maximum timestamp of the block.
+     */
+    public long getBlockMaxTimestamp(int block) {
+        return indexMaxTimestamps[block];
+    }
+
+    /**
+     * Finds the first block which may hold samples at or after the timestamp; every block before it holds only
+     * earlier samples, so reading from it onwards finds every sample from that time.
+     *
+     * @return Index of the block (the last block if the timestamp follows the recording, -1 if there are no blocks).
+     */
+    public int findBlock(long timestamp) {
+        int low = 0;
+        int high = blocks - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (runningMaxTimestamps[middle] < timestamp) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return blocks == 0 ? -1 : Math.min(low, blocks - 1);
+    }
+
+    /**
+     * Reads the records of a block.
+     *
+     * @throws IOException if the block fails its CRC.
+     */
+    public void read(int block, Block out) throws IOException {
+        long offset = indexOffsets[block];
+        ByteBuffer buffer = readBlock(offset);
+        if (buffer == null) {
+            throw new IOException("Block " + block + " at " + offset + " is corrupt");
+        }
+
+        int count = buffer.getInt(4);
+        if (out.timestamps.length < count) {
+            out.channels = new short[count];
+            out.timestamps = new long[count];
+            out.values = new float[count];
+        }
+        out.count = count;
+        out.minTimestamp = buffer.getLong(8);
+        out.maxTimestamp = buffer.getLong(16);
+        buffer.position(blockHeaderSize);
+        if (encoding == RecordingHeader.Encoding.GORILLA) {
+            decodeSeries(buffer, count, out);
+        } else {
+            for (int i = 0; i < count; i++) {
+                out.channels[i] = buffer.getShort();
+                out.timestamps[i] = buffer.getLong();
+                out.values[i] = buffer.getFloat();
+            }
+        }
+    }
+
+    private void decodeSeries(ByteBuffer buffer, int count, Block out) throws IOException {
+        int end = buffer.limit() - CRC_SIZE;
+        int i = 0;
+        try {
+            while (buffer.position() < end) {
+                short channel = buffer.getShort();
+                int n = buffer.getInt();
+                if (n <= 0 || i + n > count) {
+                    throw new IOException("Invalid series of " + n + " records");
+                }
+                decoder.reset(buffer);
+                for (int k = 0; k < n; k++, i++) {
+                    decoder.next();
+                    out.channels[i] = channel;
+                    out.timestamps[i] = decoder.getTimestamp();
+                    out.values[i] = decoder.getValue();
+                }
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated series", e);
+        }
+        if (i != count || buffer.position() != end) {
+            throw new IOException("Block holds " + i + " of " + count + " records");
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Loads the index located by the footer.
+     *
+     * @return {@code false} if there is no valid index.
+     */
+    private boolean readIndex() throws IOException {
+        long size = in.size();
+        if (size < dataOffset + FOOTER_SIZE) {
+            return false;
+        }
+        ByteBuffer footer = ByteBuffer.allocate(FOOTER_SIZE);
+        readFully(footer, size - FOOTER_SIZE);
+        long indexOffset = footer.getLong(0);
+        if (footer.getInt(8) != FOOTER_MAGIC || indexOffset < dataOffset || indexOffset > size - FOOTER_SIZE) {
+            return false;
+        }
+
+        int entrySize = header.getVersion() >= 3 ? INDEX_ENTRY_SIZE : V2_INDEX_ENTRY_SIZE;
+        long length = size - FOOTER_SIZE - indexOffset;
+        if (length < 4 + 4 + CRC_SIZE || (length - 4 - 4 - CRC_SIZE) % entrySize != 0 || length > Integer.MAX_VALUE) {
+            return false;
+        }
+        ByteBuffer index = ByteBuffer.allocate((int) length);
+        readFully(index, indexOffset);
+        int count = index.getInt(4);
+        crc.reset();
+        crc.update(index.array(), 0, index.capacity() - CRC_SIZE);
+        if (index.getInt(0) != INDEX_MAGIC
+                || count != (length - 4 - 4 - CRC_SIZE) / entrySize
+                || index.getInt(index.capacity() - CRC_SIZE) != (int) crc.getValue()) {
+            return false;
+        }
+
+        indexTimestamps = new long[count];
+        indexMaxTimestamps = new long[count];
+        indexOffsets = new long[count];
+        index.position(8);
+        for (int i = 0; i < count; i++) {
+            indexTimestamps[i] = index.getLong();
+            if (entrySize == INDEX_ENTRY_SIZE) {
+                indexMaxTimestamps[i] = index.getLong();
+            }
+            indexOffsets[i] = index.getLong();
+        }
+        if (entrySize != INDEX_ENTRY_SIZE) {
+            // older index, maxima are only in the block headers
+            ByteBuffer blockHeader = ByteBuffer.allocate(blockHeaderSize);
+            for (int i = 0; i < count; i++) {
+                blockHeader.clear();
+                readFully(blockHeader, indexOffsets[i]);
+                indexMaxTimestamps[i] = blockHeader.getLong(16);
+            }
+        }
+        blocks = count;
+        end = indexOffset;
+        return true;
+    }
+
+    /**
+     * Rebuilds the index from the block headers, ending at the first incomplete block or the last block if it fails
+     * its CRC.
+     */
+    private void recover() throws IOException {
+        long size = in.size();
+        ByteBuffer blockHeader = ByteBuffer.allocate(blockHeaderSize);
+        long offset = dataOffset;
+        blocks = 0;
+        while (offset + blockHeaderSize <= size) {
+            blockHeader.clear();
+            readFully(blockHeader, offset);
+            long length = blockLength(blockHeader);
+            if (length == -1 || offset + length > size) {
+                break;
+            }
+            if (blocks == indexTimestamps.length) {
+                indexTimestamps = Arrays.copyOf(indexTimestamps, Math.max(256, blocks * 2));
+                indexMaxTimestamps = Arrays.copyOf(indexMaxTimestamps, Math.max(256, blocks * 2));
+                indexOffsets = Arrays.copyOf(indexOffsets, Math.max(256, blocks * 2));
+            }
+            indexTimestamps[blocks] = blockHeader.getLong(8);
+            indexMaxTimestamps[blocks] = blockHeader.getLong(16);
+            indexOffsets[blocks] = offset;
+            blocks++;
+            offset += length;
+        }
+
+        // a torn write may leave a complete looking final block
+        if (blocks != 0 && readBlock(indexOffsets[blocks - 1]) == null) {
+            offset = indexOffsets[--blocks];
+        }
+        end = offset;
+    }
+
+    /**
+     * @return Buffer holding the block or {@code null} if it is invalid.
+     */
+    private ByteBuffer readBlock(long offset) throws IOException {
+        ByteBuffer blockHeader = ByteBuffer.allocate(blockHeaderSize);
+        readFully(blockHeader, offset);
+        long blockLength = blockLength(blockHeader);
+        if (blockLength == -1 || offset + blockLength > in.size()) {
+            return null;
+        }
+
+        int length = (int) blockLength;
+        if (buffer.capacity() < length) {
+            buffer = ByteBuffer.allocate(length);
+        }
+        buffer.clear().limit(length);
+        readFully(buffer, offset);
+
+        crc.reset();
+        crc.update(buffer.array(), 0, length - CRC_SIZE);
+        return buffer.getInt(length - CRC_SIZE) == (int) crc.getValue() ? buffer : null;
+    }
+
+    /**
+     * @return Length of the block (in bytes) or -1 if the block header is invalid.
+     */
+    private long blockLength(ByteBuffer blockHeader) {
+        int count = blockHeader.getInt(4);
+        if (blockHeader.getInt(0) != BLOCK_MAGIC || count <= 0) {
+            return -1;
+        }
+        if (blockHeaderSize == V1_BLOCK_HEADER_SIZE) {
+            return V1_BLOCK_HEADER_SIZE + (long) count * RECORD_SIZE + CRC_SIZE;
+        }
+        int length = blockHeader.getInt(24);
+        long minimum = encoding == RecordingHeader.Encoding.GORILLA
+                ? BLOCK_HEADER_SIZE + SERIES_HEADER_SIZE + CRC_SIZE
+                : BLOCK_HEADER_SIZE + (long) count * RECORD_SIZE + CRC_SIZE;
+        return length < minimum ? -1 : length;
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int n = in.read(buffer, position);
+            if (n == -1) {
+                throw new IOException("Unexpected end of recording at " + position);
+            }
+            position += n;
+        }
+        buffer.flip();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + ": blocks=" + blocks + ", length=" + end + (isRecovered ? " (recovered)" : "");
+    }
+
+}
@@ -0,0 +1,281 @@
+package edu.sdsu.rocket.core.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Writes the samples of every channel of a recording interleaved in CRC-protected blocks.
+ *
+ * A recording is a {@link RecordingHeader} followed by blocks and, once finished, an index of the time span of each
+ * block and a fixed size footer locating it. Each block holds a sync word, record count, the minimum and maximum
+ * timestamp of its records, its length, the records (channel, timestamp, value) in the header's
+ * {@link RecordingHeader.Encoding} and a CRC32 of the block. A reader uses the index to seek to any time with a
+ * binary search; if the recording was cut short (e.g. by power loss) the index is rebuilt from the block headers and
+ * the recording recovered up to its last valid block.
+ *
+ * Not thread safe; samples are typically appended by a single writer thread (see {@link SampleLogWriter}).
+ */
+public class RecordingWriter implements Closeable {
+
+    public static final int BLOCK_MAGIC = 0x53424C4B; // "SBLK"
+    public static final int INDEX_MAGIC = 0x53494458; // "SIDX"
+    public static final int FOOTER_MAGIC = 0x53454E44; // "SEND"
+
+    public static final int BLOCK_HEADER_SIZE = 4 + 4 + 8 + 8 + 4; // magic, count, min timestamp, max timestamp, length
+    public static final int V1_BLOCK_HEADER_SIZE = 4 + 4 + 8 + 8; // without length (raw records only)
+    public static final int RECORD_SIZE = 2 + 8 + 4; // short channel, long timestamp, float value
+    public static final int SERIES_HEADER_SIZE = 2 + 4; // short channel, int count (of a compressed series)
+    public static final int CRC_SIZE = 4;
+    public static final int INDEX_ENTRY_SIZE = 8 + 8 + 8; // min timestamp, max timestamp, offset
+    public static final int V2_INDEX_ENTRY_SIZE = 8 + 8; // min timestamp, offset
+    public static final int FOOTER_SIZE = 8 + 4; // index offset, magic
+
+    public static final int DEFAULT_BLOCK_SIZE = 16 * 1024; // bytes
+
+    private final WritableByteChannel out;
+    private final RecordingHeader header;
+    private final RecordingHeader.Encoding encoding;
+    private final ByteBuffer block;
+    private final CRC32 crc = new CRC32();
+    private final GorillaCodec.Encoder encoder = new GorillaCodec.Encoder();
+
+    // records of the current block
+    private final short[] channels;
+    private final long[] timestamps;
+    private final float[] values;
+    private int count;
+    private long minTimestamp;
+    private long maxTimestamp;
+
+    // index of every block written
+    private long[] indexTimestamps = new long[256];
+    private long[] indexMaxTimestamps = new long[256];
+    private long[] indexOffsets = new long[256];
+    private int blocks;
+
+    private volatile long position; // bytes written
+    private long samples;
+    private boolean isFinished;
+
+    public RecordingWriter(WritableByteChannel out, RecordingHeader header) throws IOException {
+        this(out, header, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Writes the header.
+     *
+     * @param blockSize Size of a block of raw records (in bytes); compressed blocks hold the same number of records.
+     */
+    public RecordingWriter(WritableByteChannel out, RecordingHeader header, int blockSize) throws IOException {
+        if (blockSize < BLOCK_HEADER_SIZE + RECORD_SIZE + CRC_SIZE) {
+            throw new IllegalArgumentException("Block size too small: " + blockSize);
+        }
+        this.out = out;
+        this.header = header;
+        this.encoding = header.getEncoding();
+        int records = (blockSize - BLOCK_HEADER_SIZE - CRC_SIZE) / RECORD_SIZE;
+        channels = new short[records];
+        timestamps = new long[records];
+        values = new float[records];
+
+        int payload = records * RECORD_SIZE;
+        if (encoding == RecordingHeader.Encoding.GORILLA) {
+            int series = header.getChannels().size();
+            payload = Math.max(payload, GorillaCodec.maxEncodedSize(records) + series * (SERIES_HEADER_SIZE + 1));
+        }
+        block = ByteBuffer.allocateDirect(BLOCK_HEADER_SIZE + payload + CRC_SIZE);
+
+        write(ByteBuffer.wrap(header.toByteArray()));
+    }
+
+    public RecordingHeader getHeader() {
+        return header;
+    }
+
+    /**
+     * @return Number of records that can be appended before the block must be written.
+     */
+    public int remaining() {
+        return channels.length - count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Appends a sample to the current block without writing it.
+     *
+     * @throws ArrayIndexOutOfBoundsException if the block is full.
+     */
+    public void append(int channel, long timestamp, float value) {
+        if (count == 0) {
+            minTimestamp = timestamp;
+            maxTimestamp = timestamp;
+        } else if (timestamp < minTimestamp) {
+            minTimestamp = timestamp;
+        } else if (timestamp > maxTimestamp) {
+            maxTimestamp = timestamp;
+        }
+        channels[count] = (short) channel;
+        timestamps[count] = timestamp;
+        values[count] = value;
+        count++;
+    }
+
+    /**
+     * Appends a sample, first writing the current block if it is full.
+     */
+    public void write(int channel, long timestamp, float value) throws IOException {
+        if (remaining() == 0) {
+            writeBlock();
+        }
+        append(channel, timestamp, value);
+    }
+
+    /**
+     * Writes the current block if it holds any records.
+     */
+    public void writeBlock() throws IOException {
+        if (count == 0) return;
+
+        block.clear();
+        block.position(BLOCK_HEADER_SIZE);
+        if (encoding == RecordingHeader.Encoding.GORILLA) {
+            encodeSeries();
+        } else {
+            for (int i = 0; i < count; i++) {
+                block.putShort(channels[i]);
+                block.putLong(timestamps[i]);
+                block.putFloat(values[i]);
+            }
+        }
+        block.putInt(0, BLOCK_MAGIC);
+        block.putInt(4, count);
+        block.putLong(8, minTimestamp);
+        block.putLong(16, maxTimestamp);
+        block.putInt(24, block.position() + CRC_SIZE);
+
+        ByteBuffer data = block.duplicate();
+        data.flip();
+        crc.reset();
+        crc.update(data);
+        block.putInt((int) crc.getValue());
+        block.flip();
+
+        int count = this.count;
+        this.count = 0;
+        long offset = position;
+        write(block);
+
+        if (blocks == indexTimestamps.length) {
+            indexTimestamps = Arrays.copyOf(indexTimestamps, blocks * 2);
+            indexMaxTimestamps = Arrays.copyOf(indexMaxTimestamps, blocks * 2);
+            indexOffsets = Arrays.copyOf(indexOffsets, blocks * 2);
+        }
+        indexTimestamps[blocks] = minTimestamp;
+        indexMaxTimestamps[blocks] = maxTimestamp;
+        indexOffsets[blocks] = offset;
+        blocks++;
+        samples += count;
+    }
+
+    /**
+     * Compresses the records of each channel of the block as a series, in channel order.
+     */
+    private void encodeSeries() {
+        int channelCount = header.getChannels().size();
+        for (int channel = 0; channel < channelCount; channel++) {
+            int n = 0;
+            for (int i = 0; i < count; i++) {
+                if (channels[i] == channel) n++;
+            }
+            if (n == 0) continue;
+
+            block.putShort((short) channel);
+            block.putInt(n);
+            encoder.reset(block);
+            for (int i = 0; i < count; i++) {
+                if (channels[i] == channel) {
+                    encoder.add(timestamps[i], values[i]);
+                }
+            }
+            encoder.finish();
+        }
+    }
+
+    /**
+     * Number of blocks written.
+     */
+    public int getBlockCount() {
+        return blocks;
+    }
+
+    /**
+     * Number of bytes written; may be called from any thread.
+     */
+    public long getBytesWritten() {
+        return position;
+    }
+
+    /**
+     * Number of samples written (excluding those in the current block).
+     */
+    public long getSampleCount() {
+        return samples;
+    }
+
+    /**
+     * Writes the current block, the index and the footer. Nothing may be written afterwards.
+     */
+    public void finish() throws IOException {
+        if (isFinished) return;
+        writeBlock();
+        isFinished = true;
+
+        long offset = position;
+        ByteBuffer index = ByteBuffer.allocate(4 + 4 + blocks * INDEX_ENTRY_SIZE + CRC_SIZE + FOOTER_SIZE);
+        index.putInt(INDEX_MAGIC);
+        index.putInt(blocks);
+        for (int i = 0; i < blocks; i++) {
+            index.putLong(indexTimestamps[i]);
+            index.putLong(indexMaxTimestamps[i]);
+            index.putLong(indexOffsets[i]);
+        }
+        crc.reset();
+        crc.update(index.array(), 0, index.position());
+        index.putInt((int) crc.getValue());
+        index.putLong(offset);
+        index.putInt(FOOTER_MAGIC);
+        index.flip();
+        write(index);
+    }
+
+    /**
+     * Finishes the recording and closes the channel.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            out.close();
+        }
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += out.write(buffer);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + ": blocks=" + blocks + ", samples=" + samples + ", bytes=" + position;
+    }
+
+}
@@ -0,0 +1,317 @@
+package edu.sdsu.rocket.core.io;
+
+import edu.sdsu.rocket.core.helpers.SampleQueue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes timestamped samples to log channels from a dedicated background thread.
+ *
+ * Producers (e.g. device threads) hand off samples to a per-channel {@link SampleQueue} which never blocks; the writer
+ * thread drains the queues into large direct buffers and writes whole blocks to the underlying channel. Samples are
+ * written using the same record layout as {@link edu.sdsu.rocket.core.io.devices.ADS11xxOutputStream} so existing
+ * logs (and log2csv) remain compatible.
+ *
+ * Alternatively every channel may be interleaved in the blocks of a single {@link RecordingWriter}, which is finished
+ * when the writer is stopped.
+ */
+public class SampleLogWriter {
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 8192; // samples
+    public static final int DEFAULT_BLOCK_SIZE = 64 * 1024; // bytes
+
+    private static final int RECORD_SIZE = 8 + 4; // long timestamp + float value
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long DEFAULT_FLUSH_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+    public class Channel implements SampleQueue.SampleConsumer {
+
+        private final String name;
+        private final WritableByteChannel out;
+        private final int index; // channel of the recording
+        private final SampleQueue queue;
+        private final ByteBuffer block; // null if interleaved in the recording
+        private long blockStart; // time first record was put in block (nanoseconds)
+        private volatile long written; // samples
+        private volatile long errors;
+
+        Channel(String name, WritableByteChannel out, int index, int queueCapacity, int blockSize) {
+            this.name = name;
+            this.out = out;
+            this.index = index;
+            this.queue = new SampleQueue(queueCapacity);
+            this.block = out == null ? null : ByteBuffer.allocateDirect(blockSize - blockSize % RECORD_SIZE);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Writes the device config directly to the channel; must be called before any values are written.
+         */
+        public void writeConfig(int config) throws IOException {
+            if (out == null) {
+                throw new IllegalStateException("Config of " + name + " belongs in the recording header");
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(4);
+            buffer.putInt(config).flip();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+        }
+
+        /**
+         * Queues a sample for writing; never blocks.
+         *
+         * @return {@code false} if the queue was full and the sample was dropped.
+         */
+        public boolean writeValue(long timestamp, float value) {
+            return queue.offer(timestamp, value);
+        }
+
+        public int getQueueDepth() {
+            return queue.size();
+        }
+
+        public long getDropped() {
+            return queue.getDropped();
+        }
+
+        /**
+         * Number of samples written (or, if interleaved, appended to the recording).
+         */
+        public long getWritten() {
+            return written;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        @Override
+        public void accept(long timestamp, float value) {
+            if (block == null) {
+                recording.append(index, timestamp, value);
+            } else {
+                block.putLong(timestamp);
+                block.putFloat(value);
+            }
+        }
+
+        /**
+         * @return Number of samples drained from the queue.
+         */
+        int drain(long now, boolean force) {
+            if (block == null) {
+                if (recording.remaining() == 0) {
+                    writeRecording();
+                }
+                int count = queue.drain(this, recording.remaining());
+                written += count;
+                return count;
+            }
+
+            if (block.position() == 0) {
+                blockStart = now;
+            }
+            int count = queue.drain(this, block.remaining() / RECORD_SIZE);
+            if (!block.hasRemaining() || (block.position() != 0 && (force || now - blockStart >= flushInterval))) {
+                writeBlock();
+            }
+            return count;
+        }
+
+        private void writeBlock() {
+            int records = block.position() / RECORD_SIZE;
+            block.flip();
+            try {
+                while (block.hasRemaining()) {
+                    out.write(block);
+                }
+                written += records;
+            } catch (IOException e) {
+                errors++;
+                System.err.println(name + ": " + e);
+            }
+            block.clear();
+        }
+
+        @Override
+        public String toString() {
+            return name + ": depth=" + getQueueDepth() + ", dropped=" + getDropped() + ", written=" + written + ", errors=" + errors;
+        }
+    }
+
+    private final List<Channel> channels = new CopyOnWriteArrayList<>();
+    private final int queueCapacity;
+    private final int blockSize;
+    private volatile long flushInterval = DEFAULT_FLUSH_INTERVAL;
+
+    private final RecordingWriter recording;
+    private long recordingStart; // time first record was appended to the recording's block (nanoseconds)
+    private volatile long recordingErrors;
+
+    private Thread thread;
+    private volatile boolean isRunning;
+
+    public SampleLogWriter() {
+        this(DEFAULT_QUEUE_CAPACITY, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * @param queueCapacity Number of samples that may be queued per channel before samples are dropped.
+     * @param blockSize Size of the per-channel write buffer (in bytes).
+     */
+    public SampleLogWriter(int queueCapacity, int blockSize) {
+        if (blockSize < RECORD_SIZE) {
+            throw new IllegalArgumentException("Block size must be at least " + RECORD_SIZE + " bytes");
+        }
+        this.queueCapacity = queueCapacity;
+        this.blockSize = blockSize;
+        this.recording = null;
+    }
+
+    /**
+     * Interleaves the samples of every channel in the recording; channels are added by name with {@link #add(String)}.
+     *
+     * @param queueCapacity Number of samples that may be queued per channel before samples are dropped.
+     */
+    public SampleLogWriter(RecordingWriter recording, int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+        this.blockSize = 0;
+        this.recording = recording;
+    }
+
+    /**
+     * Sets the maximum time a partially filled block is held before being written.
+     */
+    public void setFlushInterval(long duration, TimeUnit unit) {
+        flushInterval = unit.toNanos(duration);
+    }
+
+    public Channel add(String name, WritableByteChannel out) {
+        if (recording != null) {
+            throw new IllegalStateException("Channels are interleaved in the recording");
+        }
+        Channel channel = new Channel(name, out, -1, queueCapacity, blockSize);
+        channels.add(channel);
+        return channel;
+    }
+
+    /**
+     * Adds a channel described by the recording header.
+     */
+    public Channel add(String name) {
+        if (recording == null) {
+            throw new IllegalStateException("No recording");
+        }
+        int index = recording.getHeader().indexOf(name);
+        if (index == -1) {
+            throw new IllegalArgumentException("Channel not in recording header: " + name);
+        }
+        Channel channel = new Channel(name, null, index, queueCapacity, 0);
+        channels.add(channel);
+        return channel;
+    }
+
+    /**
+     * Number of failed writes of the recording.
+     */
+    public long getErrors() {
+        return recordingErrors;
+    }
+
+    public List<Channel> getChannels() {
+        return channels;
+    }
+
+    public void start() {
+        if (thread != null) {
+            throw new IllegalStateException(getClass().getSimpleName() + " already started");
+        }
+        isRunning = true;
+        thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (isRunning) {
+                    if (drain(false) == 0) {
+                        LockSupport.parkNanos(IDLE_NANOS);
+                    }
+                }
+                drain(true); // write out anything remaining
+                if (recording != null) {
+                    try {
+                        recording.finish();
+                    } catch (IOException e) {
+                        recordingErrors++;
+                        System.err.println(e);
+                    }
+                }
+            }
+        });
+        thread.setName(getClass().getSimpleName());
+        thread.start();
+    }
+
+    /**
+     * Stops the writer thread after all queued samples have been written.
+     */
+    public void stop() {
+        if (thread != null) {
+            isRunning = false;
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                System.err.println(e);
+            }
+            thread = null;
+        }
+    }
+
+    private int drain(boolean force) {
+        final long now = System.nanoTime();
+        if (recording != null && recording.isEmpty()) {
+            recordingStart = now;
+        }
+        int count = 0;
+        for (Channel channel : channels) {
+            int n;
+            do {
+                n = channel.drain(now, force);
+                count += n;
+            } while (force && n != 0);
+        }
+        if (recording != null && !recording.isEmpty() && (force || now - recordingStart >= flushInterval)) {
+            writeRecording();
+        }
+        return count;
+    }
+
+    private void writeRecording() {
+        try {
+            recording.writeBlock();
+        } catch (IOException e) {
+            recordingErrors++;
+            System.err.println(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < channels.size(); i++) {
+            if (i != 0) builder.append("; ");
+            builder.append(channels.get(i));
+        }
+        return getClass().getSimpleName() + ": [" + builder.toString() + "]"
+                + (recording == null ? "" : " " + recording + ", errors=" + recordingErrors);
+    }
+
+}
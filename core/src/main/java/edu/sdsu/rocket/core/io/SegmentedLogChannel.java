@@ -0,0 +1,248 @@
+package edu.sdsu.rocket.core.io;
+
+import edu.sdsu.rocket.core.helpers.LatencyHistogram;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes a log as a sequence of preallocated, memory-mapped segments (e.g. A0.000.seg, A0.001.seg, ...).
+ *
+ * Each segment is created at its full size and mapped once, so writes are memory copies into the page cache rather
+ * than system calls that grow a file (and its metadata) a block at a time. The log rolls to a new segment when the
+ * current one is full or, optionally, after a time limit. Dirty pages are forced to the device on a configurable
+ * cadence from the writing thread (see {@link Durability}), the latency of each write and force being recorded. A
+ * segment that is rolled or closed is truncated to the data written.
+ *
+ * Every segment starts with a header (magic, sequence number, length of data committed) which is updated after each
+ * write, so a {@link SegmentedLogInputStream} can tail the active segment by polling memory rather than the file
+ * size. Bytes are written contiguously across segments; the data of the log is the concatenation of the segments.
+ *
+ * Not thread safe; written by a single thread (e.g. a {@link SampleLogWriter}).
+ */
+public class SegmentedLogChannel implements WritableByteChannel {
+
+    public static final int MAGIC = 0x53534547; // "SSEG"
+    public static final int HEADER_SIZE = 4 + 4 + 8; // magic, sequence, committed
+    static final int COMMITTED_OFFSET = 8;
+    public static final String EXTENSION = ".seg";
+
+    public static final long DEFAULT_SEGMENT_SIZE = 16L * 1024 * 1024; // bytes
+
+    private final File directory;
+    private final String name;
+    private final long segmentSize;
+    private volatile long rollInterval; // nanoseconds, zero to roll only when full
+    private volatile long forceInterval; // nanoseconds, zero to force every write, negative to never force
+
+    private int sequence = -1;
+    private FileChannel file;
+    private MappedByteBuffer segment;
+    private long segmentStart; // nanoseconds
+    private long lastForce; // nanoseconds
+    private boolean isDirty;
+    private boolean isOpen = true;
+
+    private volatile long segments;
+    private volatile long forces;
+    private final LatencyHistogram writeLatency = new LatencyHistogram();
+    private final LatencyHistogram forceLatency = new LatencyHistogram();
+
+    /**
+     * Creates the first segment.
+     *
+     * @param segmentSize Size of each segment including its header (in bytes).
+     */
+    public SegmentedLogChannel(File directory, String name, long segmentSize) throws IOException {
+        if (segmentSize <= HEADER_SIZE || segmentSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid segment size: " + segmentSize);
+        }
+        this.directory = directory;
+        this.name = name;
+        this.segmentSize = segmentSize;
+        this.forceInterval = TimeUnit.SECONDS.toNanos(1);
+
+        long now = System.nanoTime();
+        lastForce = now;
+        roll(now);
+    }
+
+    public static File getSegmentFile(File directory, String name, int sequence) {
+        return new File(directory, name + String.format(Locale.US, ".%03d", sequence) + EXTENSION);
+    }
+
+    /**
+     * @param duration Maximum time a segment is written to, or zero to roll only when a segment is full.
+     */
+    public void setRollInterval(long duration, TimeUnit unit) {
+        rollInterval = unit.toNanos(duration);
+    }
+
+    /**
+     * @param duration Minimum time between forcing dirty pages to the device, zero to force after every write or
+     *                 negative to leave write back to the operating system.
+     */
+    public void setForceInterval(long duration, TimeUnit unit) {
+        forceInterval = duration < 0 ? -1 : unit.toNanos(duration);
+    }
+
+    /**
+     * @param forceInterval Minimum time between forces in {@link Durability#PERIODIC} mode.
+     */
+    public void setDurability(Durability durability, long forceInterval, TimeUnit unit) {
+        switch (durability) {
+        case BUFFERED:
+            setForceInterval(-1, unit);
+            break;
+        case PERIODIC:
+            setForceInterval(Math.max(0, forceInterval), unit);
+            break;
+        case BLOCK:
+            setForceInterval(0, unit);
+            break;
+        }
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        if (!isOpen) {
+            throw new ClosedChannelException();
+        }
+        long now = System.nanoTime();
+        if (rollInterval > 0 && now - segmentStart >= rollInterval && segment.position() > HEADER_SIZE) {
+            roll(now);
+        }
+
+        int count = src.remaining();
+        while (src.hasRemaining()) {
+            if (!segment.hasRemaining()) {
+                roll(now);
+            }
+            int n = Math.min(src.remaining(), segment.remaining());
+            ByteBuffer slice = src.duplicate();
+            slice.limit(slice.position() + n);
+            segment.put(slice);
+            src.position(src.position() + n);
+            segment.putLong(COMMITTED_OFFSET, segment.position() - HEADER_SIZE); // publish to tailing readers
+            isDirty = true;
+        }
+        writeLatency.record(System.nanoTime() - now);
+
+        long forceInterval = this.forceInterval;
+        if (forceInterval >= 0 && System.nanoTime() - lastForce >= forceInterval) {
+            force();
+        }
+        return count;
+    }
+
+    /**
+     * Forces dirty pages of the active segment to the device.
+     */
+    public void force() {
+        if (!isDirty) return;
+        long start = System.nanoTime();
+        segment.force();
+        long end = System.nanoTime();
+        lastForce = end;
+        isDirty = false;
+        forces++;
+        forceLatency.record(end - start);
+    }
+
+    /**
+     * Finishes the active segment and maps a new one.
+     */
+    private void roll(long now) throws IOException {
+        finishSegment();
+
+        File f = getSegmentFile(directory, name, ++sequence);
+        RandomAccessFile raf = new RandomAccessFile(f, "rw");
+        try {
+            raf.setLength(segmentSize);
+            file = raf.getChannel();
+            segment = file.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        } catch (IOException e) {
+            raf.close();
+            file = null;
+            segment = null;
+            throw e;
+        }
+        segment.putInt(MAGIC);
+        segment.putInt(sequence);
+        segment.putLong(0);
+        segmentStart = now;
+        segments++;
+    }
+
+    /**
+     * Forces and truncates the active segment to the data written.
+     */
+    private void finishSegment() throws IOException {
+        if (segment == null) return;
+        force();
+        try {
+            file.truncate(segment.position());
+        } finally {
+            file.close(); // the mapping remains valid until collected
+            file = null;
+            segment = null;
+        }
+    }
+
+    public int getSequence() {
+        return sequence;
+    }
+
+    public long getSegmentCount() {
+        return segments;
+    }
+
+    public long getForceCount() {
+        return forces;
+    }
+
+    /**
+     * Longest time taken to force a segment (nanoseconds).
+     */
+    public long getMaxForceNanos() {
+        return forceLatency.getMax();
+    }
+
+    /**
+     * Latency of writes, including any roll to a new segment (which forces the last) but not other forces.
+     */
+    public LatencyHistogram getWriteLatency() {
+        return writeLatency;
+    }
+
+    public LatencyHistogram getForceLatency() {
+        return forceLatency;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return isOpen;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!isOpen) return;
+        isOpen = false;
+        finishSegment();
+    }
+
+    @Override
+    public String toString() {
+        return new File(directory, name) + ": segment=" + sequence + ", segments=" + segments
+                + ", write=[" + writeLatency + "], force=[" + forceLatency + "]";
+    }
+
+}
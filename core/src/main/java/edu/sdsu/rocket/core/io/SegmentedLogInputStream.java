@@ -0,0 +1,142 @@
+package edu.sdsu.rocket.core.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads the data of a log written by {@link SegmentedLogChannel} as one stream.
+ *
+ * Segments are mapped read-only and read up to the length committed in their header, which is re-read from memory on
+ * every call; a log that is still being written can therefore be tailed by polling {@link #available()} without any
+ * system calls until the writer rolls to the next segment. A segment is only left once the next one exists and the
+ * current one has been re-read, so bytes committed just before the writer rolled are not skipped, and a next segment
+ * whose header has not been written yet is treated as not yet available.
+ */
+public class SegmentedLogInputStream extends InputStream {
+
+    private final File directory;
+    private final String name;
+
+    private int sequence = -1;
+    private MappedByteBuffer segment;
+    private int position; // within segment
+
+    public SegmentedLogInputStream(File directory, String name) throws IOException {
+        this.directory = directory;
+        this.name = name;
+        if (!next()) {
+            throw new IOException("No segments: " + SegmentedLogChannel.getSegmentFile(directory, name, 0));
+        }
+    }
+
+    /**
+     * @return {@code true} if the first segment of the log exists.
+     */
+    public static boolean exists(File directory, String name) {
+        return SegmentedLogChannel.getSegmentFile(directory, name, 0).exists();
+    }
+
+    /**
+     * Number of committed bytes not yet read from the current segment.
+     */
+    @Override
+    public int available() throws IOException {
+        if (segment == null) return 0;
+        int committed = (int) segment.getLong(SegmentedLogChannel.COMMITTED_OFFSET) + SegmentedLogChannel.HEADER_SIZE;
+        return Math.max(0, Math.min(committed, segment.capacity()) - position);
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (remaining() == 0) return -1;
+        return segment.get(position++) & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) return 0;
+        int n = remaining();
+        if (n == 0) return -1;
+        n = Math.min(n, len);
+        ByteBuffer data = segment.duplicate();
+        data.position(position);
+        data.get(b, off, n);
+        position += n;
+        return n;
+    }
+
+    /**
+     * @return Number of bytes available, moving on to the next segment once the current one is exhausted (0 at the end
+     * of the data written so far).
+     */
+    private int remaining() throws IOException {
+        int n;
+        while ((n = available()) == 0) {
+            MappedByteBuffer next = mapNext();
+            if (next == null) return 0;
+            if ((n = available()) != 0) {
+                return n; // committed before the writer rolled, the next segment is mapped again later
+            }
+            enter(next);
+        }
+        return n;
+    }
+
+    /**
+     * Maps and moves on to the next segment if it exists.
+     */
+    private boolean next() throws IOException {
+        MappedByteBuffer next = mapNext();
+        if (next == null) {
+            return false;
+        }
+        enter(next);
+        return true;
+    }
+
+    private void enter(MappedByteBuffer next) {
+        segment = next;
+        sequence++;
+        position = SegmentedLogChannel.HEADER_SIZE;
+    }
+
+    /**
+     * @return The next segment or {@code null} if it does not exist or its header has not been written yet.
+     */
+    private MappedByteBuffer mapNext() throws IOException {
+        File f = SegmentedLogChannel.getSegmentFile(directory, name, sequence + 1);
+        if (!f.exists()) {
+            return null;
+        }
+        RandomAccessFile raf = new RandomAccessFile(f, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            long size = channel.size();
+            if (size < SegmentedLogChannel.HEADER_SIZE) {
+                return null; // being created
+            }
+            MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int magic = segment.getInt(0);
+            if (magic == 0) {
+                return null; // preallocated, header not written yet
+            }
+            if (magic != SegmentedLogChannel.MAGIC) {
+                throw new IOException("Not a log segment: " + f);
+            }
+            return segment;
+        } finally {
+            raf.close();
+        }
+    }
+
+    @Override
+    public void close() {
+        segment = null;
+    }
+
+}
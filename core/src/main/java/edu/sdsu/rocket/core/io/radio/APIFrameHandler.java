@@ -0,0 +1,257 @@
+package edu.sdsu.rocket.core.io.radio;
+
+import edu.sdsu.rocket.core.helpers.ByteHelper;
+import edu.sdsu.rocket.core.io.radio.api.APIFrame;
+import edu.sdsu.rocket.core.io.radio.api.RFModuleStatus;
+import edu.sdsu.rocket.core.io.radio.api.RXPacket;
+import edu.sdsu.rocket.core.io.radio.api.TXStatus;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Streaming API frame parser.
+ * 
+ * Bytes may be fed in arbitrarily sized chunks; frame data is accumulated in a
+ * buffer owned by this handler and listeners are handed views over that buffer
+ * which are reused for every frame (so they are only valid for the duration of
+ * the callback). Parsing a frame does not allocate.
+ * 
+ * A handler is not thread-safe and must only be fed from a single thread.
+ */
+public class APIFrameHandler {
+	
+	/**
+	 * Receives the frame data of every valid frame (from index 0, the API
+	 * identifier, to the limit), including frame types without a view.
+	 */
+	public interface FrameDataListener {
+		void onFrameData(ByteBuffer frameData);
+	}
+	private volatile FrameDataListener frameDataListener;
+	
+	private static final byte RX_PACKET_IDENTIFIER       = (byte) 0x81;
+	private static final byte RF_MODULE_STAUS_IDENTIFIER = (byte) 0x8A;
+	private static final byte TX_STATUS_IDENTIFIER       = (byte) 0x89;
+	
+	private static final APIFrameListener[] NO_LISTENERS = new APIFrameListener[0];
+	private volatile APIFrameListener[] listeners = NO_LISTENERS;
+	
+	private final byte[] frameData = new byte[APIFrame.MAXIMUM_FRAME_DATA_LENGTH];
+	private final ByteBuffer frameBuffer = ByteBuffer.wrap(frameData);
+	
+	private final RXPacket rxPacket = new RXPacket();
+	private final RFModuleStatus rfModuleStatus = new RFModuleStatus();
+	private final TXStatus txStatus = new TXStatus();
+	
+	enum Mode {
+		START_DELIMITER,
+		LENGTH_MSB,
+		LENGTH_LSB,
+		FRAME_DATA,
+		CHECKSUM,
+	}
+	private Mode mode = Mode.START_DELIMITER;
+	
+	private boolean isEscaped; // AP = 2
+	private boolean isEscaping; // previous byte was the escape character
+	
+	private int length;
+	private int position;
+	private int sum;
+	
+	private long frames;
+	private long errors;
+	
+	public synchronized void addListener(APIFrameListener ... listener) {
+		APIFrameListener[] l = new APIFrameListener[listeners.length + listener.length];
+		System.arraycopy(listeners, 0, l, 0, listeners.length);
+		System.arraycopy(listener, 0, l, listeners.length, listener.length);
+		listeners = l;
+	}
+	
+	public synchronized void removeListener(APIFrameListener ... listener) {
+		for (APIFrameListener remove : listener) {
+			APIFrameListener[] current = listeners;
+			for (int i = 0; i < current.length; i++) {
+				if (current[i] == remove) {
+					APIFrameListener[] l = new APIFrameListener[current.length - 1];
+					System.arraycopy(current, 0, l, 0, i);
+					System.arraycopy(current, i + 1, l, i, current.length - i - 1);
+					listeners = l;
+					break;
+				}
+			}
+		}
+	}
+	
+	public void setFrameDataListener(FrameDataListener listener) {
+		frameDataListener = listener;
+	}
+	
+	/**
+	 * Sets whether control characters in the stream are escaped (API mode 2).
+	 */
+	public void setEscaped(boolean enabled) {
+		if (isEscaped != enabled) {
+			isEscaped = enabled;
+			reset();
+		}
+	}
+	
+	public boolean isEscaped() {
+		return isEscaped;
+	}
+	
+	/**
+	 * Number of valid frames received.
+	 */
+	public long getFrameCount() {
+		return frames;
+	}
+	
+	/**
+	 * Number of frames discarded due to an invalid length (including frames
+	 * too short for their API identifier) or checksum.
+	 */
+	public long getErrorCount() {
+		return errors;
+	}
+	
+	public void onData(byte[] data) {
+		onData(data, 0, data.length);
+	}
+	
+	public void onData(byte[] data, int offset, int length) {
+		for (int i = offset; i < offset + length; i++) {
+			onData(data[i]);
+		}
+	}
+	
+	/**
+	 * Consumes the remaining bytes of the buffer.
+	 */
+	public void onData(ByteBuffer data) {
+		while (data.hasRemaining()) {
+			onData(data.get());
+		}
+	}
+	
+	/**
+	 * Consumes a single byte of the stream.
+	 */
+	public void onData(byte b) {
+		if (b == APIFrame.DEFAULT_START_DELIMITER && (isEscaped || mode == Mode.START_DELIMITER)) {
+			if (mode != Mode.START_DELIMITER) {
+				// an unescaped start delimiter always begins a new frame
+				System.err.println("API frame truncated: " + position + " of " + length + " bytes");
+				errors++;
+			}
+			reset();
+			mode = Mode.LENGTH_MSB;
+			return;
+		}
+		if (mode == Mode.START_DELIMITER) {
+			return;
+		}
+		
+		if (isEscaped) {
+			if (isEscaping) {
+				b ^= APIFrame.ESCAPE_MASK;
+				isEscaping = false;
+			} else if (b == APIFrame.ESCAPE) {
+				isEscaping = true;
+				return;
+			}
+		}
+		
+		switch (mode) {
+		case LENGTH_MSB:
+			length = (b & 0xFF) << 8;
+			mode = Mode.LENGTH_LSB;
+			break;
+		case LENGTH_LSB:
+			length |= b & 0xFF;
+			if (length <= 0 || length > frameData.length) {
+				System.err.println("Invalid API frame length: " + length);
+				errors++;
+				reset();
+				break;
+			}
+			mode = Mode.FRAME_DATA;
+			break;
+		case FRAME_DATA:
+			frameData[position++] = b;
+			sum += b;
+			if (position == length) {
+				mode = Mode.CHECKSUM;
+			}
+			break;
+		case CHECKSUM:
+			if (((sum + b) & 0xFF) != 0xFF) {
+				System.err.println("API frame checksum failed: " + ByteHelper.byteToHexString(b) + " (received) vs. " + ByteHelper.byteToHexString((byte) (0xFF - (sum & 0xFF))) + " (calculated)");
+				errors++;
+			} else if (length < getMinimumLength(frameData[0])) {
+				System.err.println("API frame too short: " + length + " bytes for " + ByteHelper.byteToHexString(frameData[0]));
+				errors++;
+			} else {
+				frames++;
+				process();
+			}
+			reset();
+			break;
+		default:
+			break;
+		}
+	}
+
+	private void reset() {
+		mode = Mode.START_DELIMITER;
+		isEscaping = false;
+		length = 0;
+		position = 0;
+		sum = 0;
+	}
+
+	/**
+	 * @return Length of the shortest valid frame data for the API identifier.
+	 */
+	private static int getMinimumLength(byte identifier) {
+		switch (identifier) {
+		case RX_PACKET_IDENTIFIER:
+			return RXPacket.HEADER_LENGTH;
+		case RF_MODULE_STAUS_IDENTIFIER:
+			return RFModuleStatus.LENGTH;
+		case TX_STATUS_IDENTIFIER:
+			return TXStatus.LENGTH;
+		default:
+			return 1;
+		}
+	}
+	
+	private void process() {
+		frameBuffer.clear();
+		frameBuffer.limit(length);
+		
+		FrameDataListener frameDataListener = this.frameDataListener;
+		if (frameDataListener != null) {
+			frameDataListener.onFrameData(frameBuffer);
+			frameBuffer.clear();
+			frameBuffer.limit(length);
+		}
+		
+		byte identifier = frameData[0];
+		APIFrameListener[] listeners = this.listeners;
+		for (APIFrameListener listener : listeners) {
+			if (identifier == RX_PACKET_IDENTIFIER) {
+				listener.onRXPacket(rxPacket.wrap(frameBuffer));
+			} else if (identifier == RF_MODULE_STAUS_IDENTIFIER) {
+				listener.onRFModuleStatus(rfModuleStatus.wrap(frameBuffer));
+			} else if (identifier == TX_STATUS_IDENTIFIER) {
+				listener.onTXStatus(txStatus.wrap(frameBuffer));
+			} else {
+				System.err.println("Unhandled API frame: " + ByteHelper.byteToHexString(identifier));
+			}
+		}
+	}
+
+}
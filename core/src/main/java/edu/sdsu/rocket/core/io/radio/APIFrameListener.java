@@ -0,0 +1,13 @@
+package edu.sdsu.rocket.core.io.radio;
+
+import edu.sdsu.rocket.core.io.radio.api.RFModuleStatus;
+import edu.sdsu.rocket.core.io.radio.api.RXPacket;
+import edu.sdsu.rocket.core.io.radio.api.TXStatus;
+
+public interface APIFrameListener {
+
+	public void onRXPacket(RXPacket rxPacket);
+	public void onRFModuleStatus(RFModuleStatus rfModuleStatus);
+	public void onTXStatus(TXStatus txStatus);
+	
+}
@@ -0,0 +1,335 @@
+package edu.sdsu.rocket.core.io.radio;
+
+import edu.sdsu.rocket.core.helpers.Stopwatch;
+import edu.sdsu.rocket.core.io.radio.api.RFModuleStatus;
+import edu.sdsu.rocket.core.io.radio.api.RXPacket;
+import edu.sdsu.rocket.core.io.radio.api.TXStatus;
+import edu.sdsu.rocket.core.models.Sensors;
+import edu.sdsu.rocket.core.net.SensorClient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Ground-side receiver of radio telemetry.
+ *
+ * Reads the byte stream of a radio (a serial port, pty or capture file opened as an {@link InputStream}, or bytes
+ * passed to {@link #onData(ByteBuffer)}), decodes {@link TelemetryFrame}s from either raw data (AP = 0) or the RF data
+ * of RX packet API frames (AP = 1 or 2) and updates a {@link Sensors} model, notifying the same listeners as
+ * {@link SensorClient}.
+ *
+ * Frame loss is counted from gaps in the frame sequence. Latency is the time from a frame being started by the sender
+ * to it being decoded, which requires the clocks of both ends to agree (e.g. in tests or with a simulated radio, see
+ * {@link #setClock(Stopwatch)}); otherwise only the variation above the minimum latency is meaningful.
+ */
+public class RadioSensorReceiver implements APIFrameListener, TelemetryDecoder.TelemetryListener {
+
+    public enum Mode {
+        RAW,
+        API,
+        API_ESCAPED,
+    }
+
+    private static final int BUFFER_SIZE = 4096; // bytes
+
+    private final Sensors sensors;
+    private final TelemetryDecoder decoder = new TelemetryDecoder();
+    private final APIFrameHandler apiFrameHandler = new APIFrameHandler();
+    private final ByteBuffer stream = ByteBuffer.allocate(BUFFER_SIZE); // undecoded telemetry
+    private final byte[] readBuffer = new byte[BUFFER_SIZE];
+
+    private volatile Mode mode = Mode.RAW;
+    private volatile SensorClient.SensorClientListener listener;
+    private volatile SensorClient.SampleListener sampleListener;
+    private volatile Stopwatch clock; // of the sender, null for System.nanoTime()
+
+    private Thread thread;
+    private InputStream in;
+
+    private byte mask; // fields updated by the current frame
+    private int lastSequence = -1;
+    private long frameTimestamp; // sender clock
+
+    private volatile long frames;
+    private volatile long lost;
+    private volatile long overflows;
+    private volatile int signalStrength; // -dBm of last RX packet
+    private long totalLatency;
+    private volatile long minimumLatency = Long.MAX_VALUE;
+    private volatile long maximumLatency;
+
+    public RadioSensorReceiver(Sensors sensors) {
+        this.sensors = sensors;
+        apiFrameHandler.addListener(this);
+    }
+
+    /**
+     * Sets the clock the sender timestamps frames with, used to measure latency.
+     */
+    public void setClock(Stopwatch clock) {
+        this.clock = clock;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+        apiFrameHandler.setEscaped(mode == Mode.API_ESCAPED);
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setListener(SensorClient.SensorClientListener listener) {
+        this.listener = listener;
+    }
+
+    public void setSampleListener(SensorClient.SampleListener listener) {
+        this.sampleListener = listener;
+    }
+
+    /**
+     * Reads from the stream on a new thread until it ends or {@link #stop()} is called.
+     */
+    public void start(final InputStream in) {
+        if (thread != null) {
+            throw new IllegalStateException(getClass().getSimpleName() + " already started");
+        }
+        this.in = in;
+        thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    int n;
+                    while (!Thread.currentThread().isInterrupted() && (n = in.read(readBuffer)) != -1) {
+                        onData(readBuffer, 0, n);
+                    }
+                } catch (IOException e) {
+                    if (!Thread.currentThread().isInterrupted()) {
+                        System.err.println(e);
+                    }
+                }
+            }
+        });
+        thread.setName(getClass().getSimpleName());
+        thread.start();
+    }
+
+    /**
+     * Stops reading, closing the stream to interrupt a blocked read.
+     */
+    public void stop() {
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                in.close();
+                thread.join();
+            } catch (IOException | InterruptedException e) {
+                System.err.println(e);
+            }
+            thread = null;
+            in = null;
+        }
+    }
+
+    /**
+     * Waits for the reading thread to reach the end of its stream.
+     */
+    public void join() throws InterruptedException {
+        if (thread != null) {
+            thread.join();
+        }
+    }
+
+    public void onData(byte[] data, int offset, int length) {
+        onData(ByteBuffer.wrap(data, offset, length));
+    }
+
+    /**
+     * Consumes the remaining bytes of the buffer; must only be called from one thread at a time.
+     */
+    public synchronized void onData(ByteBuffer data) {
+        if (mode == Mode.RAW) {
+            append(data);
+        } else {
+            apiFrameHandler.onData(data);
+        }
+    }
+
+    @Override
+    public void onRXPacket(RXPacket rxPacket) {
+        signalStrength = rxPacket.getSignalStrength() & 0xFF;
+        append(rxPacket.getRFData());
+    }
+
+    @Override
+    public void onRFModuleStatus(RFModuleStatus rfModuleStatus) {
+    }
+
+    @Override
+    public void onTXStatus(TXStatus txStatus) {
+    }
+
+    private void append(ByteBuffer data) {
+        while (data.hasRemaining()) {
+            int n = Math.min(data.remaining(), stream.remaining());
+            int limit = data.limit();
+            data.limit(data.position() + n);
+            stream.put(data);
+            data.limit(limit);
+
+            stream.flip();
+            decoder.decode(stream, this);
+            flush();
+            if (stream.position() == 0 && stream.limit() == stream.capacity()) {
+                // a frame can never be larger than the buffer, so the start is corrupt
+                stream.clear();
+                overflows++;
+            } else {
+                stream.compact();
+            }
+        }
+    }
+
+    @Override
+    public void onFrame(int sequence, long baseTimestamp, int count) {
+        flush();
+
+        if (lastSequence != -1) {
+            int gap = (sequence - lastSequence - 1) & 0xFFFF;
+            if (gap < 0x8000) {
+                lost += gap;
+            }
+        }
+        lastSequence = sequence;
+        frameTimestamp = baseTimestamp;
+        frames++;
+
+        Stopwatch clock = this.clock;
+        long latency = (clock == null ? System.nanoTime() : clock.nanoSecondsElapsed()) - baseTimestamp;
+        totalLatency += latency;
+        if (latency < minimumLatency) minimumLatency = latency;
+        if (latency > maximumLatency) maximumLatency = latency;
+    }
+
+    /**
+     * Notifies the listener of the fields updated by the frame just decoded.
+     */
+    private void flush() {
+        if (mask == 0) return;
+        SensorClient.SensorClientListener listener = this.listener;
+        if (listener != null) {
+            listener.onSensorsUpdated(mask);
+        }
+        mask = 0;
+    }
+
+    @Override
+    public void onAnalog(int channel, long timestamp, float value) {
+        if (channel < 0 || channel >= sensors.analog.length) return;
+        sensors.setAnalog(channel, timestamp, value);
+        mask |= Sensors.ANALOG_MASK;
+
+        SensorClient.SampleListener sampleListener = this.sampleListener;
+        if (sampleListener != null) {
+            sampleListener.onSample(channel, sensors.analog[channel].getSequence(), timestamp, value);
+        }
+    }
+
+    @Override
+    public void onGPSPosition(long timestamp, double latitude, double longitude, double altitude) {
+        sensors.setGPS(latitude, longitude, altitude);
+        mask |= Sensors.GPS_MASK;
+    }
+
+    @Override
+    public void onGPSFix(long timestamp, int fixStatus, int satellites) {
+        sensors.setGPSFix(fixStatus, satellites);
+        mask |= Sensors.GPS_MASK;
+    }
+
+    @Override
+    public void onSignalStrength(long timestamp, int signalStrength) {
+        sensors.setSignalStrength(signalStrength);
+        mask |= Sensors.RADIO_MASK;
+    }
+
+    @Override
+    public void onRawTemperature(long timestamp, int temperature) {
+        sensors.setRawTemperature(temperature);
+        mask |= Sensors.SYSTEM_MASK;
+    }
+
+    /**
+     * Number of telemetry frames received.
+     */
+    public long getFrameCount() {
+        return frames;
+    }
+
+    /**
+     * Number of telemetry frames missing from the sequence.
+     */
+    public long getLostCount() {
+        return lost;
+    }
+
+    /**
+     * Fraction of telemetry frames lost.
+     */
+    public float getLossRate() {
+        long total = frames + lost;
+        return total == 0 ? 0f : (float) lost / total;
+    }
+
+    /**
+     * Number of bytes skipped while searching for a frame plus invalid API frames.
+     */
+    public long getErrorCount() {
+        return decoder.getErrorCount() + apiFrameHandler.getErrorCount() + overflows;
+    }
+
+    /**
+     * Signal strength of the last RX packet (-dBm), API mode only.
+     */
+    public int getSignalStrength() {
+        return signalStrength;
+    }
+
+    /**
+     * Base timestamp of the last frame (sender clock, nanoseconds).
+     */
+    public long getFrameTimestamp() {
+        return frameTimestamp;
+    }
+
+    public synchronized long getMeanLatency() {
+        return frames == 0 ? 0 : totalLatency / frames;
+    }
+
+    public long getMinimumLatency() {
+        return frames == 0 ? 0 : minimumLatency;
+    }
+
+    public long getMaximumLatency() {
+        return maximumLatency;
+    }
+
+    public synchronized void resetStatistics() {
+        frames = 0;
+        lost = 0;
+        overflows = 0;
+        totalLatency = 0;
+        minimumLatency = Long.MAX_VALUE;
+        maximumLatency = 0;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + ": frames=" + frames + ", lost=" + lost
+                + " (" + String.format("%.2f", getLossRate() * 100f) + "%), errors=" + getErrorCount()
+                + ", latency=" + getMeanLatency() / 1000L + " us (min " + getMinimumLatency() / 1000L
+                + " us, max " + maximumLatency / 1000L + " us)";
+    }
+
+}
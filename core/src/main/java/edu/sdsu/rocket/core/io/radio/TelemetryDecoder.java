@@ -0,0 +1,124 @@
+package edu.sdsu.rocket.core.io.radio;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Decodes concatenated {@link TelemetryFrame}s.
+ */
+public class TelemetryDecoder {
+
+    public interface TelemetryListener {
+        /**
+         * Called before the records of a frame.
+         *
+         * @param baseTimestamp Nanoseconds (in the clock of the sender).
+         */
+        void onFrame(int sequence, long baseTimestamp, int count);
+        void onAnalog(int channel, long timestamp, float value);
+        void onGPSPosition(long timestamp, double latitude, double longitude, double altitude);
+        void onGPSFix(long timestamp, int fixStatus, int satellites);
+        void onSignalStrength(long timestamp, int signalStrength);
+        void onRawTemperature(long timestamp, int temperature);
+    }
+
+    private long frames;
+    private long errors;
+
+    /**
+     * Number of frames decoded.
+     */
+    public long getFrameCount() {
+        return frames;
+    }
+
+    /**
+     * Number of times the decoder discarded data to find the start of a frame.
+     */
+    public long getErrorCount() {
+        return errors;
+    }
+
+    /**
+     * Decodes every complete frame from the position of {@code buffer}. Bytes that do not begin a valid frame are
+     * skipped; an incomplete frame at the end of the buffer is left unconsumed (so the caller may compact the buffer
+     * and append more data).
+     *
+     * @return Number of frames decoded.
+     */
+    public int decode(ByteBuffer buffer, TelemetryListener listener) {
+        int decoded = 0;
+        while (buffer.remaining() >= TelemetryFrame.HEADER_SIZE) {
+            int start = buffer.position();
+            if (buffer.get(start) != TelemetryFrame.MAGIC || buffer.get(start + 1) != TelemetryFrame.VERSION) {
+                buffer.position(start + 1);
+                errors++;
+                continue;
+            }
+
+            int length = length(buffer, start);
+            if (length < 0) {
+                buffer.position(start + 1);
+                errors++;
+                continue;
+            }
+            if (length > buffer.remaining()) {
+                break; // incomplete
+            }
+
+            buffer.position(start + 2);
+            int sequence = buffer.getShort() & 0xFFFF;
+            long base = buffer.getLong();
+            int count = buffer.get() & 0xFF;
+            listener.onFrame(sequence, base, count);
+            for (int i = 0; i < count; i++) {
+                TelemetryField field = TelemetryField.valueOf(buffer.get());
+                long timestamp = base + buffer.getInt() * 1000L;
+                read(buffer, field, timestamp, listener);
+            }
+            frames++;
+            decoded++;
+        }
+        return decoded;
+    }
+
+    /**
+     * @return Length of the frame starting at {@code start}, the remaining length if the records extend past the
+     *         limit of the buffer or -1 if a field is unknown.
+     */
+    private static int length(ByteBuffer buffer, int start) {
+        int count = buffer.get(start + TelemetryFrame.HEADER_SIZE - 1) & 0xFF;
+        int position = start + TelemetryFrame.HEADER_SIZE;
+        for (int i = 0; i < count; i++) {
+            if (position >= buffer.limit()) {
+                return Integer.MAX_VALUE;
+            }
+            TelemetryField field = TelemetryField.valueOf(buffer.get(position));
+            if (field == null) {
+                return -1;
+            }
+            position += field.getRecordSize();
+        }
+        return position - start;
+    }
+
+    private static void read(ByteBuffer buffer, TelemetryField field, long timestamp, TelemetryListener listener) {
+        switch (field) {
+        case GPS_POSITION:
+            listener.onGPSPosition(timestamp, buffer.getDouble(), buffer.getDouble(), buffer.getFloat());
+            break;
+        case GPS_FIX:
+            listener.onGPSFix(timestamp, buffer.get() & 0xFF, buffer.get() & 0xFF);
+            break;
+        case RADIO_SIGNAL:
+            listener.onSignalStrength(timestamp, buffer.get() & 0xFF);
+            break;
+        case SYSTEM_TEMPERATURE:
+            listener.onRawTemperature(timestamp, buffer.getInt());
+            break;
+        default:
+            listener.onAnalog(field.getChannel(), timestamp, buffer.getFloat());
+            break;
+        }
+    }
+
+}
@@ -0,0 +1,70 @@
+package edu.sdsu.rocket.core.io.radio;
+
+/**
+ * Fields that may be sent in a {@link TelemetryFrame}; the ordinal is the field identifier on the wire.
+ */
+public enum TelemetryField {
+    ANALOG_0          (4),     // float mV
+    ANALOG_1          (4),
+    ANALOG_2          (4),
+    ANALOG_3          (4),
+    ANALOG_4          (4),
+    ANALOG_5          (4),
+    GPS_POSITION      (8 + 8 + 4), // double latitude, double longitude, float altitude
+    GPS_FIX           (1 + 1), // fix status, satellites
+    RADIO_SIGNAL      (1),     // -dBm
+    SYSTEM_TEMPERATURE(4),     // raw temperature
+    ;
+
+    private static final TelemetryField[] VALUES = values();
+
+    private final int size;
+
+    TelemetryField(int size) {
+        this.size = size;
+    }
+
+    public byte getId() {
+        return (byte) ordinal();
+    }
+
+    /**
+     * Size of the value (in bytes).
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Size of a record of this field including its header (in bytes).
+     */
+    public int getRecordSize() {
+        return TelemetryFrame.RECORD_HEADER_SIZE + size;
+    }
+
+    /**
+     * @return Field of the identifier or {@code null} if unknown.
+     */
+    public static TelemetryField valueOf(byte id) {
+        return id >= 0 && id < VALUES.length ? VALUES[id] : null;
+    }
+
+    /**
+     * @return Field of an analog channel.
+     */
+    public static TelemetryField analog(int channel) {
+        return VALUES[ANALOG_0.ordinal() + channel];
+    }
+
+    public boolean isAnalog() {
+        return ordinal() <= ANALOG_5.ordinal();
+    }
+
+    /**
+     * @return Analog channel of this field.
+     */
+    public int getChannel() {
+        return ordinal() - ANALOG_0.ordinal();
+    }
+
+}
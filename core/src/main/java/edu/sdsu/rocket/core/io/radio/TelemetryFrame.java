@@ -0,0 +1,125 @@
+package edu.sdsu.rocket.core.io.radio;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Writes compact telemetry frames of time-stamped field records into a {@link ByteBuffer}.
+ *
+ * A frame is a header (magic, version, sequence, base timestamp and record count) followed by records, each a field
+ * identifier, the offset of its timestamp from the base timestamp (in microseconds) and the value of the field (see
+ * {@link TelemetryField} for value sizes). Frames are self-delimiting so they may be concatenated, see
+ * {@link TelemetryDecoder}.
+ */
+public class TelemetryFrame {
+
+    public static final byte MAGIC = (byte) 0xA5;
+    public static final byte VERSION = 1;
+
+    public static final int HEADER_SIZE = 1 + 1 + 2 + 8 + 1; // magic + version + sequence + base timestamp + count
+    public static final int RECORD_HEADER_SIZE = 1 + 4; // field + timestamp offset
+    public static final int MAXIMUM_RECORDS = 0xFF;
+
+    private static final int COUNT_OFFSET = HEADER_SIZE - 1;
+
+    private ByteBuffer buffer;
+    private int start;
+    private int limit;
+    private long baseTimestamp;
+    private int count;
+
+    /**
+     * Begins a frame at the position of {@code buffer}.
+     *
+     * @param limit Maximum size of the frame (in bytes).
+     * @param baseTimestamp Nanoseconds.
+     */
+    public TelemetryFrame begin(ByteBuffer buffer, int limit, int sequence, long baseTimestamp) {
+        if (limit < HEADER_SIZE || buffer.remaining() < HEADER_SIZE) {
+            throw new IllegalArgumentException("Frame limit " + Math.min(limit, buffer.remaining()) + " is less than the header size");
+        }
+        this.buffer = buffer;
+        this.start = buffer.position();
+        this.limit = Math.min(limit, buffer.remaining());
+        this.baseTimestamp = baseTimestamp;
+        this.count = 0;
+
+        buffer.put(MAGIC);
+        buffer.put(VERSION);
+        buffer.putShort((short) sequence);
+        buffer.putLong(baseTimestamp);
+        buffer.put((byte) 0);
+        return this;
+    }
+
+    public long getBaseTimestamp() {
+        return baseTimestamp;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Size of the frame so far (in bytes).
+     */
+    public int size() {
+        return buffer.position() - start;
+    }
+
+    /**
+     * @return {@code true} if a record of the field fits in the frame.
+     */
+    public boolean hasSpace(TelemetryField field) {
+        return count < MAXIMUM_RECORDS && size() + field.getRecordSize() <= limit;
+    }
+
+    public boolean putAnalog(int channel, long timestamp, float value) {
+        TelemetryField field = TelemetryField.analog(channel);
+        if (!putHeader(field, timestamp)) return false;
+        buffer.putFloat(value);
+        return true;
+    }
+
+    public boolean putGPSPosition(long timestamp, double latitude, double longitude, double altitude) {
+        if (!putHeader(TelemetryField.GPS_POSITION, timestamp)) return false;
+        buffer.putDouble(latitude);
+        buffer.putDouble(longitude);
+        buffer.putFloat((float) altitude);
+        return true;
+    }
+
+    public boolean putGPSFix(long timestamp, int fixStatus, int satellites) {
+        if (!putHeader(TelemetryField.GPS_FIX, timestamp)) return false;
+        buffer.put((byte) (fixStatus & 0xFF));
+        buffer.put((byte) (satellites & 0xFF));
+        return true;
+    }
+
+    public boolean putSignalStrength(long timestamp, int signalStrength) {
+        if (!putHeader(TelemetryField.RADIO_SIGNAL, timestamp)) return false;
+        buffer.put((byte) (signalStrength & 0xFF));
+        return true;
+    }
+
+    public boolean putRawTemperature(long timestamp, int temperature) {
+        if (!putHeader(TelemetryField.SYSTEM_TEMPERATURE, timestamp)) return false;
+        buffer.putInt(temperature);
+        return true;
+    }
+
+    private boolean putHeader(TelemetryField field, long timestamp) {
+        long offset = (timestamp - baseTimestamp) / 1000L;
+        if (!hasSpace(field) || offset != (int) offset) {
+            return false; // full, or not on the clock of the base timestamp
+        }
+        buffer.put(field.getId());
+        buffer.putInt((int) offset);
+        buffer.put(start + COUNT_OFFSET, (byte) ++count);
+        return true;
+    }
+
+}
@@ -0,0 +1,397 @@
+package edu.sdsu.rocket.core.io.radio;
+
+import edu.sdsu.rocket.core.helpers.AtomicSample;
+import edu.sdsu.rocket.core.helpers.PeriodicTimer;
+import edu.sdsu.rocket.core.models.Sensors;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Packs sensor fields into {@link TelemetryFrame}s within the byte budget of a radio link.
+ *
+ * Each field is added as a channel with a requested rate and a priority. The byte budget of the link (less frame
+ * overhead) is allocated to channels in order of priority, so when the channels ask for more than the link can carry
+ * the lowest priorities are slowed down (or not sent at all) and the link runs close to full. When the slot of a
+ * channel comes due its latest value is appended to the pending frame (an analog channel is only sent when it has a
+ * new sample). A frame is released once it is full or its first record has waited the maximum latency, and only when
+ * the link has had time to drain the previous frames, so the serial buffer of the radio is never overrun.
+ *
+ * Scheduling and every timestamp sent use one clock, that of the analog sample timestamps in {@link Sensors} (e.g.
+ * {@link edu.sdsu.rocket.core.helpers.Stopwatch#nanoSecondsElapsed()}), passed to {@link #poll(long)}.
+ *
+ * Only a single thread may poll a scheduler.
+ */
+public class TelemetryScheduler {
+
+    private static final long NANOSECONDS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    public static final int DEFAULT_MAXIMUM_FRAME_SIZE = 256; // bytes
+    public static final long DEFAULT_MAXIMUM_LATENCY = TimeUnit.MILLISECONDS.toNanos(200);
+    public static final float DEFAULT_UTILIZATION = 0.95f;
+
+    public class Channel {
+
+        final TelemetryField field;
+        final int priority;
+        final PeriodicTimer timer = new PeriodicTimer();
+        volatile double rate; // requested, Hz
+        volatile double allocatedRate; // Hz
+        double appliedRate; // rate of timer, only accessed by polling thread
+        long lastSequence; // analog only
+        volatile long sent;
+
+        Channel(TelemetryField field, double rate, int priority) {
+            if (rate <= 0) {
+                throw new IllegalArgumentException("Rate must be positive: " + rate);
+            }
+            this.field = field;
+            this.rate = rate;
+            this.priority = priority;
+            timer.setOverrunPolicy(PeriodicTimer.OverrunPolicy.SKIP);
+        }
+
+        public TelemetryField getField() {
+            return field;
+        }
+
+        public int getPriority() {
+            return priority;
+        }
+
+        /**
+         * @param rate Hz
+         */
+        public void setRate(double rate) {
+            if (rate <= 0) {
+                throw new IllegalArgumentException("Rate must be positive: " + rate);
+            }
+            this.rate = rate;
+            isDirty = true;
+        }
+
+        /**
+         * Requested rate (Hz).
+         */
+        public double getRate() {
+            return rate;
+        }
+
+        /**
+         * Rate allocated within the bandwidth of the link (Hz).
+         */
+        public double getAllocatedRate() {
+            return allocatedRate;
+        }
+
+        /**
+         * Number of records sent.
+         */
+        public long getSent() {
+            return sent;
+        }
+
+        /**
+         * Number of slots skipped because the link had no budget remaining.
+         */
+        public long getSkipped() {
+            return timer.getSkipped();
+        }
+
+        boolean isDue(long now) {
+            double r = allocatedRate;
+            if (r != appliedRate) {
+                if (r > 0) {
+                    timer.setFrequency(r);
+                    timer.reset(now);
+                }
+                appliedRate = r;
+            }
+            return r > 0 && timer.isDue(now);
+        }
+
+        @Override
+        public String toString() {
+            return field + ": " + String.format("%.1f", allocatedRate) + " of " + rate + " Hz, sent=" + sent + ", skipped=" + getSkipped();
+        }
+    }
+
+    private final Sensors sensors;
+    private final List<Channel> channels = new ArrayList<>(); // highest priority first
+    private final AtomicSample.Reading reading = new AtomicSample.Reading();
+
+    private final TelemetryFrame frame = new TelemetryFrame();
+    private ByteBuffer buffer = ByteBuffer.allocate(DEFAULT_MAXIMUM_FRAME_SIZE);
+    private int maximumFrameSize = DEFAULT_MAXIMUM_FRAME_SIZE;
+    private boolean isPending;
+    private boolean isFull;
+    private long pendingSince; // time first record was added
+    private int sequence;
+
+    private volatile long maximumLatency = DEFAULT_MAXIMUM_LATENCY;
+    private volatile int overhead; // bytes per frame added by the link (e.g. API framing)
+    private volatile double bytesPerNanosecond;
+    private double credit; // bytes the link may accept now
+    private long lastPoll;
+    private boolean isPolled;
+
+    private long windowStart;
+    private long windowBytes;
+    private volatile float utilization;
+    private volatile long frames;
+    private volatile boolean isDirty = true; // allocation out of date
+
+    public TelemetryScheduler(Sensors sensors) {
+        this.sensors = sensors;
+        setBandwidth(960); // 9600 baud, 8N1
+    }
+
+    /**
+     * Adds a channel, must not be called once polling has begun.
+     *
+     * @param rate Hz
+     * @param priority Higher priorities are packed first.
+     */
+    public synchronized Channel add(TelemetryField field, double rate, int priority) {
+        Channel channel = new Channel(field, rate, priority);
+        int i = 0;
+        while (i < channels.size() && channels.get(i).priority >= priority) i++;
+        channels.add(i, channel);
+        isDirty = true;
+        return channel;
+    }
+
+    public List<Channel> getChannels() {
+        return channels;
+    }
+
+    /**
+     * Sets the usable throughput of the link.
+     *
+     * @param bytesPerSecond Bytes per second the link can sustain (after any utilization margin).
+     */
+    public void setBandwidth(double bytesPerSecond) {
+        bytesPerNanosecond = bytesPerSecond / NANOSECONDS_PER_SECOND;
+        isDirty = true;
+    }
+
+    public double getBandwidth() {
+        return bytesPerNanosecond * NANOSECONDS_PER_SECOND;
+    }
+
+    /**
+     * Sets the number of bytes the link adds to each frame, counted against the bandwidth.
+     */
+    public void setFrameOverhead(int bytes) {
+        overhead = bytes;
+        isDirty = true;
+    }
+
+    /**
+     * Sets the maximum size of a frame (excluding overhead), must not be called once polling has begun.
+     */
+    public void setMaximumFrameSize(int bytes) {
+        if (bytes < TelemetryFrame.HEADER_SIZE + TelemetryField.GPS_POSITION.getRecordSize()) {
+            throw new IllegalArgumentException("Maximum frame size too small: " + bytes);
+        }
+        maximumFrameSize = bytes;
+        buffer = ByteBuffer.allocate(bytes);
+        isDirty = true;
+    }
+
+    public int getMaximumFrameSize() {
+        return maximumFrameSize;
+    }
+
+    /**
+     * Sets the longest a record may wait for its frame to fill before the frame is sent anyway.
+     */
+    public void setMaximumLatency(long nanoseconds) {
+        maximumLatency = nanoseconds;
+        isDirty = true;
+    }
+
+    /**
+     * Fraction of the bandwidth used over the last second.
+     */
+    public float getUtilization() {
+        return utilization;
+    }
+
+    public long getFrameCount() {
+        return frames;
+    }
+
+    /**
+     * Packs due fields into the pending frame and releases it if ready.
+     *
+     * @param now Current time on the clock of the analog sample timestamps (nanoseconds).
+     * @return Frame to send (position to limit, valid until the next poll) or {@code null} if no frame is ready.
+     */
+    public ByteBuffer poll(long now) {
+        if (isDirty) {
+            isDirty = false;
+            allocate();
+        }
+        if (!isPolled) {
+            isPolled = true;
+            lastPoll = now;
+            windowStart = now;
+        }
+        double maximumCredit = maximumFrameSize + overhead;
+        credit = Math.min(maximumCredit, credit + (now - lastPoll) * bytesPerNanosecond);
+        lastPoll = now;
+
+        for (Channel channel : channels) {
+            if (isFull) break; // slots remain due for the next frame
+            if (!channel.isDue(now)) continue;
+
+            if (!isPending || frame.isEmpty()) {
+                buffer.clear();
+                frame.begin(buffer, maximumFrameSize, sequence, now);
+                isPending = true;
+            }
+            if (!frame.hasSpace(channel.field)) {
+                isFull = true;
+                break;
+            }
+
+            boolean isEmpty = frame.isEmpty();
+            if (put(channel, now)) {
+                if (isEmpty) pendingSince = now;
+                channel.sent++;
+            }
+            channel.timer.advance(now);
+        }
+
+        if (!isPending || frame.isEmpty()) {
+            return null;
+        }
+        if (!isFull && now - pendingSince < maximumLatency) {
+            return null;
+        }
+        int size = frame.size() + overhead;
+        if (credit < size) {
+            return null;
+        }
+
+        credit -= size;
+        windowBytes += size;
+        if (now - windowStart >= NANOSECONDS_PER_SECOND) {
+            utilization = (float) (windowBytes / ((now - windowStart) * bytesPerNanosecond));
+            windowBytes = 0;
+            windowStart = now;
+        }
+
+        isPending = false;
+        isFull = false;
+        sequence = (sequence + 1) & 0xFFFF;
+        frames++;
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Allocates the payload budget of the link to channels in order of priority, sharing it proportionally between
+     * channels of equal priority.
+     */
+    private void allocate() {
+        double bandwidth = getBandwidth();
+        double frameCost = TelemetryFrame.HEADER_SIZE + overhead; // bytes
+        double frameCapacity = maximumFrameSize - TelemetryFrame.HEADER_SIZE; // bytes of records
+        double framesPerSecond = (double) NANOSECONDS_PER_SECOND / maximumLatency; // when frames are released by latency
+
+        // payload + frameCost * max(framesPerSecond, payload / frameCapacity) <= bandwidth
+        double remaining = Math.min(
+                bandwidth - frameCost * framesPerSecond,
+                bandwidth * frameCapacity / (frameCapacity + frameCost));
+
+        int i = 0;
+        while (i < channels.size()) {
+            int j = i;
+            double demand = 0; // bytes per second
+            while (j < channels.size() && channels.get(j).priority == channels.get(i).priority) {
+                Channel channel = channels.get(j++);
+                demand += channel.rate * channel.field.getRecordSize();
+            }
+            double scale = demand <= 0 ? 0 : Math.max(0, Math.min(1, remaining / demand));
+            for (int k = i; k < j; k++) {
+                Channel channel = channels.get(k);
+                channel.allocatedRate = channel.rate * scale;
+            }
+            remaining -= demand * scale;
+            i = j;
+        }
+    }
+
+    /**
+     * @return {@code false} if there was nothing new to send.
+     */
+    private boolean put(Channel channel, long now) {
+        TelemetryField field = channel.field;
+        if (field.isAnalog()) {
+            int index = field.getChannel();
+            if (index >= sensors.analog.length) return false;
+            sensors.analog[index].get(reading);
+            if (reading.sequence == channel.lastSequence) return false;
+            channel.lastSequence = reading.sequence;
+            return frame.putAnalog(index, reading.timestamp, reading.value);
+        }
+
+        switch (field) {
+        case GPS_POSITION:
+            double latitude, longitude, altitude;
+            long version;
+            do {
+                version = sensors.beginRead();
+                latitude = sensors.gps.getLatitude();
+                longitude = sensors.gps.getLongitude();
+                altitude = sensors.gps.getAltitude();
+            } while (!sensors.validateRead(version));
+            return frame.putGPSPosition(now, latitude, longitude, altitude);
+        case GPS_FIX:
+            int fixStatus, satellites;
+            do {
+                version = sensors.beginRead();
+                fixStatus = sensors.gps.getFixStatus();
+                satellites = sensors.gps.getSatellites();
+            } while (!sensors.validateRead(version));
+            return frame.putGPSFix(now, fixStatus, satellites);
+        case RADIO_SIGNAL:
+            return frame.putSignalStrength(now, sensors.radio.getSignalStrength());
+        case SYSTEM_TEMPERATURE:
+            return frame.putRawTemperature(now, sensors.system.getRawTemperature());
+        default:
+            return false;
+        }
+    }
+
+    /**
+     * Time at which the next slot is due, the pending frame must be sent or the link will have drained enough to send
+     * it, whichever is first.
+     */
+    public long getNextDeadline(long now) {
+        long next = now + maximumLatency;
+        if (isPending && !frame.isEmpty()) {
+            double needed = frame.size() + overhead - credit;
+            long drained = needed <= 0 ? now : now + (long) (needed / bytesPerNanosecond);
+            long latency = pendingSince + maximumLatency;
+            next = Math.max(drained, Math.min(latency, next));
+            if (isFull) return next;
+        }
+        for (Channel channel : channels) {
+            if (channel.appliedRate <= 0) continue;
+            long deadline = channel.timer.getDeadline();
+            if (deadline - next < 0) next = deadline;
+        }
+        return next;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " (" + String.format("%.1f", utilization * 100f) + "% of " + Math.round(getBandwidth()) + " B/s, frames=" + frames + "): " + channels;
+    }
+
+}
@@ -1,4 +1,6 @@
-package edu.sdsu.rocket.server.io.radio.api;
+package edu.sdsu.rocket.core.io.radio.api;
+
+import java.nio.ByteBuffer;
 
 /*
  * Start Delimiter |   Length  |        Frame Data      | Checksum
@@ -14,9 +16,19 @@ public class APIFrame {
 	
 	// Start Delimiter (1) + Length (2) + Frame Data + Checksum (1)
 	public static final int MAXIMUM_FRAME_LENGTH = 1 + 2 + MAXIMUM_FRAME_DATA_LENGTH + 1;
+	
+	// Start Delimiter (1) + Length (2) + Checksum (1)
+	public static final int FRAME_OVERHEAD = 1 + 2 + 1;
 
 	public static final byte DEFAULT_START_DELIMITER = 0x7E;
 	
+	// API mode 2 (AP = 2) escapes these bytes after the start delimiter by
+	// writing ESCAPE followed by the byte XOR ESCAPE_MASK
+	public static final byte ESCAPE      = 0x7D;
+	public static final byte XON         = 0x11;
+	public static final byte XOFF        = 0x13;
+	public static final byte ESCAPE_MASK = 0x20;
+	
 	private final byte startDelimiter;
 	private final byte[] frameData;
 	private final byte checksum;
@@ -50,6 +62,22 @@ public class APIFrame {
 		return checksum;
 	}
 
+	public static boolean isEscaped(byte b) {
+		return b == DEFAULT_START_DELIMITER || b == ESCAPE || b == XON || b == XOFF;
+	}
+	
+	/**
+	 * Puts a byte following the start delimiter, escaping it if required.
+	 */
+	public static void put(ByteBuffer out, byte b, boolean escaped) {
+		if (escaped && isEscaped(b)) {
+			out.put(ESCAPE);
+			out.put((byte) (b ^ ESCAPE_MASK));
+		} else {
+			out.put(b);
+		}
+	}
+	
 	public static byte checksum(byte[] data) {
 		int total = 0;
 		for (byte b : data) total += b;
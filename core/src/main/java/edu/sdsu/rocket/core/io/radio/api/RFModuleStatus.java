@@ -0,0 +1,47 @@
+package edu.sdsu.rocket.core.io.radio.api;
+
+import java.nio.ByteBuffer;
+
+/**
+ * View over the frame data of an RF module status (see {@link RXPacket} for
+ * lifetime).
+ */
+public class RFModuleStatus {
+
+//	private static final int API_IDENTIFIER_INDEX = 0;
+	private static final int STATUS_INDEX         = 1;
+	
+	// API Identifier (1) + Status (1)
+	public static final int LENGTH = 1 + 1;
+	
+	// status values (not bit flags)
+	private static final byte HARDWARE_RESET       = 0x0;
+	private static final byte WATCHDOG_TIMER_RESET = 0x1;
+	
+	private ByteBuffer frameData;
+	
+	public RFModuleStatus() {
+	}
+	
+	public RFModuleStatus(byte[] frameData) {
+		wrap(ByteBuffer.wrap(frameData));
+	}
+	
+	public RFModuleStatus wrap(ByteBuffer frameData) {
+		this.frameData = frameData;
+		return this;
+	}
+	
+	public byte getStatus() {
+		return frameData.get(STATUS_INDEX);
+	}
+	
+	public boolean isHardwareReset() {
+		return getStatus() == HARDWARE_RESET;
+	}
+	
+	public boolean isWatchdogTimerReset() {
+		return getStatus() == WATCHDOG_TIMER_RESET;
+	}
+	
+}
@@ -0,0 +1,144 @@
+package edu.sdsu.rocket.core.io.radio.api;
+
+import java.nio.ByteBuffer;
+
+/**
+ * View over the frame data of an RX packet.
+ * 
+ * Nothing is copied from the frame data, so a packet received from an API
+ * frame listener is only valid for the duration of the callback.
+ */
+public class RXPacket {
+
+	public static final byte RX_PACKET_API_IDENTIFIER = (byte) 0x81;
+	
+	// API Identifier (1) + Source Address (2) + RSSI (1) + Options (1)
+	public static final int HEADER_LENGTH = 1 + 2 + 1 + 1;
+	
+	public static final byte ACK_BIT = 0x1;
+	public static final byte INDICATE_BROADCAST_BIT = 0x2;
+	
+	private static final int API_IDENTIFIER_INDEX = 0;
+	
+	/**
+	 * Source Address
+	 * MSB (most significant byte) first, LSB (least significant) last
+	 */
+	private static final int SOURCE_ADDRESS_INDEX = 1;
+	
+	/**
+	 * RSSI
+	 * Received Signal Strength Indicator - Hexadecimal equivalent of (-dBm)
+	 * value. (For example: If RX signal strength = -40 dBm, "0x28" (40 decimal)
+	 * is returned)
+	 */
+	private static final int SIGNAL_STRENGTH_INDEX = 3;
+	
+	/**
+	 * Options
+	 * bit 0 = ACK
+	 * bit 1 = Indicate broadcast
+	 * bits 2-7 [reserved]
+	 */
+	private static final int OPTIONS_INDEX = 4;
+	
+	/**
+	 * RF Data
+	 * Up to 2048 Bytes per packet
+	 */
+	private static final int RF_DATA_INDEX = 5;
+	
+	private ByteBuffer frameData;
+	private ByteBuffer rfData;
+	
+	public RXPacket() {
+	}
+	
+	public RXPacket(byte[] frameData) {
+		wrap(ByteBuffer.wrap(frameData));
+	}
+	
+	/**
+	 * Points this packet at the frame data from index 0 to the limit of the
+	 * buffer.
+	 * 
+	 * @return this packet
+	 */
+	public RXPacket wrap(ByteBuffer frameData) {
+		if (this.frameData != frameData) {
+			this.frameData = frameData;
+			rfData = frameData.duplicate();
+		}
+		rfData.limit(frameData.limit());
+		rfData.position(RF_DATA_INDEX);
+		return this;
+	}
+	
+	/**
+	 * Encodes a complete RX packet API frame for the data (position to limit)
+	 * directly into {@code out}, as a module would on receiving an RF packet.
+	 * 
+	 * @param signalStrength RSSI (-dBm).
+	 * @param escaped Escape control characters (API mode 2).
+	 */
+	public static void encode(ByteBuffer out, short sourceAddress, byte signalStrength, byte options, ByteBuffer data, boolean escaped) {
+		int length = HEADER_LENGTH + data.remaining();
+		if (length > APIFrame.MAXIMUM_FRAME_DATA_LENGTH) {
+			throw new IllegalArgumentException("Frame data length " + length + " exceed maximum data length of " + APIFrame.MAXIMUM_FRAME_DATA_LENGTH);
+		}
+		
+		out.put(APIFrame.DEFAULT_START_DELIMITER);
+		APIFrame.put(out, (byte) (length >> 8), escaped);
+		APIFrame.put(out, (byte) length, escaped);
+		
+		int sum = RX_PACKET_API_IDENTIFIER + (sourceAddress >> 8) + sourceAddress + signalStrength + options;
+		APIFrame.put(out, RX_PACKET_API_IDENTIFIER, escaped);
+		APIFrame.put(out, (byte) (sourceAddress >> 8), escaped);
+		APIFrame.put(out, (byte) sourceAddress, escaped);
+		APIFrame.put(out, signalStrength, escaped);
+		APIFrame.put(out, options, escaped);
+		while (data.hasRemaining()) {
+			byte b = data.get();
+			sum += b;
+			APIFrame.put(out, b, escaped);
+		}
+		APIFrame.put(out, (byte) (0xFF - (sum & 0xFF)), escaped);
+	}
+	
+	public byte getAPIIdentifier() {
+		return frameData.get(API_IDENTIFIER_INDEX);
+	}
+
+	public short getSourceAddres() {
+		return frameData.getShort(SOURCE_ADDRESS_INDEX);
+	}
+	
+	public byte getSignalStrength() {
+		return frameData.get(SIGNAL_STRENGTH_INDEX);
+	}
+	
+	public byte getOptions() {
+		return frameData.get(OPTIONS_INDEX);
+	}
+	
+	/**
+	 * RF data from the current position to the limit of the returned buffer
+	 * (rewound each time the packet is wrapped).
+	 */
+	public ByteBuffer getRFData() {
+		return rfData;
+	}
+	
+	public int getRFDataLength() {
+		return frameData.limit() - RF_DATA_INDEX;
+	}
+	
+	public boolean isACK() {
+		return (getOptions() & ACK_BIT) != 0;
+	}
+	
+	public boolean isBroadcast() {
+		return (getOptions() & INDICATE_BROADCAST_BIT) != 0;
+	}
+	
+}
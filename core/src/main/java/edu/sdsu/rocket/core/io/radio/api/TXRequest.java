@@ -0,0 +1,87 @@
+package edu.sdsu.rocket.core.io.radio.api;
+
+import java.nio.ByteBuffer;
+
+public class TXRequest {
+
+	public static final byte TX_REQUEST_API_IDENTIFIER = 0x01;
+	public static final short BROADCAST_ADDRESS = (short) 0xFFFF;
+	public static final byte FRAME_ID_DISABLE = 0x0;
+	public static final byte OPTIONS_STANDARD    = 0x0;
+	public static final byte OPTIONS_DISABLE_ACK = 0x1;
+	
+	// API Identifier (1) + Frame ID (1) + Destination Address (2) + Options (1)
+	public static final int HEADER_LENGTH = 1 + 1 + 2 + 1;
+	
+	// buffer size is maximum frame data length minus the identifier byte
+	private static final int BUFFER_SIZE = APIFrame.MAXIMUM_FRAME_DATA_LENGTH - 1;
+	
+	private byte[] frameData;
+	private byte checksum;
+	
+	public TXRequest(byte[] data) {
+		this(BROADCAST_ADDRESS, data);
+	}
+	
+	public TXRequest(short destinationAddress, byte[] data) {
+		this((byte) 0x0, destinationAddress, data);
+	}
+	
+	public TXRequest(byte frameId, short destinationAddress, byte[] data) {
+		this(frameId, destinationAddress, OPTIONS_STANDARD, data);
+	}
+	
+	public TXRequest(byte frameId, short destinationAddress, byte options, byte[] data) {
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		buffer.put(TX_REQUEST_API_IDENTIFIER);
+		buffer.put(frameId);
+		buffer.putShort(destinationAddress);
+		buffer.put(options);
+		buffer.put(data);
+		
+		frameData = new byte[buffer.position()];
+		buffer.rewind();
+		buffer.get(frameData);
+		
+		checksum = APIFrame.checksum(frameData);
+	}
+
+	/**
+	 * Encodes a complete TX request API frame for the data (position to limit)
+	 * directly into {@code out}, computing the checksum as it goes.
+	 * 
+	 * @param escaped Escape control characters (API mode 2).
+	 */
+	public static void encode(ByteBuffer out, byte frameId, short destinationAddress, byte options, ByteBuffer data, boolean escaped) {
+		int length = HEADER_LENGTH + data.remaining();
+		if (length > APIFrame.MAXIMUM_FRAME_DATA_LENGTH) {
+			throw new IllegalArgumentException("Frame data length " + length + " exceed maximum data length of " + APIFrame.MAXIMUM_FRAME_DATA_LENGTH);
+		}
+		
+		out.put(APIFrame.DEFAULT_START_DELIMITER);
+		APIFrame.put(out, (byte) (length >> 8), escaped);
+		APIFrame.put(out, (byte) length, escaped);
+		
+		int sum = TX_REQUEST_API_IDENTIFIER + frameId + (destinationAddress >> 8) + destinationAddress + options;
+		APIFrame.put(out, TX_REQUEST_API_IDENTIFIER, escaped);
+		APIFrame.put(out, frameId, escaped);
+		APIFrame.put(out, (byte) (destinationAddress >> 8), escaped);
+		APIFrame.put(out, (byte) destinationAddress, escaped);
+		APIFrame.put(out, options, escaped);
+		while (data.hasRemaining()) {
+			byte b = data.get();
+			sum += b;
+			APIFrame.put(out, b, escaped);
+		}
+		APIFrame.put(out, (byte) (0xFF - (sum & 0xFF)), escaped);
+	}
+	
+	public byte[] getFrameData() {
+		return frameData;
+	}
+	
+	public byte getChecksum() {
+		return checksum;
+	}
+
+}
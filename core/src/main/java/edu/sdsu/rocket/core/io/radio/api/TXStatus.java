@@ -0,0 +1,47 @@
+package edu.sdsu.rocket.core.io.radio.api;
+
+import java.nio.ByteBuffer;
+
+/**
+ * View over the frame data of a TX status (see {@link RXPacket} for lifetime).
+ */
+public class TXStatus {
+
+//	private static final int API_IDENTIFIER_INDEX = 0;
+	private static final int FRAME_ID_INDEX       = 1;
+	private static final int STATUS_INDEX         = 2;
+	
+	// API Identifier (1) + Frame ID (1) + Status (1)
+	public static final int LENGTH = 1 + 1 + 1;
+	
+	private ByteBuffer frameData;
+
+	public TXStatus() {
+	}
+	
+	public TXStatus(byte[] frameData) {
+		wrap(ByteBuffer.wrap(frameData));
+	}
+	
+	public TXStatus wrap(ByteBuffer frameData) {
+		this.frameData = frameData;
+		return this;
+	}
+	
+	public byte getFrameID() {
+		return frameData.get(FRAME_ID_INDEX);
+	}
+	
+	public byte getStatus() {
+		return frameData.get(STATUS_INDEX);
+	}
+	
+	public boolean isSuccess() {
+		return getStatus() == 0;
+	}
+	
+	public boolean isNoACKReceived() {
+		return getStatus() == 1;
+	}
+
+}
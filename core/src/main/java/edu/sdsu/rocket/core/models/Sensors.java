@@ -1,12 +1,23 @@
 package edu.sdsu.rocket.core.models;
 
-import edu.sdsu.rocket.core.helpers.AtomicIntFloat;
+import edu.sdsu.rocket.core.helpers.AtomicSample;
+import edu.sdsu.rocket.core.helpers.SampleRing;
 
 import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Latest readings of all sensors.
+ *
+ * Updates made through the setters of this class (rather than directly on the individual fields) are versioned so
+ * that {@link #toByteBuffer(ByteBuffer, byte)} and {@link #snapshot(Sensors)} always observe a coherent frame, e.g. a
+ * GPS position is never mixed with the longitude of a previous fix. Writers never wait: each update increments a
+ * begun and then a completed counter; readers retry if an update began or was in progress while they were reading.
+ */
 public class Sensors {
     
-    public final AtomicIntFloat[] analog = new AtomicIntFloat[6]; // mV
+    public final AtomicSample[] analog = new AtomicSample[6]; // ns, mV
+    public final SampleRing[] analogSamples = new SampleRing[analog.length]; // recent history of analog
     public final GPS gps = new GPS(); // degrees, m
     public final Radio radio = new Radio(); // -dBm
     public final Status system = new Status(); // C
@@ -17,26 +28,126 @@ public class Sensors {
     public static final byte RADIO_MASK  = (byte) 0b0000_1000;
     public static final byte ALL_MASK    = (byte) 0b1111_1111;
 
+    public static final int SAMPLE_HISTORY = 4096; // samples per analog channel (~4.7 s at 860 SPS)
+
+    private final AtomicLong begun = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+
     public Sensors() {
         for (int i = 0; i < analog.length; i++) {
-            analog[i] = new AtomicIntFloat();
+            analog[i] = new AtomicSample();
+            analogSamples[i] = new SampleRing(SAMPLE_HISTORY);
         }
     }
 
+    /**
+     * Marks the start of an update spanning multiple fields, must be followed by {@link #endWrite()}.
+     */
+    public void beginWrite() {
+        begun.incrementAndGet();
+    }
+
+    public void endWrite() {
+        completed.incrementAndGet();
+    }
+
+    /**
+     * @return Version to be passed to {@link #validateRead(long)} once reading has finished.
+     */
+    public long beginRead() {
+        return completed.get();
+    }
+
+    /**
+     * @return {@code true} if no update was in progress or started since {@link #beginRead()} returned
+     *         {@code version}.
+     */
+    public boolean validateRead(long version) {
+        return begun.get() == version;
+    }
+
+    /**
+     * Sets the latest reading of an analog channel and appends it to {@link #analogSamples}.
+     */
+    public void setAnalog(int index, long timestamp, float value) {
+        beginWrite();
+        analog[index].set(timestamp, value);
+        endWrite();
+        analogSamples[index].add(timestamp, value);
+    }
+
+    public void setGPS(double latitude, double longitude, double altitude) {
+        beginWrite();
+        gps.set(latitude, longitude, altitude);
+        endWrite();
+    }
+
+    public void setGPSFix(int fixStatus, int satellites) {
+        beginWrite();
+        gps.setFixStatus(fixStatus);
+        gps.setSatellites(satellites);
+        endWrite();
+    }
+
+    public void setSignalStrength(int signalStrength) {
+        beginWrite();
+        radio.setSignalStrength(signalStrength);
+        endWrite();
+    }
+
+    public void setRawTemperature(int temperature) {
+        beginWrite();
+        system.setRawTemperature(temperature);
+        endWrite();
+    }
+
+    /**
+     * Copies a coherent frame of all sensors into {@code into}.
+     */
+    public void snapshot(Sensors into) {
+        into.beginWrite();
+        long version;
+        do {
+            version = beginRead();
+            for (int i = 0; i < analog.length; i++) {
+                into.analog[i].set(analog[i]);
+            }
+            into.gps.set(gps.getLatitude(), gps.getLongitude(), gps.getAltitude());
+            into.gps.setFixStatus(gps.getFixStatus());
+            into.gps.setSatellites(gps.getSatellites());
+            into.radio.setSignalStrength(radio.getSignalStrength());
+            into.system.setRawTemperature(system.getRawTemperature());
+        } while (!validateRead(version));
+        into.endWrite();
+    }
+
     public void toByteBuffer(ByteBuffer buffer) {
         toByteBuffer(buffer, ALL_MASK);
     }
     
+    /**
+     * Writes a coherent frame of the sensors selected by {@code mask}, retrying if an update occurs while writing.
+     */
     public void toByteBuffer(ByteBuffer buffer, byte mask) {
+        final int start = buffer.position();
+        long version;
+        do {
+            buffer.position(start);
+            version = beginRead();
+            write(buffer, mask);
+        } while (!validateRead(version));
+    }
+
+    private void write(ByteBuffer buffer, byte mask) {
         if (mask == 0) mask = ALL_MASK;
         
         if ((mask & ANALOG_MASK) != 0) {
-            buffer.putLong(analog[0].get());
-            buffer.putLong(analog[1].get());
-            buffer.putLong(analog[2].get());
-            buffer.putLong(analog[3].get());
-            buffer.putLong(analog[4].get());
-            buffer.putLong(analog[5].get());
+            analog[0].toByteBuffer(buffer);
+            analog[1].toByteBuffer(buffer);
+            analog[2].toByteBuffer(buffer);
+            analog[3].toByteBuffer(buffer);
+            analog[4].toByteBuffer(buffer);
+            analog[5].toByteBuffer(buffer);
         }
 
         if ((mask & GPS_MASK) != 0) {
@@ -61,15 +172,24 @@ public class Sensors {
     }
     
     public void fromByteBuffer(ByteBuffer buffer, byte mask) {
+        beginWrite();
+        try {
+            read(buffer, mask);
+        } finally {
+            endWrite();
+        }
+    }
+
+    private void read(ByteBuffer buffer, byte mask) {
         if (mask == 0) mask = ALL_MASK;
         
         if ((mask & ANALOG_MASK) != 0) {
-            analog[0].set(buffer.getLong());
-            analog[1].set(buffer.getLong());
-            analog[2].set(buffer.getLong());
-            analog[3].set(buffer.getLong());
-            analog[4].set(buffer.getLong());
-            analog[5].set(buffer.getLong());
+            analog[0].fromByteBuffer(buffer);
+            analog[1].fromByteBuffer(buffer);
+            analog[2].fromByteBuffer(buffer);
+            analog[3].fromByteBuffer(buffer);
+            analog[4].fromByteBuffer(buffer);
+            analog[5].fromByteBuffer(buffer);
         }
 
         if ((mask & GPS_MASK) != 0) {
@@ -1,16 +1,15 @@
 package edu.sdsu.rocket.core.net;
 
 import java.io.IOException;
-import java.net.DatagramPacket;
-import java.net.DatagramSocket;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
-import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
 
 public class DatagramClient {
 	
 	private final InetSocketAddress address;
-	private DatagramSocket socket;
+	private volatile DatagramChannel channel;
 	
 	private Thread thread;
 	
@@ -32,33 +31,42 @@ public class DatagramClient {
 		}
 	}
 	
-	public void start() throws SocketException {
-		socket = new DatagramSocket();
+	public void start() throws IOException {
+		channel = DatagramChannel.open();
+		channel.connect(address);
 		
-		runnable = new DatagramPacketRunnable(socket);
+		runnable = new DatagramPacketRunnable(channel);
 		runnable.setListener(listener);
 		
-		thread = new InterruptableDatagramThread(socket, runnable);
+		thread = new Thread(runnable);
 		thread.setName(getClass().getSimpleName());
 		thread.start();
 	}
 	
 	public void stop() {
 		if (thread != null) {
-			thread.interrupt();
+			thread.interrupt(); // closes the channel if blocked in read
 			try {
+				channel.close();
 				thread.join();
+			} catch (IOException e) {
+				System.err.println(e);
 			} catch (InterruptedException e) {
 				e.printStackTrace();
 			}
 			thread = null;
 		}
+		channel = null;
 		runnable = null;
 	}
 	
-	public void send(byte[] data, int length) throws IOException {
-		DatagramPacket packet = new DatagramPacket(data, length, address);
-		socket.send(packet);
+	/**
+	 * Sends the remaining contents of the buffer to the server.
+	 */
+	public void send(ByteBuffer src) throws IOException {
+		DatagramChannel channel = this.channel;
+		if (channel == null) return;
+		channel.write(src);
 	}
 	
 }
@@ -1,15 +1,61 @@
 package edu.sdsu.rocket.core.net;
 
 import java.net.SocketAddress;
+import java.nio.ByteBuffer;
 
+/**
+ * View of a received message. Instances are reused for every message received
+ * so must not be retained beyond {@link DatagramMessageHandler#onMessageReceived(DatagramMessage)}.
+ */
 public class DatagramMessage {
 	
 	public static final byte PING    = 0x0;
 	public static final byte SENSORS = 0x1;
 	
+	/**
+	 * Requests sensor frames be pushed to the sender.
+	 * 
+	 * Data: byte mask, float rate (Hz), int lease (ms), optionally followed by
+	 * byte flags. The subscription expires unless renewed within the lease; a
+	 * rate or lease of 0 unsubscribes. Pushed frames are SENSORS responses with
+	 * a message number of 0, each followed by a SAMPLES response (with every
+	 * sample since the previous push) if the SUBSCRIBE_SAMPLES flag is set.
+	 * 
+	 * With SUBSCRIBE_SAMPLES the flags may be followed by the last sequence
+	 * received in order per analog channel (0 if none), acknowledging the
+	 * samples pushed so far; pushing resumes after the acknowledged samples,
+	 * so those in lost datagrams are sent again.
+	 */
+	public static final byte SUBSCRIBE = 0x2;
+	
+	/**
+	 * Requests every analog sample following the last sequence received.
+	 * 
+	 * Request data: long sequence per analog channel (0 to start from the
+	 * newest sample). Response data (split across as many datagrams as needed,
+	 * each no larger than MAXIMUM_DATAGRAM_SIZE): blocks of byte channel, long
+	 * first sequence, short count, then count times long timestamp (ns) and
+	 * float value. A block with a count of 0 marks the samples before its
+	 * first sequence as overwritten, so they will never be sent.
+	 */
+	public static final byte SAMPLES = 0x3;
+	
+	public static final byte SUBSCRIBE_SAMPLES = 0x1;
+	
+	/**
+	 * Largest datagram sent with samples (in bytes), to avoid IP fragmentation
+	 * on a typical 1500 byte MTU.
+	 */
+	public static final int MAXIMUM_DATAGRAM_SIZE = 1400;
+	
 	public SocketAddress address;
 	public int number;
 	public byte id;
-	public byte[] data;
+	
+	/**
+	 * Payload following the header (position to limit), backed by the receive
+	 * buffer.
+	 */
+	public ByteBuffer data;
 	
 }
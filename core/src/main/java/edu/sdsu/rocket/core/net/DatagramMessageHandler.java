@@ -1,6 +1,6 @@
 package edu.sdsu.rocket.core.net;
 
-import java.net.DatagramPacket;
+import java.net.SocketAddress;
 import java.nio.ByteBuffer;
 
 public abstract class DatagramMessageHandler implements DatagramPacketListener {
@@ -13,24 +13,20 @@ public abstract class DatagramMessageHandler implements DatagramPacketListener {
 	 */
 	private static final int MINIMUM_PACKET_SIZE = 5; // bytes
 	
+	private final DatagramMessage message = new DatagramMessage();
+	
 	public abstract void onMessageReceived(DatagramMessage message);
 
 	@Override
-	public void onPacketReceived(DatagramPacket packet) {
-		if (packet.getLength() < MINIMUM_PACKET_SIZE) {
+	public void onPacketReceived(SocketAddress address, ByteBuffer packet) {
+		if (packet.remaining() < MINIMUM_PACKET_SIZE) {
 			return; // drop packet
 		}
 		
-		DatagramMessage message = new DatagramMessage();
-		message.address = packet.getSocketAddress();
-		
-		ByteBuffer buffer = ByteBuffer.wrap(packet.getData(), 0, packet.getLength());
-		message.number = buffer.getInt();
-		message.id = buffer.get();
-		if (buffer.hasRemaining()) {
-			message.data = new byte[buffer.remaining()];
-			System.arraycopy(buffer.array(), buffer.position(), message.data, 0, buffer.remaining());
-		}
+		message.address = address;
+		message.number = packet.getInt();
+		message.id = packet.get();
+		message.data = packet;
 		
 		onMessageReceived(message);
 	}
@@ -1,9 +1,15 @@
 package edu.sdsu.rocket.core.net;
 
-import java.net.DatagramPacket;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
 
 public interface DatagramPacketListener {
 
-	public void onPacketReceived(DatagramPacket packet);
+	/**
+	 * @param address Sender of the packet.
+	 * @param packet Contents of the packet (position to limit), only valid for
+	 *               the duration of the call as the buffer is reused.
+	 */
+	public void onPacketReceived(SocketAddress address, ByteBuffer packet);
 	
 }
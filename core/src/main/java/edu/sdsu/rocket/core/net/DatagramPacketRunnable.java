@@ -1,26 +1,47 @@
 package edu.sdsu.rocket.core.net;
 
 import java.io.IOException;
-import java.net.DatagramPacket;
-import java.net.DatagramSocket;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
 
+/**
+ * Receives packets from a channel into a single reused direct buffer, passing
+ * each to the listener.
+ */
 public class DatagramPacketRunnable implements Runnable {
 	
 	// http://en.wikipedia.org/wiki/User_Datagram_Protocol#Packet_structure
 	private static final int DEFAULT_PACKET_SIZE = 65527;
 	
-	private final DatagramSocket socket;
-	private final int packetSize;
+	private static final long ERROR_BACKOFF = 250L; // ms, wait after a receive error so a persistent one cannot spin
+	
+	private final DatagramChannel channel;
+	private final ByteBuffer buffer;
+	private final boolean useSelector;
 
-	private DatagramPacketListener listener;
+	private volatile DatagramPacketListener listener;
+	
+	public DatagramPacketRunnable(DatagramChannel channel) {
+		this(channel, false);
+	}
 	
-	public DatagramPacketRunnable(DatagramSocket socket) {
-		this(socket, DEFAULT_PACKET_SIZE);
+	public DatagramPacketRunnable(DatagramChannel channel, boolean useSelector) {
+		this(channel, DEFAULT_PACKET_SIZE, useSelector);
 	}
 	
-	public DatagramPacketRunnable(DatagramSocket socket, int packetSize) {
-		this.socket = socket;
-		this.packetSize = packetSize;
+	/**
+	 * @param useSelector Use a non-blocking channel and selector, draining all
+	 *                    pending packets on each wake-up, rather than blocking
+	 *                    on each receive.
+	 */
+	public DatagramPacketRunnable(DatagramChannel channel, int packetSize, boolean useSelector) {
+		this.channel = channel;
+		this.buffer = ByteBuffer.allocateDirect(packetSize);
+		this.useSelector = useSelector;
 	}
 	
 	public void setListener(DatagramPacketListener listener) {
@@ -29,26 +50,94 @@ public class DatagramPacketRunnable implements Runnable {
 	
 	@Override
 	public void run() {
-		byte[] buffer = new byte[packetSize];
-		DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+		try {
+			if (useSelector) {
+				runSelector();
+			} else {
+				runBlocking();
+			}
+		} catch (ClosedChannelException e) {
+			// stopped
+		} catch (IOException e) {
+			System.err.println(e);
+		}
+	}
+	
+	private void runBlocking() throws IOException {
+		channel.configureBlocking(true);
+		SocketAddress remote = channel.isConnected() ? channel.getRemoteAddress() : null;
 		
 		while (!Thread.currentThread().isInterrupted()) {
 			try {
-				socket.receive(packet);
-				if (listener != null) {
-					listener.onPacketReceived(packet);
+				buffer.clear();
+				SocketAddress address;
+				if (remote != null) {
+					channel.read(buffer);
+					address = remote;
+				} else {
+					address = channel.receive(buffer);
 				}
+				dispatch(address);
+			} catch (ClosedChannelException e) {
+				throw e;
 			} catch (IOException e) {
 				System.err.println(e);
+				if (!backOff()) return;
+			}
+		}
+	}
+	
+	private void runSelector() throws IOException {
+		channel.configureBlocking(false);
+		
+		try (Selector selector = Selector.open()) {
+			channel.register(selector, SelectionKey.OP_READ);
+			
+			while (!Thread.currentThread().isInterrupted()) {
+				selector.select();
+				selector.selectedKeys().clear();
 				
-				try {
-					Thread.sleep(250L);
-				} catch (InterruptedException ie) {
-					System.err.println(ie);
-					return;
+				SocketAddress address;
+				while (true) {
+					buffer.clear();
+					try {
+						address = channel.receive(buffer);
+					} catch (ClosedChannelException e) {
+						throw e;
+					} catch (IOException e) {
+						System.err.println(e);
+						if (!channel.isOpen()) return;
+						if (!backOff()) return;
+						break; // select again
+					}
+					if (address == null) break; // drained
+					dispatch(address);
 				}
 			}
 		}
 	}
+	
+	/**
+	 * Waits after a receive error.
+	 * 
+	 * @return {@code false} if interrupted (i.e. stopped).
+	 */
+	private static boolean backOff() {
+		try {
+			Thread.sleep(ERROR_BACKOFF);
+			return true;
+		} catch (InterruptedException e) {
+			System.err.println(e);
+			return false;
+		}
+	}
+	
+	private void dispatch(SocketAddress address) {
+		buffer.flip();
+		DatagramPacketListener listener = this.listener;
+		if (listener != null) {
+			listener.onPacketReceived(address, buffer);
+		}
+	}
 
 }
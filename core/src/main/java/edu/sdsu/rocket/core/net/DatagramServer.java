@@ -1,19 +1,24 @@
 package edu.sdsu.rocket.core.net;
 
-import java.net.DatagramSocket;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
 import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
 
 public class DatagramServer {
 	
-	private DatagramSocket socket;
+	private volatile DatagramChannel channel;
+	private boolean useSelector;
 	
 	private Thread thread;
 	
 	private DatagramPacketRunnable runnable;
 	private DatagramPacketListener listener;
 	
-	public DatagramSocket getSocket() {
-		return socket;
+	public DatagramChannel getChannel() {
+		return channel;
 	}
 	
 	public DatagramServer setListener(DatagramPacketListener listener) {
@@ -24,31 +29,57 @@ public class DatagramServer {
 		return this;
 	}
 	
-	public void start(int port) throws SocketException {
-		if (socket != null) {
+	/**
+	 * Receive using a non-blocking channel and selector (must be set prior to
+	 * starting the server).
+	 */
+	public DatagramServer setSelectorMode(boolean enabled) {
+		useSelector = enabled;
+		return this;
+	}
+	
+	public void start(int port) throws IOException {
+		if (channel != null) {
 			throw new SocketException("Server already started");
 		}
-		socket = new DatagramSocket(port);
-		System.out.println("Listening on port " + port);
+		channel = DatagramChannel.open();
+		channel.bind(new InetSocketAddress(port));
+		System.out.println("Listening on port " + port + (useSelector ? " (selector)" : ""));
 		
-		runnable = new DatagramPacketRunnable(socket);
+		runnable = new DatagramPacketRunnable(channel, useSelector);
 		runnable.setListener(listener);
 		
-		thread = new InterruptableDatagramThread(socket, runnable);
+		thread = new Thread(runnable);
 		thread.setName(getClass().getSimpleName());
 		thread.start();
 	}
 	
+	/**
+	 * Sends the remaining contents of the buffer; may be called from any thread.
+	 * 
+	 * @return Number of bytes sent (0 if the server is stopped or the packet
+	 *         could not be sent without blocking).
+	 */
+	public int send(ByteBuffer src, SocketAddress target) throws IOException {
+		DatagramChannel channel = this.channel;
+		if (channel == null) return 0;
+		return channel.send(src, target);
+	}
+	
 	public void stop() {
 		if (thread != null) {
-			thread.interrupt();
+			thread.interrupt(); // closes the channel if blocked in receive
 			try {
+				channel.close();
 				thread.join();
+			} catch (IOException e) {
+				System.err.println(e);
 			} catch (InterruptedException e) {
 				e.printStackTrace();
 			}
 			thread = null;
 		}
+		channel = null;
 		runnable = null;
 	}
 	
@@ -9,59 +9,134 @@ import java.net.InetSocketAddress;
 import java.net.SocketException;
 import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 public class SensorClient {
 
     private static final byte SENSORS_MASK = Sensors.ANALOG_MASK;
 
+    public enum Mode {
+        /**
+         * Request each sensor frame (compatible with all servers).
+         */
+        POLL,
+        /**
+         * Subscribe to sensor frames pushed by the server, renewing the lease periodically.
+         */
+        PUSH,
+    }
+
+    private static final int LEASE_DURATION = (int) TimeUnit.SECONDS.toMillis(3); // ms
+    private static final float LEASE_RENEWAL_FREQUENCY = 1f; // Hz
+
     public interface SensorClientListener {
         void onSensorsUpdated(byte mask);
         void onPingResponse(long latency);
     }
     
+    /**
+     * Receives every analog sample (rather than only the latest) while set; called from the network thread.
+     */
+    public interface SampleListener {
+        void onSample(int channel, long sequence, long timestamp, float value);
+    }
+    
     private static final int BUFFER_SIZE = 1024; // bytes
-    private final ByteBuffer MESSAGE_BUFFER = ByteBuffer.allocate(BUFFER_SIZE);
-    private final ByteBuffer PING_BUFFER = ByteBuffer.allocate(BUFFER_SIZE);
+    private final ByteBuffer MESSAGE_BUFFER = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final ByteBuffer PING_BUFFER = ByteBuffer.allocateDirect(BUFFER_SIZE);
 
     private DatagramClient client;
     
     private Thread thread;
-    private float frequency;
+    private volatile float frequency;
+    private volatile Mode mode = Mode.POLL;
     private RateLimitedRunnable runnable;
 
     private final AtomicInteger requestNumber = new AtomicInteger(); // message request number
     private int responseNumber; // message response number
 
     private SensorClientListener listener;
+    private volatile SampleListener sampleListener;
+    private final AtomicLongArray sampleSequence; // last sample sequence received per channel
+    private final AtomicLong sampleGaps = new AtomicLong();
     
     private final Sensors sensors;
 
     public SensorClient(Sensors sensors) {
         this.sensors = sensors;
+        this.sampleSequence = new AtomicLongArray(sensors.analog.length);
     }
     
     public void setListener(SensorClientListener listener) {
         this.listener = listener;
     }
 
+    /**
+     * Sets the listener to receive every analog sample, requesting samples from the newest onwards (or stops
+     * requesting samples if {@code null}).
+     */
+    public void setSampleListener(SampleListener listener) {
+        for (int i = 0; i < sampleSequence.length(); i++) {
+            sampleSequence.set(i, 0);
+        }
+        sampleGaps.set(0);
+        sampleListener = listener;
+        if (runnable != null && mode == Mode.PUSH && frequency != 0) {
+            setFrequency(frequency); // resubscribe
+        }
+    }
+    
+    /**
+     * Number of samples that were never received (i.e. overwritten on the server before they could be sent, or sent
+     * again after a lost datagram) since the sample listener was set.
+     */
+    public long getSampleGaps() {
+        return sampleGaps.get();
+    }
+    
     public void setFrequency(float frequency) {
         this.frequency = frequency;
         if (runnable != null) {
             if (frequency == 0) {
                 pause();
+                if (mode == Mode.PUSH) {
+                    sendUnsubscribeRequest();
+                }
             } else {
-                runnable.setFrequency(frequency);
+                runnable.setFrequency(mode == Mode.PUSH ? LEASE_RENEWAL_FREQUENCY : frequency);
                 resume();
+                if (mode == Mode.PUSH) {
+                    try {
+                        sendSubscribeRequest(); // apply new rate immediately
+                    } catch (IOException e) {
+                        System.err.println(e);
+                    }
+                }
             }
         }
     }
     
-    public void start(InetAddress addr, int port) throws SocketException {
+    public void setMode(Mode mode) {
+        if (this.mode == mode) return;
+        if (this.mode == Mode.PUSH && runnable != null) {
+            sendUnsubscribeRequest();
+        }
+        this.mode = mode;
+        setFrequency(frequency);
+    }
+    
+    public Mode getMode() {
+        return mode;
+    }
+    
+    public void start(InetAddress addr, int port) throws IOException {
         start(new InetSocketAddress(addr, port));
     }
     
-    public void start(InetSocketAddress address) throws SocketException {
+    public void start(InetSocketAddress address) throws IOException {
         if (client != null) {
             throw new SocketException("Client already started");
         }
@@ -77,6 +152,9 @@ public class SensorClient {
                 case DatagramMessage.SENSORS:
                     onSensorData(message);
                     break;
+                case DatagramMessage.SAMPLES:
+                    onSamples(message);
+                    break;
                 }
             }
         });
@@ -86,7 +164,14 @@ public class SensorClient {
             @Override
             public void loop() throws InterruptedException {
                 try {
-                    sendSensorRequest(SENSORS_MASK);
+                    if (mode == Mode.PUSH) {
+                        sendSubscribeRequest();
+                    } else {
+                        sendSensorRequest(SENSORS_MASK);
+                        if (sampleListener != null) {
+                            sendSamplesRequest();
+                        }
+                    }
                 } catch (IOException e) {
                     System.err.println(e);
                 }
@@ -100,6 +185,9 @@ public class SensorClient {
     }
     
     public void stop() {
+        if (mode == Mode.PUSH && runnable != null) {
+            sendUnsubscribeRequest();
+        }
         if (client != null) {
             client.stop();
             client = null;
@@ -130,8 +218,9 @@ public class SensorClient {
         PING_BUFFER.putInt(requestNumber.incrementAndGet()); // ++requestNumber
         PING_BUFFER.put(DatagramMessage.PING);
         PING_BUFFER.putLong(System.nanoTime());
+        PING_BUFFER.flip();
         
-        client.send(PING_BUFFER.array(), PING_BUFFER.position());
+        client.send(PING_BUFFER);
     }
 
     public void sendStatusRequest() throws IOException {
@@ -142,28 +231,85 @@ public class SensorClient {
         sendMessage(DatagramMessage.SENSORS, mask);
     }
     
+    /**
+     * @param frequency Rate at which the server should push frames (in Hz).
+     * @param lease Duration the subscription remains active unless renewed (in milliseconds).
+     */
+    synchronized public void sendSubscribeRequest(byte mask, float frequency, int lease, byte flags) throws IOException {
+        ByteBuffer data = beginMessage(DatagramMessage.SUBSCRIBE)
+                .put(mask)
+                .putFloat(frequency)
+                .putInt(lease)
+                .put(flags);
+        if ((flags & DatagramMessage.SUBSCRIBE_SAMPLES) != 0) {
+            // acknowledge the samples received, so the server sends any that were lost again
+            for (int i = 0; i < sampleSequence.length(); i++) {
+                data.putLong(sampleSequence.get(i));
+            }
+        }
+        endMessage();
+    }
+    
+    private void sendSubscribeRequest() throws IOException {
+        byte flags = sampleListener == null ? 0 : DatagramMessage.SUBSCRIBE_SAMPLES;
+        sendSubscribeRequest(SENSORS_MASK, frequency, LEASE_DURATION, flags);
+    }
+    
+    private void sendUnsubscribeRequest() {
+        try {
+            sendSubscribeRequest(SENSORS_MASK, 0f, 0, (byte) 0);
+        } catch (IOException e) {
+            System.err.println(e);
+        }
+    }
+    
+    /**
+     * Requests every analog sample following the last sample received on each channel.
+     */
+    synchronized public void sendSamplesRequest() throws IOException {
+        ByteBuffer data = beginMessage(DatagramMessage.SAMPLES);
+        for (int i = 0; i < sampleSequence.length(); i++) {
+            data.putLong(sampleSequence.get(i));
+        }
+        endMessage();
+    }
+    
     public void sendMessage(byte id) throws IOException {
         sendMessage(id, null);
     }
     
-    public void sendMessage(byte id, byte data) throws IOException {
-        sendMessage(id, new byte[] { data });
+    synchronized public void sendMessage(byte id, byte data) throws IOException {
+        beginMessage(id).put(data);
+        endMessage();
     }
     
     synchronized public void sendMessage(byte id, byte[] data) throws IOException {
+        ByteBuffer buffer = beginMessage(id);
+        if (data != null) {
+            buffer.put(data);
+        }
+        endMessage();
+    }
+    
+    /**
+     * Writes the message header, returning the buffer for the message data to be written to; the caller must hold
+     * the lock of this client until {@link #endMessage()}.
+     */
+    private ByteBuffer beginMessage(byte id) {
         MESSAGE_BUFFER.clear();
         MESSAGE_BUFFER.putInt(requestNumber.incrementAndGet()); // ++requestNumber
         MESSAGE_BUFFER.put(id);
-        if (data != null) {
-            MESSAGE_BUFFER.put(data);
-        }
-        
-        client.send(MESSAGE_BUFFER.array(), MESSAGE_BUFFER.position());
+        return MESSAGE_BUFFER;
+    }
+    
+    private void endMessage() throws IOException {
+        MESSAGE_BUFFER.flip();
+        client.send(MESSAGE_BUFFER);
     }
     
     protected void onPingResponse(DatagramMessage message) {
         try {
-            ByteBuffer buf = ByteBuffer.wrap(message.data);
+            ByteBuffer buf = message.data;
             long latency = System.nanoTime() - buf.getLong(); // round-trip time in nanoseconds
             if (listener != null) {
                 listener.onPingResponse(latency);
@@ -183,7 +329,7 @@ public class SensorClient {
         }
         
         try {
-            ByteBuffer buffer = ByteBuffer.wrap(message.data);
+            ByteBuffer buffer = message.data;
             byte mask = buffer.get();
             sensors.fromByteBuffer(buffer, mask);
             if (listener != null) {
@@ -194,4 +340,44 @@ public class SensorClient {
         }
     }
     
+    /**
+     * Samples are ordered by sequence rather than message number, so responses to earlier requests are still used
+     * (duplicates are dropped). Samples are only accepted in order: those following a lost datagram are dropped until
+     * it is sent again, in response to the next request or acknowledgement, unless the server marks the missing
+     * samples as overwritten.
+     */
+    protected void onSamples(DatagramMessage message) {
+        SampleListener listener = sampleListener;
+        if (listener == null) return;
+        
+        try {
+            ByteBuffer buffer = message.data;
+            while (buffer.hasRemaining()) {
+                int channel = buffer.get();
+                long sequence = buffer.getLong();
+                int count = buffer.getShort() & 0xFFFF;
+                if (count == 0 && channel >= 0 && channel < sampleSequence.length()) {
+                    long last = sampleSequence.get(channel);
+                    if (last != 0 && sequence > last + 1) { // overwritten on the server
+                        sampleGaps.addAndGet(sequence - last - 1);
+                        sampleSequence.set(channel, sequence - 1);
+                    }
+                }
+                for (int i = 0; i < count; i++, sequence++) {
+                    long timestamp = buffer.getLong();
+                    float value = buffer.getFloat();
+                    if (channel < 0 || channel >= sampleSequence.length()) continue;
+                    
+                    long last = sampleSequence.get(channel);
+                    if (sequence <= last) continue; // duplicate
+                    if (last != 0 && sequence > last + 1) continue; // follows a lost datagram
+                    sampleSequence.set(channel, sequence);
+                    listener.onSample(channel, sequence, timestamp, value);
+                }
+            }
+        } catch (BufferUnderflowException e) {
+            System.err.println(e);
+        }
+    }
+    
 }
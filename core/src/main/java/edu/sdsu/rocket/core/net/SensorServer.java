@@ -1,38 +1,115 @@
 package edu.sdsu.rocket.core.net;
 
 import edu.sdsu.rocket.core.helpers.ByteHelper;
+import edu.sdsu.rocket.core.helpers.PeriodicTimer;
+import edu.sdsu.rocket.core.helpers.SampleRing;
 import edu.sdsu.rocket.core.models.Sensors;
 
 import java.io.IOException;
-import java.net.DatagramPacket;
-import java.net.DatagramSocket;
+import java.net.SocketAddress;
 import java.net.SocketException;
+import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
 
 public class SensorServer {
 
     private static final int BUFFER_SIZE = 256; // bytes
-    private final ByteBuffer PING_BUFFER = ByteBuffer.allocate(BUFFER_SIZE);
-    private final ByteBuffer MESSAGE_BUFFER = ByteBuffer.allocate(BUFFER_SIZE);
+    private final ByteBuffer PING_BUFFER = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final ByteBuffer MESSAGE_BUFFER = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final ByteBuffer PUSH_BUFFER = ByteBuffer.allocateDirect(BUFFER_SIZE); // only used by push thread
     
-    private DatagramServer server;
+    private static final int HEADER_SIZE = 4 + 1; // number + id
+    private static final int SAMPLE_BLOCK_HEADER_SIZE = 1 + 8 + 2; // channel + first sequence + count
+    private static final int SAMPLE_SIZE = 8 + 4; // timestamp + value
+    private static final int MAXIMUM_SAMPLES_PER_DATAGRAM =
+            (DatagramMessage.MAXIMUM_DATAGRAM_SIZE - HEADER_SIZE - SAMPLE_BLOCK_HEADER_SIZE) / SAMPLE_SIZE;
+    private final ByteBuffer SAMPLES_BUFFER = ByteBuffer.allocateDirect(DatagramMessage.MAXIMUM_DATAGRAM_SIZE);
+    private final ByteBuffer PUSH_SAMPLES_BUFFER = ByteBuffer.allocateDirect(DatagramMessage.MAXIMUM_DATAGRAM_SIZE);
+    private final SampleRing.Batch SAMPLES_BATCH = new SampleRing.Batch(MAXIMUM_SAMPLES_PER_DATAGRAM);
+    private final SampleRing.Batch PUSH_SAMPLES_BATCH = new SampleRing.Batch(MAXIMUM_SAMPLES_PER_DATAGRAM);
+    private final long[] SAMPLES_AFTER;
+    private final long[] ACKED;
+    
+    public static final float MAXIMUM_PUSH_RATE = 1000f; // Hz
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    
+    private static class Subscription {
+        final SocketAddress address;
+        final PeriodicTimer timer = new PeriodicTimer();
+        volatile byte mask;
+        volatile boolean samples; // push SAMPLES rather than SENSORS
+        final long[] sent; // last sample sequence pushed per analog channel, only accessed by push thread
+        final AtomicLongArray acked; // last sample sequence received in order per analog channel
+        volatile long acks; // number of acknowledgements received
+        volatile float rate; // Hz
+        volatile long expiry; // System.nanoTime()
+        float appliedRate; // rate of timer, only accessed by push thread
+        long appliedAcks; // acknowledgements applied to sent, only accessed by push thread
+        
+        Subscription(SocketAddress address, int channels) {
+            this.address = address;
+            this.sent = new long[channels];
+            this.acked = new AtomicLongArray(channels);
+        }
+        
+        /**
+         * Resumes pushing after the samples last acknowledged by the client, so any in lost datagrams are sent again
+         * (samples it already has are dropped as duplicates); only called by push thread.
+         */
+        void applyAcknowledgement() {
+            long acks = this.acks;
+            if (acks == appliedAcks) return;
+            appliedAcks = acks;
+            for (int channel = 0; channel < sent.length; channel++) {
+                long sequence = acked.get(channel);
+                if (sequence != 0) { // otherwise nothing received yet, so keep pushing from the newest
+                    sent[channel] = sequence;
+                }
+            }
+        }
+    }
+    
+    private final Map<SocketAddress, Subscription> subscriptions = new ConcurrentHashMap<>();
+    private Thread pushThread;
+    
+    private volatile DatagramServer server;
     private final Sensors sensors;
     private boolean debug;
+    private boolean useSelector;
     
     public SensorServer(Sensors sensors) {
         this.sensors = sensors;
+        this.SAMPLES_AFTER = new long[sensors.analogSamples.length];
+        this.ACKED = new long[sensors.analogSamples.length];
     }
     
     public void setDebug(boolean enabled) {
         debug = enabled;
     }
     
-    public void start(int port) throws SocketException {
+    /**
+     * Receive requests using a non-blocking channel and selector (must be set prior to starting the server).
+     */
+    public void setSelectorMode(boolean enabled) {
+        useSelector = enabled;
+    }
+    
+    /**
+     * All replies are encoded into reused direct buffers and requests are handled from a reused message view, so
+     * serving requests does not allocate per packet.
+     */
+    public void start(int port) throws IOException {
         if (server != null) {
             throw new SocketException("Server already started");
         }
         
         server = new DatagramServer();
+        server.setSelectorMode(useSelector);
         server.setListener(new DatagramMessageHandler() {
             @Override
             public void onMessageReceived(DatagramMessage message) {
@@ -54,6 +131,18 @@ public class SensorServer {
                         }
                         sendSensorResponse(message);
                         break;
+                    case DatagramMessage.SUBSCRIBE:
+                        if (debug) {
+                            System.out.println("Received subscribe request");
+                        }
+                        onSubscribe(message);
+                        break;
+                    case DatagramMessage.SAMPLES:
+                        if (debug) {
+                            System.out.println("Received samples request");
+                        }
+                        sendSamplesResponse(message);
+                        break;
                     default:
                         if (debug) {
                             System.out.println("Unknown request");
@@ -66,54 +155,244 @@ public class SensorServer {
             }
         });
         server.start(port);
+        
+        pushThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                push();
+            }
+        });
+        pushThread.setName(getClass().getSimpleName() + "-push");
+        pushThread.start();
     }
 
     public void stop() {
+        if (pushThread != null) {
+            pushThread.interrupt();
+            try {
+                pushThread.join();
+            } catch (InterruptedException e) {
+                System.err.println(e);
+            }
+            pushThread = null;
+        }
+        subscriptions.clear();
+        
         if (server != null) {
             server.stop();
             server = null;
         }
     }
     
+    /**
+     * Number of clients with an active subscription.
+     */
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+    
+    protected void onSubscribe(DatagramMessage message) {
+        byte mask;
+        float rate;
+        int lease;
+        byte flags = 0;
+        boolean isAcked = false;
+        try {
+            ByteBuffer buffer = message.data;
+            mask = buffer.get();
+            rate = buffer.getFloat();
+            lease = buffer.getInt();
+            if (buffer.hasRemaining()) {
+                flags = buffer.get();
+            }
+            if ((flags & DatagramMessage.SUBSCRIBE_SAMPLES) != 0 && buffer.remaining() >= 8 * ACKED.length) {
+                for (int i = 0; i < ACKED.length; i++) {
+                    ACKED[i] = buffer.getLong();
+                }
+                isAcked = true;
+            }
+        } catch (BufferUnderflowException e) {
+            System.err.println(e);
+            return;
+        }
+        
+        if (rate <= 0 || lease <= 0) {
+            if (subscriptions.remove(message.address) != null && debug) {
+                System.out.println("Unsubscribed " + message.address);
+            }
+            return;
+        }
+        
+        Subscription subscription = subscriptions.get(message.address);
+        if (subscription == null) {
+            subscription = new Subscription(message.address, sensors.analogSamples.length);
+            if (debug) {
+                System.out.println("Subscribed " + message.address + " at " + rate + " Hz");
+            }
+        }
+        subscription.mask = mask;
+        subscription.samples = (flags & DatagramMessage.SUBSCRIBE_SAMPLES) != 0;
+        subscription.rate = Math.min(rate, MAXIMUM_PUSH_RATE);
+        subscription.expiry = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lease);
+        if (isAcked) {
+            for (int i = 0; i < ACKED.length; i++) {
+                subscription.acked.set(i, ACKED[i]);
+            }
+            subscription.acks++; // only written by the receiving thread
+        }
+        subscriptions.put(message.address, subscription);
+        
+        LockSupport.unpark(pushThread);
+    }
+    
+    /**
+     * Sends sensor frames to each subscriber at its requested rate until interrupted.
+     */
+    private void push() {
+        while (!Thread.currentThread().isInterrupted()) {
+            long now = System.nanoTime();
+            long next = now + IDLE_NANOS;
+            
+            for (Subscription subscription : subscriptions.values()) {
+                if (now - subscription.expiry >= 0) {
+                    if (subscriptions.remove(subscription.address, subscription) && debug) {
+                        System.out.println("Subscription expired for " + subscription.address);
+                    }
+                    continue;
+                }
+                
+                float rate = subscription.rate;
+                if (rate != subscription.appliedRate) {
+                    subscription.timer.setFrequency(rate);
+                    subscription.timer.reset();
+                    subscription.appliedRate = rate;
+                }
+                
+                if (subscription.timer.isDue(now)) {
+                    try {
+                        sendSensors(PUSH_BUFFER, 0, subscription.mask, subscription.address);
+                        if (subscription.samples) {
+                            subscription.applyAcknowledgement();
+                            sendSamples(PUSH_SAMPLES_BUFFER, PUSH_SAMPLES_BATCH, 0, subscription.sent, subscription.address);
+                        }
+                    } catch (IOException e) {
+                        System.err.println(e);
+                    }
+                    subscription.timer.advance(now);
+                }
+                
+                long deadline = subscription.timer.getDeadline();
+                if (deadline - next < 0) next = deadline;
+                if (subscription.expiry - next < 0) next = subscription.expiry;
+            }
+            
+            long remaining = next - System.nanoTime();
+            if (remaining > 0) {
+                LockSupport.parkNanos(this, remaining);
+            }
+        }
+    }
+    
     protected void sendPingResponse(DatagramMessage message) throws IOException {
+        DatagramServer server = this.server;
         if (server == null) return;
         
-        DatagramSocket socket = server.getSocket();
-        if (socket == null) return;
-        
         PING_BUFFER.clear();
         PING_BUFFER.putInt(message.number);
         PING_BUFFER.put(message.id);
         PING_BUFFER.put(message.data);
+        PING_BUFFER.flip();
         
-        byte[] buf = PING_BUFFER.array();
-        int length = PING_BUFFER.position();
-        DatagramPacket packet = new DatagramPacket(buf, length, message.address);
-        
-        socket.send(packet);
+        server.send(PING_BUFFER, message.address);
     }
 
     protected void sendSensorResponse(DatagramMessage message) throws IOException {
+        byte mask = message.data.hasRemaining()
+                ? message.data.get()
+                : Sensors.ALL_MASK;
+        
+        sendSensors(MESSAGE_BUFFER, message.number, mask, message.address);
+    }
+    
+    private void sendSensors(ByteBuffer buffer, int number, byte mask, SocketAddress address) throws IOException {
+        DatagramServer server = this.server;
         if (server == null) return;
         
-        DatagramSocket socket = server.getSocket();
-        if (socket == null) return;
+        buffer.clear();
+        buffer.putInt(number);
+        buffer.put(DatagramMessage.SENSORS);
+        buffer.put((byte) (mask & 0xFF));
+        sensors.toByteBuffer(buffer, mask);
+        buffer.flip();
         
-        MESSAGE_BUFFER.clear();
-        MESSAGE_BUFFER.putInt(message.number);
-        MESSAGE_BUFFER.put(message.id);
+        server.send(buffer, address);
+    }
+    
+    protected void sendSamplesResponse(DatagramMessage message) throws IOException {
+        ByteBuffer data = message.data;
+        for (int i = 0; i < SAMPLES_AFTER.length; i++) {
+            SAMPLES_AFTER[i] = data.remaining() >= 8 ? data.getLong() : 0;
+        }
+        sendSamples(SAMPLES_BUFFER, SAMPLES_BATCH, message.number, SAMPLES_AFTER, message.address);
+    }
+    
+    /**
+     * Sends every analog sample with a sequence greater than {@code after} (per channel), packing as many samples as
+     * fit into each datagram. Samples already overwritten are marked by an empty block.
+     * 
+     * @param after Last sequence received per channel (0 to start from the newest sample), updated to the last
+     *              sequence sent.
+     */
+    private void sendSamples(ByteBuffer buffer, SampleRing.Batch batch, int number, long[] after, SocketAddress address) throws IOException {
+        DatagramServer server = this.server;
+        if (server == null) return;
         
-        byte mask = message.data == null || message.data.length == 0
-                ? Sensors.ALL_MASK
-                : message.data[0];
+        buffer.clear();
+        buffer.putInt(number);
+        buffer.put(DatagramMessage.SAMPLES);
         
-        MESSAGE_BUFFER.put((byte) (mask & 0xFF));
-        sensors.toByteBuffer(MESSAGE_BUFFER, mask);
-        byte[] buf = MESSAGE_BUFFER.array();
-        int length = MESSAGE_BUFFER.position();
-        DatagramPacket packet = new DatagramPacket(buf, length, message.address);
+        for (int channel = 0; channel < after.length; channel++) {
+            SampleRing ring = sensors.analogSamples[channel];
+            if (after[channel] == 0) {
+                after[channel] = Math.max(0, ring.getSequence() - 1);
+            }
+            
+            for (;;) {
+                int space = (buffer.remaining() - SAMPLE_BLOCK_HEADER_SIZE) / SAMPLE_SIZE;
+                if (space <= 0) {
+                    buffer.flip();
+                    server.send(buffer, address);
+                    buffer.clear().position(HEADER_SIZE); // keep header
+                    continue;
+                }
+                
+                int count = ring.read(after[channel], batch, space);
+                if (count == 0) break;
+                
+                if (batch.first > after[channel] + 1) {
+                    // overwritten before they could be sent, so the client need not wait for them
+                    buffer.put((byte) channel);
+                    buffer.putLong(batch.first);
+                    buffer.putShort((short) 0);
+                    after[channel] = batch.first - 1;
+                    continue;
+                }
+                
+                buffer.put((byte) channel);
+                buffer.putLong(batch.first);
+                buffer.putShort((short) count);
+                for (int i = 0; i < count; i++) {
+                    buffer.putLong(batch.timestamps[i]);
+                    buffer.putFloat(batch.values[i]);
+                }
+                after[channel] = batch.last();
+            }
+        }
         
-        socket.send(packet);
+        if (buffer.position() > HEADER_SIZE) {
+            buffer.flip();
+            server.send(buffer, address);
+        }
     }
     
 }
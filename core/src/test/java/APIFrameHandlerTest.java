@@ -0,0 +1,93 @@
+import edu.sdsu.rocket.core.io.radio.APIFrameHandler;
+import edu.sdsu.rocket.core.io.radio.APIFrameListener;
+import edu.sdsu.rocket.core.io.radio.api.APIFrame;
+import edu.sdsu.rocket.core.io.radio.api.RFModuleStatus;
+import edu.sdsu.rocket.core.io.radio.api.RXPacket;
+import edu.sdsu.rocket.core.io.radio.api.TXStatus;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+public class APIFrameHandlerTest {
+
+    /**
+     * Wraps frame data in an API frame with a valid checksum.
+     */
+    private static byte[] frame(byte[] frameData) {
+        ByteBuffer out = ByteBuffer.allocate(frameData.length + 4);
+        out.put(APIFrame.DEFAULT_START_DELIMITER);
+        out.putShort((short) frameData.length);
+        out.put(frameData);
+        out.put(APIFrame.checksum(frameData));
+        return out.array();
+    }
+
+    private static class CountingListener implements APIFrameListener {
+        final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public void onRXPacket(RXPacket rxPacket) {
+            calls.incrementAndGet();
+        }
+
+        @Override
+        public void onRFModuleStatus(RFModuleStatus rfModuleStatus) {
+            calls.incrementAndGet();
+        }
+
+        @Override
+        public void onTXStatus(TXStatus txStatus) {
+            calls.incrementAndGet();
+        }
+    }
+
+    @Test
+    public void shortFrameTest() {
+        APIFrameHandler handler = new APIFrameHandler();
+        CountingListener listener = new CountingListener();
+        handler.addListener(listener);
+
+        byte[][] frames = {
+                { (byte) 0x81 },
+                { (byte) 0x81, 0x00, 0x01, 0x28 }, // RX packet without options
+                { (byte) 0x8A },
+                { (byte) 0x89 },
+                { (byte) 0x89, 0x01 }, // TX status without status
+        };
+        for (byte[] frameData : frames) {
+            handler.onData(frame(frameData)); // must not throw
+        }
+        assertEquals(frames.length, handler.getErrorCount());
+        assertEquals(0, handler.getFrameCount());
+        assertEquals(0, listener.calls.get());
+
+        // the shortest valid frame of each type is still handled
+        handler.onData(frame(new byte[] { (byte) 0x81, 0x00, 0x01, 0x28, 0x00 }));
+        handler.onData(frame(new byte[] { (byte) 0x8A, 0x00 }));
+        handler.onData(frame(new byte[] { (byte) 0x89, 0x01, 0x00 }));
+        assertEquals(frames.length, handler.getErrorCount());
+        assertEquals(3, handler.getFrameCount());
+        assertEquals(3, listener.calls.get());
+    }
+
+    @Test
+    public void unknownFrameTest() {
+        APIFrameHandler handler = new APIFrameHandler();
+        final AtomicInteger frames = new AtomicInteger();
+        handler.setFrameDataListener(new APIFrameHandler.FrameDataListener() {
+            @Override
+            public void onFrameData(ByteBuffer frameData) {
+                assertEquals(1, frameData.remaining());
+                frames.incrementAndGet();
+            }
+        });
+        handler.onData(frame(new byte[] { (byte) 0x88 })); // no view, so any length is passed on
+        assertEquals(1, frames.get());
+        assertEquals(0, handler.getErrorCount());
+        assertEquals(1, handler.getFrameCount());
+    }
+
+}
@@ -0,0 +1,70 @@
+import edu.sdsu.rocket.core.helpers.AtomicSample;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AtomicSampleTest {
+
+    @Test
+    public void sequenceTest() {
+        AtomicSample sample = new AtomicSample();
+        assertEquals(0, sample.getSequence());
+
+        final long timestamp = 30L * 24 * 60 * 60 * 1_000_000_000L + 1; // 30 days, beyond int milliseconds
+        sample.set(timestamp, 1.5f);
+        sample.set(timestamp + 1, 2.5f);
+
+        AtomicSample.Reading reading = sample.get(new AtomicSample.Reading());
+        assertEquals(timestamp + 1, reading.timestamp);
+        assertEquals(2.5f, reading.value, 0f);
+        assertEquals(2, reading.sequence);
+    }
+
+    @Test
+    public void byteBufferTest() {
+        AtomicSample sample = new AtomicSample();
+        sample.set(123_456_789_012L, -4.25f, 42);
+
+        ByteBuffer buffer = ByteBuffer.allocate(AtomicSample.BYTES);
+        sample.toByteBuffer(buffer);
+        assertEquals(AtomicSample.BYTES, buffer.position());
+        buffer.flip();
+
+        AtomicSample copy = new AtomicSample();
+        copy.fromByteBuffer(buffer);
+        assertEquals(123_456_789_012L, copy.getTimestamp());
+        assertEquals(-4.25f, copy.getValue(), 0f);
+        assertEquals(42, copy.getSequence());
+    }
+
+    /**
+     * Writer always stores a value equal to its timestamp, so a torn read would be detected as a mismatch.
+     */
+    @Test
+    public void consistentReadTest() throws InterruptedException {
+        final AtomicSample sample = new AtomicSample();
+        final int count = 1_000_000;
+
+        Thread writer = new Thread(() -> {
+            for (int i = 1; i <= count; i++) {
+                sample.set(i, i);
+            }
+        });
+        writer.start();
+
+        AtomicSample.Reading reading = new AtomicSample.Reading();
+        long last = 0;
+        while (writer.isAlive() || last < count) {
+            sample.get(reading);
+            assertEquals((float) reading.timestamp, reading.value, 0f);
+            assertEquals(reading.timestamp, reading.sequence);
+            assertTrue(reading.sequence >= last);
+            last = reading.sequence;
+        }
+        writer.join();
+    }
+
+}
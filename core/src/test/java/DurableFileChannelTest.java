@@ -0,0 +1,63 @@
+import edu.sdsu.rocket.core.io.DurableFileChannel;
+import edu.sdsu.rocket.core.io.Durability;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class DurableFileChannelTest {
+
+    private static final int WRITES = 10;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private DurableFileChannel write(Durability durability, long forceInterval) throws IOException {
+        File f = folder.newFile();
+        DurableFileChannel channel = new DurableFileChannel(f.getName(), new FileOutputStream(f).getChannel(),
+                durability, forceInterval, TimeUnit.MILLISECONDS);
+        for (int i = 0; i < WRITES; i++) {
+            assertEquals(100, channel.write(ByteBuffer.allocate(100)));
+        }
+        assertEquals(WRITES * 100, f.length());
+        return channel;
+    }
+
+    @Test
+    public void bufferedTest() throws IOException {
+        DurableFileChannel channel = write(Durability.BUFFERED, 0);
+        channel.close();
+        assertEquals(WRITES, channel.getWriteLatency().getCount());
+        assertEquals(0, channel.getForceLatency().getCount());
+    }
+
+    @Test
+    public void periodicTest() throws IOException {
+        DurableFileChannel channel = write(Durability.PERIODIC, TimeUnit.HOURS.toMillis(1));
+        assertEquals(0, channel.getForceLatency().getCount());
+        channel.close(); // forces what remains
+        assertEquals(1, channel.getForceLatency().getCount());
+
+        channel = write(Durability.PERIODIC, 0);
+        assertEquals(WRITES, channel.getForceLatency().getCount());
+        channel.close();
+        assertEquals(WRITES, channel.getForceLatency().getCount());
+    }
+
+    @Test
+    public void blockTest() throws IOException {
+        DurableFileChannel channel = write(Durability.BLOCK, TimeUnit.HOURS.toMillis(1));
+        assertEquals(WRITES, channel.getForceLatency().getCount());
+        channel.close();
+        assertEquals(WRITES, channel.getWriteLatency().getCount());
+        assertEquals(WRITES, channel.getForceLatency().getCount());
+    }
+
+}
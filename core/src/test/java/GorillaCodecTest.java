@@ -0,0 +1,145 @@
+import edu.sdsu.rocket.core.io.GorillaCodec;
+import edu.sdsu.rocket.core.io.RecordingHeader;
+import edu.sdsu.rocket.core.io.RecordingReader;
+import edu.sdsu.rocket.core.io.RecordingWriter;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class GorillaCodecTest {
+
+    private static final int COUNT = 10000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Round trips a series, returning the encoded size.
+     */
+    private static int roundTrip(long[] timestamps, float[] values) {
+        ByteBuffer buffer = ByteBuffer.allocate(GorillaCodec.maxEncodedSize(timestamps.length) + 1);
+        buffer.put((byte) 0x55); // series need not start at the beginning of a buffer
+
+        GorillaCodec.Encoder encoder = new GorillaCodec.Encoder();
+        encoder.reset(buffer);
+        for (int i = 0; i < timestamps.length; i++) {
+            encoder.add(timestamps[i], values[i]);
+        }
+        encoder.finish();
+        int size = buffer.position() - 1;
+        buffer.flip();
+        buffer.get();
+
+        GorillaCodec.Decoder decoder = new GorillaCodec.Decoder();
+        decoder.reset(buffer);
+        for (int i = 0; i < timestamps.length; i++) {
+            decoder.next();
+            assertEquals(timestamps[i], decoder.getTimestamp());
+            assertEquals(Float.floatToRawIntBits(values[i]), Float.floatToRawIntBits(decoder.getValue()));
+        }
+        assertEquals(buffer.limit(), buffer.position());
+        return size;
+    }
+
+    /**
+     * 860 SPS with scheduling jitter, a slowly varying signal and 12-bit style quantization.
+     */
+    private static void adc(long[] timestamps, float[] values, Random random) {
+        long timestamp = 123456789L;
+        for (int i = 0; i < timestamps.length; i++) {
+            timestamp += 1162790 + random.nextInt(20000) - 10000;
+            timestamps[i] = timestamp;
+            values[i] = Math.round(2500 + 1000 * Math.sin(i / 500.0) + random.nextGaussian() * 2) * 0.1875f;
+        }
+    }
+
+    @Test
+    public void adcTest() {
+        long[] timestamps = new long[COUNT];
+        float[] values = new float[COUNT];
+        adc(timestamps, values, new Random(1));
+
+        int size = roundTrip(timestamps, values);
+        assertTrue("Compressed to " + size + " bytes", size < COUNT * 12 / 2);
+    }
+
+    @Test
+    public void edgeCaseTest() {
+        long[] timestamps = new long[] {
+                Long.MIN_VALUE, Long.MAX_VALUE, 0, 0, 0, 1, 3, 6, 6 + (1L << 40), -5, -5 + 2047, -5 + 2047 * 2 + 2048,
+        };
+        float[] values = new float[] {
+                0f, -0f, Float.NaN, Float.NaN, Float.POSITIVE_INFINITY, Float.MIN_VALUE, -Float.MAX_VALUE, 1f, 1f,
+                1.0000001f, Float.intBitsToFloat(0x7FC00001), 42f,
+        };
+        roundTrip(timestamps, values);
+        roundTrip(new long[] { 7 }, new float[] { 7f });
+    }
+
+    @Test
+    public void randomTest() {
+        Random random = new Random(2);
+        long[] timestamps = new long[COUNT];
+        float[] values = new float[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            timestamps[i] = random.nextLong() >> random.nextInt(64);
+            values[i] = Float.intBitsToFloat(random.nextInt());
+        }
+        int size = roundTrip(timestamps, values);
+        assertTrue(size <= GorillaCodec.maxEncodedSize(COUNT));
+    }
+
+    @Test
+    public void recordingTest() throws IOException {
+        Random random = new Random(3);
+        long[] timestamps = new long[COUNT];
+        float[] values = new float[COUNT];
+        adc(timestamps, values, random);
+
+        RecordingHeader header = new RecordingHeader().setEncoding(RecordingHeader.Encoding.GORILLA);
+        header.add(new RecordingHeader.Channel("A0", "mV", 0, 2f / 3f, 860f));
+        header.add(new RecordingHeader.Channel("A1", "mV", 0, 2f / 3f, 860f));
+        File compressed = folder.newFile();
+        File raw = folder.newFile();
+        RecordingWriter writer = new RecordingWriter(new FileOutputStream(compressed).getChannel(), header, 4096);
+        RecordingWriter rawWriter = new RecordingWriter(new FileOutputStream(raw).getChannel(),
+                new RecordingHeader().setEncoding(RecordingHeader.Encoding.RAW), 4096);
+        for (int i = 0; i < COUNT; i++) {
+            // interleaved, channel 1 offset in time and value
+            writer.write(0, timestamps[i], values[i]);
+            writer.write(1, timestamps[i] + 1000, -values[i]);
+            rawWriter.write(0, timestamps[i], values[i]);
+            rawWriter.write(1, timestamps[i] + 1000, -values[i]);
+        }
+        writer.close();
+        rawWriter.close();
+        assertTrue(compressed.length() < raw.length() / 2);
+
+        RecordingReader reader = new RecordingReader(compressed);
+        assertEquals(RecordingHeader.Encoding.GORILLA, reader.getHeader().getEncoding());
+        RecordingReader.Block block = new RecordingReader.Block();
+        int[] next = new int[2];
+        for (int b = 0; b < reader.getBlockCount(); b++) {
+            reader.read(b, block);
+            for (int k = 0; k < block.count; k++) {
+                int channel = block.channels[k];
+                int i = next[channel]++;
+                assertEquals(channel == 0 ? timestamps[i] : timestamps[i] + 1000, block.timestamps[k]);
+                assertEquals(channel == 0 ? values[i] : -values[i], block.values[k], 0f);
+            }
+        }
+        assertEquals(COUNT, next[0]);
+        assertEquals(COUNT, next[1]);
+        reader.close();
+    }
+
+}
@@ -0,0 +1,50 @@
+import edu.sdsu.rocket.core.helpers.LatencyHistogram;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void percentileTest() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentile(50));
+        for (long i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000); // 1 us to 1 ms
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500500, histogram.getMean());
+        assertEquals(1000000, histogram.getMax());
+        assertEquals(1000000, histogram.getPercentile(100));
+        assertWithin(500000, histogram.getPercentile(50));
+        assertWithin(990000, histogram.getPercentile(99));
+        assertWithin(1000, histogram.getPercentile(0));
+    }
+
+    @Test
+    public void rangeTest() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-1);
+        histogram.record(0);
+        histogram.record(7);
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(0, histogram.getPercentile(50));
+        assertEquals(7, histogram.getPercentile(75));
+        assertEquals(Long.MAX_VALUE, histogram.getPercentile(100));
+        assertEquals(Long.MAX_VALUE / 4.0, histogram.getMean(), Long.MAX_VALUE / 4.0 * 1e-9);
+
+        histogram.record(Long.MAX_VALUE); // the total exceeds a long
+        assertEquals(Long.MAX_VALUE * 2.0 / 5.0, histogram.getMean(), Long.MAX_VALUE * 2.0 / 5.0 * 1e-9);
+        assertEquals(Long.MAX_VALUE, histogram.getMax());
+    }
+
+    /**
+     * Asserts the percentile is the upper bound of a bucket no wider than 1/8 of its value.
+     */
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(expected + " <= " + actual, expected <= actual);
+        assertTrue(actual + " < " + expected * 9 / 8, actual <= expected * 9 / 8);
+    }
+
+}
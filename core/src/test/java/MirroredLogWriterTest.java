@@ -0,0 +1,207 @@
+import edu.sdsu.rocket.core.io.MirroredLogWriter;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MirroredLogWriterTest {
+
+    private static final int WRITES = 100;
+    private static final int SIZE = 100;
+
+    /**
+     * A channel which blocks writes until released, like a stalled device.
+     */
+    private static class StalledChannel implements WritableByteChannel {
+        final CountDownLatch release = new CountDownLatch(1);
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final WritableByteChannel out = Channels.newChannel(bytes);
+        boolean isOpen = true;
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt(); // as a FileChannel closed by interrupt
+                throw new InterruptedIOException();
+            }
+            return out.write(src);
+        }
+
+        @Override
+        public boolean isOpen() {
+            return isOpen;
+        }
+
+        @Override
+        public void close() {
+            isOpen = false;
+        }
+    }
+
+    private static MirroredLogWriter writer(MirroredLogWriter.Policy policy) {
+        MirroredLogWriter writer = new MirroredLogWriter(policy, 10 * SIZE);
+        writer.add("primary");
+        writer.add("mirror");
+        writer.start();
+        return writer;
+    }
+
+    private static byte[] expected(int writes) {
+        byte[] b = new byte[writes * SIZE];
+        for (int i = 0; i < b.length; i++) {
+            b[i] = (byte) (i / SIZE);
+        }
+        return b;
+    }
+
+    private static void write(WritableByteChannel channel, int writes) throws IOException {
+        byte[] b = expected(writes);
+        for (int i = 0; i < writes; i++) {
+            assertEquals(SIZE, channel.write(ByteBuffer.wrap(b, i * SIZE, SIZE)));
+        }
+    }
+
+    @Test
+    public void blockTest() throws IOException {
+        MirroredLogWriter writer = writer(MirroredLogWriter.Policy.BLOCK);
+        ByteArrayOutputStream primary = new ByteArrayOutputStream();
+        ByteArrayOutputStream mirror = new ByteArrayOutputStream();
+        WritableByteChannel channel = writer.createChannel(Channels.newChannel(primary), Channels.newChannel(mirror));
+        write(channel, WRITES);
+        channel.close();
+        writer.stop();
+
+        assertArrayEquals(expected(WRITES), primary.toByteArray());
+        assertArrayEquals(expected(WRITES), mirror.toByteArray());
+        for (MirroredLogWriter.Target target : writer.getTargets()) {
+            assertEquals(WRITES, target.getWrites());
+            assertEquals(0, target.getDropped());
+            assertEquals(0, target.getQueued());
+        }
+    }
+
+    @Test
+    public void dropTest() throws IOException, InterruptedException {
+        MirroredLogWriter writer = writer(MirroredLogWriter.Policy.DROP);
+        ByteArrayOutputStream primary = new ByteArrayOutputStream();
+        StalledChannel mirror = new StalledChannel();
+        WritableByteChannel channel = writer.createChannel(Channels.newChannel(primary), mirror);
+        write(channel, WRITES); // does not wait for the stalled mirror
+        MirroredLogWriter.Target target = writer.getTargets().get(1);
+        assertEquals(WRITES - 10, target.getDropped());
+        assertTrue(target.getLagNanos() > 0);
+
+        mirror.release.countDown();
+        while (target.getQueued() != 0) {
+            Thread.sleep(1);
+        }
+        write(channel, 1);
+        channel.close();
+        writer.stop();
+
+        assertEquals((WRITES + 1) * SIZE, primary.size());
+        assertEquals(11 * SIZE, mirror.bytes.size()); // the writes which fit in its queue, then the one after the stall
+        assertFalse(mirror.isOpen());
+        assertFalse(writer.isDegraded());
+    }
+
+    @Test
+    public void primaryOnlyTest() throws IOException {
+        MirroredLogWriter writer = writer(MirroredLogWriter.Policy.PRIMARY_ONLY);
+        ByteArrayOutputStream primary = new ByteArrayOutputStream();
+        StalledChannel mirror = new StalledChannel();
+        WritableByteChannel channel = writer.createChannel(Channels.newChannel(primary), mirror);
+        write(channel, WRITES);
+        assertTrue(writer.isDegraded());
+
+        mirror.release.countDown();
+        channel.close();
+        writer.stop();
+
+        assertArrayEquals(expected(WRITES), primary.toByteArray());
+        assertArrayEquals(expected(10), mirror.bytes.toByteArray()); // ends cleanly where it fell behind
+        assertEquals(WRITES - 10, writer.getTargets().get(1).getDropped());
+    }
+
+    @Test
+    public void errorTest() throws IOException {
+        MirroredLogWriter writer = writer(MirroredLogWriter.Policy.DROP);
+        ByteArrayOutputStream primary = new ByteArrayOutputStream();
+        WritableByteChannel failing = Channels.newChannel(new ByteArrayOutputStream());
+        failing.close();
+        WritableByteChannel channel = writer.createChannel(Channels.newChannel(primary), failing);
+        write(channel, 3);
+        channel.close();
+        writer.stop();
+
+        assertArrayEquals(expected(3), primary.toByteArray());
+        assertEquals(0, writer.getTargets().get(0).getErrors());
+        assertEquals(3, writer.getTargets().get(1).getErrors());
+    }
+
+    @Test(timeout = 10000)
+    public void errorLoggedToTargetTest() throws IOException {
+        MirroredLogWriter writer = writer(MirroredLogWriter.Policy.BLOCK);
+        WritableByteChannel failing = Channels.newChannel(new ByteArrayOutputStream());
+        failing.close();
+        WritableByteChannel channel = writer.createChannel(Channels.newChannel(new ByteArrayOutputStream()), failing);
+        PrintStream err = System.err;
+        System.setErr(new PrintStream(Channels.newOutputStream(channel))); // as the server logs System.err
+        try {
+            write(channel, WRITES);
+        } finally {
+            System.setErr(err);
+        }
+        channel.close();
+        writer.stop();
+        assertEquals(WRITES, writer.getTargets().get(1).getErrors());
+    }
+
+    @Test(timeout = 10000)
+    public void interruptTest() throws IOException, InterruptedException {
+        MirroredLogWriter writer = writer(MirroredLogWriter.Policy.BLOCK);
+        StalledChannel mirror = new StalledChannel();
+        final WritableByteChannel channel = writer.createChannel(Channels.newChannel(new ByteArrayOutputStream()), mirror);
+        final IOException[] exception = new IOException[1];
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    write(channel, WRITES); // waits once the stalled mirror's queue is full
+                } catch (IOException e) {
+                    exception[0] = e;
+                }
+            }
+        });
+        producer.start();
+        MirroredLogWriter.Target target = writer.getTargets().get(1);
+        while (target.getQueued() < 10 * SIZE) {
+            Thread.sleep(1);
+        }
+
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals(MirroredLogWriter.class.getSimpleName() + "-mirror")) {
+                thread.interrupt();
+            }
+        }
+        producer.join();
+        assertTrue(String.valueOf(exception[0]), exception[0] instanceof ClosedChannelException);
+        assertTrue(target.getErrors() > 0);
+        writer.stop();
+    }
+
+}
@@ -0,0 +1,67 @@
+import edu.sdsu.rocket.core.helpers.PeriodicTimer;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PeriodicTimerTest {
+
+    private static final long PERIOD = 1000L; // ns
+
+    @Test
+    public void onTimeTest() {
+        PeriodicTimer timer = new PeriodicTimer(PERIOD);
+        final long start = timer.getDeadline();
+
+        for (int i = 0; i < 10; i++) {
+            timer.advance(timer.getDeadline() + 10);
+        }
+
+        assertEquals(start + 10 * PERIOD, timer.getDeadline()); // no drift from late wake-ups
+        assertEquals(10, timer.getCount());
+        assertEquals(0, timer.getOverruns());
+        assertEquals(10, timer.getMeanJitter());
+        assertEquals(10, timer.getMaxJitter());
+    }
+
+    @Test
+    public void skipPolicyTest() {
+        PeriodicTimer timer = new PeriodicTimer(PERIOD);
+        timer.setOverrunPolicy(PeriodicTimer.OverrunPolicy.SKIP);
+        final long start = timer.getDeadline();
+
+        timer.advance(start + 3500);
+
+        assertEquals(start + 4 * PERIOD, timer.getDeadline());
+        assertEquals(1, timer.getOverruns());
+        assertEquals(3, timer.getSkipped());
+    }
+
+    @Test
+    public void catchUpPolicyTest() {
+        PeriodicTimer timer = new PeriodicTimer(PERIOD);
+        timer.setOverrunPolicy(PeriodicTimer.OverrunPolicy.CATCH_UP);
+        final long start = timer.getDeadline();
+
+        timer.advance(start + 3500);
+
+        assertEquals(start + PERIOD, timer.getDeadline());
+        assertEquals(1, timer.getOverruns());
+        assertEquals(0, timer.getSkipped());
+    }
+
+    @Test
+    public void periodChangeTest() throws InterruptedException {
+        PeriodicTimer timer = new PeriodicTimer(); // never waits, so never advances its deadline
+        timer.setOverrunPolicy(PeriodicTimer.OverrunPolicy.CATCH_UP);
+        Thread.sleep(5);
+
+        long now = System.nanoTime();
+        timer.setPeriod(PERIOD);
+        assertTrue(timer.getDeadline() - now >= PERIOD);
+
+        timer.advance(timer.getDeadline());
+        assertEquals(0, timer.getOverruns());
+    }
+
+}
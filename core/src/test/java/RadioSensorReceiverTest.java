@@ -0,0 +1,124 @@
+import edu.sdsu.rocket.core.io.radio.RadioSensorReceiver;
+import edu.sdsu.rocket.core.io.radio.TelemetryFrame;
+import edu.sdsu.rocket.core.io.radio.api.APIFrame;
+import edu.sdsu.rocket.core.models.Sensors;
+import edu.sdsu.rocket.core.net.SensorClient;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+public class RadioSensorReceiverTest {
+
+    private static final int FRAMES = 100;
+    private static final int LOST_SEQUENCE = 50;
+
+    private static byte[] frame(int sequence, float value) {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        long now = System.nanoTime();
+        TelemetryFrame frame = new TelemetryFrame().begin(buffer, 64, sequence, now);
+        frame.putAnalog(1, now, value);
+        frame.putGPSPosition(now, 32.5, -117.25, 100.0);
+        byte[] data = new byte[buffer.position()];
+        buffer.flip();
+        buffer.get(data);
+        return data;
+    }
+
+    /**
+     * Wraps RF data in an RX packet API frame as received from the radio.
+     */
+    private static byte[] rxPacket(byte[] rfData, byte signalStrength, boolean escaped) {
+        ByteBuffer frameData = ByteBuffer.allocate(5 + rfData.length);
+        frameData.put((byte) 0x81).putShort((short) 1).put(signalStrength).put((byte) 0).put(rfData);
+        byte[] d = frameData.array();
+
+        ByteBuffer out = ByteBuffer.allocate(2 * (d.length + 4));
+        out.put(APIFrame.DEFAULT_START_DELIMITER);
+        APIFrame.put(out, (byte) (d.length >> 8), escaped);
+        APIFrame.put(out, (byte) d.length, escaped);
+        for (byte b : d) {
+            APIFrame.put(out, b, escaped);
+        }
+        APIFrame.put(out, APIFrame.checksum(d), escaped);
+
+        byte[] packet = new byte[out.position()];
+        out.flip();
+        out.get(packet);
+        return packet;
+    }
+
+    @Test
+    public void rawStreamTest() throws Exception {
+        ByteArrayOutputStream capture = new ByteArrayOutputStream();
+        capture.write(new byte[] { 0x00, 0x13, 0x7E }); // noise
+        for (int i = 0; i < FRAMES; i++) {
+            if (i == LOST_SEQUENCE) continue;
+            capture.write(frame(i, i));
+        }
+
+        Sensors sensors = new Sensors();
+        RadioSensorReceiver receiver = new RadioSensorReceiver(sensors);
+        final AtomicInteger updates = new AtomicInteger();
+        final AtomicInteger samples = new AtomicInteger();
+        receiver.setListener(new SensorClient.SensorClientListener() {
+            @Override
+            public void onSensorsUpdated(byte mask) {
+                assertEquals(Sensors.ANALOG_MASK | Sensors.GPS_MASK, mask);
+                updates.incrementAndGet();
+            }
+
+            @Override
+            public void onPingResponse(long latency) {
+            }
+        });
+        receiver.setSampleListener(new SensorClient.SampleListener() {
+            @Override
+            public void onSample(int channel, long sequence, long timestamp, float value) {
+                assertEquals(1, channel);
+                samples.incrementAndGet();
+            }
+        });
+
+        receiver.start(new ByteArrayInputStream(capture.toByteArray()));
+        receiver.join();
+
+        assertEquals(FRAMES - 1, receiver.getFrameCount());
+        assertEquals(1, receiver.getLostCount());
+        assertEquals(FRAMES - 1, updates.get());
+        assertEquals(FRAMES - 1, samples.get());
+        assertEquals(FRAMES - 1, sensors.analog[1].getValue(), 0f);
+        assertEquals(-117.25, sensors.gps.getLongitude(), 0.0);
+        assertEquals(3, receiver.getErrorCount()); // noise skipped
+    }
+
+    @Test
+    public void escapedAPIFramesTest() {
+        Sensors sensors = new Sensors();
+        RadioSensorReceiver receiver = new RadioSensorReceiver(sensors);
+        receiver.setMode(RadioSensorReceiver.Mode.API_ESCAPED);
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        for (int i = 0; i < FRAMES; i++) {
+            byte[] packet = rxPacket(frame(i, 0x7E), (byte) 40, true);
+            stream.write(packet, 0, packet.length);
+        }
+
+        // deliver in small chunks that split frames
+        byte[] data = stream.toByteArray();
+        for (int i = 0; i < data.length; i += 7) {
+            receiver.onData(data, i, Math.min(7, data.length - i));
+        }
+
+        assertEquals(FRAMES, receiver.getFrameCount());
+        assertEquals(0, receiver.getLostCount());
+        assertEquals(0, receiver.getErrorCount());
+        assertEquals(40, receiver.getSignalStrength());
+        assertEquals(0x7E, sensors.analog[1].getValue(), 0f);
+    }
+
+}
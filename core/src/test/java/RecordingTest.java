@@ -0,0 +1,276 @@
+import edu.sdsu.rocket.core.io.RecordingHeader;
+import edu.sdsu.rocket.core.io.RecordingReader;
+import edu.sdsu.rocket.core.io.RecordingWriter;
+import edu.sdsu.rocket.core.io.SampleLogWriter;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RecordingTest {
+
+    private static final float DELTA = 0.00001f;
+    private static final int BLOCK_SIZE = 1024;
+    private static final int COUNT = 10000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static RecordingHeader header() {
+        RecordingHeader header = new RecordingHeader().setAnchor(1234567890L);
+        header.add(new RecordingHeader.Channel("A0", "mV", 0b1000_0101_1000_0011, 2f / 3f, 860f));
+        header.add(new RecordingHeader.Channel("A4", "mV", 0x0C, 1f, 16f));
+        return header;
+    }
+
+    /**
+     * Writes COUNT samples alternating between the channels (timestamps in microseconds).
+     */
+    private File write(boolean finish) throws IOException {
+        File file = folder.newFile();
+        RecordingWriter writer = new RecordingWriter(new FileOutputStream(file).getChannel(), header(), BLOCK_SIZE);
+        for (int i = 0; i < COUNT; i++) {
+            writer.write(i % 2, i * 1000L, i / 10f);
+        }
+        if (finish) {
+            writer.close();
+        } else {
+            writer.writeBlock();
+        }
+        return file;
+    }
+
+    private static int readAll(RecordingReader reader) throws IOException {
+        RecordingReader.Block block = new RecordingReader.Block();
+        int i = 0;
+        for (int b = 0; b < reader.getBlockCount(); b++) {
+            reader.read(b, block);
+            for (int k = 0; k < block.count; k++, i++) {
+                assertEquals(i % 2, block.channels[k]);
+                assertEquals(i * 1000L, block.timestamps[k]);
+                assertEquals(i / 10f, block.values[k], DELTA);
+            }
+        }
+        return i;
+    }
+
+    @Test
+    public void ioTest() throws IOException {
+        RecordingReader reader = new RecordingReader(write(true));
+        assertFalse(reader.isRecovered());
+
+        RecordingHeader header = reader.getHeader();
+        assertEquals(1234567890L, header.getAnchor());
+        assertEquals(2, header.getChannels().size());
+        assertEquals("A4", header.getChannel(1).name);
+        assertEquals(0x0C, header.getChannel(1).config);
+        assertEquals(860f, header.getChannel(0).rate, DELTA);
+        assertEquals(1, header.indexOf("A4"));
+
+        assertEquals(COUNT, readAll(reader));
+        reader.close();
+    }
+
+    /**
+     * Asserts that every block before the one found for a timestamp holds only earlier samples and that the block
+     * found does not.
+     */
+    private static void assertSeeks(RecordingReader reader, long from, long to, long step) {
+        int blocks = reader.getBlockCount();
+        for (long timestamp = from; timestamp < to; timestamp += step) {
+            int b = reader.findBlock(timestamp);
+            for (int i = 0; i < b; i++) {
+                assertTrue(reader.getBlockMaxTimestamp(i) < timestamp);
+            }
+            assertTrue(b == blocks - 1 || reader.getBlockMaxTimestamp(b) >= timestamp);
+        }
+    }
+
+    @Test
+    public void findBlockTest() throws IOException {
+        RecordingReader reader = new RecordingReader(write(true));
+        int blocks = reader.getBlockCount();
+        assertTrue(blocks > 1);
+
+        assertEquals(0, reader.findBlock(-1));
+        assertEquals(blocks - 1, reader.findBlock(Long.MAX_VALUE));
+        RecordingReader.Block block = new RecordingReader.Block();
+        for (long timestamp = 0; timestamp < COUNT * 1000L; timestamp += 777) {
+            int b = reader.findBlock(timestamp);
+            reader.read(b, block);
+            assertTrue(b == blocks - 1 || block.maxTimestamp >= timestamp);
+            assertTrue(b == 0 || reader.getBlockMaxTimestamp(b - 1) < timestamp);
+        }
+        assertSeeks(reader, -1, COUNT * 1000L, 777);
+        reader.close();
+    }
+
+    @Test
+    public void recoverUnfinishedTest() throws IOException {
+        File finished = write(true);
+        File unfinished = write(false);
+        RecordingReader reader = new RecordingReader(unfinished);
+        assertTrue(reader.isRecovered());
+        assertEquals(new RecordingReader(finished).getBlockCount(), reader.getBlockCount());
+        assertEquals(unfinished.length(), reader.getValidLength());
+        assertEquals(COUNT, readAll(reader));
+        reader.close();
+    }
+
+    @Test
+    public void recoverTornBlockTest() throws IOException {
+        File file = write(false);
+        RecordingReader complete = new RecordingReader(file);
+        int blocks = complete.getBlockCount();
+        long lastBlock = complete.getValidLength();
+        complete.close();
+
+        // torn final block, complete header but not all records
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        raf.setLength(raf.length() - 5);
+        raf.close();
+        RecordingReader reader = new RecordingReader(file);
+        assertTrue(reader.isRecovered());
+        assertEquals(blocks - 1, reader.getBlockCount());
+        assertTrue(reader.getValidLength() < lastBlock);
+        readAll(reader);
+        reader.close();
+
+        // final block of the expected length but damaged
+        raf = new RandomAccessFile(file, "rw");
+        raf.setLength(lastBlock);
+        raf.seek(lastBlock - 1);
+        raf.write(0xFF);
+        raf.close();
+        reader = new RecordingReader(file);
+        assertEquals(blocks - 1, reader.getBlockCount());
+        readAll(reader);
+        reader.close();
+    }
+
+    @Test
+    public void corruptBlockTest() throws IOException {
+        File file = write(true);
+        RecordingReader reader = new RecordingReader(file);
+        long offset = reader.getValidLength() / 2;
+        reader.close();
+
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        raf.seek(offset);
+        raf.write(~raf.read());
+        raf.close();
+
+        reader = new RecordingReader(file);
+        assertFalse(reader.isRecovered()); // index is intact
+        RecordingReader.Block block = new RecordingReader.Block();
+        int corrupt = 0;
+        for (int b = 0; b < reader.getBlockCount(); b++) {
+            try {
+                reader.read(b, block);
+            } catch (IOException e) {
+                corrupt++;
+            }
+        }
+        assertEquals(1, corrupt);
+        reader.close();
+    }
+
+    @Test
+    public void sampleLogWriterTest() throws IOException {
+        File file = folder.newFile();
+        RecordingWriter recording = new RecordingWriter(new FileOutputStream(file).getChannel(), header(), BLOCK_SIZE);
+        SampleLogWriter writer = new SampleLogWriter(recording, COUNT);
+        SampleLogWriter.Channel a0 = writer.add("A0");
+        SampleLogWriter.Channel a4 = writer.add("A4");
+        try {
+            writer.add("A1");
+            fail("Channel not in header");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+
+        writer.start();
+        for (int i = 0; i < COUNT; i++) {
+            assertTrue(a0.writeValue(i, i));
+            if (i % 10 == 0) {
+                assertTrue(a4.writeValue(i, -i));
+            }
+        }
+        writer.stop();
+        assertEquals(COUNT, a0.getWritten());
+        assertEquals(COUNT / 10, a4.getWritten());
+        assertEquals(0, writer.getErrors());
+
+        RecordingReader reader = new RecordingReader(file);
+        assertFalse(reader.isRecovered());
+        RecordingReader.Block block = new RecordingReader.Block();
+        long[] next = new long[2];
+        for (int b = 0; b < reader.getBlockCount(); b++) {
+            reader.read(b, block);
+            for (int k = 0; k < block.count; k++) {
+                int channel = block.channels[k];
+                assertEquals(next[channel], block.timestamps[k]);
+                assertEquals(channel == 0 ? next[channel] : -next[channel], block.values[k], DELTA);
+                next[channel] += channel == 0 ? 1 : 10;
+            }
+        }
+        assertEquals(COUNT, next[0]);
+        assertEquals(COUNT, next[1]);
+        reader.close();
+    }
+
+    @Test
+    public void findBlockBacklogTest() throws IOException {
+        File file = folder.newFile();
+        RecordingWriter recording = new RecordingWriter(new FileOutputStream(file).getChannel(), header(), BLOCK_SIZE);
+        SampleLogWriter writer = new SampleLogWriter(recording, COUNT);
+        SampleLogWriter.Channel a0 = writer.add("A0");
+        SampleLogWriter.Channel a4 = writer.add("A4");
+        for (int i = 0; i < COUNT; i++) {
+            // backlog of both channels over the same time span, drained channel by channel
+            assertTrue(a0.writeValue(i * 1000L, i));
+            assertTrue(a4.writeValue(i * 1000L + 500, -i));
+        }
+        writer.start();
+        writer.stop();
+
+        for (boolean recovered : new boolean[] { false, true }) {
+            if (recovered) {
+                RandomAccessFile raf = new RandomAccessFile(file, "rw");
+                raf.setLength(new RecordingReader(file).getValidLength()); // drop the index
+                raf.close();
+            }
+            RecordingReader reader = new RecordingReader(file);
+            assertEquals(recovered, reader.isRecovered());
+            boolean isOrdered = true;
+            for (int b = 1; b < reader.getBlockCount(); b++) {
+                isOrdered &= reader.getBlockTimestamp(b) >= reader.getBlockTimestamp(b - 1);
+            }
+            assertFalse("blocks in time order", isOrdered);
+            assertSeeks(reader, -1, COUNT * 1000L + 1000, 333);
+
+            // every sample from the time sought is found reading on from the block
+            long timestamp = COUNT * 1000L / 2;
+            RecordingReader.Block block = new RecordingReader.Block();
+            int found = 0;
+            for (int b = reader.findBlock(timestamp); b < reader.getBlockCount(); b++) {
+                reader.read(b, block);
+                for (int k = 0; k < block.count; k++) {
+                    if (block.timestamps[k] >= timestamp) found++;
+                }
+            }
+            assertEquals(COUNT, found);
+            reader.close();
+        }
+    }
+
+}
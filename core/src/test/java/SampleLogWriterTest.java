@@ -0,0 +1,66 @@
+import edu.sdsu.rocket.core.helpers.SampleQueue;
+import edu.sdsu.rocket.core.io.SampleLogWriter;
+import edu.sdsu.rocket.core.io.devices.ADS11xxInputStream;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SampleLogWriterTest {
+
+    private static final float DELTA = 0.00001f;
+
+    @Test
+    public void ioTest() throws IOException {
+        final int count = 10000;
+        final int config = 0b1000_0101_1000_0011; // ADS1114 default
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        SampleLogWriter writer = new SampleLogWriter(count, 1024);
+        SampleLogWriter.Channel channel = writer.add("A0", Channels.newChannel(baos));
+        channel.writeConfig(config);
+
+        writer.start();
+        for (int i = 0; i < count; i++) {
+            assertTrue(channel.writeValue(i * 1000L, i / 10f));
+        }
+        writer.stop();
+
+        assertEquals(count, channel.getWritten());
+        assertEquals(0, channel.getDropped());
+
+        ADS11xxInputStream in = new ADS11xxInputStream(new ByteArrayInputStream(baos.toByteArray()));
+        assertEquals(config, in.readConfig());
+        for (int i = 0; i < count; i++) {
+            ADS11xxInputStream.Reading reading = in.readValue();
+            assertEquals(i * 1000L, reading.timestamp);
+            assertEquals(i / 10f, reading.value, DELTA);
+        }
+        assertEquals(0, in.available());
+    }
+
+    @Test
+    public void queueDropsWhenFullTest() {
+        SampleQueue queue = new SampleQueue(3); // rounded up to 4
+        assertEquals(4, queue.capacity());
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(queue.offer(i, i));
+        }
+        assertFalse(queue.offer(4, 4));
+        assertEquals(1, queue.getDropped());
+        assertEquals(4, queue.size());
+
+        final long[] sum = new long[1];
+        assertEquals(4, queue.drain((timestamp, value) -> sum[0] += timestamp, Integer.MAX_VALUE));
+        assertEquals(0 + 1 + 2 + 3, sum[0]);
+        assertTrue(queue.isEmpty());
+    }
+
+}
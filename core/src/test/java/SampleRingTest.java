@@ -0,0 +1,74 @@
+import edu.sdsu.rocket.core.helpers.SampleRing;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SampleRingTest {
+
+    @Test
+    public void readAfterTest() {
+        SampleRing ring = new SampleRing(8);
+        for (int i = 1; i <= 5; i++) {
+            assertEquals(i, ring.add(i * 10L, i));
+        }
+
+        SampleRing.Batch batch = new SampleRing.Batch(16);
+        assertEquals(3, ring.read(2, batch));
+        assertEquals(3, batch.first);
+        assertEquals(5, batch.last());
+        assertEquals(30L, batch.timestamps[0]);
+        assertEquals(5f, batch.values[2], 0f);
+
+        assertEquals(0, ring.read(5, batch));
+        assertEquals(2, ring.read(0, batch, 2));
+        assertEquals(1, batch.first);
+    }
+
+    @Test
+    public void overwriteTest() {
+        SampleRing ring = new SampleRing(5); // rounded up to 8
+        assertEquals(8, ring.capacity());
+        for (int i = 1; i <= 20; i++) {
+            ring.add(i, i);
+        }
+
+        SampleRing.Batch batch = new SampleRing.Batch(16);
+        assertEquals(7, ring.read(2, batch)); // the oldest slot may be in the process of being overwritten
+        assertEquals(14, batch.first);
+        assertEquals(20, batch.last());
+        assertEquals(14f, batch.values[0], 0f);
+    }
+
+    /**
+     * Writer always stores a timestamp and value equal to the sequence, so a sample read from a reused slot would be
+     * detected as a mismatch.
+     */
+    @Test
+    public void concurrentReadTest() throws InterruptedException {
+        final SampleRing ring = new SampleRing(64);
+        final int count = 1_000_000;
+
+        Thread writer = new Thread(() -> {
+            for (int i = 1; i <= count; i++) {
+                ring.add(i, i);
+            }
+        });
+        writer.start();
+
+        SampleRing.Batch batch = new SampleRing.Batch(32);
+        long last = 0;
+        while (writer.isAlive() || last < count) {
+            int n = ring.read(last, batch);
+            if (n == 0) continue;
+            assertTrue(batch.first > last);
+            for (int i = 0; i < n; i++) {
+                assertEquals(batch.first + i, batch.timestamps[i]);
+                assertEquals((float) (batch.first + i), batch.values[i], 0f);
+            }
+            last = batch.last();
+        }
+        writer.join();
+    }
+
+}
@@ -0,0 +1,163 @@
+import edu.sdsu.rocket.core.io.SampleLogWriter;
+import edu.sdsu.rocket.core.io.SegmentedLogChannel;
+import edu.sdsu.rocket.core.io.SegmentedLogInputStream;
+import edu.sdsu.rocket.core.io.devices.ADS11xxInputStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SegmentedLogTest {
+
+    private static final float DELTA = 0.00001f;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void ioTest() throws IOException {
+        final int count = 10000;
+        final int config = 0b1000_0101_1000_0011; // ADS1114 default
+        final long segmentSize = 4096;
+        File directory = folder.getRoot();
+
+        SegmentedLogChannel segments = new SegmentedLogChannel(directory, "A0", segmentSize);
+        segments.setForceInterval(-1, TimeUnit.MILLISECONDS);
+        SampleLogWriter writer = new SampleLogWriter(count, 1000); // blocks straddle segments
+        SampleLogWriter.Channel channel = writer.add("A0", segments);
+        channel.writeConfig(config);
+        writer.start();
+        for (int i = 0; i < count; i++) {
+            assertTrue(channel.writeValue(i * 1000L, i / 10f));
+        }
+        writer.stop();
+        segments.close();
+
+        long data = 4 + count * 12L;
+        long capacity = segmentSize - SegmentedLogChannel.HEADER_SIZE;
+        int expected = (int) ((data + capacity - 1) / capacity);
+        assertEquals(expected, segments.getSegmentCount());
+        assertEquals(expected - 1, segments.getSequence());
+        for (int i = 0; i < expected - 1; i++) {
+            assertEquals(segmentSize, SegmentedLogChannel.getSegmentFile(directory, "A0", i).length());
+        }
+        // the last segment is truncated to the data written
+        File last = SegmentedLogChannel.getSegmentFile(directory, "A0", expected - 1);
+        assertEquals(SegmentedLogChannel.HEADER_SIZE + data - (expected - 1) * capacity, last.length());
+
+        ADS11xxInputStream in = new ADS11xxInputStream(new SegmentedLogInputStream(directory, "A0"));
+        assertEquals(config, in.readConfig());
+        ADS11xxInputStream.Reading reading = in.new Reading();
+        for (int i = 0; i < count; i++) {
+            in.readValue(reading);
+            assertEquals(i * 1000L, reading.timestamp);
+            assertEquals(i / 10f, reading.value, DELTA);
+        }
+        assertEquals(-1, in.read());
+        in.close();
+    }
+
+    @Test
+    public void tailTest() throws IOException {
+        File directory = folder.getRoot();
+        SegmentedLogChannel segments = new SegmentedLogChannel(directory, "A1", 64);
+        segments.setForceInterval(0, TimeUnit.MILLISECONDS);
+        assertTrue(SegmentedLogInputStream.exists(directory, "A1"));
+        assertFalse(SegmentedLogInputStream.exists(directory, "A2"));
+
+        SegmentedLogInputStream in = new SegmentedLogInputStream(directory, "A1");
+        assertEquals(0, in.available());
+        assertEquals(-1, in.read());
+
+        segments.write(ByteBuffer.wrap(new byte[] { 1, 2, 3 }));
+        assertEquals(3, in.available()); // seen through the mapping while the segment is active
+        assertEquals(1, in.read());
+
+        segments.write(ByteBuffer.wrap(new byte[100])); // rolls to a second and third segment
+        assertEquals(2, segments.getSequence());
+        byte[] b = new byte[200];
+        int n = 0;
+        int r;
+        while ((r = in.read(b, n, b.length - n)) > 0) {
+            n += r;
+        }
+        assertEquals(2 + 100, n);
+        assertEquals(3, b[1]);
+        assertEquals(4, segments.getForceCount()); // each segment as it is rolled and then the active one
+
+        segments.close();
+        in.close();
+    }
+
+    @Test
+    public void rollIntervalTest() throws IOException, InterruptedException {
+        File directory = folder.getRoot();
+        SegmentedLogChannel segments = new SegmentedLogChannel(directory, "A3", 1024);
+        segments.setRollInterval(1, TimeUnit.MILLISECONDS);
+        segments.write(ByteBuffer.wrap(new byte[10]));
+        Thread.sleep(5);
+        segments.write(ByteBuffer.wrap(new byte[10]));
+        Thread.sleep(5);
+        segments.write(ByteBuffer.wrap(new byte[10]));
+        segments.close();
+
+        assertEquals(3, segments.getSegmentCount());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(SegmentedLogChannel.HEADER_SIZE + 10, SegmentedLogChannel.getSegmentFile(directory, "A3", i).length());
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void concurrentTailTest() throws IOException, InterruptedException {
+        final int count = 200000;
+        final File directory = folder.getRoot();
+        final SegmentedLogChannel segments = new SegmentedLogChannel(directory, "A4", 256);
+        segments.setForceInterval(-1, TimeUnit.MILLISECONDS);
+        final IOException[] exception = new IOException[1];
+        Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                Random random = new Random(4);
+                try {
+                    int i = 0;
+                    while (i < count) {
+                        byte[] b = new byte[Math.min(count - i, 1 + random.nextInt(100))];
+                        for (int k = 0; k < b.length; k++, i++) {
+                            b[k] = (byte) i;
+                        }
+                        segments.write(ByteBuffer.wrap(b));
+                    }
+                    segments.close();
+                } catch (IOException e) {
+                    exception[0] = e;
+                }
+            }
+        });
+
+        SegmentedLogInputStream in = new SegmentedLogInputStream(directory, "A4");
+        writer.start();
+        byte[] b = new byte[1000];
+        int i = 0;
+        while (i < count) {
+            int n = in.read(b, 0, b.length); // polls while the writer rolls segments
+            for (int k = 0; k < n; k++, i++) {
+                assertEquals("byte " + i, (byte) i, b[k]);
+            }
+        }
+        writer.join();
+        assertEquals(null, exception[0]);
+        assertEquals(-1, in.read());
+        assertTrue(segments.getSegmentCount() > 100);
+        in.close();
+    }
+
+}
@@ -0,0 +1,139 @@
+import edu.sdsu.rocket.core.models.Sensors;
+import edu.sdsu.rocket.core.net.DatagramMessage;
+import edu.sdsu.rocket.core.net.SensorClient;
+import edu.sdsu.rocket.core.net.SensorServer;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SensorServerTest {
+
+    private static final int CHANNEL = 0;
+    private static final int SAMPLES = 300;
+
+    /**
+     * Relays datagrams between a client and the server, dropping one SAMPLES datagram from the server.
+     */
+    private static class LossyRelay {
+        private final DatagramSocket clientSide = new DatagramSocket(0, InetAddress.getLoopbackAddress());
+        private final DatagramSocket serverSide = new DatagramSocket();
+        private final SocketAddress server;
+        private final int drop; // SAMPLES datagram to drop, counting from 1
+        private volatile SocketAddress client;
+        private volatile int samples;
+
+        LossyRelay(int serverPort, int drop) throws IOException {
+            this.server = new InetSocketAddress(InetAddress.getLoopbackAddress(), serverPort);
+            this.drop = drop;
+            relay(clientSide, serverSide, false);
+            relay(serverSide, clientSide, true);
+        }
+
+        int getPort() {
+            return clientSide.getLocalPort();
+        }
+
+        boolean isDropped() {
+            return samples >= drop;
+        }
+
+        private void relay(final DatagramSocket from, final DatagramSocket to, final boolean isFromServer) {
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    DatagramPacket packet = new DatagramPacket(new byte[DatagramMessage.MAXIMUM_DATAGRAM_SIZE], DatagramMessage.MAXIMUM_DATAGRAM_SIZE);
+                    try {
+                        for (;;) {
+                            packet.setLength(DatagramMessage.MAXIMUM_DATAGRAM_SIZE);
+                            from.receive(packet);
+                            if (!isFromServer) {
+                                client = packet.getSocketAddress();
+                                packet.setSocketAddress(server);
+                            } else {
+                                if (packet.getLength() > 4 && packet.getData()[4] == DatagramMessage.SAMPLES && ++samples == drop) {
+                                    continue;
+                                }
+                                packet.setSocketAddress(client);
+                            }
+                            to.send(packet);
+                        }
+                    } catch (IOException e) {
+                        // closed
+                    }
+                }
+            });
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        void close() {
+            clientSide.close();
+            serverSide.close();
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (DatagramSocket socket = new DatagramSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    @Test(timeout = 20000)
+    public void pushedSamplesResentTest() throws IOException, InterruptedException {
+        Sensors sensors = new Sensors();
+        SensorServer server = new SensorServer(sensors);
+        int port = freePort();
+        server.start(port);
+        LossyRelay relay = new LossyRelay(port, 3);
+
+        final List<Long> received = Collections.synchronizedList(new ArrayList<Long>());
+        SensorClient client = new SensorClient(new Sensors());
+        client.setSampleListener(new SensorClient.SampleListener() {
+            @Override
+            public void onSample(int channel, long sequence, long timestamp, float value) {
+                if (channel == CHANNEL) {
+                    received.add(sequence);
+                }
+            }
+        });
+        client.setMode(SensorClient.Mode.PUSH);
+        client.setFrequency(50f);
+        client.start(InetAddress.getLoopbackAddress(), relay.getPort());
+        try {
+            while (server.getSubscriberCount() == 0) {
+                Thread.sleep(10);
+            }
+            for (int i = 1; i <= SAMPLES; i++) {
+                sensors.setAnalog(CHANNEL, i, i);
+                Thread.sleep(2); // over many pushes
+            }
+            // the lost samples are pushed again once the client acknowledges what it has received
+            long last = sensors.analogSamples[CHANNEL].getSequence();
+            while (received.isEmpty() || received.get(received.size() - 1) < last) {
+                Thread.sleep(10);
+            }
+        } finally {
+            client.stop();
+            server.stop();
+            relay.close();
+        }
+
+        assertTrue(relay.isDropped());
+        for (int i = 1; i < received.size(); i++) {
+            assertEquals(received.get(i - 1) + 1, (long) received.get(i));
+        }
+        assertEquals(0, client.getSampleGaps());
+    }
+
+}
@@ -0,0 +1,73 @@
+import edu.sdsu.rocket.core.models.Sensors;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+
+public class SensorsTest {
+
+    @Test
+    public void byteBufferTest() {
+        Sensors sensors = new Sensors();
+        for (int i = 0; i < sensors.analog.length; i++) {
+            sensors.setAnalog(i, 1000L + i, i / 2f);
+        }
+        sensors.setGPS(32.7757, -117.0719, 120.5);
+        sensors.setGPSFix(3, 7);
+        sensors.setSignalStrength(90);
+        sensors.setRawTemperature(45123);
+
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        sensors.toByteBuffer(buffer);
+        buffer.flip();
+
+        Sensors copy = new Sensors();
+        copy.fromByteBuffer(buffer);
+        for (int i = 0; i < copy.analog.length; i++) {
+            assertEquals(1000L + i, copy.analog[i].getTimestamp());
+            assertEquals(i / 2f, copy.analog[i].getValue(), 0f);
+            assertEquals(1, copy.analog[i].getSequence());
+        }
+        assertEquals(-117.0719, copy.gps.getLongitude(), 0);
+        assertEquals(3, copy.gps.getFixStatus());
+        assertEquals(7, copy.gps.getSatellites());
+        assertEquals(90, copy.radio.getSignalStrength());
+        assertEquals(45123, copy.system.getRawTemperature());
+        assertEquals(0, buffer.remaining());
+    }
+
+    /**
+     * Writer always sets latitude, longitude and altitude to the same value, so a frame mixing two updates would be
+     * detected as a mismatch.
+     */
+    @Test
+    public void coherentFrameTest() throws InterruptedException {
+        final Sensors sensors = new Sensors();
+        final int count = 200_000;
+
+        Thread writer = new Thread(() -> {
+            for (int i = 1; i <= count; i++) {
+                sensors.setGPS(i, i, i);
+            }
+        });
+        writer.start();
+
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        Sensors snapshot = new Sensors();
+        while (writer.isAlive()) {
+            buffer.clear();
+            sensors.toByteBuffer(buffer, Sensors.GPS_MASK);
+            buffer.flip();
+            double latitude = buffer.getDouble();
+            assertEquals(latitude, buffer.getDouble(), 0);
+            assertEquals(latitude, buffer.getDouble(), 0);
+
+            sensors.snapshot(snapshot);
+            assertEquals(snapshot.gps.getLatitude(), snapshot.gps.getLongitude(), 0);
+            assertEquals(snapshot.gps.getLatitude(), snapshot.gps.getAltitude(), 0);
+        }
+        writer.join();
+    }
+
+}
@@ -0,0 +1,65 @@
+import edu.sdsu.rocket.core.io.radio.APIFrameHandler;
+import edu.sdsu.rocket.core.io.radio.api.APIFrame;
+import edu.sdsu.rocket.core.io.radio.api.TXRequest;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class TXRequestTest {
+
+    private static final byte FRAME_ID = 0x13; // XOFF
+    private static final short ADDRESS = 0x7D11; // escape, XON
+    private static final byte[] DATA = { 0x00, 0x7E, 0x7D, 0x11, 0x13, (byte) 0xFF, 0x42 };
+
+    private static byte[] encode(boolean escaped) {
+        ByteBuffer out = ByteBuffer.allocate(2 * (TXRequest.HEADER_LENGTH + DATA.length + 4));
+        TXRequest.encode(out, FRAME_ID, ADDRESS, TXRequest.OPTIONS_DISABLE_ACK, ByteBuffer.wrap(DATA), escaped);
+        byte[] b = new byte[out.position()];
+        out.flip();
+        out.get(b);
+        return b;
+    }
+
+    @Test
+    public void checksumTest() {
+        TXRequest request = new TXRequest(FRAME_ID, ADDRESS, TXRequest.OPTIONS_DISABLE_ACK, DATA);
+        byte[] frameData = request.getFrameData();
+
+        byte[] expected = new byte[frameData.length + 4];
+        expected[0] = APIFrame.DEFAULT_START_DELIMITER;
+        expected[1] = (byte) (frameData.length >> 8);
+        expected[2] = (byte) frameData.length;
+        System.arraycopy(frameData, 0, expected, 3, frameData.length);
+        expected[expected.length - 1] = request.getChecksum();
+
+        assertArrayEquals(expected, encode(false));
+    }
+
+    @Test
+    public void escapeTest() {
+        byte[] frame = encode(true);
+        for (int i = 1; i < frame.length; i++) {
+            assertEquals("unescaped byte at " + i, false, frame[i] == APIFrame.DEFAULT_START_DELIMITER
+                    || frame[i] == 0x11 || frame[i] == 0x13);
+        }
+
+        final byte[][] received = new byte[1][];
+        APIFrameHandler handler = new APIFrameHandler();
+        handler.setEscaped(true);
+        handler.setFrameDataListener(new APIFrameHandler.FrameDataListener() {
+            @Override
+            public void onFrameData(ByteBuffer frameData) {
+                received[0] = new byte[frameData.remaining()];
+                frameData.get(received[0]);
+            }
+        });
+        handler.onData(frame);
+
+        assertEquals(0, handler.getErrorCount());
+        assertArrayEquals(new TXRequest(FRAME_ID, ADDRESS, TXRequest.OPTIONS_DISABLE_ACK, DATA).getFrameData(), received[0]);
+    }
+
+}
@@ -0,0 +1,110 @@
+import edu.sdsu.rocket.core.io.radio.TelemetryDecoder;
+import edu.sdsu.rocket.core.io.radio.TelemetryFrame;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class TelemetryFrameTest {
+
+    private static final long BASE = 123456789000L; // ns
+
+    private static class Recorder implements TelemetryDecoder.TelemetryListener {
+        final List<String> records = new ArrayList<>();
+
+        @Override
+        public void onFrame(int sequence, long baseTimestamp, int count) {
+            records.add("frame " + sequence + " " + baseTimestamp + " " + count);
+        }
+
+        @Override
+        public void onAnalog(int channel, long timestamp, float value) {
+            records.add("analog " + channel + " " + timestamp + " " + value);
+        }
+
+        @Override
+        public void onGPSPosition(long timestamp, double latitude, double longitude, double altitude) {
+            records.add("gps " + timestamp + " " + latitude + " " + longitude + " " + altitude);
+        }
+
+        @Override
+        public void onGPSFix(long timestamp, int fixStatus, int satellites) {
+            records.add("fix " + timestamp + " " + fixStatus + " " + satellites);
+        }
+
+        @Override
+        public void onSignalStrength(long timestamp, int signalStrength) {
+            records.add("signal " + timestamp + " " + signalStrength);
+        }
+
+        @Override
+        public void onRawTemperature(long timestamp, int temperature) {
+            records.add("temperature " + timestamp + " " + temperature);
+        }
+    }
+
+    @Test
+    public void roundTripTest() {
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        TelemetryFrame frame = new TelemetryFrame().begin(buffer, 256, 7, BASE);
+        frame.putAnalog(2, BASE + 1500000L, 1.5f);
+        frame.putGPSPosition(BASE - 2000L, 32.5, -117.25, 100.0);
+        frame.putGPSFix(BASE, 3, 9);
+        frame.putSignalStrength(BASE, 200);
+        frame.putRawTemperature(BASE, 45000);
+        assertEquals(buffer.position(), frame.size());
+        buffer.flip();
+
+        Recorder recorder = new Recorder();
+        assertEquals(1, new TelemetryDecoder().decode(buffer, recorder));
+        assertEquals(6, recorder.records.size());
+        assertEquals("frame 7 " + BASE + " 5", recorder.records.get(0));
+        assertEquals("analog 2 " + (BASE + 1500000L) + " 1.5", recorder.records.get(1));
+        assertEquals("gps " + (BASE - 2000L) + " 32.5 -117.25 100.0", recorder.records.get(2));
+        assertEquals("fix " + BASE + " 3 9", recorder.records.get(3));
+        assertEquals("signal " + BASE + " 200", recorder.records.get(4));
+        assertEquals("temperature " + BASE + " 45000", recorder.records.get(5));
+        assertEquals(0, buffer.remaining());
+    }
+
+    @Test
+    public void limitTest() {
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        TelemetryFrame frame = new TelemetryFrame().begin(buffer, TelemetryFrame.HEADER_SIZE + 2 * 9, 0, BASE);
+        assertEquals(true, frame.putAnalog(0, BASE, 1f));
+        assertEquals(true, frame.putAnalog(1, BASE, 2f));
+        assertEquals(false, frame.putAnalog(2, BASE, 3f));
+        assertEquals(2, frame.getCount());
+    }
+
+    @Test
+    public void concatenatedFramesTest() {
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        buffer.put((byte) 0x42); // noise before first frame
+        TelemetryFrame frame = new TelemetryFrame();
+        frame.begin(buffer, 64, 1, BASE).putAnalog(0, BASE, 1f);
+        frame.begin(buffer, 64, 2, BASE).putAnalog(1, BASE, 2f);
+        int complete = buffer.position();
+        frame.begin(buffer, 64, 3, BASE).putAnalog(2, BASE, 3f);
+        int end = buffer.position();
+
+        // last frame is truncated
+        buffer.flip();
+        buffer.limit(end - 2);
+        Recorder recorder = new Recorder();
+        TelemetryDecoder decoder = new TelemetryDecoder();
+        assertEquals(2, decoder.decode(buffer, recorder));
+        assertEquals(complete, buffer.position());
+        assertEquals(1, decoder.getErrorCount());
+
+        // remainder arrives
+        buffer.limit(end);
+        assertEquals(1, decoder.decode(buffer, recorder));
+        assertEquals("analog 2 " + BASE + " 3.0", recorder.records.get(recorder.records.size() - 1));
+        assertEquals(3, decoder.getFrameCount());
+    }
+
+}
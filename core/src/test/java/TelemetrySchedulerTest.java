@@ -0,0 +1,122 @@
+import edu.sdsu.rocket.core.helpers.Stopwatch;
+import edu.sdsu.rocket.core.io.radio.TelemetryDecoder;
+import edu.sdsu.rocket.core.io.radio.TelemetryField;
+import edu.sdsu.rocket.core.io.radio.TelemetryFrame;
+import edu.sdsu.rocket.core.io.radio.TelemetryScheduler;
+import edu.sdsu.rocket.core.models.Sensors;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TelemetrySchedulerTest {
+
+    private static final long TICK = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long DURATION = TimeUnit.SECONDS.toNanos(10);
+
+    @Test
+    public void bandwidthTest() {
+        Sensors sensors = new Sensors();
+        TelemetryScheduler scheduler = new TelemetryScheduler(sensors);
+        scheduler.setBandwidth(1000);
+        scheduler.setFrameOverhead(9);
+        scheduler.setMaximumFrameSize(128);
+
+        // demand far exceeds 1000 B/s
+        TelemetryScheduler.Channel high = scheduler.add(TelemetryField.RADIO_SIGNAL, 50, 1);
+        TelemetryScheduler.Channel low = scheduler.add(TelemetryField.GPS_POSITION, 1000, 0);
+
+        long start = System.nanoTime();
+        long bytes = 0;
+        for (long now = start; now - start < DURATION; now += TICK) {
+            ByteBuffer frame = scheduler.poll(now);
+            if (frame != null) {
+                assertTrue(frame.remaining() <= 128);
+                bytes += frame.remaining() + 9;
+            }
+        }
+
+        double rate = bytes / (DURATION / 1e9);
+        assertTrue("rate " + rate, rate <= 1000 + 137 / 10.0); // at most one frame of initial credit
+        assertTrue("rate " + rate, rate >= 900);
+        assertTrue("sent " + high.getSent(), high.getSent() >= 0.95 * 50 * 10); // high priority is not starved
+        assertEquals(50, high.getAllocatedRate(), 0);
+        assertTrue("allocated " + low.getAllocatedRate(), low.getAllocatedRate() > 0 && low.getAllocatedRate() < 50);
+    }
+
+    @Test
+    public void latencyTest() {
+        Sensors sensors = new Sensors();
+        TelemetryScheduler scheduler = new TelemetryScheduler(sensors);
+        scheduler.setBandwidth(100000);
+        scheduler.setMaximumLatency(TimeUnit.MILLISECONDS.toNanos(45)); // 5 slots per frame
+        scheduler.add(TelemetryField.ANALOG_0, 100, 0);
+
+        long start = System.nanoTime();
+        int frames = 0;
+        for (long now = start; now - start < TimeUnit.SECONDS.toNanos(1); now += TICK) {
+            sensors.setAnalog(0, now, 1f);
+            ByteBuffer frame = scheduler.poll(now);
+            if (frame != null) {
+                frames++;
+                assertEquals(TelemetryFrame.HEADER_SIZE + 5 * TelemetryField.ANALOG_0.getRecordSize(), frame.remaining());
+            }
+        }
+        assertEquals(20, frames, 1);
+    }
+
+    @Test
+    public void clockTest() throws InterruptedException {
+        final Stopwatch clock = new Stopwatch();
+        Sensors sensors = new Sensors();
+        TelemetryScheduler scheduler = new TelemetryScheduler(sensors);
+        scheduler.setBandwidth(100000);
+        scheduler.setMaximumLatency(TimeUnit.MILLISECONDS.toNanos(10));
+        scheduler.add(TelemetryField.ANALOG_0, 1000, 1);
+        scheduler.add(TelemetryField.RADIO_SIGNAL, 100, 0);
+
+        final List<long[]> samples = new ArrayList<>(); // sample time, decoded time
+        final List<long[]> signals = new ArrayList<>(); // decoded time
+        TelemetryDecoder.TelemetryListener listener = new TelemetryDecoder.TelemetryListener() {
+            @Override public void onFrame(int sequence, long baseTimestamp, int count) {}
+            @Override public void onAnalog(int channel, long timestamp, float value) {
+                samples.add(new long[] { (long) value, timestamp });
+            }
+            @Override public void onGPSPosition(long timestamp, double latitude, double longitude, double altitude) {}
+            @Override public void onGPSFix(long timestamp, int fixStatus, int satellites) {}
+            @Override public void onSignalStrength(long timestamp, int signalStrength) {
+                signals.add(new long[] { timestamp });
+            }
+            @Override public void onRawTemperature(long timestamp, int temperature) {}
+        };
+
+        TelemetryDecoder decoder = new TelemetryDecoder();
+        long start = clock.nanoSecondsElapsed();
+        long end = start + TimeUnit.MILLISECONDS.toNanos(100);
+        long now;
+        while ((now = clock.nanoSecondsElapsed()) < end) {
+            long sampled = clock.nanoSecondsElapsed();
+            sensors.setAnalog(0, sampled, sampled); // value carries the sample time (to float precision)
+            Thread.sleep(1);
+            ByteBuffer frame = scheduler.poll(clock.nanoSecondsElapsed());
+            if (frame != null) {
+                decoder.decode(frame, listener);
+            }
+        }
+
+        assertTrue("samples " + samples.size(), samples.size() > 10);
+        for (long[] sample : samples) {
+            assertEquals(sample[0], sample[1], sample[0] * 1e-6 + 1000); // float precision, microsecond offsets
+        }
+        assertTrue("signals " + signals.size(), signals.size() > 0);
+        for (long[] signal : signals) {
+            assertTrue(signal[0] >= start - 1000 && signal[0] <= now);
+        }
+    }
+
+}
@@ -2,24 +2,45 @@ package edu.sdsu.rocket.log2csv;
 
 import au.com.bytecode.opencsv.CSVWriter;
 import edu.sdsu.rocket.core.helpers.ByteHelper;
+import edu.sdsu.rocket.core.io.RecordingHeader;
+import edu.sdsu.rocket.core.io.RecordingReader;
+import edu.sdsu.rocket.core.io.SegmentedLogChannel;
+import edu.sdsu.rocket.core.io.SegmentedLogInputStream;
 import edu.sdsu.rocket.core.io.devices.ADS11xxInputStream;
+import edu.sdsu.rocket.core.io.radio.RadioSensorReceiver;
+import edu.sdsu.rocket.core.io.radio.api.APIFrame;
+import edu.sdsu.rocket.core.models.Sensors;
+import edu.sdsu.rocket.core.net.SensorClient;
 
 import java.io.*;
 import java.nio.ByteBuffer;
 
 public class Converter {
 
+    private static final String RADIO_NAME = "radio";
+    private static final String RECORDING_EXTENSION = ".rec";
+    private static final int DETECTION_SIZE = 64 * 1024; // bytes of a radio capture decoded to detect its mode
+
     private File location;
     private final boolean skipConfig;
+    private final RadioSensorReceiver.Mode radioMode; // null to detect
 
     public Converter(File location, boolean skipConfig) {
+        this(location, skipConfig, null);
+    }
+
+    public Converter(File location, boolean skipConfig, RadioSensorReceiver.Mode radioMode) {
         this.location = location;
         this.skipConfig = skipConfig;
+        this.radioMode = radioMode;
     }
     
     public void convert() {
         for (int i = 0; i < 6; i++) {
             String name = "A" + i;
+            if (!exists(name)) {
+                continue; // e.g. a folder holding only a recording
+            }
             System.out.print("Converting ADC (" + name + ") ... ");
             try {
                 convertADS11xx(name, skipConfig);
@@ -27,18 +48,215 @@ public class Converter {
             } catch (IOException e) {
                 System.err.println(name + ": " + e);
             }
+
+            // additional inputs recorded in scan mode (e.g. A0.1)
+            for (int k = 1; exists(name + "." + k); k++) {
+                String input = name + "." + k;
+                System.out.print("Converting ADC (" + input + ") ... ");
+                try {
+                    convertADS11xx(input, skipConfig);
+                    System.out.println("Done");
+                } catch (IOException e) {
+                    System.err.println(input + ": " + e);
+                }
+            }
+        }
+
+        if (new File(location, RADIO_NAME + ".log").exists()) {
+            System.out.print("Converting radio telemetry (" + RADIO_NAME + ") ... ");
+            try {
+                convertRadio(RADIO_NAME);
+                System.out.println("Done");
+            } catch (IOException e) {
+                System.err.println(RADIO_NAME + ": " + e);
+            }
+        }
+
+        File[] recordings = location.listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String filename) {
+                return filename.endsWith(RECORDING_EXTENSION);
+            }
+        });
+        if (recordings != null) {
+            for (File recording : recordings) {
+                String name = recording.getName().substring(0, recording.getName().length() - RECORDING_EXTENSION.length());
+                System.out.print("Converting recording (" + name + ") ... ");
+                try {
+                    convertRecording(name);
+                    System.out.println("Done");
+                } catch (IOException e) {
+                    System.err.println(name + ": " + e);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} if the samples of the input were logged to a file or to segments.
+     */
+    private boolean exists(String name) {
+        return new File(location, name + ".log").exists() || SegmentedLogInputStream.exists(location, name);
+    }
+
+    /**
+     * Converts the samples of every channel interleaved in a recording, up to its last valid block.
+     */
+    private void convertRecording(String name) throws IOException {
+        String recordingPath = location + File.separator + name + RECORDING_EXTENSION;
+        String csvPath = location + File.separator + name + ".csv";
+
+        System.out.println(recordingPath + " => " + csvPath);
+
+        RecordingReader in = new RecordingReader(new File(recordingPath));
+        RecordingHeader header = in.getHeader();
+        System.out.println(header);
+        if (in.isRecovered()) {
+            System.out.println("Recovered " + in.getBlockCount() + " blocks (" + in.getValidLength() + " bytes)");
+        }
+
+        FileWriter fileWriter = new FileWriter(csvPath);
+        CSVWriter csv = new CSVWriter(fileWriter, CSVWriter.DEFAULT_SEPARATOR, CSVWriter.NO_QUOTE_CHARACTER);
+
+        try {
+            csv.writeNext("Nanoseconds", "Channel", "Value", "Unit");
+            RecordingReader.Block block = new RecordingReader.Block();
+            for (int i = 0; i < in.getBlockCount(); i++) {
+                try {
+                    in.read(i, block);
+                } catch (IOException e) {
+                    System.err.println(name + ": " + e); // skip a corrupt block rather than the rest of the recording
+                    continue;
+                }
+                for (int k = 0; k < block.count; k++) {
+                    RecordingHeader.Channel channel = header.getChannel(block.channels[k]);
+                    csv.writeNext(String.valueOf(block.timestamps[k]), channel.name, String.valueOf(block.values[k]), channel.unit);
+                }
+            }
+        } finally {
+            try {
+                in.close();
+            } catch (IOException e) {
+                System.err.println("Failed to close " + recordingPath);
+            }
+            try {
+                csv.close();
+            } catch (IOException e) {
+                System.err.println("Failed to close " + csvPath);
+            }
         }
     }
 
+    /**
+     * Converts the analog samples of a capture of the ground radio's serial stream (raw, API or escaped API frames).
+     */
+    private void convertRadio(String name) throws IOException {
+        String logPath = location + File.separator + name + ".log";
+        String csvPath = location + File.separator + name + ".csv";
+
+        System.out.println(logPath + " => " + csvPath);
+
+        FileWriter fileWriter = new FileWriter(csvPath);
+        final CSVWriter csv = new CSVWriter(fileWriter, CSVWriter.DEFAULT_SEPARATOR, CSVWriter.NO_QUOTE_CHARACTER);
+        InputStream in = new BufferedInputStream(new FileInputStream(logPath));
+
+        try {
+            csv.writeNext("Nanoseconds", "Channel", "Millivolts");
+            RadioSensorReceiver receiver = new RadioSensorReceiver(new Sensors());
+            receiver.setSampleListener(new SensorClient.SampleListener() {
+                @Override
+                public void onSample(int channel, long sequence, long timestamp, float value) {
+                    csv.writeNext(String.valueOf(timestamp), String.valueOf(channel), String.valueOf(value));
+                }
+            });
+
+            RadioSensorReceiver.Mode mode = radioMode != null ? radioMode : detectRadioMode(in);
+            System.out.println("Mode: " + mode);
+            receiver.setMode(mode);
+
+            byte[] buffer = new byte[4096];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                receiver.onData(buffer, 0, n);
+            }
+            System.out.println(receiver);
+        } finally {
+            try {
+                in.close();
+            } catch (IOException e) {
+                System.err.println("Failed to close " + logPath);
+            }
+            try {
+                csv.close();
+            } catch (IOException e) {
+                System.err.println("Failed to close " + csvPath);
+            }
+        }
+    }
+
+    /**
+     * Detects the mode a radio capture was made in, leaving the stream at its start.
+     *
+     * API frames start with a delimiter that never begins a telemetry frame. Whether their control characters are
+     * escaped (AP = 2) cannot be told from the delimiter, so the start of the capture is decoded both ways and the
+     * mode that yields more telemetry frames, or failing that fewer errors, is chosen.
+     */
+    private static RadioSensorReceiver.Mode detectRadioMode(InputStream in) throws IOException {
+        in.mark(DETECTION_SIZE);
+        byte[] sample = new byte[DETECTION_SIZE];
+        int length = 0;
+        int n;
+        while (length < sample.length && (n = in.read(sample, length, sample.length - length)) != -1) {
+            length += n;
+        }
+        in.reset();
+
+        if (length == 0 || sample[0] != APIFrame.DEFAULT_START_DELIMITER) {
+            return RadioSensorReceiver.Mode.RAW;
+        }
+
+        RadioSensorReceiver api = new RadioSensorReceiver(new Sensors());
+        api.setMode(RadioSensorReceiver.Mode.API);
+        RadioSensorReceiver escaped = new RadioSensorReceiver(new Sensors());
+        escaped.setMode(RadioSensorReceiver.Mode.API_ESCAPED);
+
+        // the invalid frames of the wrong mode are only counted, not reported
+        PrintStream err = System.err;
+        System.setErr(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+        }));
+        try {
+            api.onData(sample, 0, length);
+            escaped.onData(sample, 0, length);
+        } finally {
+            System.setErr(err);
+        }
+
+        if (escaped.getFrameCount() != api.getFrameCount()) {
+            return escaped.getFrameCount() > api.getFrameCount() ? escaped.getMode() : api.getMode();
+        }
+        return escaped.getErrorCount() < api.getErrorCount() ? escaped.getMode() : api.getMode();
+    }
+
     private void convertADS11xx(String name, boolean skipConfig) throws IOException {
         String logFilename = name + ".log";
         String csvFilename = name + ".csv";
         String logPath = location + File.separator + logFilename;
         String csvPath = location + File.separator + csvFilename;
 
+        final InputStream log;
+        if (!new File(logPath).exists() && SegmentedLogInputStream.exists(location, name)) {
+            logPath = location + File.separator + name + ".*" + SegmentedLogChannel.EXTENSION;
+            log = new SegmentedLogInputStream(location, name);
+        } else {
+            log = new FileInputStream(logPath);
+        }
+
         System.out.println(logPath + " => " + csvPath);
 
-        ADS11xxInputStream in = new ADS11xxInputStream(new FileInputStream(logPath));
+        ADS11xxInputStream in = new ADS11xxInputStream(log);
 
         if (skipConfig) {
             System.out.println("Config: Skipped");
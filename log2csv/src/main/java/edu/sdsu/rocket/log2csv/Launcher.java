@@ -1,5 +1,7 @@
 package edu.sdsu.rocket.log2csv;
 
+import edu.sdsu.rocket.core.io.radio.RadioSensorReceiver;
+
 import java.io.File;
 
 public class Launcher {
@@ -13,15 +15,26 @@ public class Launcher {
 			System.exit(1);
 		}
 
-		final File folder;
-		final boolean skipConfig;
-		if (args.length == 2 && args[0].equalsIgnoreCase("--skip-config")) {
-			skipConfig = true;
-			folder = new File(args[1]);
-		} else {
-			folder = new File(args[0]);
-			skipConfig = false;
+		boolean skipConfig = false;
+		RadioSensorReceiver.Mode radioMode = null;
+		for (int i = 0; i < args.length - 1; i++) {
+			String arg = args[i];
+			if (arg.equalsIgnoreCase("--skip-config")) {
+				skipConfig = true;
+			} else if (arg.toLowerCase().startsWith("--radio-mode=")) {
+				String value = arg.substring("--radio-mode=".length());
+				try {
+					radioMode = RadioSensorReceiver.Mode.valueOf(value.toUpperCase().replace('-', '_'));
+				} catch (IllegalArgumentException e) {
+					System.err.println("Invalid radio mode: " + value);
+					System.exit(1);
+				}
+			} else {
+				usage();
+				System.exit(1);
+			}
 		}
+		final File folder = new File(args[args.length - 1]);
 		
 		if (!folder.exists()) {
 			System.err.println("Location not found: " + folder);
@@ -32,7 +45,7 @@ public class Launcher {
 			System.exit(1);
 		}
 		
-		Converter converter = new Converter(folder, skipConfig);
+		Converter converter = new Converter(folder, skipConfig, radioMode);
 		converter.convert();
 	}
 
@@ -41,7 +54,11 @@ public class Launcher {
 		System.out.println("  " + NAME + " [OPTIONS] FOLDER");
 		System.out.println("Options:");
 		System.out.println("  --skip-config  Skips reading the sensor config;");
-		System.out.println("                 Needed for logs written by the client.");
+		System.out.println("                 Needed for logs written by older clients;");
+		System.out.println("                 recordings (.rec) describe themselves.");
+		System.out.println("  --radio-mode=raw|api|api-escaped");
+		System.out.println("                 Mode of the radio capture (radio.log);");
+		System.out.println("                 detected from the capture by default.");
 		System.out.println();
 	}
 	
@@ -0,0 +1,69 @@
+import edu.sdsu.rocket.server.devices.mock.MockDigitalOutput;
+import edu.sdsu.rocket.server.devices.mock.SimulatedXTend900;
+import edu.sdsu.rocket.server.io.radio.TXQueue;
+import edu.sdsu.rocket.server.io.radio.XTend900;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads the radio TX pipeline (queue, writer thread and serial port) over a simulated XTend 900 at its default 9600
+ * baud interface rate, reporting the throughput and the queue latency at half and three times the link rate.
+ *
+ * Throughput is measured at the serial port, as the module sends the data it buffers while the host is held off by
+ * flow control in packets of up to 2 KB (about two seconds of data at 9600 baud).
+ *
+ * Timed by the wall clock, so it is run on its own (e.g. {@code gradle :server:bench} or on the target) rather than
+ * as part of the test suite; usage: XTend900Benchmark [seconds]
+ */
+public class XTend900Benchmark {
+
+    private static final int PAYLOAD = 32; // bytes
+    private static final int HOST_BUFFER_SIZE = 256; // bytes, small so the queue fills quickly under overload
+
+    public static void main(String[] args) throws InterruptedException {
+        long seconds = args.length > 0 ? Long.parseLong(args[0]) : 5;
+        run("half load", 0.5, seconds);
+        run("3x load", 3, seconds);
+    }
+
+    private static void run(String name, double load, long seconds) throws InterruptedException {
+        SimulatedXTend900 module = new SimulatedXTend900(HOST_BUFFER_SIZE, SimulatedXTend900.DEFAULT_MODULE_BUFFER_SIZE, 0L);
+        module.start();
+        XTend900 radio = new XTend900(module, module.getShutdownPin(), new MockDigitalOutput());
+        radio.turnOn();
+        radio.start();
+        try {
+            int rate = radio.getConfig().getBytesPerSecond();
+            TXQueue queue = radio.getTXQueue();
+
+            offer(radio, load * rate, 1, TimeUnit.SECONDS); // warm up, filling the queue and serial buffer if overloaded
+            queue.resetStatistics();
+            long start = System.nanoTime();
+            offer(radio, load * rate, seconds, TimeUnit.SECONDS);
+            double throughput = (double) queue.getSent() * PAYLOAD * TimeUnit.SECONDS.toNanos(1) / (System.nanoTime() - start);
+
+            System.out.println(String.format("%s: %.0f of %d B/s, %s, %s", name, throughput, rate, queue, module));
+        } finally {
+            radio.close();
+            module.close();
+        }
+    }
+
+    /**
+     * Offers payloads at the rate for the duration.
+     */
+    private static void offer(XTend900 radio, double bytesPerSecond, long duration, TimeUnit unit) throws InterruptedException {
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) * PAYLOAD / bytesPerSecond);
+        long start = System.nanoTime();
+        long end = start + unit.toNanos(duration);
+        byte[] payload = new byte[PAYLOAD];
+        for (long next = start; next - end < 0; next += interval) {
+            long sleep = next - System.nanoTime();
+            if (sleep > 0) {
+                TimeUnit.NANOSECONDS.sleep(sleep);
+            }
+            radio.send(payload);
+        }
+    }
+
+}
@@ -1,15 +1,23 @@
 package edu.sdsu.rocket.server;
 
+import com.pi4j.io.gpio.Pin;
+import com.pi4j.io.gpio.RaspiPin;
 import com.pi4j.io.i2c.I2CFactory;
 import com.pi4j.io.serial.Serial;
 import com.pi4j.io.serial.SerialFactory;
-import edu.sdsu.rocket.core.helpers.AtomicIntFloat;
 import edu.sdsu.rocket.core.helpers.Logger;
 import edu.sdsu.rocket.core.helpers.RateLimitedRunnable;
 import edu.sdsu.rocket.core.helpers.Stopwatch;
 import edu.sdsu.rocket.core.io.OutputStreamMultiplexer;
+import edu.sdsu.rocket.core.io.RecordingHeader;
+import edu.sdsu.rocket.core.io.RecordingWriter;
+import edu.sdsu.rocket.core.io.SampleLogWriter;
 import edu.sdsu.rocket.core.io.StatusOutputStream;
-import edu.sdsu.rocket.core.io.devices.ADS11xxOutputStream;
+import edu.sdsu.rocket.core.io.radio.APIFrameListener;
+import edu.sdsu.rocket.core.io.radio.RadioSensorReceiver;
+import edu.sdsu.rocket.core.io.radio.api.RFModuleStatus;
+import edu.sdsu.rocket.core.io.radio.api.RXPacket;
+import edu.sdsu.rocket.core.io.radio.api.TXStatus;
 import edu.sdsu.rocket.core.models.Sensors;
 import edu.sdsu.rocket.core.net.SensorServer;
 import edu.sdsu.rocket.server.devices.ADS1100;
@@ -18,12 +26,17 @@ import edu.sdsu.rocket.server.devices.DeviceManager;
 import edu.sdsu.rocket.server.devices.DeviceManager.DeviceRunnable;
 import edu.sdsu.rocket.server.devices.mock.MockADS1100;
 import edu.sdsu.rocket.server.devices.mock.MockADS1115;
+import edu.sdsu.rocket.server.devices.mock.MockDigitalOutput;
+import edu.sdsu.rocket.server.devices.mock.SimulatedXTend900;
+import edu.sdsu.rocket.server.io.gpio.DigitalOutput;
+import edu.sdsu.rocket.server.io.gpio.EdgeSource;
+import edu.sdsu.rocket.server.io.gpio.Pi4JDigitalOutput;
+import edu.sdsu.rocket.server.io.gpio.Pi4JEdgeSource;
 import edu.sdsu.rocket.server.io.radio.*;
 import edu.sdsu.rocket.server.io.radio.Watchdog.WatchdogListener;
 import edu.sdsu.rocket.server.io.radio.XTend900.XTend900Listener;
-import edu.sdsu.rocket.server.io.radio.api.RFModuleStatus;
-import edu.sdsu.rocket.server.io.radio.api.RXPacket;
-import edu.sdsu.rocket.server.io.radio.api.TXStatus;
+import edu.sdsu.rocket.server.io.serial.Pi4JSerialPort;
+import edu.sdsu.rocket.server.io.serial.SerialPort;
 import net.sf.marineapi.nmea.event.SentenceEvent;
 import net.sf.marineapi.nmea.event.SentenceListener;
 import net.sf.marineapi.nmea.io.SentenceReader;
@@ -35,24 +48,44 @@ import net.sf.marineapi.provider.event.SatelliteInfoEvent;
 import net.sf.marineapi.provider.event.SatelliteInfoListener;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
 
 public class Application {
     
     private final Stopwatch STOPWATCH = new Stopwatch();
 
+    /**
+     * Continuous-mode ADCs are polled this many times per nominal conversion, as their internal clocks may run up to
+     * 10% fast or slow and polling at the data rate itself would periodically miss or repeat a conversion.
+     */
+    private static final int POLL_OVERSAMPLING = 2;
+
+    private static final String RECORDING_FILENAME = "adc.rec";
+    private static final String UNIT = "mV";
+
     private final Config config;
     private Logger log;
+    private SampleLogWriter logWriter; // of the ADC samples
     private final DeviceManager manager;
+    private final List<EdgeSource> edgeSources = new ArrayList<>();
     private final Reader input = new InputStreamReader(System.in);
     
     private final Sensors sensors = new Sensors();
     private final SensorServer server = new SensorServer(sensors);
     
     private XTend900 radio;
+    private SerialPort radioSerial;
+    private SimulatedXTend900 simulatedRadio;
+    private RadioSensorReceiver groundReceiver; // receives the simulated radio's packets in testing mode
     private DeviceRunnable transmitter;
+    private SensorsTransmitter telemetry;
     private Watchdog watchdog;
     private Thread statusThread;
     
@@ -70,7 +103,10 @@ public class Application {
 
     protected void setupLogging() throws IOException {
         System.out.println("Setup Logging");
-        log = new Logger(config.logDirs);
+        log = config.mirrorPolicy == null
+                ? new Logger(config.logDirs)
+                : new Logger(config.logDirs, config.mirrorPolicy, config.mirrorQueue);
+        log.setDurability(config.durability, config.forceInterval, TimeUnit.MILLISECONDS);
 
         OutputStream logStream = log.create("log.txt");
         OutputStream out = new OutputStreamMultiplexer(System.out, logStream);
@@ -86,7 +122,9 @@ public class Application {
     protected void setupDevices() throws IOException, InterruptedException, I2CFactory.UnsupportedBusNumberException {
         setupADC();
 //        setupGPS();
-//        setupRadio();
+        if (config.radio) {
+            setupRadio();
+        }
 //        setupWatchdog();
     }
     
@@ -97,84 +135,195 @@ public class Application {
                 config.test ? new MockADS1115() : new ADS1115(ADS1115.Address.ADDR_SDA),
                 config.test ? new MockADS1115() : new ADS1115(ADS1115.Address.ADDR_SCL),
         };
-        final ADS11xxOutputStream[] ads1114log = new ADS11xxOutputStream[ads1114.length];
-
         for (int i = 0; i < ads1114.length; i++) {
-            final String name = "A" + i;
-
-            System.out.println("Setup ADC ADS1114 [" + name + "]");
-            ads1114log[i] = new ADS11xxOutputStream(log.create(name + ".log"));
-
+            System.out.println("Setup ADC ADS1114 [A" + i + "]");
             ads1114[i].setup()
                     .setGain(ADS1115.Gain.PGA_2_3)
-                    .setMode(ADS1115.Mode.MODE_CONTINUOUS)
+                    .setMode(config.scan
+                            ? ADS1115.Mode.MODE_SINGLE // each input change starts a fresh conversion
+                            : ADS1115.Mode.MODE_CONTINUOUS)
                     .setRate(ADS1115.Rate.DR_860SPS)
                     .setComparator(ADS1115.Comparator.COMP_MODE_HYSTERESIS)
-                    .setSingleEnded(ADS1115.Channel.A0)
-                    .writeConfig();
-            ads1114log[i].writeConfig(ads1114[i].getConfig());
-            if (config.debug) {
-                System.out.println(ads1114[i]);
+                    .setQueue(config.conversionReady
+                            ? ADS1115.Queue.COMP_QUE_1_CONVERSION
+                            : ADS1115.Queue.COMP_QUE_DISABLE)
+                    .setSingleEnded(ADS1115.Channel.A0);
+            if (config.scan) {
+                ads1114[i].setScan(config.scanInputs);
             }
 
-            final int index = i;
-            DeviceRunnable deviceRunnable = manager.add(new DeviceManager.Device() {
-                @Override
-                public void loop() throws IOException, InterruptedException {
-                    long timestamp = STOPWATCH.nanoSecondsElapsed();
-                    int timestampMillis = (int) TimeUnit.NANOSECONDS.toMillis(timestamp);
-                    float value = ads1114[index].readMillivolts();
-
-                    sensors.analog[index].set(timestampMillis, value);
-                    ads1114log[index].writeValue(timestamp, value);
-                }
-            });
-            if (config.test) {
-                int frequency = ads1114[index].getRate().getSamplesPerSecond() * 2;
-                deviceRunnable.setFrequency(frequency);
+            if (config.conversionReady) {
+                ads1114[i].writeConversionReady();
+            }
+            if (config.scan) {
+                ads1114[i].beginScan();
+            } else {
+                ads1114[i].writeConfig();
+            }
+            if (config.debug) {
+                System.out.println(ads1114[i]);
             }
         }
 
-
         final ADS1100[] ads1100 = new ADS1100[] {
                 config.test ? new MockADS1100() : new ADS1100(ADS1100.Address.AD4),
                 config.test ? new MockADS1100() : new ADS1100(ADS1100.Address.AD5),
         };
-        final ADS11xxOutputStream[] ads1100log = new ADS11xxOutputStream[ads1100.length];
-
         for (int i = 0; i < ads1100.length; i++) {
-            final int j = i + ads1114.length;
-            final String name = "A" + j;
-
-            System.out.println("Setup ADC ADS1100 [" + name + "]");
-            ads1100log[i] = new ADS11xxOutputStream(log.create(name + ".log"));
-
+            System.out.println("Setup ADC ADS1100 [A" + (i + ads1114.length) + "]");
             ads1100[i].setup()
                     .setGain(ADS1100.Gain.PGA_1)
                     .setRate(ADS1100.Rate.SPS_16)
                     .setMode(ADS1100.Mode.CONTINUOUS)
                     .writeConfig();
-            ads1100log[i].writeConfig(ads1100[i].getConfig());
             System.out.println("Supply Voltage: " + ads1100[i].getSupplyVoltage());
             if (config.debug) {
                 System.out.println(ads1100[i]);
             }
+        }
+
+        // every ADC is configured, so the logs describe the configs the samples are taken with
+        final SampleLogWriter.Channel[][] ads1114log = new SampleLogWriter.Channel[ads1114.length][];
+        final SampleLogWriter.Channel[] ads1100log = new SampleLogWriter.Channel[ads1100.length];
+        setupADCLogs(ads1114, ads1114log, ads1100, ads1100log);
 
+        for (int i = 0; i < ads1114.length; i++) {
+            final String name = "A" + i;
             final int index = i;
-            manager.add(new DeviceManager.Device() {
+            DeviceManager.Device device = new DeviceManager.Device() {
+                @Override
+                public void loop() throws IOException, InterruptedException {
+                    if (config.scan && !config.conversionReady && ads1114[index].isPerformingConversion()) {
+                        return; // read on a later poll, as the value would be the previous input's
+                    }
+                    long timestamp = STOPWATCH.nanoSecondsElapsed();
+                    int input = ads1114[index].getScanIndex();
+                    float value = config.scan
+                            ? ads1114[index].readScan()
+                            : ads1114[index].readMillivolts();
+
+                    if (input == 0) {
+                        sensors.setAnalog(index, timestamp, value);
+                    }
+                    ads1114log[index][input].writeValue(timestamp, value);
+                }
+            };
+            if (config.conversionReady) {
+                // exactly one conversion register read per ALERT/RDY edge
+                EdgeSource rdy = config.test
+                        ? ((MockADS1115) ads1114[i]).getConversionReadySource()
+                        : new Pi4JEdgeSource(getAlertPin(i));
+                rdy.setListener(manager.addTriggered(ads1114[i].getBus(), name, device));
+                edgeSources.add(rdy);
+            } else {
+                double frequency = config.scan
+                        ? ads1114[i].getScanPollRate()
+                        : ads1114[i].getRate().getSamplesPerSecond() * POLL_OVERSAMPLING;
+                manager.add(ads1114[i].getBus(), name, device, frequency);
+            }
+        }
+
+        for (int i = 0; i < ads1100.length; i++) {
+            final int j = i + ads1114.length;
+            final int index = i;
+            manager.add(ads1100[i].getBus(), "A" + j, new DeviceManager.Device() {
                 @Override
                 public void loop() throws IOException, InterruptedException {
                     long timestamp = STOPWATCH.nanoSecondsElapsed();
-                    int timestampMillis = (int) TimeUnit.NANOSECONDS.toMillis(timestamp);
                     float mV = ads1100[index].readVoltage() * 1000;
 
-                    sensors.analog[j].set(timestampMillis, mV);
+                    sensors.setAnalog(j, timestamp, mV);
                     ads1100log[index].writeValue(timestamp, mV);
                 }
-            }).setFrequency(ads1100[i].getRate().getSamplesPerSecond() * 2);
+            }, ads1100[i].getRate().getSamplesPerSecond() * POLL_OVERSAMPLING);
         }
     }
+
+    /**
+     * Opens a sample log per ADC input (or, if configured, a recording of every input with the ADC configs in its
+     * header) and starts the log writer.
+     */
+    private void setupADCLogs(ADS1115[] ads1114, SampleLogWriter.Channel[][] ads1114log,
+                              ADS1100[] ads1100, SampleLogWriter.Channel[] ads1100log) throws IOException {
+        RecordingHeader header = null;
+        if (config.recording) {
+            header = new RecordingHeader()
+                    .setEncoding(config.compress ? RecordingHeader.Encoding.GORILLA : RecordingHeader.Encoding.RAW)
+                    .setAnchor(STOPWATCH);
+            for (int i = 0; i < ads1114.length; i++) {
+                ADS1115.Multiplexer[] inputs = ads1114[i].getScan();
+                float rate = (float) ads1114[i].getRate().getSamplesPerSecond() / inputs.length; // shared by the inputs
+                for (int k = 0; k < inputs.length; k++) {
+                    header.add(new RecordingHeader.Channel(getInputName(i, k), UNIT, ads1114[i].getConfig(inputs[k]),
+                            ads1114[i].getGain().getValue(), rate));
+                }
+            }
+            for (int i = 0; i < ads1100.length; i++) {
+                header.add(new RecordingHeader.Channel("A" + (i + ads1114.length), UNIT, ads1100[i].getConfig(),
+                        ads1100[i].getGain().getValue(), ads1100[i].getRate().getSamplesPerSecond()));
+            }
+            System.out.println(header);
+            logWriter = new SampleLogWriter(new RecordingWriter(log.createChannel(RECORDING_FILENAME), header),
+                    SampleLogWriter.DEFAULT_QUEUE_CAPACITY);
+        } else {
+            logWriter = new SampleLogWriter();
+        }
+
+        for (int i = 0; i < ads1114.length; i++) {
+            ADS1115.Multiplexer[] inputs = ads1114[i].getScan();
+            ads1114log[i] = new SampleLogWriter.Channel[inputs.length];
+            for (int k = 0; k < inputs.length; k++) {
+                String name = getInputName(i, k);
+                if (header != null) {
+                    ads1114log[i][k] = logWriter.add(name);
+                } else {
+                    ads1114log[i][k] = logWriter.add(name, createLogChannel(name));
+                    ads1114log[i][k].writeConfig(ads1114[i].getConfig(inputs[k]));
+                }
+            }
+        }
+        for (int i = 0; i < ads1100.length; i++) {
+            String name = "A" + (i + ads1114.length);
+            if (header != null) {
+                ads1100log[i] = logWriter.add(name);
+            } else {
+                ads1100log[i] = logWriter.add(name, createLogChannel(name));
+                ads1100log[i].writeConfig(ads1100[i].getConfig());
+            }
+        }
+
+        logWriter.start();
+    }
+
+    /**
+     * Name of a scan input of an ADS1114: the first keeps the unscanned log name (e.g. A0), the remaining are suffixed
+     * (e.g. A0.1).
+     */
+    private static String getInputName(int adc, int input) {
+        return input == 0 ? "A" + adc : "A" + adc + "." + input;
+    }
     
+    /**
+     * GPIO pin connected to the ALERT/RDY output of the ADS1114 (in the same order as the ADCs are setup).
+     */
+    private Pin getAlertPin(int index) {
+        Pin pin = index < config.alertPins.length ? RaspiPin.getPinByAddress(config.alertPins[index]) : null;
+        if (pin == null) {
+            throw new IllegalArgumentException("No valid --alert-pins GPIO for ADS1114 " + index);
+        }
+        return pin;
+    }
+
+    /**
+     * Creates the sample log of an ADC input, segmented if configured.
+     */
+    private WritableByteChannel createLogChannel(String name) throws IOException {
+        if (config.segmentSize > 0) {
+            return log.createSegmentedChannel(name, config.segmentSize, config.segmentDuration, TimeUnit.MILLISECONDS);
+        }
+        return log.createChannel(name + ".log");
+    }
+
     private void setupGPS() throws FileNotFoundException {
         if (config.test) {
             System.out.println("Test mode, skipping setup of GPS");
@@ -219,7 +368,7 @@ public class Application {
                 if (config.debug) {
                     System.out.println("GPS provider update: latitude=" + latitude + ", longitude=" + longitude + ", altitude=" + altitude);
                 }
-                sensors.gps.set(latitude, longitude, altitude);
+                sensors.setGPS(latitude, longitude, altitude);
             }
         });
         
@@ -232,8 +381,7 @@ public class Application {
                 if (config.debug) {
                     System.out.println("GPS provider update: fix=" + fixStatus + ", satellites=" + satellites);
                 }
-                sensors.gps.setFixStatus(fixStatus);
-                sensors.gps.setSatellites(satellites);
+                sensors.setGPSFix(fixStatus, satellites);
             }
         });
         
@@ -256,7 +404,7 @@ public class Application {
                             ? new Random().nextInt(100 * 1000)
                             : Pi.getRawCpuTemperature();
 
-                    sensors.system.setRawTemperature(rawCpuTemperature);
+                    sensors.setRawTemperature(rawCpuTemperature);
                     statusLog.writeValue(timestamp, rawCpuTemperature);
                 } catch (IOException e) {
                     System.err.println(e);
@@ -280,14 +428,37 @@ public class Application {
                 ;
         System.out.println("Config: " + radioConfig);
 
-        Serial serial = SerialFactory.createInstance();
-
-        String device = "/dev/ttyAMA0";
-        serial.open(device, radioConfig.getInterfaceDataRate().getBaud());
+        DigitalOutput shdn;
+        DigitalOutput txLed;
+        if (config.test) {
+            groundReceiver = new RadioSensorReceiver(new Sensors());
+            groundReceiver.setClock(STOPWATCH);
+            simulatedRadio = new SimulatedXTend900();
+            simulatedRadio.setRemote(new SerialPort.SerialPortListener() {
+                @Override
+                public void onDataReceived(ByteBuffer data) {
+                    groundReceiver.onData(data);
+                }
+            }, XTend900Config.APIEnable.DISABLED);
+            simulatedRadio.start();
+            radioSerial = simulatedRadio;
+            shdn = simulatedRadio.getShutdownPin();
+            txLed = new MockDigitalOutput();
+        } else {
+            Serial serial = SerialFactory.createInstance();
+
+            String device = "/dev/ttyAMA0";
+            serial.open(device, radioConfig.getInterfaceDataRate().getBaud());
+
+            radioSerial = new Pi4JSerialPort(serial);
+            shdn = new Pi4JDigitalOutput(RaspiPin.GPIO_06, "SHDN");
+            txLed = new Pi4JDigitalOutput(RaspiPin.GPIO_21, "TX_LED");
+        }
 
-        radio = new XTend900(serial);
+        radio = new XTend900(radioSerial, shdn, txLed);
         radio.setConfig(radioConfig);
         radio.setup();
+        radio.start();
         radio.setLogOutputStream(log.create("xtend900.log"));
         if (watchdog != null) {
             radio.addListener(new XTend900Listener() {
@@ -313,14 +484,7 @@ public class Application {
                 if (config.debug) {
                     System.out.println("Radio RX packet: Source address=" + packet.getSourceAddres() + ", Signal strengh=-" + packet.getSignalStrength() + " dBm");
                 }
-                sensors.radio.setSignalStrength(packet.getSignalStrength());
-
-//                ByteBuffer buffer = ByteBuffer.wrap(packet.getRFData());
-//                try {
-//                    remote.fromByteBuffer(buffer);
-//                } catch (BufferUnderflowException e) {
-//                    System.err.println(e);
-//                }
+                sensors.setSignalStrength(packet.getSignalStrength());
             }
 
             @Override
@@ -338,8 +502,8 @@ public class Application {
             }
         });
 
-        SensorsTransmitter transmitter = new SensorsTransmitter(radio, sensors);
-        this.transmitter = manager.add(transmitter, true /* paused */);
+        telemetry = new SensorsTransmitter(radio, sensors, STOPWATCH);
+        this.transmitter = manager.add(telemetry, true /* paused */);
     }
 
     private void setupWatchdog() {
@@ -363,6 +527,7 @@ public class Application {
     protected void setupServer(int port) throws IOException {
         System.out.println("Setup server");
         server.setDebug(config.debug);
+        server.setSelectorMode(config.selector);
         server.start(port);
     }
 
@@ -377,6 +542,8 @@ public class Application {
             System.out.println("?: help");
             System.out.println("f: loop frequency");
             System.out.println("e: runtime");
+            System.out.println("l: log writer status");
+            System.out.println("h: log write/force latency histograms");
             if (watchdog != null) {
                 System.out.println("w: watchdog status");
                 System.out.println("W: watchdog start");
@@ -400,6 +567,15 @@ public class Application {
         case 'e':
             System.out.println("Runtime: " + nanosToDHMS(STOPWATCH.nanoSecondsElapsed()));
             break;
+        case 'l':
+            System.out.println(logWriter.toString());
+            if (log.getMirror() != null) {
+                System.out.println(log.getMirror().toString());
+            }
+            break;
+        case 'h':
+            System.out.println(log.toString());
+            break;
         case 'w':
             if (watchdog == null) {
                 System.out.println("Watchdog disabled");
@@ -421,8 +597,7 @@ public class Application {
         case 'a':
             String a[] = new String[sensors.analog.length];
             for (int i = 0; i < sensors.analog.length; i++) {
-                long raw = sensors.analog[i].get();
-                a[i] = "A" + i + "=" + AtomicIntFloat.getFloatValue(raw);
+                a[i] = "A" + i + "=" + sensors.analog[i].getValue();
             }
             System.out.println(Arrays.toString(a));
             break;
@@ -450,6 +625,13 @@ public class Application {
             break;
         case 'r':
             System.out.println("Signal Strength: -" + sensors.radio.getSignalStrength() + " dBm");
+            if (telemetry != null) {
+                System.out.println(telemetry);
+            }
+            if (simulatedRadio != null) {
+                System.out.println(simulatedRadio);
+                System.out.println("Ground " + groundReceiver);
+            }
             break;
         case 'd':
             if (radio != null) {
@@ -460,11 +642,18 @@ public class Application {
                     }
                 } else {
                     try {
-                        radio.writeConfig();
+                        radio.writeConfig().whenComplete(new BiConsumer<List<String>, Throwable>() {
+                            @Override
+                            public void accept(List<String> responses, Throwable t) {
+                                if (t != null) {
+                                    System.err.println("Radio configuration failed: " + t);
+                                } else {
+                                    System.out.println("Radio configured: " + responses);
+                                }
+                            }
+                        });
                     } catch (IllegalStateException e) {
                         System.err.println(e);
-                    } catch (InterruptedException e) {
-                        System.err.println(e);
                     }
                 }
                 System.out.println("Radio power is now " + (radio.isOn() ? "ON" : "OFF"));
@@ -516,9 +705,28 @@ public class Application {
             }
         }
         
+        for (EdgeSource edgeSource : edgeSources) {
+            edgeSource.close();
+        }
+
         System.out.println("Stopping device manager");
         manager.clear();
 
+        if (radio != null) {
+            System.out.println("Stopping radio");
+            radio.close();
+            try {
+                radioSerial.close();
+            } catch (IOException e) {
+                System.err.println(e);
+            }
+        }
+
+        if (logWriter != null) {
+            System.out.println("Stopping log writer");
+            logWriter.stop();
+        }
+
         if (log != null) {
             System.out.println("Closing log streams");
             log.close();
@@ -1,5 +1,9 @@
 package edu.sdsu.rocket.server;
 
+import edu.sdsu.rocket.core.io.Durability;
+import edu.sdsu.rocket.core.io.MirroredLogWriter;
+import edu.sdsu.rocket.server.devices.ADS1115;
+
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.util.ArrayList;
@@ -14,9 +18,29 @@ public class Config {
     public boolean debug;
     public boolean disableSystemStatus;
     public boolean allowNoLogs;
+    public boolean conversionReady;
+    public int[] alertPins = { 0, 1, 2, 3 }; // WiringPi GPIO numbers wired to the ADS1114 ALERT/RDY outputs, in order
+    public boolean scan;
+    public ADS1115.Multiplexer[] scanInputs = { // cycled through on each ADS1115, the first is published to Sensors
+            ADS1115.Multiplexer.MUX_SINGLE_0,
+            ADS1115.Multiplexer.MUX_SINGLE_1,
+            ADS1115.Multiplexer.MUX_SINGLE_2,
+            ADS1115.Multiplexer.MUX_SINGLE_3,
+    };
+    public boolean selector;
+    public boolean radio;
+    public boolean recording; // log ADC samples interleaved in one recording rather than a log per input
+    public boolean compress; // of the recording's blocks
+    public long segmentSize; // bytes, zero to log to plain files
+    public long segmentDuration; // ms, zero to roll segments only when full
+    public Durability durability = Durability.PERIODIC; // of sample logs
+    public long forceInterval = 1000L; // ms, period of periodic durability
+    public MirroredLogWriter.Policy mirrorPolicy; // null to write log directories in turn on the logging thread
+    public long mirrorQueue = MirroredLogWriter.DEFAULT_QUEUE_CAPACITY; // bytes per log directory
     public final List<File> logDirs = new ArrayList<>();
 
     public Config(String[] args) throws FileNotFoundException {
+        boolean isDurabilitySet = false;
         for (String arg : args) {
             if (arg.startsWith("--")) {
                 if (arg.equalsIgnoreCase("--help")) {
@@ -31,11 +55,96 @@ public class Config {
                     disableSystemStatus = true;
                 } else if (arg.equalsIgnoreCase("--allow-no-logs")) {
                     allowNoLogs = true;
+                } else if (arg.equalsIgnoreCase("--conversion-ready")) {
+                    conversionReady = true;
+                } else if (arg.toLowerCase().startsWith("--alert-pins=")) {
+                    alertPins = parseInts(arg);
+                } else if (arg.equalsIgnoreCase("--scan")) {
+                    scan = true;
+                } else if (arg.toLowerCase().startsWith("--scan-inputs=")) {
+                    scanInputs = parseScanInputs(arg);
+                    scan = true;
+                } else if (arg.equalsIgnoreCase("--selector")) {
+                    selector = true;
+                } else if (arg.equalsIgnoreCase("--radio")) {
+                    radio = true;
+                } else if (arg.equalsIgnoreCase("--recording")) {
+                    recording = true;
+                } else if (arg.equalsIgnoreCase("--compress")) {
+                    compress = true;
+                    recording = true;
+                } else if (arg.toLowerCase().startsWith("--segment-size=")) {
+                    segmentSize = parseLong(arg) * 1024 * 1024;
+                } else if (arg.toLowerCase().startsWith("--segment-duration=")) {
+                    segmentDuration = parseLong(arg) * 1000L;
+                } else if (arg.toLowerCase().startsWith("--durability=")) {
+                    durability = parseEnum(Durability.class, arg);
+                    isDurabilitySet = true;
+                } else if (arg.toLowerCase().startsWith("--force-interval=")) {
+                    forceInterval = parseLong(arg);
+                } else if (arg.toLowerCase().startsWith("--mirror-policy=")) {
+                    mirrorPolicy = parseEnum(MirroredLogWriter.Policy.class, arg);
+                } else if (arg.toLowerCase().startsWith("--mirror-queue=")) {
+                    mirrorQueue = parseLong(arg) * 1024;
                 }
             } else {
                 logDirs.add(new File(arg));
             }
         }
+        if (recording && segmentSize > 0) {
+            throw new IllegalArgumentException("--recording conflicts with --segment-size, a recording is a single file");
+        }
+        if (forceInterval < 0) {
+            if (isDurabilitySet && durability != Durability.BUFFERED) {
+                throw new IllegalArgumentException("--force-interval=" + forceInterval
+                        + " conflicts with --durability=" + durability.name().toLowerCase());
+            }
+            durability = Durability.BUFFERED; // never force
+        }
+    }
+
+    private static long parseLong(String arg) {
+        String value = arg.substring(arg.indexOf('=') + 1);
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for " + arg.substring(0, arg.indexOf('=')) + ": " + value);
+        }
+    }
+
+    private static int[] parseInts(String arg) {
+        String[] values = arg.substring(arg.indexOf('=') + 1).split(",");
+        int[] ints = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            try {
+                ints[i] = Integer.parseInt(values[i].trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid value for " + arg.substring(0, arg.indexOf('=')) + ": " + values[i]);
+            }
+        }
+        return ints;
+    }
+
+    private static ADS1115.Multiplexer[] parseScanInputs(String arg) {
+        String[] values = arg.substring(arg.indexOf('=') + 1).split(",");
+        ADS1115.Multiplexer[] inputs = new ADS1115.Multiplexer[values.length];
+        for (int i = 0; i < values.length; i++) {
+            try {
+                inputs[i] = ADS1115.Multiplexer.valueOf("MUX_" + values[i].trim().toUpperCase().replace('-', '_'));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid value for --scan-inputs: " + values[i]);
+            }
+        }
+        return inputs;
+    }
+
+    private static <T extends Enum<T>> T parseEnum(Class<T> type, String arg) {
+        String value = arg.substring(arg.indexOf('=') + 1);
+        try {
+            return Enum.valueOf(type, value.toUpperCase().replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid value for " + arg.substring(0, arg.indexOf('=')) + ": " + value);
+        }
     }
 
     @Override
@@ -47,6 +156,20 @@ public class Config {
                 + ", debug=" + debug
                 + ", disable-system-status=" + disableSystemStatus
                 + ", allow-no-logs=" + allowNoLogs
+                + ", conversion-ready=" + conversionReady
+                + ", alert-pins=" + Arrays.toString(alertPins)
+                + ", scan=" + scan
+                + ", scan-inputs=" + Arrays.toString(scanInputs)
+                + ", selector=" + selector
+                + ", radio=" + radio
+                + ", recording=" + recording
+                + ", compress=" + compress
+                + ", segment-size=" + segmentSize
+                + ", segment-duration=" + segmentDuration
+                + ", durability=" + durability
+                + ", force-interval=" + forceInterval
+                + ", mirror-policy=" + mirrorPolicy
+                + ", mirror-queue=" + mirrorQueue
                 + ", logDirs=" + Arrays.toString(logDirs.toArray());
     }
 }
@@ -8,7 +8,14 @@ import java.io.IOException;
 public class Launcher {
 
     public static void main(String[] args) throws Exception {
-        final Config config = new Config(args);
+        final Config config;
+        try {
+            config = new Config(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
 
         if (config.help || args.length == 0) {
             printUsage();
@@ -56,6 +63,24 @@ public class Launcher {
         System.out.println("  --debug                   Enable debug mode");
         System.out.println("  --disable-system-status   Disable reading of system status (e.g. CPU temperature)");
         System.out.println("  --allow-no-logs           Allow application to run without logging");
+        System.out.println("  --conversion-ready        Read ADS1114s on ALERT/RDY conversion-ready edges instead of polling");
+        System.out.println("  --alert-pins=N,...        WiringPi GPIO numbers wired to the ADS1114 ALERT/RDY outputs (default 0,1,2,3)");
+        System.out.println("  --scan                    Scan all four single-ended inputs of each ADS1115 (requires ADS1115s in place of ADS1114s)");
+        System.out.println("  --scan-inputs=INPUT,...   Scan these inputs instead: single-0 to single-3, or the differential pairs");
+        System.out.println("                            diff-0-1, diff-0-3, diff-1-3 and diff-2-3 (implies --scan)");
+        System.out.println("  --selector                Receive client requests using a non-blocking selector");
+        System.out.println("  --radio                   Enable the XTend 900 radio (simulated in testing mode)");
+        System.out.println("  --recording               Log ADC samples interleaved in one recording (adc.rec) with every ADC config");
+        System.out.println("                            in its header, instead of a log per input");
+        System.out.println("  --compress                Compress the recording's blocks with the Gorilla codec (implies --recording)");
+        System.out.println("  --segment-size=MB         Log ADC samples to preallocated, memory-mapped segments of this size");
+        System.out.println("  --segment-duration=S      Roll to a new segment after this many seconds (default only when full)");
+        System.out.println("  --durability=MODE         Force sample logs to disk: buffered (by the OS), periodic (default) or block");
+        System.out.println("                            (after every block written)");
+        System.out.println("  --force-interval=MS       Period of periodic durability (default 1000, -1 for buffered)");
+        System.out.println("  --mirror-policy=POLICY    Write each log directory from its own thread and queue; when a mirror falls");
+        System.out.println("                            behind: block, drop (that mirror's write) or primary-only (abandon mirrors)");
+        System.out.println("  --mirror-queue=KB         Bytes queued per log directory before the mirror policy applies (default 4096)");
         System.out.println();
     }
 
@@ -193,6 +193,13 @@ public class ADS1100 {
         return this;
     }
 
+    /**
+     * I2C bus number the device is on.
+     */
+    public int getBus() {
+        return i2cBus;
+    }
+
     public ADS1100 setSupplyVoltage(float Vdd) {
         this.Vdd = Vdd;
         return this;
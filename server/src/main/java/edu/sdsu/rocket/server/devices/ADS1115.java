@@ -5,6 +5,7 @@ import com.pi4j.io.i2c.I2CDevice;
 import com.pi4j.io.i2c.I2CFactory;
 
 import java.io.IOException;
+import java.util.Arrays;
 
 public class ADS1115 {
     
@@ -129,17 +130,20 @@ public class ADS1115 {
      * function on the ADS1113.
      */
     public enum Gain {
-        PGA_2_3(0x0000, 0.187500f), // 2/3 FS = +/-6.144V range
-        PGA_1  (0x0200, 0.125000f), //   1 FS = +/-4.096V range
-        PGA_2  (0x0400, 0.062500f), //   2 FS = +/-2.048V range, default
-        PGA_4  (0x0600, 0.031250f), //   4 FS = +/-1.024V range
-        PGA_8  (0x0800, 0.015625f), //   8 FS = +/-0.512V range
-        PGA_16 (0x0A00, 0.007813f), //  16 FS = +/-0.256V range
+        PGA_2_3(0x0000, 2f / 3f, 0.187500f), // 2/3 FS = +/-6.144V range
+        PGA_1  (0x0200,  1f,     0.125000f), //   1 FS = +/-4.096V range
+        PGA_2  (0x0400,  2f,     0.062500f), //   2 FS = +/-2.048V range, default
+        PGA_4  (0x0600,  4f,     0.031250f), //   4 FS = +/-1.024V range
+        PGA_8  (0x0800,  8f,     0.015625f), //   8 FS = +/-0.512V range
+        PGA_16 (0x0A00, 16f,     0.007813f), //  16 FS = +/-0.256V range
         ;
         int config;
+        float value;
         float resolution;
-        Gain(int config, float resolution) {
+        public float getValue() { return value; }
+        Gain(int config, float value, float resolution) {
             this.config = config;
+            this.value = value;
             this.resolution = resolution;
         }
     }
@@ -264,6 +268,12 @@ public class ADS1115 {
     
     public static final int HI_THRESH_RDY = 0xFFFF;
     public static final int LO_THRESH_RDY = 0x0000;
+
+    /**
+     * Data rate variation (pg 7), conversions may take up to 10% longer or
+     * shorter than the nominal data rate implies.
+     */
+    public static final float RATE_TOLERANCE = 0.1f;
     
     /**
      * Address of I2C device.
@@ -279,6 +289,13 @@ public class ADS1115 {
     private Latching latching = Latching.COMP_LAT_NON_LATCHING;
     private Queue queue = Queue.COMP_QUE_DISABLE;
     
+    /**
+     * Inputs cycled through when scanning (null to only convert the current
+     * multiplexer input).
+     */
+    private Multiplexer[] scan;
+    private int scanIndex;
+    
     /**
      * I2C bus number to use to access device.
      */
@@ -327,6 +344,13 @@ public class ADS1115 {
         i2c = I2CFactory.getInstance(i2cBus).getDevice(address.config);
         return this;
     }
+
+    /**
+     * I2C bus number the device is on.
+     */
+    public int getBus() {
+        return i2cBus;
+    }
     
     public ADS1115 setMultiplexer(Multiplexer multiplexer) {
         this.multiplexer = multiplexer;
@@ -413,7 +437,97 @@ public class ADS1115 {
         }
     }
     
+    /**
+     * Sets the inputs to cycle through when scanning (ADS1115 only, the
+     * multiplexer serves no function on the ADS1113/4).
+     */
+    public ADS1115 setScan(Multiplexer... inputs) {
+        if (inputs.length == 0) {
+            throw new IllegalArgumentException("Scan requires at least one input");
+        }
+        scan = inputs.clone();
+        scanIndex = 0;
+        return this;
+    }
+    
+    /**
+     * @return Scan inputs, or only the current multiplexer input if no scan
+     *         inputs have been set.
+     */
+    public Multiplexer[] getScan() {
+        return scan == null ? new Multiplexer[] { multiplexer } : scan.clone();
+    }
+    
+    /**
+     * Index (into the scan inputs) of the input whose conversion will be
+     * returned by the next call to {@link #readScan()}.
+     */
+    public int getScanIndex() {
+        return scanIndex;
+    }
+    
+    /**
+     * Rate (in Hz) at which to poll a scan that is not driven by the
+     * ALERT/RDY pin, checking {@link #isPerformingConversion()} before each
+     * {@link #readScan()}. Twice the fastest data rate, so a completed
+     * conversion waits at most half a conversion time to be read however
+     * long the bus takes to start the next one.
+     */
+    public double getScanPollRate() {
+        return 2 * rate.sps * (1f + RATE_TOLERANCE);
+    }
+    
+    /**
+     * Starts a single-shot conversion of the first scan input.
+     */
+    public ADS1115 beginScan() throws IOException {
+        if (scan == null) {
+            scan = new Multiplexer[] { multiplexer };
+        }
+        scanIndex = 0;
+        setMultiplexer(scan[scanIndex]);
+        begin();
+        return this;
+    }
+    
+    /**
+     * Reads the conversion of the current scan input then immediately starts
+     * the conversion of the next scan input, such that the device is
+     * converting while the caller (and other devices on the bus) are being
+     * serviced.
+     * 
+     * Requires single-shot mode ({@link Mode#MODE_SINGLE}) and that
+     * {@link #beginScan()} was called first. The conversion must have
+     * completed (signalled by the ALERT/RDY pin, or polled with
+     * {@link #isPerformingConversion()}), otherwise the conversion of the
+     * previous scan input is returned.
+     * 
+     * @return Millivolts of the input at {@link #getScanIndex()} prior to the
+     *         call.
+     * @throws IOException
+     */
+    public float readScan() throws IOException {
+        if (scan == null) {
+            throw new IllegalStateException("Scan not started");
+        }
+        float value = readMillivolts();
+        if (++scanIndex == scan.length) {
+            scanIndex = 0;
+        }
+        setMultiplexer(scan[scanIndex]);
+        begin();
+        return value;
+    }
+    
     public int getConfig() {
+        return getConfig(multiplexer);
+    }
+    
+    /**
+     * Config for the specified input with all other settings as currently
+     * configured.
+     */
+    public int getConfig(Multiplexer multiplexer) {
         return multiplexer.config
                 | gain.config
                 | mode.config
@@ -446,6 +560,17 @@ public class ADS1115 {
     public int readHiThresh() throws IOException {
         return readRegister(Register.HI_THRESH);
     }
+
+    /**
+     * Configures the ALERT/RDY pin as a conversion-ready output by setting the most significant bit of Hi_thresh to 1
+     * and of Lo_thresh to 0 (pg 15). The comparator queue must also be enabled (i.e. not
+     * {@link Queue#COMP_QUE_DISABLE}) for the pin to pulse at the end of each conversion.
+     */
+    public ADS1115 writeConversionReady() throws IOException {
+        writeHiThresh(HI_THRESH_RDY);
+        writeLoThresh(LO_THRESH_RDY);
+        return this;
+    }
     
     public int readConfig() throws IOException {
         return readRegister(Register.CONFIG);
@@ -511,7 +636,8 @@ public class ADS1115 {
                 + ", comparator=" + comparator
                 + ", polarity=" + polarity
                 + ", latching=" + latching
-                + ", queue=" + queue;
+                + ", queue=" + queue
+                + (scan == null ? "" : ", scan=" + Arrays.toString(scan));
     }
 
 }
@@ -5,6 +5,8 @@ import edu.sdsu.rocket.core.helpers.RateLimitedRunnable;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 public class DeviceManager {
 
@@ -13,6 +15,7 @@ public class DeviceManager {
     }
     
     private List<DeviceThread> threads = new ArrayList<>();
+    private final Map<Integer, I2CBusScheduler> buses = new TreeMap<>();
     private final boolean debug;
 
     public DeviceManager(boolean debug) {
@@ -35,7 +38,51 @@ public class DeviceManager {
         return runnable;
     }
     
+    /**
+     * Adds an I2C device to the scheduler of the specified bus (starting the scheduler if needed), rather than
+     * dedicating a thread to the device.
+     *
+     * @param bus I2C bus number the device is on.
+     * @param name Name of the device (for display purposes).
+     * @param frequency Rate budget of the device (Hz).
+     */
+    public I2CBusScheduler.PeriodicTask add(int bus, String name, Device device, double frequency) {
+        return getScheduler(bus).add(name, device, frequency);
+    }
+
+    /**
+     * Adds an I2C device to the scheduler of the specified bus which is run once each time the returned task is
+     * signalled (e.g. by a conversion-ready edge).
+     *
+     * @param bus I2C bus number the device is on.
+     * @param name Name of the device (for display purposes).
+     */
+    public I2CBusScheduler.TriggeredTask addTriggered(int bus, String name, Device device) {
+        return getScheduler(bus).addTriggered(name, device);
+    }
+
+    private I2CBusScheduler getScheduler(int bus) {
+        I2CBusScheduler scheduler = buses.get(bus);
+        if (scheduler == null) {
+            scheduler = new I2CBusScheduler(bus);
+            buses.put(bus, scheduler);
+            if (debug) {
+                System.out.println("Starting " + scheduler.getName() + " scheduler");
+            }
+            scheduler.start();
+        }
+        return scheduler;
+    }
+
     public void clear() {
+        for (I2CBusScheduler scheduler : buses.values()) {
+            if (debug) {
+                System.out.println("Stopping " + scheduler.getName() + " scheduler");
+            }
+            scheduler.stop();
+        }
+        buses.clear();
+
         for (Thread thread : threads) {
             if (debug) {
                 System.out.println("Stopping " + thread.getName() + " thread");
@@ -57,7 +104,11 @@ public class DeviceManager {
             if (i != 0) builder.append("; ");
             
             DeviceThread thread = threads.get(i);
-            builder.append(thread.getName() + ": " + thread.runnable.frequency + " Hz");
+            builder.append(thread.getName() + ": " + thread.runnable.frequency + " Hz (" + thread.runnable.getTimer() + ")");
+        }
+        for (I2CBusScheduler scheduler : buses.values()) {
+            if (builder.length() != 0) builder.append("; ");
+            builder.append(scheduler);
         }
         return getClass().getSimpleName() + ": [" + builder.toString() + "]";
     }
@@ -81,8 +132,6 @@ public class DeviceManager {
         long frequency;
         long loops;
         
-        private long throttle;
-        
         final Device device;
 
         public DeviceRunnable(Device device) {
@@ -98,10 +147,14 @@ public class DeviceManager {
         /**
          * Set the throttle of the runnable loop.
          * 
-         * @param throttle (Hz)
+         * @param throttle (Hz), 0 to run unthrottled
          */
         public void setThrottle(long throttle) {
-            this.throttle = throttle;
+            if (throttle == 0) {
+                setSleepNanoseconds(0);
+            } else {
+                setFrequency(throttle);
+            }
         }
         
         @Override
@@ -115,14 +168,6 @@ public class DeviceManager {
             loops++;
             long time = System.nanoTime();
             if (time - start > NANOSECONDS_PER_SECOND) {
-                if (throttle != 0) {
-                    long dt = (time - start) / loops - getSleepNanoseconds(); // actual time per loop
-                    long t = (time - start) / throttle; // target time per loop
-                    long sleep = t - dt;
-                    if (sleep < 0) sleep = 0;
-                    setSleepNanoseconds(sleep);
-                }
-                
                 frequency = loops;
                 loops = 0;
                 start = time;
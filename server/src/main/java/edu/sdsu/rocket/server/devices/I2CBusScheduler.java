@@ -0,0 +1,344 @@
+package edu.sdsu.rocket.server.devices;
+
+import edu.sdsu.rocket.core.helpers.PeriodicTimer;
+import edu.sdsu.rocket.server.io.gpio.EdgeSource;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Owns a single I2C bus and interleaves the transactions of all devices on it from one thread.
+ *
+ * Periodic devices are given a rate budget (typically their data rate, see {@code Rate.getSamplesPerSecond()}) and
+ * the one with the earliest deadline is run next, so per-device rates and total bus utilization are predictable and
+ * devices never contend for the bus. Triggered devices are run once per signal (e.g. a conversion-ready edge) and take
+ * priority over periodic devices, but a periodic device past its deadline waits for at most one triggered device;
+ * pending triggered devices are run in turn, so none is starved when signals arrive faster than the bus can service
+ * them.
+ */
+public class I2CBusScheduler {
+
+    private static final long NANOSECONDS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    public class Task {
+
+        final String name;
+        final DeviceManager.Device device;
+
+        long loops;
+        volatile long frequency; // measured, Hz
+        volatile long errors;
+
+        Task(String name, DeviceManager.Device device) {
+            this.name = name;
+            this.device = device;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Measured number of device loops in the last second.
+         */
+        public long getFrequency() {
+            return frequency;
+        }
+
+        /**
+         * Number of device loops that failed (with an I/O or unchecked exception).
+         */
+        public long getErrors() {
+            return errors;
+        }
+    }
+
+    public class PeriodicTask extends Task {
+
+        final PeriodicTimer timer = new PeriodicTimer();
+
+        PeriodicTask(String name, DeviceManager.Device device, double frequency) {
+            super(name, device);
+            timer.setFrequency(frequency);
+        }
+
+        /**
+         * Sets the rate budget of the device (in Hz).
+         */
+        public void setFrequency(double frequency) {
+            timer.setFrequency(frequency);
+        }
+
+        public PeriodicTimer getTimer() {
+            return timer;
+        }
+
+        @Override
+        public String toString() {
+            return name + ": " + frequency + " Hz (" + timer + ", errors=" + errors + ")";
+        }
+    }
+
+    public class TriggeredTask extends Task implements EdgeSource.EdgeListener {
+
+        private final AtomicLong signals = new AtomicLong();
+        private long handled;
+        private volatile long missed;
+
+        TriggeredTask(String name, DeviceManager.Device device) {
+            super(name, device);
+        }
+
+        /**
+         * Requests the device be run once; may be called from any thread.
+         */
+        public void signal() {
+            signals.incrementAndGet();
+            isSignalled = true;
+            LockSupport.unpark(thread);
+        }
+
+        @Override
+        public void onEdge(long timestamp) {
+            signal();
+        }
+
+        boolean isPending() {
+            return signals.get() != handled;
+        }
+
+        void acknowledge() {
+            long s = signals.get();
+            if (s - handled > 1) {
+                missed += s - handled - 1; // signals arrived faster than the device could be serviced
+            }
+            handled = s;
+        }
+
+        /**
+         * Number of signals that were coalesced because the device had not yet been run for a previous signal.
+         */
+        public long getMissed() {
+            return missed;
+        }
+
+        @Override
+        public String toString() {
+            return name + ": " + frequency + " Hz (triggered, missed=" + missed + ", errors=" + errors + ")";
+        }
+    }
+
+    private final int bus;
+    private final List<PeriodicTask> periodicTasks = new CopyOnWriteArrayList<>();
+    private final List<TriggeredTask> triggeredTasks = new CopyOnWriteArrayList<>();
+    private int nextTriggered; // index the search for a pending triggered task starts from
+    private volatile long spinThreshold = PeriodicTimer.DEFAULT_SPIN_THRESHOLD;
+
+    private volatile Thread thread;
+    private volatile boolean isSignalled;
+
+    private long windowStart;
+    private long busy; // nanoseconds spent in device transactions in the current window
+    private volatile float utilization;
+
+    public I2CBusScheduler(int bus) {
+        this.bus = bus;
+    }
+
+    public int getBus() {
+        return bus;
+    }
+
+    public void setSpinThreshold(long nanoseconds) {
+        spinThreshold = nanoseconds;
+    }
+
+    /**
+     * @param frequency Rate budget for the device (in Hz).
+     */
+    public PeriodicTask add(String name, DeviceManager.Device device, double frequency) {
+        if (device == null) throw new NullPointerException();
+        PeriodicTask task = new PeriodicTask(name, device, frequency);
+        periodicTasks.add(task);
+        return task;
+    }
+
+    /**
+     * Adds a device that is run once each time the returned task is signalled.
+     */
+    public TriggeredTask addTriggered(String name, DeviceManager.Device device) {
+        if (device == null) throw new NullPointerException();
+        TriggeredTask task = new TriggeredTask(name, device);
+        triggeredTasks.add(task);
+        return task;
+    }
+
+    /**
+     * Fraction of time the bus was busy performing device transactions over the last second.
+     */
+    public float getUtilization() {
+        return utilization;
+    }
+
+    public void start() {
+        if (thread != null) {
+            throw new IllegalStateException(getClass().getSimpleName() + " already started");
+        }
+        Thread t = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    loop();
+                } catch (InterruptedException e) {
+                    System.err.println(e);
+                }
+            }
+        });
+        t.setName(getName());
+        thread = t;
+        t.start();
+    }
+
+    public void stop() {
+        Thread t = thread;
+        if (t != null) {
+            t.interrupt();
+            try {
+                t.join();
+            } catch (InterruptedException e) {
+                System.err.println(e);
+            }
+            thread = null;
+        }
+    }
+
+    public String getName() {
+        return "I2C-" + bus;
+    }
+
+    private void loop() throws InterruptedException {
+        for (PeriodicTask task : periodicTasks) {
+            task.timer.reset();
+        }
+        windowStart = System.nanoTime();
+        boolean isTriggeredLast = false;
+
+        while (!Thread.currentThread().isInterrupted()) {
+            isSignalled = false;
+
+            PeriodicTask next = null;
+            for (PeriodicTask task : periodicTasks) {
+                if (next == null || task.timer.getDeadline() - next.timer.getDeadline() < 0) {
+                    next = task;
+                }
+            }
+
+            // alternate with an overdue periodic task, so saturated triggered tasks cannot starve it
+            boolean isOverdue = next != null && next.timer.getDeadline() - System.nanoTime() <= 0;
+            if (!isOverdue || !isTriggeredLast) {
+                TriggeredTask triggered = nextTriggered();
+                if (triggered != null) {
+                    triggered.acknowledge();
+                    run(triggered);
+                    isTriggeredLast = true;
+                    continue;
+                }
+            }
+            isTriggeredLast = false;
+
+            long deadline = next == null ? System.nanoTime() + IDLE_NANOS : next.timer.getDeadline();
+            if (!await(deadline) || next == null) {
+                continue; // signalled before deadline
+            }
+
+            next.timer.advance(System.nanoTime());
+            run(next);
+        }
+    }
+
+    /**
+     * @return The first pending triggered task after the one last run, or {@code null} if none are pending.
+     */
+    private TriggeredTask nextTriggered() {
+        int size = triggeredTasks.size(); // tasks are only ever added
+        for (int i = 0; i < size; i++) {
+            int index = (nextTriggered + i) % size;
+            TriggeredTask task = triggeredTasks.get(index);
+            if (task.isPending()) {
+                nextTriggered = (index + 1) % size;
+                return task;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Waits for the deadline, returning early if a triggered task is signalled.
+     *
+     * @return {@code true} if the deadline was reached.
+     */
+    private boolean await(long deadline) throws InterruptedException {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            if (isSignalled) {
+                return false;
+            }
+            if (remaining > spinThreshold) {
+                LockSupport.parkNanos(this, remaining - spinThreshold);
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+        return true;
+    }
+
+    private void run(Task task) throws InterruptedException {
+        long start = System.nanoTime();
+        try {
+            task.device.loop();
+        } catch (IOException | RuntimeException e) {
+            // a failing device must not stop the others on the bus
+            task.errors++;
+            System.err.println(task.name + ": " + e);
+        }
+        long end = System.nanoTime();
+
+        task.loops++;
+        busy += end - start;
+
+        if (end - windowStart >= NANOSECONDS_PER_SECOND) {
+            utilization = (float) busy / (end - windowStart);
+            for (Task t : periodicTasks) {
+                t.frequency = t.loops;
+                t.loops = 0;
+            }
+            for (Task t : triggeredTasks) {
+                t.frequency = t.loops;
+                t.loops = 0;
+            }
+            busy = 0;
+            windowStart = end;
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (Task task : triggeredTasks) {
+            if (builder.length() != 0) builder.append("; ");
+            builder.append(task);
+        }
+        for (Task task : periodicTasks) {
+            if (builder.length() != 0) builder.append("; ");
+            builder.append(task);
+        }
+        return getName() + " (" + String.format("%.1f", utilization * 100f) + "% busy): [" + builder.toString() + "]";
+    }
+
+}
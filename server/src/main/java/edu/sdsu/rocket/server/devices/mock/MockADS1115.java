@@ -1,52 +1,173 @@
 package edu.sdsu.rocket.server.devices.mock;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import edu.sdsu.rocket.server.devices.ADS1115;
+import edu.sdsu.rocket.server.io.gpio.EdgeSource;
 
 public class MockADS1115 extends ADS1115 {
 
     private static final int RANDOM_MIN = 0;
     private static final int RANDOM_MAX = 10;
     private float[] x;
+    private float[] levels; // fixed millivolts per multiplexer setting, NaN to follow its waveform
     private int channel;
+    private int converting; // multiplexer setting of the single-shot conversion last started
+    private int converted; // multiplexer setting of the conversion in the conversion register
+    private long conversionEnd;
+    private volatile long transactionTime; // ns
+    private MockEdgeSource conversionReady;
+    private final AtomicLong conversions = new AtomicLong(); // completed by the emulated ALERT/RDY pin
+    private long lastRead; // conversion returned by the previous read
+    private volatile long reads;
+    private volatile long duplicateReads;
+    private volatile long missedConversions;
 
     @Override
     public ADS1115 setup() throws IOException {
-        x = new float[] {
-            (int)(Math.random() * (RANDOM_MAX - RANDOM_MIN) + RANDOM_MIN),
-            (int)(Math.random() * (RANDOM_MAX - RANDOM_MIN) + RANDOM_MIN),
-            (int)(Math.random() * (RANDOM_MAX - RANDOM_MIN) + RANDOM_MIN),
-            (int)(Math.random() * (RANDOM_MAX - RANDOM_MIN) + RANDOM_MIN),
-        };
+        // one waveform per multiplexer setting
+        x = new float[Multiplexer.values().length];
+        for (int i = 0; i < x.length; i++) {
+            x[i] = (int)(Math.random() * (RANDOM_MAX - RANDOM_MIN) + RANDOM_MIN);
+        }
+        levels = new float[x.length];
+        Arrays.fill(levels, Float.NaN);
+        channel = getMultiplexer().ordinal();
+        converting = converted = channel;
+        conversionEnd = System.nanoTime();
         return this;
     }
 
+    /**
+     * Holds the input at a fixed level instead of its waveform.
+     */
+    public MockADS1115 setLevel(Multiplexer input, float millivolts) {
+        levels[input.ordinal()] = millivolts;
+        return this;
+    }
+
+    /**
+     * Sets the time each register access takes, as on a real bus (none by default).
+     */
+    public MockADS1115 setTransactionTime(long nanoseconds) {
+        transactionTime = nanoseconds;
+        return this;
+    }
+
+    private void transact() {
+        long end = System.nanoTime() + transactionTime;
+        while (System.nanoTime() - end < 0) {
+            // busy, as the bus would be
+        }
+    }
+
     @Override
     protected void writeRegister(Register register, int value) throws IOException {
-        // no-op
+        transact(); // no-op
     }
 
     @Override
     protected int readRegister(Register register) throws IOException {
+        transact();
         return 0; // no-op
     }
 
+    /**
+     * Emulates the ALERT/RDY pin, producing one edge per conversion at the configured data rate.
+     */
+    public EdgeSource getConversionReadySource() {
+        if (conversionReady == null) {
+            conversionReady = new MockEdgeSource(getRate().getSamplesPerSecond()) {
+                @Override
+                public synchronized void setListener(final EdgeListener listener) {
+                    super.setListener(new EdgeListener() {
+                        @Override
+                        public void onEdge(long timestamp) {
+                            conversions.incrementAndGet(); // the conversion completes before the edge
+                            listener.onEdge(timestamp);
+                        }
+                    });
+                }
+            };
+        }
+        return conversionReady;
+    }
+
+    /**
+     * Number of conversions completed by the emulated ALERT/RDY pin.
+     */
+    public long getConversions() {
+        return conversions.get();
+    }
+
+    public long getReads() {
+        return reads;
+    }
+
+    /**
+     * Number of reads that returned the same conversion as the previous read.
+     */
+    public long getDuplicateReads() {
+        return duplicateReads;
+    }
+
+    /**
+     * Number of conversions completed by the emulated ALERT/RDY pin that were never read.
+     */
+    public long getMissedConversions() {
+        return missedConversions;
+    }
+
+    /**
+     * Starts a single-shot conversion of the current input, taking the nominal conversion time.
+     */
+    @Override
+    public void begin() throws IOException {
+        super.begin();
+        converting = channel;
+        conversionEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(1) / getRate().getSamplesPerSecond();
+    }
+
     @Override
     public boolean isPerformingConversion() throws IOException {
-        return false;
+        transact();
+        return getMode() == Mode.MODE_SINGLE && System.nanoTime() - conversionEnd < 0;
     }
     
     @Override
-    public ADS1115 setSingleEnded(int channel) {
-        this.channel = channel;
-        return super.setSingleEnded(channel);
+    public ADS1115 setMultiplexer(Multiplexer multiplexer) {
+        this.channel = multiplexer.ordinal();
+        return super.setMultiplexer(multiplexer);
     }
 
     @Override
     public float readMillivolts() throws IOException {
-        if ((x[channel] += 0.001f) > 1000f) x[channel] = 0f; // 0 to 1000
-        float s = (float) Math.sin(x[channel]); // -1 to 1
+        if (conversionReady != null) {
+            long conversion = conversions.get();
+            if (conversion == lastRead) {
+                duplicateReads++;
+            } else if (conversion - lastRead > 1) {
+                missedConversions += conversion - lastRead - 1;
+            }
+            lastRead = conversion;
+            reads++;
+        }
+        transact();
+        int input = channel; // converting continuously
+        if (getMode() == Mode.MODE_SINGLE) {
+            if (System.nanoTime() - conversionEnd >= 0) {
+                converted = converting;
+            }
+            input = converted; // until then, the previous conversion
+        }
+        if (!Float.isNaN(levels[input])) {
+            return levels[input];
+        }
+        if ((x[input] += 0.001f) > 1000f) x[input] = 0f; // 0 to 1000
+        float s = (float) Math.sin(x[input]); // -1 to 1
         float sp = (s / 2f) + 0.5f; // 0 to 1
         return sp * 5000f;
     }
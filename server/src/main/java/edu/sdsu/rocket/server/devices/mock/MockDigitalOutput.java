@@ -0,0 +1,46 @@
+package edu.sdsu.rocket.server.devices.mock;
+
+import edu.sdsu.rocket.server.io.gpio.DigitalOutput;
+
+/**
+ * Digital output that only records its state.
+ */
+public class MockDigitalOutput implements DigitalOutput {
+
+    private volatile boolean isHigh;
+    private volatile long pulses;
+
+    @Override
+    public void high() {
+        isHigh = true;
+    }
+
+    @Override
+    public void low() {
+        isHigh = false;
+    }
+
+    @Override
+    public void toggle() {
+        isHigh = !isHigh;
+    }
+
+    @Override
+    public boolean isHigh() {
+        return isHigh;
+    }
+
+    @Override
+    public void pulse(long milliseconds) {
+        pulses++;
+    }
+
+    public long getPulseCount() {
+        return pulses;
+    }
+
+    @Override
+    public void close() {
+    }
+
+}
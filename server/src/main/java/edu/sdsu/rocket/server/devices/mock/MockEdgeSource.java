@@ -0,0 +1,62 @@
+package edu.sdsu.rocket.server.devices.mock;
+
+import edu.sdsu.rocket.core.helpers.PeriodicTimer;
+import edu.sdsu.rocket.server.io.gpio.EdgeSource;
+
+/**
+ * Edge source that fires at a fixed frequency, emulating a device's conversion-ready output.
+ */
+public class MockEdgeSource implements EdgeSource {
+
+    private final PeriodicTimer timer = new PeriodicTimer();
+    private volatile EdgeListener listener;
+    private Thread thread;
+
+    /**
+     * @param frequency Edges per second.
+     */
+    public MockEdgeSource(double frequency) {
+        timer.setFrequency(frequency);
+    }
+
+    @Override
+    public synchronized void setListener(EdgeListener listener) {
+        this.listener = listener;
+        if (thread == null) {
+            thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    timer.reset();
+                    while (!Thread.currentThread().isInterrupted()) {
+                        try {
+                            timer.await();
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                        EdgeListener l = MockEdgeSource.this.listener;
+                        if (l != null) {
+                            l.onEdge(System.nanoTime());
+                        }
+                    }
+                }
+            });
+            thread.setName(getClass().getSimpleName());
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                System.err.println(e);
+            }
+            thread = null;
+        }
+    }
+
+}
@@ -0,0 +1,630 @@
+package edu.sdsu.rocket.server.devices.mock;
+
+import edu.sdsu.rocket.core.helpers.PeriodicTimer;
+import edu.sdsu.rocket.core.io.radio.APIFrameHandler;
+import edu.sdsu.rocket.core.io.radio.api.APIFrame;
+import edu.sdsu.rocket.core.io.radio.api.RXPacket;
+import edu.sdsu.rocket.core.io.radio.api.TXRequest;
+import edu.sdsu.rocket.server.io.gpio.DigitalOutput;
+import edu.sdsu.rocket.server.io.radio.XTend900Config;
+import edu.sdsu.rocket.server.io.serial.SerialPort;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process model of an XTend 900 attached to a serial port, for load testing the radio pipeline without hardware.
+ *
+ * Bytes written by the host cross the serial line at the interface data rate (10 bits per byte) into the module's DI
+ * buffer. With flow control the line stalls while the buffer is nearly full (CTS), otherwise bytes that do not fit are
+ * dropped. Buffered data is sent as RF packets at the RF data rate, each costing a fixed overhead in addition to its
+ * payload: in transparent mode once the line has been idle for the packetization timeout or a full packet is buffered,
+ * in API mode one packet per TX request. Each packet is lost with a configurable probability; packets that arrive are
+ * passed to the remote listener as raw data or as RX packet frames.
+ *
+ * The module enters command mode on "+++" surrounded by the guard time and answers comma separated AT commands (e.g.
+ * "ATAP1,BD3,CN"); the AP, BD and BR parameters take effect when command mode is exited.
+ *
+ * The module is powered by its shutdown pin (see {@link #getShutdownPin()}); bytes written while it is off are lost
+ * and parameters revert to those last written with WR.
+ */
+public class SimulatedXTend900 implements SerialPort {
+
+    private static final long NANOSECONDS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final double TICK_FREQUENCY = 1000; // Hz
+    private static final int BITS_PER_BYTE = 10; // start + 8 data + stop
+
+    public static final int DEFAULT_HOST_BUFFER_SIZE = 4096; // bytes, serial driver transmit buffer
+    public static final int DEFAULT_MODULE_BUFFER_SIZE = 2048; // bytes, DI buffer
+    public static final int DEFAULT_RF_PACKET_OVERHEAD = 16; // bytes, preamble + sync + header + CRC (approximate)
+    public static final long DEFAULT_GUARD_TIME = TimeUnit.SECONDS.toNanos(1); // GT
+    public static final byte DEFAULT_SIGNAL_STRENGTH = 0x3C; // -60 dBm
+
+    private static final int MAXIMUM_PACKET_SIZE = 2048; // bytes
+    private static final int CTS_THRESHOLD = 17; // bytes free in the DI buffer when CTS is de-asserted
+    private static final int PACKETIZATION_TIMEOUT = 3; // character times (RO)
+    private static final long COMMAND_MODE_TIMEOUT = TimeUnit.SECONDS.toNanos(10); // CT
+    private static final int MAXIMUM_COMMAND_LENGTH = 256;
+    private static final short SOURCE_ADDRESS = 0;
+
+    private final CopyOnWriteArrayList<SerialPortListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile SerialPortListener remote;
+    private volatile XTend900Config.APIEnable remoteAPIMode = XTend900Config.APIEnable.DISABLED;
+
+    private final MockDigitalOutput shdn = new MockDigitalOutput();
+    private Thread thread;
+    private volatile boolean isOpen;
+
+    // serial driver transmit buffer, guarded by this
+    private final byte[] hostBuffer;
+    private int hostHead;
+    private int hostCount;
+
+    // module state, only accessed by the simulation thread
+    private final ByteBuffer moduleBuffer; // transparent: raw bytes, API: length-prefixed packets
+    private final byte[] lineBuffer;
+    private final APIFrameHandler hostParser = new APIFrameHandler();
+    private final Map<String, String> savedParameters = new HashMap<>();
+    private final Map<String, String> parameters = new HashMap<>();
+    private final StringBuilder command = new StringBuilder();
+    private final ByteBuffer responseBuffer = ByteBuffer.allocate(MAXIMUM_COMMAND_LENGTH);
+    private final byte[] packet = new byte[MAXIMUM_PACKET_SIZE];
+    private final ByteBuffer packetBuffer = ByteBuffer.wrap(packet);
+    private final ByteBuffer remoteBuffer = ByteBuffer.allocate(2 * APIFrame.MAXIMUM_FRAME_LENGTH);
+    private final Random random;
+    private boolean isPowered;
+    private boolean isCommandMode;
+    private int plusCount; // escape sequence characters held back from the DI buffer
+    private long lastByteTime;
+    private long lastCommandTime;
+    private double lineCredit; // bytes the serial line may carry
+    private int packetLength;
+    private boolean isTransmitting;
+    private long transmitEnd;
+    private volatile XTend900Config.APIEnable apiMode = XTend900Config.APIEnable.DISABLED;
+    private volatile int interfaceBaud;
+    private volatile int rfBaud;
+
+    private volatile boolean isFlowControlEnabled = true;
+    private volatile int rfPacketOverhead = DEFAULT_RF_PACKET_OVERHEAD;
+    private volatile double packetLoss;
+    private volatile long guardTime = DEFAULT_GUARD_TIME;
+    private volatile byte signalStrength = DEFAULT_SIGNAL_STRENGTH;
+
+    private volatile long bytesWritten;
+    private volatile long overruns;
+    private volatile long packetsSent;
+    private volatile long packetsLost;
+    private volatile long bytesDelivered;
+
+    public SimulatedXTend900() {
+        this(DEFAULT_HOST_BUFFER_SIZE, DEFAULT_MODULE_BUFFER_SIZE, 0L);
+    }
+
+    /**
+     * @param hostBufferSize Bytes the host may write before writes block.
+     * @param moduleBufferSize Size of the module's DI buffer (in bytes).
+     * @param seed Seed for packet loss.
+     */
+    public SimulatedXTend900(int hostBufferSize, int moduleBufferSize, long seed) {
+        hostBuffer = new byte[hostBufferSize];
+        moduleBuffer = ByteBuffer.allocate(moduleBufferSize);
+        lineBuffer = new byte[Math.max(1, hostBufferSize)];
+        random = new Random(seed);
+
+        savedParameters.put(XTend900Config.Command.API_ENABLE.getText(), "0");
+        savedParameters.put(XTend900Config.Command.INTERFACE_DATA_RATE.getText(), "3");
+        savedParameters.put(XTend900Config.Command.RF_DATA_RATE.getText(), "1");
+        savedParameters.put(XTend900Config.Command.TX_POWER_LEVEL.getText(), "4");
+        savedParameters.put(XTend900Config.Command.TRANSMIT_ONLY.getText(), "0");
+        savedParameters.put(XTend900Config.Command.DESTINATION_ADDRESS.getText(), "FFFF");
+        savedParameters.put(XTend900Config.Command.SOURCE_ADDRESS.getText(), "0");
+        savedParameters.put(XTend900Config.Command.RETRIES.getText(), "A");
+        savedParameters.put(XTend900Config.Command.FIRMWARE_VERSION_SHORT.getText(), "2014");
+        savedParameters.put(XTend900Config.Command.FIRMWARE_VERSION_VERBOSE.getText(), "VR=2014 (simulated)");
+        savedParameters.put(XTend900Config.Command.HARDWARE_VERSION.getText(), "2240");
+        savedParameters.put(XTend900Config.Command.BOARD_TEMPERATURE.getText(), "1E");
+        savedParameters.put(XTend900Config.Command.BOARD_VOLTAGE.getText(), "14F0");
+
+        hostParser.setFrameDataListener(new APIFrameHandler.FrameDataListener() {
+            @Override
+            public void onFrameData(ByteBuffer frameData) {
+                onTXRequest(frameData);
+            }
+        });
+        applyParameters();
+    }
+
+    /**
+     * Output driving the module's SHDN input (high powers the module).
+     */
+    public DigitalOutput getShutdownPin() {
+        return shdn;
+    }
+
+    /**
+     * Receives the data output by the remote module for every packet that arrives, formatted for its API mode.
+     */
+    public void setRemote(SerialPortListener listener, XTend900Config.APIEnable apiMode) {
+        remoteAPIMode = apiMode;
+        remote = listener;
+    }
+
+    /**
+     * Stall the serial line while the DI buffer is nearly full (default); otherwise bytes that do not fit are dropped.
+     */
+    public SimulatedXTend900 setFlowControlEnabled(boolean enabled) {
+        isFlowControlEnabled = enabled;
+        return this;
+    }
+
+    /**
+     * @param bytes Bytes of air time added to every RF packet.
+     */
+    public SimulatedXTend900 setRFPacketOverhead(int bytes) {
+        rfPacketOverhead = bytes;
+        return this;
+    }
+
+    /**
+     * @param probability Probability that an RF packet is lost (0 to 1).
+     */
+    public SimulatedXTend900 setPacketLoss(double probability) {
+        packetLoss = probability;
+        return this;
+    }
+
+    public SimulatedXTend900 setGuardTime(long nanoseconds) {
+        guardTime = nanoseconds;
+        return this;
+    }
+
+    /**
+     * @param signalStrength RSSI of received packets (-dBm).
+     */
+    public SimulatedXTend900 setSignalStrength(byte signalStrength) {
+        this.signalStrength = signalStrength;
+        return this;
+    }
+
+    public synchronized void start() {
+        if (thread != null) {
+            throw new IllegalStateException(getClass().getSimpleName() + " already started");
+        }
+        isOpen = true;
+        thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    loop();
+                } catch (InterruptedException e) {
+                    // closed
+                }
+            }
+        });
+        thread.setName(getClass().getSimpleName());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void close() {
+        Thread t;
+        synchronized (this) {
+            isOpen = false;
+            notifyAll();
+            t = thread;
+            thread = null;
+        }
+        if (t != null) {
+            t.interrupt();
+            try {
+                t.join();
+            } catch (InterruptedException e) {
+                System.err.println(e);
+            }
+        }
+    }
+
+    @Override
+    public void addListener(SerialPortListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeListener(SerialPortListener listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public boolean isOpen() {
+        return isOpen;
+    }
+
+    /**
+     * Blocks while the host buffer is full.
+     */
+    @Override
+    public synchronized void write(byte[] data, int offset, int length) throws IOException {
+        for (int i = offset; i < offset + length; i++) {
+            while (hostCount == hostBuffer.length) {
+                awaitLine();
+            }
+            if (!isOpen) {
+                throw new IOException(getClass().getSimpleName() + " is closed");
+            }
+            hostBuffer[(hostHead + hostCount) % hostBuffer.length] = data[i];
+            hostCount++;
+        }
+        bytesWritten += length;
+    }
+
+    @Override
+    public void write(String data) throws IOException {
+        byte[] bytes = new byte[data.length()];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) data.charAt(i);
+        }
+        write(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Blocks until every byte written has crossed the serial line.
+     */
+    @Override
+    public synchronized void flush() throws IOException {
+        while (hostCount > 0) {
+            awaitLine();
+        }
+    }
+
+    private void awaitLine() throws IOException {
+        if (!isOpen) {
+            throw new IOException(getClass().getSimpleName() + " is closed");
+        }
+        try {
+            wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+    }
+
+    private void loop() throws InterruptedException {
+        PeriodicTimer timer = new PeriodicTimer();
+        timer.setFrequency(TICK_FREQUENCY);
+        timer.setSpinThreshold(0);
+        timer.setOverrunPolicy(PeriodicTimer.OverrunPolicy.SKIP);
+        timer.reset();
+
+        long last = System.nanoTime();
+        while (!Thread.currentThread().isInterrupted()) {
+            timer.await();
+            long now = System.nanoTime();
+            tick(now, now - last);
+            last = now;
+        }
+    }
+
+    private void tick(long now, long elapsed) {
+        if (!shdn.isHigh()) {
+            if (isPowered) {
+                powerOff();
+            }
+            synchronized (this) {
+                hostCount = 0; // nothing is listening on the line
+                notifyAll();
+            }
+            return;
+        }
+        if (!isPowered) {
+            powerOn(now);
+        }
+
+        int bytesPerTick = (int) Math.max(1, Math.ceil(interfaceBaud / BITS_PER_BYTE / TICK_FREQUENCY));
+        lineCredit = Math.min(lineCredit + (double) elapsed * interfaceBaud / BITS_PER_BYTE / NANOSECONDS_PER_SECOND, 2 * bytesPerTick);
+
+        // copy out under the lock so that listeners are never called while holding it
+        int n = 0;
+        synchronized (this) {
+            int space = isFlowControlEnabled && !isCommandMode
+                    ? moduleBuffer.remaining() - CTS_THRESHOLD
+                    : Integer.MAX_VALUE;
+            while (lineCredit >= 1 && hostCount > 0 && n < space && n < lineBuffer.length) {
+                lineBuffer[n++] = hostBuffer[hostHead];
+                hostHead = (hostHead + 1) % hostBuffer.length;
+                hostCount--;
+                lineCredit--;
+            }
+            if (hostCount == 0) {
+                lineCredit = Math.min(lineCredit, 1); // an idle line does not bank time
+            }
+            notifyAll();
+        }
+        for (int i = 0; i < n; i++) {
+            onLineByte(lineBuffer[i], now);
+        }
+
+        if (plusCount == 3 && now - lastByteTime >= guardTime) {
+            plusCount = 0;
+            isCommandMode = true;
+            lastCommandTime = now;
+            respond("OK\r");
+        }
+        if (isCommandMode && now - lastCommandTime >= COMMAND_MODE_TIMEOUT) {
+            exitCommandMode();
+        }
+
+        transmit(now);
+    }
+
+    private void powerOn(long now) {
+        isPowered = true;
+        parameters.clear();
+        parameters.putAll(savedParameters);
+        applyParameters();
+        lastByteTime = now;
+    }
+
+    private void powerOff() {
+        isPowered = false;
+        isCommandMode = false;
+        isTransmitting = false;
+        plusCount = 0;
+        command.setLength(0);
+        moduleBuffer.clear();
+    }
+
+    private void onLineByte(byte b, long now) {
+        long idle = now - lastByteTime;
+        lastByteTime = now;
+
+        if (isCommandMode) {
+            lastCommandTime = now;
+            if (b == '\r') {
+                execute(command.toString());
+                command.setLength(0);
+            } else if (command.length() < MAXIMUM_COMMAND_LENGTH) {
+                command.append((char) b);
+            }
+            return;
+        }
+
+        if (b == '+' && plusCount < 3 && (plusCount > 0 || idle >= guardTime)) {
+            plusCount++;
+            return;
+        }
+        for (; plusCount > 0; plusCount--) {
+            onData((byte) '+'); // not an escape sequence
+        }
+        onData(b);
+    }
+
+    private void onData(byte b) {
+        if (apiMode == XTend900Config.APIEnable.DISABLED) {
+            if (moduleBuffer.hasRemaining()) {
+                moduleBuffer.put(b);
+            } else {
+                overruns++;
+            }
+        } else {
+            hostParser.onData(b);
+        }
+    }
+
+    private void onTXRequest(ByteBuffer frameData) {
+        if (frameData.get(0) != TXRequest.TX_REQUEST_API_IDENTIFIER) {
+            return;
+        }
+        int length = frameData.limit() - TXRequest.HEADER_LENGTH;
+        if (length > MAXIMUM_PACKET_SIZE || moduleBuffer.remaining() < 2 + length) {
+            overruns++;
+            return;
+        }
+        frameData.position(TXRequest.HEADER_LENGTH);
+        moduleBuffer.putShort((short) length);
+        moduleBuffer.put(frameData);
+    }
+
+    private void transmit(long now) {
+        if (isTransmitting) {
+            if (now - transmitEnd < 0) {
+                return;
+            }
+            isTransmitting = false;
+            deliver();
+        }
+        if (isCommandMode || moduleBuffer.position() == 0) {
+            return;
+        }
+
+        if (apiMode == XTend900Config.APIEnable.DISABLED) {
+            long timeout = PACKETIZATION_TIMEOUT * BITS_PER_BYTE * NANOSECONDS_PER_SECOND / interfaceBaud;
+            if (moduleBuffer.position() < MAXIMUM_PACKET_SIZE && now - lastByteTime < timeout) {
+                return;
+            }
+            moduleBuffer.flip();
+            packetLength = Math.min(moduleBuffer.remaining(), MAXIMUM_PACKET_SIZE);
+        } else {
+            moduleBuffer.flip();
+            packetLength = moduleBuffer.getShort() & 0xFFFF;
+        }
+        moduleBuffer.get(packet, 0, packetLength);
+        moduleBuffer.compact();
+
+        isTransmitting = true;
+        transmitEnd = now + (packetLength + rfPacketOverhead) * 8L * NANOSECONDS_PER_SECOND / rfBaud;
+        packetsSent++;
+    }
+
+    private void deliver() {
+        if (random.nextDouble() < packetLoss) {
+            packetsLost++;
+            return;
+        }
+        bytesDelivered += packetLength;
+
+        SerialPortListener remote = this.remote;
+        if (remote == null) {
+            return;
+        }
+
+        packetBuffer.clear();
+        packetBuffer.limit(packetLength);
+        remoteBuffer.clear();
+        switch (remoteAPIMode) {
+        case ENABLED_WITHOUT_ESCAPED_CHARACTERS:
+            RXPacket.encode(remoteBuffer, SOURCE_ADDRESS, signalStrength, RXPacket.INDICATE_BROADCAST_BIT, packetBuffer, false);
+            break;
+        case ENABLED_WITH_ESCAPED_CHARACTERS:
+            RXPacket.encode(remoteBuffer, SOURCE_ADDRESS, signalStrength, RXPacket.INDICATE_BROADCAST_BIT, packetBuffer, true);
+            break;
+        default: // DISABLED
+            remoteBuffer.put(packetBuffer);
+            break;
+        }
+        remoteBuffer.flip();
+        remote.onDataReceived(remoteBuffer);
+    }
+
+    /**
+     * Executes a line of AT commands, e.g. "ATAP1,BD3,CN".
+     */
+    private void execute(String line) {
+        line = line.trim();
+        if (line.length() < 2 || !line.regionMatches(true, 0, XTend900Config.COMMAND_PREFIX, 0, 2)) {
+            respond("ERROR\r");
+            return;
+        }
+        if (line.length() == 2) {
+            respond("OK\r");
+            return;
+        }
+
+        for (String c : line.substring(2).split(",")) {
+            c = c.trim();
+            if (c.length() < 2) {
+                respond("ERROR\r");
+                continue;
+            }
+            String name = c.substring(0, 2).toUpperCase();
+            String parameter = c.substring(2).trim().toUpperCase();
+
+            if (name.equals(XTend900Config.Command.EXIT_COMMAND_MODE.getText())) {
+                respond("OK\r");
+                exitCommandMode();
+                return;
+            } else if (name.equals("WR")) {
+                savedParameters.putAll(parameters);
+                respond("OK\r");
+            } else if (name.equals(XTend900Config.Command.RECEIVED_SIGNAL_STRENGTH.getText()) && parameter.isEmpty()) {
+                respond(Integer.toHexString(signalStrength & 0xFF).toUpperCase() + "\r");
+            } else if (parameter.isEmpty()) {
+                String value = parameters.get(name);
+                respond((value == null ? "ERROR" : value) + "\r");
+            } else {
+                parameters.put(name, parameter);
+                respond("OK\r");
+            }
+        }
+    }
+
+    private void exitCommandMode() {
+        isCommandMode = false;
+        command.setLength(0);
+        applyParameters();
+    }
+
+    private void applyParameters() {
+        if (parameters.isEmpty()) {
+            parameters.putAll(savedParameters);
+        }
+        apiMode = XTend900Config.APIEnable.valueOf(parameter(XTend900Config.Command.API_ENABLE));
+        interfaceBaud = XTend900Config.InterfaceDataRate.valueOf(parameter(XTend900Config.Command.INTERFACE_DATA_RATE)).getBaud();
+        rfBaud = XTend900Config.RFDataRate.valueOf(parameter(XTend900Config.Command.RF_DATA_RATE)).getBaud();
+        hostParser.setEscaped(apiMode == XTend900Config.APIEnable.ENABLED_WITH_ESCAPED_CHARACTERS);
+    }
+
+    private int parameter(XTend900Config.Command command) {
+        try {
+            return Integer.parseInt(parameters.get(command.getText()), 16);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void respond(String response) {
+        responseBuffer.clear();
+        for (int i = 0; i < response.length() && responseBuffer.hasRemaining(); i++) {
+            responseBuffer.put((byte) response.charAt(i));
+        }
+        responseBuffer.flip();
+        for (SerialPortListener listener : listeners) {
+            responseBuffer.rewind();
+            listener.onDataReceived(responseBuffer);
+        }
+    }
+
+    public XTend900Config.APIEnable getAPIMode() {
+        return apiMode;
+    }
+
+    public int getInterfaceBaud() {
+        return interfaceBaud;
+    }
+
+    public int getRFBaud() {
+        return rfBaud;
+    }
+
+    /**
+     * Bytes written by the host.
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * Bytes or TX requests dropped because the DI buffer was full.
+     */
+    public long getOverruns() {
+        return overruns;
+    }
+
+    public long getPacketsSent() {
+        return packetsSent;
+    }
+
+    public long getPacketsLost() {
+        return packetsLost;
+    }
+
+    /**
+     * Payload bytes of the packets that arrived at the remote module.
+     */
+    public long getBytesDelivered() {
+        return bytesDelivered;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName()
+                + ": " + (shdn.isHigh() ? "on" : "off")
+                + ", AP=" + apiMode.ordinal()
+                + ", interface=" + interfaceBaud + " bps"
+                + ", RF=" + rfBaud + " bps"
+                + ", written=" + bytesWritten
+                + ", packets=" + packetsSent
+                + ", lost=" + packetsLost
+                + ", delivered=" + bytesDelivered
+                + ", overruns=" + overruns
+                + ", invalid frames=" + hostParser.getErrorCount();
+    }
+
+}
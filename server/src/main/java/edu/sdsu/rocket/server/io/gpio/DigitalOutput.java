@@ -0,0 +1,26 @@
+package edu.sdsu.rocket.server.io.gpio;
+
+/**
+ * Digital output (e.g. a GPIO pin driving a device's shutdown input or an LED).
+ */
+public interface DigitalOutput {
+
+    void high();
+
+    void low();
+
+    void toggle();
+
+    boolean isHigh();
+
+    /**
+     * Drives the output high for the duration without blocking.
+     */
+    void pulse(long milliseconds);
+
+    /**
+     * Releases any underlying resources.
+     */
+    void close();
+
+}
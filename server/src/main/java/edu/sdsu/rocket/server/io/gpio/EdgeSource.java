@@ -0,0 +1,22 @@
+package edu.sdsu.rocket.server.io.gpio;
+
+/**
+ * Source of digital input edges (e.g. a GPIO pin wired to a device interrupt output).
+ */
+public interface EdgeSource {
+
+    interface EdgeListener {
+        /**
+         * @param timestamp {@link System#nanoTime()} at which the edge was observed.
+         */
+        void onEdge(long timestamp);
+    }
+
+    void setListener(EdgeListener listener);
+
+    /**
+     * Stops delivering edges and releases any underlying resources.
+     */
+    void close();
+
+}
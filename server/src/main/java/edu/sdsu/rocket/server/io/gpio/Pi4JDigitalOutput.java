@@ -0,0 +1,56 @@
+package edu.sdsu.rocket.server.io.gpio;
+
+import com.pi4j.io.gpio.GpioFactory;
+import com.pi4j.io.gpio.GpioPinDigitalOutput;
+import com.pi4j.io.gpio.Pin;
+import com.pi4j.io.gpio.PinState;
+
+/**
+ * Digital output backed by a Raspberry Pi GPIO pin.
+ */
+public class Pi4JDigitalOutput implements DigitalOutput {
+
+    private final GpioPinDigitalOutput output;
+
+    /**
+     * Provisions the pin as an output, initially low.
+     */
+    public Pi4JDigitalOutput(Pin pin, String name) {
+        this(pin, name, PinState.LOW);
+    }
+
+    public Pi4JDigitalOutput(Pin pin, String name, PinState defaultState) {
+        output = GpioFactory.getInstance().provisionDigitalOutputPin(pin, name, defaultState);
+    }
+
+    @Override
+    public void high() {
+        output.high();
+    }
+
+    @Override
+    public void low() {
+        output.low();
+    }
+
+    @Override
+    public void toggle() {
+        output.toggle();
+    }
+
+    @Override
+    public boolean isHigh() {
+        return output.isHigh();
+    }
+
+    @Override
+    public void pulse(long milliseconds) {
+        output.pulse(milliseconds);
+    }
+
+    @Override
+    public void close() {
+        GpioFactory.getInstance().unprovisionPin(output);
+    }
+
+}
@@ -0,0 +1,54 @@
+package edu.sdsu.rocket.server.io.gpio;
+
+import com.pi4j.io.gpio.*;
+import com.pi4j.io.gpio.event.GpioPinDigitalStateChangeEvent;
+import com.pi4j.io.gpio.event.GpioPinListenerDigital;
+
+/**
+ * Edge source backed by a Raspberry Pi GPIO input pin.
+ */
+public class Pi4JEdgeSource implements EdgeSource, GpioPinListenerDigital {
+
+    private final GpioPinDigitalInput input;
+    private final PinState activeState;
+    private volatile EdgeListener listener;
+
+    /**
+     * Provisions the pin as an input with a pull-up resistor, reporting falling edges (e.g. for an open-drain, active
+     * low output such as the ADS1115 ALERT/RDY pin).
+     */
+    public Pi4JEdgeSource(Pin pin) {
+        this(pin, PinPullResistance.PULL_UP, PinState.LOW);
+    }
+
+    /**
+     * @param activeState State the pin transitions to for an edge to be reported.
+     */
+    public Pi4JEdgeSource(Pin pin, PinPullResistance pull, PinState activeState) {
+        this.activeState = activeState;
+        GpioController gpio = GpioFactory.getInstance();
+        input = gpio.provisionDigitalInputPin(pin, pull);
+        input.addListener(this);
+    }
+
+    @Override
+    public void setListener(EdgeListener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void handleGpioPinDigitalStateChangeEvent(GpioPinDigitalStateChangeEvent event) {
+        long timestamp = System.nanoTime();
+        EdgeListener l = listener;
+        if (l != null && event.getState() == activeState) {
+            l.onEdge(timestamp);
+        }
+    }
+
+    @Override
+    public void close() {
+        input.removeListener(this);
+        GpioFactory.getInstance().unprovisionPin(input);
+    }
+
+}
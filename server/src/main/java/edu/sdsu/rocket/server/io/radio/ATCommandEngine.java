@@ -0,0 +1,307 @@
+package edu.sdsu.rocket.server.io.radio;
+
+import edu.sdsu.rocket.server.io.serial.SerialPort;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Runs AT commands on a module, waiting for its responses rather than for
+ * fixed delays.
+ *
+ * The commands of each call are sent as a single line (e.g. "ATAP1,BD3,CN")
+ * and each is answered by one carriage return terminated response ("OK", a
+ * value or "ERROR"). Command mode is entered on demand with the escape
+ * sequence, which only waits for the guard time of silence after the data
+ * written before it has been transmitted and for the module's "OK" after it,
+ * and is assumed to last until CN is sent or the command mode timeout elapses.
+ *
+ * Data must be written through {@link #write(byte[], int, int)}, which holds
+ * it off from the start of a call (before the first guard time) until command
+ * mode is exited.
+ *
+ * Calls are run in order on a single thread and complete their futures with
+ * the responses, so callers need not block.
+ */
+public class ATCommandEngine implements SerialPort.SerialPortListener {
+
+	public static final long DEFAULT_GUARD_TIME = 1000L; // ms (GT)
+	public static final long DEFAULT_RESPONSE_TIMEOUT = 500L; // ms
+	public static final long DEFAULT_COMMAND_MODE_TIMEOUT = 10000L; // ms (CT)
+
+	public static final String OK = "OK";
+	public static final String ERROR = "ERROR";
+
+	private static final int MAXIMUM_RESPONSE_LENGTH = 256;
+	private static final long GUARD_TIME_MARGIN = TimeUnit.MILLISECONDS.toNanos(20); // tolerance of the module's timing
+
+	private final SerialPort serial;
+	private final ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r);
+			thread.setName(ATCommandEngine.class.getSimpleName());
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+
+	private final BlockingQueue<String> responses = new LinkedBlockingQueue<>();
+	private final StringBuilder response = new StringBuilder(); // only accessed by the reading thread
+
+	private final Object writeLock = new Object(); // held while writing data, or while a call starts
+	private volatile boolean isRunning; // a call is using the port
+	private volatile boolean isCommandMode;
+	private volatile long lastCommand; // System.nanoTime()
+
+	private volatile long guardTime = TimeUnit.MILLISECONDS.toNanos(DEFAULT_GUARD_TIME);
+	private volatile long responseTimeout = TimeUnit.MILLISECONDS.toNanos(DEFAULT_RESPONSE_TIMEOUT);
+	private volatile long commandModeTimeout = TimeUnit.MILLISECONDS.toNanos(DEFAULT_COMMAND_MODE_TIMEOUT);
+
+	public ATCommandEngine(SerialPort serial) {
+		this.serial = serial;
+		serial.addListener(this);
+	}
+
+	/**
+	 * @param milliseconds Silence required before and after the escape
+	 *                     sequence (must match the module's GT).
+	 */
+	public ATCommandEngine setGuardTime(long milliseconds) {
+		guardTime = TimeUnit.MILLISECONDS.toNanos(milliseconds);
+		return this;
+	}
+
+	/**
+	 * @param milliseconds Time allowed for each response to arrive.
+	 */
+	public ATCommandEngine setResponseTimeout(long milliseconds) {
+		responseTimeout = TimeUnit.MILLISECONDS.toNanos(milliseconds);
+		return this;
+	}
+
+	/**
+	 * @param milliseconds Idle time after which the module leaves command mode
+	 *                     (must match the module's CT).
+	 */
+	public ATCommandEngine setCommandModeTimeout(long milliseconds) {
+		commandModeTimeout = TimeUnit.MILLISECONDS.toNanos(milliseconds);
+		return this;
+	}
+
+	/**
+	 * Forgets command mode (e.g. the module was power cycled).
+	 */
+	public void reset() {
+		isCommandMode = false;
+	}
+
+	public boolean isCommandMode() {
+		return isCommandMode && System.nanoTime() - lastCommand < commandModeTimeout;
+	}
+
+	/**
+	 * Whether bytes written to the port would be taken as commands (a call is
+	 * running or the module is in command mode), so data must not be sent.
+	 */
+	public boolean isBusy() {
+		return isRunning || isCommandMode();
+	}
+
+	/**
+	 * Writes data to the module unless it would be taken as commands.
+	 *
+	 * @return {@code false} if the engine is busy and the data was not written.
+	 */
+	public boolean write(byte[] data, int offset, int length) throws IOException {
+		synchronized (writeLock) {
+			if (isBusy()) {
+				return false;
+			}
+			serial.write(data, offset, length);
+			return true;
+		}
+	}
+
+	public CompletableFuture<Void> enterCommandMode() {
+		return submit(new Call<Void>() {
+			@Override
+			Void call() throws Exception {
+				enter();
+				return null;
+			}
+		});
+	}
+
+	/**
+	 * Runs the commands (without the "AT" prefix, e.g. "AP1", "DB", "CN") in
+	 * one command mode session, entering command mode first if required.
+	 *
+	 * @return Future completed with one response per command, or
+	 *         exceptionally if command mode could not be entered or a
+	 *         response did not arrive in time.
+	 */
+	public CompletableFuture<List<String>> execute(final String ... commands) {
+		return submit(new Call<List<String>>() {
+			@Override
+			List<String> call() throws Exception {
+				return runCommands(commands);
+			}
+		});
+	}
+
+	/**
+	 * Reads a parameter.
+	 *
+	 * @return Future completed with the value (or "ERROR").
+	 */
+	public CompletableFuture<String> query(XTend900Config.Command command) {
+		return execute(command.getText()).thenApply(new Function<List<String>, String>() {
+			@Override
+			public String apply(List<String> responses) {
+				return responses.get(0);
+			}
+		});
+	}
+
+	/**
+	 * Stops the thread running calls, interrupting the current call and
+	 * cancelling those waiting.
+	 */
+	public void close() {
+		for (Runnable call : executor.shutdownNow()) {
+			((Call<?>) call).future.cancel(false);
+		}
+	}
+
+	/**
+	 * A call completing its future with the result of {@link #call()}, run
+	 * while data is held off.
+	 */
+	private abstract class Call<T> implements Runnable {
+		final CompletableFuture<T> future = new CompletableFuture<>();
+
+		abstract T call() throws Exception;
+
+		@Override
+		public void run() {
+			synchronized (writeLock) {
+				isRunning = true; // no data is being written, nor will be until the call returns
+			}
+			try {
+				future.complete(call());
+			} catch (Exception e) {
+				future.completeExceptionally(e);
+			} finally {
+				isRunning = false;
+			}
+		}
+	}
+
+	private <T> CompletableFuture<T> submit(Call<T> call) {
+		try {
+			executor.execute(call);
+		} catch (RejectedExecutionException e) {
+			call.future.completeExceptionally(e);
+		}
+		return call.future;
+	}
+
+	private List<String> runCommands(String ... commands) throws IOException, InterruptedException, TimeoutException {
+		enter();
+		if (commands.length == 0) {
+			return Collections.emptyList();
+		}
+
+		StringBuilder line = new StringBuilder(XTend900Config.COMMAND_PREFIX);
+		for (int i = 0; i < commands.length; i++) {
+			if (i != 0) line.append(XTend900Config.COMMAND_SEPARATOR);
+			line.append(commands[i]);
+		}
+
+		responses.clear();
+		serial.write(line.append('\r').toString());
+		serial.flush();
+		lastCommand = System.nanoTime();
+
+		List<String> results = new ArrayList<>(commands.length);
+		for (String command : commands) {
+			String result = await(responseTimeout);
+			if (result == null) {
+				throw new TimeoutException("No response to " + XTend900Config.COMMAND_PREFIX + command);
+			}
+			results.add(result);
+			lastCommand = System.nanoTime();
+
+			if (command.equalsIgnoreCase(XTend900Config.Command.EXIT_COMMAND_MODE.getText())) {
+				isCommandMode = false;
+			}
+		}
+		return results;
+	}
+
+	private void enter() throws IOException, InterruptedException, TimeoutException {
+		if (isCommandMode()) {
+			return;
+		}
+		isCommandMode = false;
+
+		// the line is silent once written data has been transmitted, as no
+		// more is written while a call is running
+		serial.flush();
+		TimeUnit.NANOSECONDS.sleep(guardTime + GUARD_TIME_MARGIN);
+
+		responses.clear();
+		serial.write(XTend900Config.Command.ENTER_AT_COMMAND_MODE.getText());
+		serial.flush();
+
+		String result = await(guardTime + responseTimeout);
+		if (result == null) {
+			throw new TimeoutException("No response to " + XTend900Config.Command.ENTER_AT_COMMAND_MODE.getText());
+		}
+		if (!OK.equals(result)) {
+			throw new IOException("Unexpected response to " + XTend900Config.Command.ENTER_AT_COMMAND_MODE.getText() + ": " + result);
+		}
+		isCommandMode = true;
+		lastCommand = System.nanoTime();
+	}
+
+	private String await(long timeout) throws InterruptedException {
+		return responses.poll(timeout, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Collects responses while a call is running or in command mode (other
+	 * bytes are data and ignored).
+	 */
+	@Override
+	public void onDataReceived(ByteBuffer data) {
+		if (!isBusy()) {
+			response.setLength(0);
+			return;
+		}
+		while (data.hasRemaining()) {
+			char c = (char) (data.get() & 0xFF);
+			if (c == '\r') {
+				responses.offer(response.toString());
+				response.setLength(0);
+			} else if (c != '\n' && response.length() < MAXIMUM_RESPONSE_LENGTH) {
+				response.append(c);
+			}
+		}
+	}
+
+}
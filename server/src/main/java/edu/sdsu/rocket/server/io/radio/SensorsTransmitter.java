@@ -3,35 +3,88 @@ package edu.sdsu.rocket.server.io.radio;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 
+import edu.sdsu.rocket.core.helpers.PeriodicTimer;
+import edu.sdsu.rocket.core.helpers.Stopwatch;
+import edu.sdsu.rocket.core.io.radio.TelemetryField;
+import edu.sdsu.rocket.core.io.radio.TelemetryScheduler;
+import edu.sdsu.rocket.core.io.radio.api.APIFrame;
+import edu.sdsu.rocket.core.io.radio.api.TXRequest;
 import edu.sdsu.rocket.core.models.Sensors;
 import edu.sdsu.rocket.server.devices.DeviceManager.Device;
 
+/**
+ * Sends sensor telemetry within the bandwidth of the radio link (see
+ * {@link TelemetryScheduler}).
+ */
 public class SensorsTransmitter implements Device {
 	
-	static final int BUFFER_SIZE = XTend900.BUFFER_SIZE;
-	private static final ByteBuffer WRITE_BUFFER = ByteBuffer.allocate(BUFFER_SIZE);
+	// fraction of the link throughput to schedule, leaving margin for
+	// escaped characters and RF retries
+	private static final float UTILIZATION = TelemetryScheduler.DEFAULT_UTILIZATION;
 	
 	private final XTend900 radio;
-	private final Sensors sensors;
+	private final Stopwatch clock;
+	private final TelemetryScheduler scheduler;
 
-	public SensorsTransmitter(XTend900 radio, Sensors sensors) {
+	/**
+	 * @param clock Clock of the analog sample timestamps, which also
+	 *              schedules and timestamps every other field.
+	 */
+	public SensorsTransmitter(XTend900 radio, Sensors sensors, Stopwatch clock) {
 		this.radio = radio;
-		this.sensors = sensors;
+		this.clock = clock;
+		this.scheduler = new TelemetryScheduler(sensors);
+		
+		// pressures and loads first, then position, then housekeeping
+		for (int i = 0; i < sensors.analog.length; i++) {
+			scheduler.add(TelemetryField.analog(i), 10, 3);
+		}
+		scheduler.add(TelemetryField.GPS_POSITION, 1, 2);
+		scheduler.add(TelemetryField.GPS_FIX, 0.2, 1);
+		scheduler.add(TelemetryField.RADIO_SIGNAL, 1, 0);
+		scheduler.add(TelemetryField.SYSTEM_TEMPERATURE, 0.2, 0);
+		
+		configure(radio.getConfig());
+	}
+	
+	/**
+	 * Derives the byte budget and per-frame overhead from the radio
+	 * configuration; call again if the configuration changes.
+	 */
+	public void configure(XTend900Config config) {
+		scheduler.setBandwidth(config.getBytesPerSecond() * UTILIZATION);
+		switch (config.getAPIEnable()) {
+		case ENABLED_WITHOUT_ESCAPED_CHARACTERS:
+		case ENABLED_WITH_ESCAPED_CHARACTERS:
+			scheduler.setFrameOverhead(APIFrame.FRAME_OVERHEAD + TXRequest.HEADER_LENGTH);
+			break;
+		default: // DISABLED
+			scheduler.setFrameOverhead(0);
+			break;
+		}
+	}
+	
+	public TelemetryScheduler getScheduler() {
+		return scheduler;
 	}
 
 	@Override
 	public void loop() throws IOException, InterruptedException {
 		if (radio.isOn()) {
-			WRITE_BUFFER.clear();
-			sensors.toByteBuffer(WRITE_BUFFER);
-//			WRITE_BUFFER.put((byte) 0xF0); // for debugging
-			byte[] data = new byte[WRITE_BUFFER.position()];
-			WRITE_BUFFER.rewind();
-			WRITE_BUFFER.get(data);
-			radio.send(data);
+			ByteBuffer frame = scheduler.poll(clock.nanoSecondsElapsed());
+			if (frame != null) {
+				radio.send(frame, TXQueue.NO_KEY);
+			}
+			long deadline = scheduler.getNextDeadline(clock.nanoSecondsElapsed());
+			PeriodicTimer.sleepUntil(clock.toNanoTime(deadline), PeriodicTimer.DEFAULT_SPIN_THRESHOLD);
 		} else {
 			Thread.sleep(500L);
 		}
 	}
+	
+	@Override
+	public String toString() {
+		return scheduler + "; TX queue: " + radio.getTXQueue();
+	}
 
 }
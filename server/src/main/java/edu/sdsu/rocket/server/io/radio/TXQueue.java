@@ -0,0 +1,226 @@
+package edu.sdsu.rocket.server.io.radio;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Bounded queue of outgoing radio payloads.
+ * 
+ * Payloads are copied into preallocated slots so enqueuing does not allocate
+ * and never blocks the caller. When the queue is full the oldest payload is
+ * dropped; with {@link OverflowPolicy#COALESCE} a payload replaces a queued
+ * payload with the same key instead (so only the latest value of e.g. a status
+ * message is sent), keeping its place in the queue and the time it was queued
+ * so latency is still measured from the first of the payloads it replaced.
+ */
+public class TXQueue {
+	
+	public enum OverflowPolicy {
+		DROP_OLDEST,
+		COALESCE,
+	}
+	
+	public interface Encoder {
+		/**
+		 * Encodes the payload (position to limit) into {@code out}.
+		 */
+		void encode(ByteBuffer payload, ByteBuffer out);
+	}
+	
+	public static final int NO_KEY = -1;
+	
+	private static class Slot {
+		final ByteBuffer payload;
+		int key;
+		long enqueued; // System.nanoTime()
+		
+		Slot(int capacity) {
+			payload = ByteBuffer.allocate(capacity);
+		}
+	}
+	
+	private final Slot[] slots;
+	private int head; // index of oldest
+	private int size;
+	
+	private OverflowPolicy policy = OverflowPolicy.DROP_OLDEST;
+	
+	private int maximumDepth;
+	private long dropped;
+	private long coalesced;
+	private long sent;
+	private long totalLatency;
+	private long maximumLatency;
+	
+	/**
+	 * @param capacity Number of payloads that may be queued.
+	 * @param maximumPayload Maximum size of a payload (in bytes).
+	 */
+	public TXQueue(int capacity, int maximumPayload) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+		}
+		slots = new Slot[capacity];
+		for (int i = 0; i < capacity; i++) {
+			slots[i] = new Slot(maximumPayload);
+		}
+	}
+	
+	public synchronized void setOverflowPolicy(OverflowPolicy policy) {
+		this.policy = policy;
+	}
+	
+	public synchronized OverflowPolicy getOverflowPolicy() {
+		return policy;
+	}
+	
+	public int getCapacity() {
+		return slots.length;
+	}
+	
+	/**
+	 * Queues the payload (position to limit) without a key.
+	 */
+	public boolean offer(ByteBuffer payload) {
+		return offer(payload, NO_KEY);
+	}
+	
+	/**
+	 * Queues a copy of the payload (position to limit), consuming it.
+	 * 
+	 * @param key Identifies payloads that supersede each other when coalescing
+	 *            ({@link #NO_KEY} to never coalesce).
+	 * @return {@code true} if a queued payload was dropped or replaced.
+	 */
+	public synchronized boolean offer(ByteBuffer payload, int key) {
+		if (payload.remaining() > slots[0].payload.capacity()) {
+			throw new IllegalArgumentException("Payload of " + payload.remaining() + " bytes exceeds maximum of " + slots[0].payload.capacity());
+		}
+		
+		long now = System.nanoTime();
+		boolean isDropped = false;
+		
+		if (size == slots.length && policy == OverflowPolicy.COALESCE && key != NO_KEY) {
+			for (int i = size - 1; i >= 0; i--) {
+				Slot slot = slots[(head + i) % slots.length];
+				if (slot.key == key) {
+					put(slot, payload, key, slot.enqueued);
+					coalesced++;
+					return true;
+				}
+			}
+		}
+		
+		if (size == slots.length) {
+			head = (head + 1) % slots.length;
+			size--;
+			dropped++;
+			isDropped = true;
+		}
+		
+		put(slots[(head + size) % slots.length], payload, key, now);
+		size++;
+		if (size > maximumDepth) maximumDepth = size;
+		notifyAll();
+		return isDropped;
+	}
+	
+	private static void put(Slot slot, ByteBuffer payload, int key, long enqueued) {
+		slot.payload.clear();
+		slot.payload.put(payload);
+		slot.payload.flip();
+		slot.key = key;
+		slot.enqueued = enqueued;
+	}
+	
+	/**
+	 * Waits for a payload and encodes it into {@code out} (the slot is released
+	 * as soon as it has been encoded).
+	 * 
+	 * @return Time the payload was queued (System.nanoTime()).
+	 */
+	public synchronized long take(ByteBuffer out, Encoder encoder) throws InterruptedException {
+		while (size == 0) {
+			wait();
+		}
+		Slot slot = slots[head];
+		head = (head + 1) % slots.length;
+		size--;
+		
+		encoder.encode(slot.payload, out);
+		return slot.enqueued;
+	}
+	
+	/**
+	 * Records that a payload queued at {@code enqueued} has been written.
+	 */
+	public synchronized void onSent(long enqueued) {
+		long latency = System.nanoTime() - enqueued;
+		sent++;
+		totalLatency += latency;
+		if (latency > maximumLatency) maximumLatency = latency;
+	}
+	
+	public synchronized void clear() {
+		head = 0;
+		size = 0;
+	}
+	
+	/**
+	 * Number of payloads waiting to be written.
+	 */
+	public synchronized int getDepth() {
+		return size;
+	}
+	
+	public synchronized int getMaximumDepth() {
+		return maximumDepth;
+	}
+	
+	/**
+	 * Number of payloads dropped because the queue was full.
+	 */
+	public synchronized long getDropped() {
+		return dropped;
+	}
+	
+	/**
+	 * Number of payloads replaced by a newer payload with the same key because
+	 * the queue was full.
+	 */
+	public synchronized long getCoalesced() {
+		return coalesced;
+	}
+	
+	public synchronized long getSent() {
+		return sent;
+	}
+	
+	/**
+	 * Mean time from queuing a payload to it being written to the serial port
+	 * (in nanoseconds).
+	 */
+	public synchronized long getMeanLatency() {
+		return sent == 0 ? 0 : totalLatency / sent;
+	}
+	
+	public synchronized long getMaximumLatency() {
+		return maximumLatency;
+	}
+	
+	public synchronized void resetStatistics() {
+		maximumDepth = size;
+		dropped = 0;
+		coalesced = 0;
+		sent = 0;
+		totalLatency = 0;
+		maximumLatency = 0;
+	}
+	
+	@Override
+	public synchronized String toString() {
+		return "depth=" + size + "/" + slots.length + " (max " + maximumDepth + "), sent=" + sent
+				+ ", dropped=" + dropped + ", coalesced=" + coalesced
+				+ ", latency=" + getMeanLatency() / 1000L + " us (max " + maximumLatency / 1000L + " us)";
+	}
+	
+}
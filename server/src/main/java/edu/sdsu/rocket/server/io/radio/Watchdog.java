@@ -1,9 +1,10 @@
 package edu.sdsu.rocket.server.io.radio;
 
 import edu.sdsu.rocket.core.helpers.RateLimitedRunnable;
-import edu.sdsu.rocket.server.io.radio.api.RFModuleStatus;
-import edu.sdsu.rocket.server.io.radio.api.RXPacket;
-import edu.sdsu.rocket.server.io.radio.api.TXStatus;
+import edu.sdsu.rocket.core.io.radio.APIFrameListener;
+import edu.sdsu.rocket.core.io.radio.api.RFModuleStatus;
+import edu.sdsu.rocket.core.io.radio.api.RXPacket;
+import edu.sdsu.rocket.core.io.radio.api.TXStatus;
 
 public class Watchdog implements APIFrameListener {
 	
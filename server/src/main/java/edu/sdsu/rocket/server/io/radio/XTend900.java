@@ -1,21 +1,21 @@
 package edu.sdsu.rocket.server.io.radio;
 
-import com.pi4j.io.gpio.*;
-import com.pi4j.io.serial.Serial;
-import com.pi4j.io.serial.SerialDataEvent;
-import com.pi4j.io.serial.SerialDataEventListener;
-import edu.sdsu.rocket.server.io.radio.api.APIFrame;
-import edu.sdsu.rocket.server.io.radio.api.TXRequest;
+import edu.sdsu.rocket.core.io.radio.APIFrameHandler;
+import edu.sdsu.rocket.core.io.radio.APIFrameListener;
+import edu.sdsu.rocket.core.io.radio.api.APIFrame;
+import edu.sdsu.rocket.core.io.radio.api.TXRequest;
+import edu.sdsu.rocket.server.io.gpio.DigitalOutput;
+import edu.sdsu.rocket.server.io.serial.SerialPort;
 
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
-import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArrayList;
 
-public class XTend900 implements SerialDataEventListener {
+public class XTend900 implements SerialPort.SerialPortListener {
 	
 	public interface XTend900Listener {
 		void onRadioTurnedOff();
@@ -28,22 +28,52 @@ public class XTend900 implements SerialDataEventListener {
 	private final APIFrameHandler apiFrameHandler = new APIFrameHandler();
 	
 	static final int BUFFER_SIZE = APIFrame.MAXIMUM_FRAME_LENGTH;
-	private static final ByteBuffer WRITE_BUFFER = ByteBuffer.allocate(BUFFER_SIZE);
+	private final ByteBuffer WRITE_BUFFER = ByteBuffer.allocate(2 * BUFFER_SIZE); // only used by writer, every byte may be escaped
+	
+	static final int TX_QUEUE_CAPACITY = 16;
+	private final TXQueue txQueue = new TXQueue(TX_QUEUE_CAPACITY, APIFrame.MAXIMUM_FRAME_DATA_LENGTH - TXRequest.HEADER_LENGTH);
+	private Thread writer;
+	
+	// encodes queued data for the current API mode directly into the write buffer
+	private final TXQueue.Encoder encoder = new TXQueue.Encoder() {
+		@Override
+		public void encode(ByteBuffer payload, ByteBuffer out) {
+			switch (config.getAPIEnable()) {
+			case ENABLED_WITHOUT_ESCAPED_CHARACTERS:
+				TXRequest.encode(out, TXRequest.FRAME_ID_DISABLE, TXRequest.BROADCAST_ADDRESS, TXRequest.OPTIONS_DISABLE_ACK, payload, false);
+				break;
+			case ENABLED_WITH_ESCAPED_CHARACTERS:
+				TXRequest.encode(out, TXRequest.FRAME_ID_DISABLE, TXRequest.BROADCAST_ADDRESS, TXRequest.OPTIONS_DISABLE_ACK, payload, true);
+				break;
+			default: // DISABLED
+				out.put(payload);
+				break;
+			}
+		}
+	};
 
 	private OutputStream logOutputStream;
 	
 	private boolean isTXLedEnabled;
-	private GpioPinDigitalOutput txLed;
-	private GpioPinDigitalOutput shdn;
+	private final DigitalOutput txLed;
+	private final DigitalOutput shdn;
 	
-	private final Serial serial;
-	private boolean isCommandMode;
+	private final SerialPort serial;
+	private final ATCommandEngine commands;
 
 	private final XTend900Config config = new XTend900Config().setDefaults();
 
-	public XTend900(Serial serial) {
+	/**
+	 * @param serial Port the module is attached to.
+	 * @param shdn Output driving the module's SHDN input.
+	 * @param txLed Output driving the TX LED.
+	 */
+	public XTend900(SerialPort serial, DigitalOutput shdn, DigitalOutput txLed) {
 		this.serial = serial;
+		this.shdn = shdn;
+		this.txLed = txLed;
 		serial.addListener(this);
+		commands = new ATCommandEngine(serial);
 	}
 	
 	public synchronized XTend900 addListener(XTend900Listener ... listener) {
@@ -79,25 +109,27 @@ public class XTend900 implements SerialDataEventListener {
 	}
 	
 	public XTend900 setup() {
-		GpioController gpio = GpioFactory.getInstance();
-		shdn = gpio.provisionDigitalOutputPin(RaspiPin.GPIO_06, "SHDN", PinState.LOW);
-		txLed = gpio.provisionDigitalOutputPin(RaspiPin.GPIO_21, "TX_LED", PinState.LOW);
 		pulseTXLed(1000);
 		return this;
 	}
 
+    public XTend900Config getConfig() {
+        return config;
+    }
+    
     public void setConfig(XTend900Config config) {
         this.config.set(config);
+        apiFrameHandler.setEscaped(this.config.getAPIEnable() == XTend900Config.APIEnable.ENABLED_WITH_ESCAPED_CHARACTERS);
     }
 	
 	/**
-	 * Writes the provided configuration settings to the XTend 900.
+	 * Turns the module on (if required) and writes the configuration settings
+	 * in a single command mode session.
 	 * 
+	 * @return Future completed with the module's response to each command.
 	 * @throws IllegalStateException
-	 * @throws InterruptedException
-	 * @throws IOException
 	 */
-	public void writeConfig() throws IllegalStateException, InterruptedException, IOException {
+	public CompletableFuture<List<String>> writeConfig() throws IllegalStateException {
 		if (!serial.isOpen()) {
 			throw new IllegalStateException("Serial must be open before configuring " + getClass().getSimpleName());
 		}
@@ -106,127 +138,63 @@ public class XTend900 implements SerialDataEventListener {
 			turnOn();
 		}
 		
-		// setup serial listener to see command responses
-		SerialDataEventListener listener = new SerialDataEventListener() {
-			@Override
-			public void dataReceived(SerialDataEvent event) {
-				try {
-					System.out.println(event.getAsciiString());
-				} catch (IOException e) {
-					System.err.println(e);
-				}
-			}
-		};
-		serial.addListener(listener);
-		
-		if (!isCommandMode) {
-			enterCommandMode();
-		}
-		
+		List<String> c = config.getCommands();
+		c.add(XTend900Config.Command.EXIT_COMMAND_MODE.getText());
 		System.out.println(config + "," + XTend900Config.Command.EXIT_COMMAND_MODE.getText());
-		serial.write(config + "," + XTend900Config.Command.EXIT_COMMAND_MODE.getText() + "\r");
-		serial.flush();
-		
-		Thread.sleep(500L);
-		isCommandMode = false;
-		
-		// clean up serial listener
-		serial.removeListener(listener);
+		return commands.execute(c.toArray(new String[c.size()]));
 	}
 	
-	public XTend900 enterCommandMode() throws IllegalStateException, IOException, InterruptedException {
-		if (isCommandMode) return this;
-		
-		isCommandMode = true;
-		serial.flush();
-		Thread.sleep(200L);
-		
-		System.out.println(XTend900Config.Command.ENTER_AT_COMMAND_MODE.getText());
-		serial.write(XTend900Config.Command.ENTER_AT_COMMAND_MODE.getText());
-		serial.flush();
-		Thread.sleep(1200L);
-		
-		return this;
+	public ATCommandEngine getCommandEngine() {
+		return commands;
 	}
 	
-	public XTend900 requestFirmwareVersionShort() throws IllegalStateException, IOException, InterruptedException {
-		enterCommandMode();
-		String cmd = XTend900Config.COMMAND_PREFIX + XTend900Config.Command.FIRMWARE_VERSION_SHORT.getText();
-		System.out.println(cmd + " [Firmware Version Short]");
-		writeCommand(cmd);
-		return this;
+	public CompletableFuture<Void> enterCommandMode() {
+		return commands.enterCommandMode();
 	}
 	
-	public XTend900 requestFirmwareVersionVerbose() throws IllegalStateException, IOException, InterruptedException {
-		enterCommandMode();
-		String cmd = XTend900Config.COMMAND_PREFIX + XTend900Config.Command.FIRMWARE_VERSION_VERBOSE.getText();
-		System.out.println(cmd + " [Firmware Version Verbose]");
-		writeCommand(cmd);
-		return this;
+	public CompletableFuture<String> requestFirmwareVersionShort() {
+		return commands.query(XTend900Config.Command.FIRMWARE_VERSION_SHORT);
 	}
 	
-	public XTend900 requestBoardVoltage() throws IllegalStateException, IOException, InterruptedException {
-		enterCommandMode();
-		String cmd = XTend900Config.COMMAND_PREFIX + XTend900Config.Command.BOARD_VOLTAGE.getText();
-		System.out.println(cmd + " [Board Voltage]");
-		writeCommand(cmd);
-		return this;
+	public CompletableFuture<String> requestFirmwareVersionVerbose() {
+		return commands.query(XTend900Config.Command.FIRMWARE_VERSION_VERBOSE);
 	}
 	
-	public XTend900 requestReceivedSignalStrength() throws IllegalStateException, IOException, InterruptedException {
-		enterCommandMode();
-		String cmd = XTend900Config.COMMAND_PREFIX + XTend900Config.Command.RECEIVED_SIGNAL_STRENGTH.getText();
-		System.out.println(cmd + " [Received Signal Strength]");
-		writeCommand(cmd);
-		return this;
+	public CompletableFuture<String> requestBoardVoltage() {
+		return commands.query(XTend900Config.Command.BOARD_VOLTAGE);
 	}
 	
-	public XTend900 requestHardwareVersion() throws IllegalStateException, IOException, InterruptedException {
-		enterCommandMode();
-		String cmd = XTend900Config.COMMAND_PREFIX + XTend900Config.Command.HARDWARE_VERSION.getText();
-		System.out.println(cmd + " [Hardware Version]");
-		writeCommand(cmd);
-		return this;
+	public CompletableFuture<String> requestReceivedSignalStrength() {
+		return commands.query(XTend900Config.Command.RECEIVED_SIGNAL_STRENGTH);
 	}
 	
-	public XTend900 requestBoardTemperature() throws IllegalStateException, IOException, InterruptedException {
-		enterCommandMode();
-		String cmd = XTend900Config.COMMAND_PREFIX + XTend900Config.Command.BOARD_TEMPERATURE.getText();
-		System.out.println(cmd + " [Board Temperature]");
-		writeCommand(cmd);
-		return this;
+	public CompletableFuture<String> requestHardwareVersion() {
+		return commands.query(XTend900Config.Command.HARDWARE_VERSION);
 	}
 	
-	public XTend900 exitCommandMode() throws IllegalStateException, IOException, InterruptedException {
-		String cmd = XTend900Config.COMMAND_PREFIX + XTend900Config.Command.EXIT_COMMAND_MODE.getText();
-		System.out.println(cmd + " [Exit Command Mode]");
-		writeCommand(cmd);
-		isCommandMode = false;
-		return this;
+	public CompletableFuture<String> requestBoardTemperature() {
+		return commands.query(XTend900Config.Command.BOARD_TEMPERATURE);
 	}
 	
-	private void writeCommand(String string) throws IllegalStateException, IOException {
-		serial.write(string + "\r");
-		serial.flush();
-		try {
-			Thread.sleep(500L);
-		} catch (InterruptedException e) {
-			System.err.println(e);
-		}
+	public CompletableFuture<List<String>> exitCommandMode() {
+		return commands.execute(XTend900Config.Command.EXIT_COMMAND_MODE.getText());
 	}
 	
 	public XTend900 turnOn() {
 		shdn.high();
+		commands.reset();
 		return this;
 	}
 	
 	public XTend900 turnOff() {
 		shdn.low();
+		commands.reset();
 		return this;
 	}
 	
 	public XTend900 toggle() {
 		shdn.toggle();
+		commands.reset();
 		return this;
 	}
 	
@@ -235,56 +203,90 @@ public class XTend900 implements SerialDataEventListener {
 	}
 	
 	public boolean isOff() {
-		return shdn.isLow();
+		return !shdn.isHigh();
+	}
+	
+	/**
+	 * Queues data for transmission by the writer thread (see {@link #start()}).
+	 */
+	public void send(byte[] data) throws IllegalStateException {
+		send(ByteBuffer.wrap(data), TXQueue.NO_KEY);
 	}
 	
-	synchronized public void send(byte[] data) throws IllegalStateException, IOException {
+	/**
+	 * Queues a copy of the data (position to limit) for transmission by the
+	 * writer thread without blocking or allocating; data is dropped while
+	 * commands are running.
+	 * 
+	 * @param key Identifies data superseded by newer data with the same key
+	 *            (see {@link TXQueue.OverflowPolicy#COALESCE}).
+	 */
+	public void send(ByteBuffer data, int key) throws IllegalStateException {
 		if (!isOn()) {
 			throw new IllegalStateException(getClass().getSimpleName() + " must be on to send");
 		}
-		if (isCommandMode) {
+		if (commands.isBusy()) {
 			return;
 		}
 		
-		switch (config.getAPIEnable()) {
-		case ENABLED_WITHOUT_ESCAPED_CHARACTERS:
-			write(new TXRequest(TXRequest.FRAME_ID_DISABLE, TXRequest.BROADCAST_ADDRESS, TXRequest.OPTIONS_DISABLE_ACK, data));
-			break;
-		case ENABLED_WITH_ESCAPED_CHARACTERS:
-			throw new UnsupportedOperationException("API frame with escaped characters not implemented");
-		default: // DISABLED
-			write(data);
-			break;
-		}
+		txQueue.offer(data, key);
 	}
 	
-	private void write(TXRequest txRequest) throws IllegalStateException, IOException {
-		byte[] frameData = txRequest.getFrameData();
-		byte checksum = txRequest.getChecksum();
-		write(new APIFrame(frameData, checksum));
+	public TXQueue getTXQueue() {
+		return txQueue;
 	}
 	
-	private void write(APIFrame frame) throws IllegalStateException, IOException {
-		WRITE_BUFFER.clear();
-		WRITE_BUFFER.put(frame.getStartDelimiter());
-		WRITE_BUFFER.putShort(frame.getLength());
-		WRITE_BUFFER.put(frame.getFrameData());
-		WRITE_BUFFER.put(frame.getChecksum());
-		
-		byte[] data = new byte[WRITE_BUFFER.position()];
-		WRITE_BUFFER.rewind();
-		WRITE_BUFFER.get(data);
-		
-		int offset = 0;
-		int length = data.length;
-		serial.write(data, offset, length);
-		
-		pulseTXLed(length);
+	/**
+	 * Starts the thread writing queued data to the serial port.
+	 */
+	public void start() {
+		if (writer != null) {
+			throw new IllegalStateException(getClass().getSimpleName() + " already started");
+		}
+		writer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					while (!Thread.currentThread().isInterrupted()) {
+						WRITE_BUFFER.clear();
+						long enqueued = txQueue.take(WRITE_BUFFER, encoder);
+						try {
+							if (commands.write(WRITE_BUFFER.array(), WRITE_BUFFER.arrayOffset(), WRITE_BUFFER.position())) {
+								txQueue.onSent(enqueued);
+								pulseTXLed(WRITE_BUFFER.position());
+							}
+						} catch (IllegalStateException | IOException e) {
+							System.err.println(e);
+						}
+					}
+				} catch (InterruptedException e) {
+					System.err.println(e);
+				}
+			}
+		});
+		writer.setName(getClass().getSimpleName() + "-tx");
+		writer.start();
 	}
 	
-	private void write(byte[] data) throws IllegalStateException, IOException {
-		serial.write(data);
-		pulseTXLed(data.length);
+	public void stop() {
+		if (writer != null) {
+			writer.interrupt();
+			try {
+				writer.join();
+			} catch (InterruptedException e) {
+				System.err.println(e);
+			}
+			writer = null;
+		}
+		txQueue.clear();
+	}
+	
+	/**
+	 * Stops the writer thread and the command engine.
+	 */
+	public void close() {
+		stop();
+		commands.close();
 	}
 	
 	private void pulseTXLed(long duration) {
@@ -293,29 +295,37 @@ public class XTend900 implements SerialDataEventListener {
 		}
 	}
 
+	/**
+	 * Passes received bytes straight to the API frame parser (only raw data
+	 * mode copies the bytes out for listeners); bytes received while commands
+	 * are running are responses for the command engine.
+	 */
 	@Override
-	public void dataReceived(SerialDataEvent event) {
-		try {
-			byte[] data = event.getBytes();
-			if (logOutputStream != null) {
-				logOutputStream.write(data, 0 /* offset */, data.length);
+	public void onDataReceived(ByteBuffer data) {
+		if (logOutputStream != null) {
+			try {
+				logOutputStream.write(data.array(), data.arrayOffset() + data.position(), data.remaining());
+			} catch (IOException e) {
+				System.err.println(e);
 			}
-			
-			switch (config.getAPIEnable()) {
-			case ENABLED_WITHOUT_ESCAPED_CHARACTERS:
-				apiFrameHandler.onData(data);
-				break;
-			case ENABLED_WITH_ESCAPED_CHARACTERS:
-				throw new UnsupportedOperationException("API frame with escaped characters not implemented");
-			default: // DISABLED
-				Collection<XTend900Listener> listenersCopy = new ArrayList<XTend900Listener>(listeners);
-		        for (XTend900Listener listener : listenersCopy) {
-	                listener.onDataReceived(data);
-		        }
-				break;
+		}
+		
+		if (commands.isBusy()) {
+			return;
+		}
+		
+		switch (config.getAPIEnable()) {
+		case ENABLED_WITHOUT_ESCAPED_CHARACTERS:
+		case ENABLED_WITH_ESCAPED_CHARACTERS:
+			apiFrameHandler.onData(data);
+			break;
+		default: // DISABLED
+			byte[] bytes = new byte[data.remaining()];
+			data.get(bytes);
+			for (XTend900Listener listener : listeners) {
+				listener.onDataReceived(bytes);
 			}
-		} catch (IOException e) {
-			System.err.println(e);
+			break;
 		}
 	}
 
@@ -34,7 +34,7 @@ public class XTend900Config {
             return text;
         }
     }
-    static final String COMMAND_PREFIX = "AT";
+    public static final String COMMAND_PREFIX = "AT";
     static final String COMMAND_SEPARATOR = ",";
     
     public enum APIEnable {
@@ -46,6 +46,12 @@ public class XTend900Config {
         APIEnable(int parameter) {
             this.parameter = parameter;
         }
+        public static APIEnable valueOf(int value) {
+            for (APIEnable v : values()) {
+                if (value == v.parameter) return v;
+            }
+            return DISABLED;
+        }
         public String getText() {
             return Command.API_ENABLE.getText() + parameter;
         }
@@ -71,18 +77,29 @@ public class XTend900Config {
         public int getBaud() {
             return baud;
         }
+        public static InterfaceDataRate valueOf(int value) {
+            for (InterfaceDataRate v : values()) {
+                if (value == v.parameter) return v;
+            }
+            return BAUD_9600;
+        }
         public String getText() {
             return Command.INTERFACE_DATA_RATE.getText() + parameter;
         }
     }
     
     public enum RFDataRate {
-        BAUD_9600  (0),
-        BAUD_115200(1), // default
+        BAUD_9600  (0, 9600),
+        BAUD_115200(1, 115200), // default
         ;
         final int parameter;
-        RFDataRate(int parameter) {
+        final int baud;
+        RFDataRate(int parameter, int baud) {
             this.parameter = parameter;
+            this.baud = baud;
+        }
+        public int getBaud() {
+            return baud;
         }
         public static RFDataRate valueOf(int value) {
             for (RFDataRate v : values()) {
@@ -260,6 +277,15 @@ public class XTend900Config {
         return rfDataRate;
     }
     
+    /**
+     * Sustained throughput of the link in bytes per second (8N1 serial, limited
+     * by the slower of the interface and RF data rates).
+     */
+    public int getBytesPerSecond() {
+        int baud = Math.min(interfaceDataRate.getBaud(), rfDataRate.getBaud());
+        return baud / 10;
+    }
+    
     public XTend900Config setGPO2Configuration(GPO2Configuration gpo2Configuration) {
         this.gpo2Configuration = gpo2Configuration;
         return this;
@@ -359,8 +385,10 @@ public class XTend900Config {
         return this;
     }
     
-    @Override
-    public String toString() {
+    /**
+     * Commands (without the "AT" prefix) setting each configured parameter.
+     */
+    public List<String> getCommands() {
         List<String> commands = new ArrayList<>();
         if (autosetMy)                  commands.add(Command.AUTOSET_MY.text);
         if (apiEnable != null)          commands.add(apiEnable.getText());
@@ -373,7 +401,12 @@ public class XTend900Config {
         if (txPowerLevel != null)       commands.add(txPowerLevel.getText());
         if (retries != null)            commands.add(Command.RETRIES.getText() + String.format("%x", retries).toUpperCase());
         if (transmitOnly != null)       commands.add(transmitOnly.getText());
+        return commands;
+    }
 
+    @Override
+    public String toString() {
+        List<String> commands = getCommands();
         if (commands.size() == 0) {
             return "";
         }
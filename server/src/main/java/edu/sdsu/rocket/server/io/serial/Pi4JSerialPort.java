@@ -0,0 +1,86 @@
+package edu.sdsu.rocket.server.io.serial;
+
+import com.pi4j.io.serial.Serial;
+import com.pi4j.io.serial.SerialDataEvent;
+import com.pi4j.io.serial.SerialDataEventListener;
+import com.pi4j.io.serial.SerialDataReader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Serial port backed by a Pi4J {@link Serial}; received bytes are read into a reused buffer.
+ */
+public class Pi4JSerialPort implements SerialPort, SerialDataEventListener {
+
+    private static final int BUFFER_SIZE = 4096; // bytes
+
+    private final Serial serial;
+    private final ByteBuffer READ_BUFFER = ByteBuffer.allocate(BUFFER_SIZE);
+    private final CopyOnWriteArrayList<SerialPortListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param serial Opened serial port.
+     */
+    public Pi4JSerialPort(Serial serial) {
+        this.serial = serial;
+        serial.addListener(this);
+    }
+
+    @Override
+    public void addListener(SerialPortListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeListener(SerialPortListener listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public boolean isOpen() {
+        return serial.isOpen();
+    }
+
+    @Override
+    public void write(byte[] data, int offset, int length) throws IOException {
+        serial.write(data, offset, length);
+    }
+
+    @Override
+    public void write(String data) throws IOException {
+        serial.write(data);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        serial.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serial.removeListener(this);
+        serial.close();
+    }
+
+    @Override
+    public void dataReceived(SerialDataEvent event) {
+        try {
+            SerialDataReader reader = event.getReader();
+            int available;
+            while ((available = reader.available()) > 0) {
+                READ_BUFFER.clear();
+                reader.read(Math.min(available, READ_BUFFER.capacity()), READ_BUFFER);
+                READ_BUFFER.flip();
+                for (SerialPortListener listener : listeners) {
+                    READ_BUFFER.rewind();
+                    listener.onDataReceived(READ_BUFFER);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println(e);
+        }
+    }
+
+}
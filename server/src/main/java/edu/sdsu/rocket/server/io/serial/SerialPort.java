@@ -0,0 +1,40 @@
+package edu.sdsu.rocket.server.io.serial;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Byte stream to a device attached to a serial port (e.g. a radio module).
+ */
+public interface SerialPort {
+
+    interface SerialPortListener {
+        /**
+         * Called from the thread reading the port.
+         *
+         * @param data Bytes received (position to limit), only valid for the duration of the call.
+         */
+        void onDataReceived(ByteBuffer data);
+    }
+
+    void addListener(SerialPortListener listener);
+
+    void removeListener(SerialPortListener listener);
+
+    boolean isOpen();
+
+    void write(byte[] data, int offset, int length) throws IOException;
+
+    /**
+     * Writes the characters of the string as ASCII.
+     */
+    void write(String data) throws IOException;
+
+    /**
+     * Waits for written bytes to be transmitted.
+     */
+    void flush() throws IOException;
+
+    void close() throws IOException;
+
+}
@@ -0,0 +1,69 @@
+import edu.sdsu.rocket.server.devices.ADS1115;
+import edu.sdsu.rocket.server.devices.DeviceManager;
+import edu.sdsu.rocket.server.devices.I2CBusScheduler;
+import edu.sdsu.rocket.server.devices.mock.MockADS1115;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ADS1115ScanTest {
+
+    private static final ADS1115.Multiplexer[] INPUTS = new ADS1115.Multiplexer[] {
+            ADS1115.Multiplexer.MUX_SINGLE_0,
+            ADS1115.Multiplexer.MUX_DIFF_0_1,
+            ADS1115.Multiplexer.MUX_SINGLE_2,
+            ADS1115.Multiplexer.MUX_DIFF_2_3,
+    };
+
+    private static final long TRANSACTION_TIME = TimeUnit.MICROSECONDS.toNanos(250); // about 100 kHz
+
+    private static float level(int input) {
+        return 1000f * (input + 1);
+    }
+
+    @Test(timeout = 10000)
+    public void attributionTest() throws IOException, InterruptedException {
+        final MockADS1115 adc = new MockADS1115();
+        adc.setup()
+                .setMode(ADS1115.Mode.MODE_SINGLE)
+                .setRate(ADS1115.Rate.DR_860SPS)
+                .setScan(INPUTS);
+        for (int i = 0; i < INPUTS.length; i++) {
+            adc.setLevel(INPUTS[i], level(i));
+        }
+        adc.setTransactionTime(TRANSACTION_TIME);
+        adc.beginScan();
+
+        final long[] samples = new long[INPUTS.length];
+        final long[] misattributed = new long[INPUTS.length];
+        I2CBusScheduler scheduler = new I2CBusScheduler(1);
+        scheduler.add("A0", new DeviceManager.Device() {
+            @Override
+            public void loop() throws IOException {
+                // as polled by the application
+                if (adc.isPerformingConversion()) {
+                    return;
+                }
+                int input = adc.getScanIndex();
+                float value = adc.readScan();
+                samples[input]++;
+                if (value != level(input)) {
+                    misattributed[input]++;
+                }
+            }
+        }, adc.getScanPollRate());
+        scheduler.start();
+        Thread.sleep(300);
+        scheduler.stop();
+
+        for (int i = 0; i < INPUTS.length; i++) {
+            assertTrue(INPUTS[i] + " scanned", samples[i] > 0);
+            assertEquals(INPUTS[i] + " values of another input", 0, misattributed[i]);
+        }
+    }
+
+}
@@ -0,0 +1,121 @@
+import edu.sdsu.rocket.server.devices.mock.MockDigitalOutput;
+import edu.sdsu.rocket.server.devices.mock.SimulatedXTend900;
+import edu.sdsu.rocket.server.io.radio.ATCommandEngine;
+import edu.sdsu.rocket.server.io.radio.XTend900;
+import edu.sdsu.rocket.server.io.radio.XTend900Config;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ATCommandEngineTest {
+
+    private static final long GUARD_TIME = 100; // ms
+    private static final int PAYLOAD = 32; // bytes
+    private static final int HOST_BUFFER_SIZE = 256; // bytes
+
+    private SimulatedXTend900 module;
+    private XTend900 radio;
+    private ATCommandEngine commands;
+
+    @Before
+    public void setUp() {
+        module = new SimulatedXTend900(HOST_BUFFER_SIZE, SimulatedXTend900.DEFAULT_MODULE_BUFFER_SIZE, 0L);
+        module.setGuardTime(TimeUnit.MILLISECONDS.toNanos(GUARD_TIME));
+        module.start();
+
+        radio = new XTend900(module, module.getShutdownPin(), new MockDigitalOutput());
+        commands = radio.getCommandEngine().setGuardTime(GUARD_TIME);
+        radio.turnOn();
+        radio.start();
+    }
+
+    @After
+    public void tearDown() {
+        radio.close();
+        module.close();
+    }
+
+    /**
+     * Sends telemetry faster than the link rate until interrupted, keeping the serial buffer full.
+     */
+    private Thread telemetry() {
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                byte[] payload = new byte[PAYLOAD];
+                while (!Thread.currentThread().isInterrupted()) {
+                    radio.send(payload);
+                    try {
+                        Thread.sleep(5);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    @Test(timeout = 60000)
+    public void commandsDuringTelemetryTest() throws Exception {
+        Thread telemetry = telemetry();
+        try {
+            for (int i = 0; i < 5; i++) {
+                Thread.sleep(200); // let the serial buffer fill
+                List<String> responses = commands.execute(
+                        XTend900Config.Command.FIRMWARE_VERSION_SHORT.getText(),
+                        XTend900Config.Command.INTERFACE_DATA_RATE.getText()
+                ).get(10, TimeUnit.SECONDS);
+                assertEquals(Arrays.asList("2014", "3"), responses);
+                assertTrue(commands.isBusy()); // still in command mode, so data is held off
+
+                long sent = radio.getTXQueue().getSent();
+                Thread.sleep(50);
+                assertEquals(sent, radio.getTXQueue().getSent());
+
+                assertEquals(Arrays.asList(ATCommandEngine.OK),
+                        radio.exitCommandMode().get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            telemetry.interrupt();
+            telemetry.join();
+        }
+        assertTrue(radio.getTXQueue().getSent() > 0);
+    }
+
+    @Test(timeout = 60000)
+    public void closeTest() throws Exception {
+        CompletableFuture<List<String>> running = commands.execute(XTend900Config.Command.FIRMWARE_VERSION_SHORT.getText());
+        CompletableFuture<List<String>> waiting = commands.execute(XTend900Config.Command.HARDWARE_VERSION.getText());
+        Thread.sleep(GUARD_TIME / 2); // while waiting for the guard time
+        commands.close();
+
+        try {
+            running.get(10, TimeUnit.SECONDS);
+            fail("Call completed after close");
+        } catch (ExecutionException e) {
+            assertTrue(String.valueOf(e.getCause()), e.getCause() instanceof InterruptedException);
+        }
+        assertTrue(waiting.isCancelled());
+
+        try {
+            commands.execute(XTend900Config.Command.FIRMWARE_VERSION_SHORT.getText()).get();
+            fail("Call accepted after close");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+    }
+
+}
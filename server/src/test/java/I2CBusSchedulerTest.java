@@ -0,0 +1,149 @@
+import edu.sdsu.rocket.server.devices.ADS1115;
+import edu.sdsu.rocket.server.devices.DeviceManager;
+import edu.sdsu.rocket.server.devices.I2CBusScheduler;
+import edu.sdsu.rocket.server.devices.mock.MockADS1115;
+import edu.sdsu.rocket.server.io.gpio.EdgeSource;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class I2CBusSchedulerTest {
+
+    private static final int DEVICES = 4;
+
+    /**
+     * A device which is signalled again as soon as it has run, like an ADC whose conversion-ready edges arrive faster
+     * than the bus can read it.
+     */
+    private static class SaturatedDevice implements DeviceManager.Device {
+        final AtomicLong loops = new AtomicLong();
+        volatile I2CBusScheduler.TriggeredTask task;
+
+        @Override
+        public void loop() {
+            loops.incrementAndGet();
+            task.signal();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void triggeredFairnessTest() throws InterruptedException {
+        I2CBusScheduler scheduler = new I2CBusScheduler(1);
+        SaturatedDevice[] devices = new SaturatedDevice[DEVICES];
+        for (int i = 0; i < DEVICES; i++) {
+            devices[i] = new SaturatedDevice();
+            devices[i].task = scheduler.addTriggered("ADS1115-" + i, devices[i]);
+        }
+        for (SaturatedDevice device : devices) {
+            device.task.signal();
+        }
+        scheduler.start();
+        Thread.sleep(200);
+        scheduler.stop();
+
+        long min = Long.MAX_VALUE;
+        long max = 0;
+        for (SaturatedDevice device : devices) {
+            min = Math.min(min, device.loops.get());
+            max = Math.max(max, device.loops.get());
+        }
+        assertTrue("every device serviced: min=" + min, min > 0);
+        assertTrue("devices serviced in turn: min=" + min + ", max=" + max, max - min <= 1);
+    }
+
+    @Test(timeout = 10000)
+    public void periodicNotStarvedTest() throws InterruptedException {
+        I2CBusScheduler scheduler = new I2CBusScheduler(1);
+        SaturatedDevice[] devices = new SaturatedDevice[DEVICES];
+        for (int i = 0; i < DEVICES; i++) {
+            devices[i] = new SaturatedDevice();
+            devices[i].task = scheduler.addTriggered("ADS1115-" + i, devices[i]);
+        }
+        final AtomicLong loops = new AtomicLong();
+        scheduler.add("ADS1100", new DeviceManager.Device() {
+            @Override
+            public void loop() {
+                loops.incrementAndGet();
+            }
+        }, 1000);
+        for (SaturatedDevice device : devices) {
+            device.task.signal();
+        }
+        scheduler.start();
+        Thread.sleep(200);
+        scheduler.stop();
+
+        // about 200 loops at its rate budget; none if triggered devices always took priority
+        assertTrue("periodic device serviced: loops=" + loops.get(), loops.get() > 50);
+        for (SaturatedDevice device : devices) {
+            assertTrue(device.loops.get() > 0);
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void conversionReadyTest() throws InterruptedException, IOException {
+        final MockADS1115 adc = new MockADS1115();
+        adc.setup().setRate(ADS1115.Rate.DR_250SPS).setQueue(ADS1115.Queue.COMP_QUE_1_CONVERSION);
+        I2CBusScheduler scheduler = new I2CBusScheduler(1);
+        I2CBusScheduler.TriggeredTask task = scheduler.addTriggered("A0", new DeviceManager.Device() {
+            @Override
+            public void loop() throws IOException {
+                adc.readMillivolts();
+            }
+        });
+        scheduler.start();
+        EdgeSource rdy = adc.getConversionReadySource();
+        rdy.setListener(task);
+        Thread.sleep(200);
+        rdy.close();
+        while (adc.getReads() < adc.getConversions()) {
+            Thread.sleep(1); // the read of the last conversion
+        }
+        scheduler.stop();
+
+        // every conversion read exactly once
+        assertTrue(adc.getConversions() > 0);
+        assertEquals(adc.getConversions(), adc.getReads());
+        assertEquals(0, adc.getDuplicateReads());
+        assertEquals(0, adc.getMissedConversions());
+        assertEquals(0, task.getMissed());
+    }
+
+    @Test(timeout = 10000)
+    public void errorTest() throws InterruptedException {
+        I2CBusScheduler scheduler = new I2CBusScheduler(1);
+        final AtomicLong loops = new AtomicLong();
+        I2CBusScheduler.PeriodicTask failing = scheduler.add("failing", new DeviceManager.Device() {
+            @Override
+            public void loop() {
+                throw new IllegalStateException("device failed");
+            }
+        }, 1000);
+        scheduler.add("working", new DeviceManager.Device() {
+            @Override
+            public void loop() {
+                loops.incrementAndGet();
+            }
+        }, 1000);
+        PrintStream err = System.err;
+        System.setErr(new PrintStream(new ByteArrayOutputStream()));
+        try {
+            scheduler.start();
+            Thread.sleep(100);
+            long before = loops.get();
+            Thread.sleep(100);
+            assertTrue("bus thread still running", loops.get() > before);
+        } finally {
+            scheduler.stop();
+            System.setErr(err);
+        }
+        assertTrue(failing.getErrors() > 0);
+    }
+
+}
@@ -0,0 +1,111 @@
+import edu.sdsu.rocket.server.io.radio.TXQueue;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TXQueueTest {
+
+    private static final int CAPACITY = 3;
+
+    private static final TXQueue.Encoder COPY = new TXQueue.Encoder() {
+        @Override
+        public void encode(ByteBuffer payload, ByteBuffer out) {
+            out.put(payload);
+        }
+    };
+
+    private static ByteBuffer payload(int value) {
+        return ByteBuffer.wrap(new byte[] { (byte) value });
+    }
+
+    private static int take(TXQueue queue) throws InterruptedException {
+        ByteBuffer out = ByteBuffer.allocate(1);
+        queue.take(out, COPY);
+        return out.get(0);
+    }
+
+    @Test
+    public void dropOldestTest() throws InterruptedException {
+        TXQueue queue = new TXQueue(CAPACITY, 1);
+        for (int i = 0; i < CAPACITY; i++) {
+            assertFalse(queue.offer(payload(i)));
+        }
+        assertTrue(queue.offer(payload(CAPACITY)));
+        assertTrue(queue.offer(payload(CAPACITY + 1)));
+
+        assertEquals(2, queue.getDropped());
+        assertEquals(CAPACITY, queue.getDepth());
+        assertEquals(CAPACITY, queue.getMaximumDepth());
+        for (int i = 2; i < CAPACITY + 2; i++) {
+            assertEquals(i, take(queue));
+        }
+        assertEquals(0, queue.getDepth());
+    }
+
+    @Test
+    public void coalesceTest() throws InterruptedException {
+        TXQueue queue = new TXQueue(CAPACITY, 1);
+        queue.setOverflowPolicy(TXQueue.OverflowPolicy.COALESCE);
+
+        // not full, so payloads with the same key are all queued
+        assertFalse(queue.offer(payload('a'), 1));
+        assertFalse(queue.offer(payload('b'), 1));
+        assertFalse(queue.offer(payload('c'), 2));
+        assertEquals(0, queue.getCoalesced());
+        assertEquals(CAPACITY, queue.getDepth());
+
+        // full, so the latest payload with the key is replaced in place
+        assertTrue(queue.offer(payload('d'), 1));
+        assertEquals(1, queue.getCoalesced());
+        assertEquals(0, queue.getDropped());
+
+        // full without a payload to replace, so the oldest is dropped
+        assertTrue(queue.offer(payload('e'), 3));
+        assertEquals(1, queue.getDropped());
+
+        assertEquals('d', take(queue));
+        assertEquals('c', take(queue));
+        assertEquals('e', take(queue));
+    }
+
+    @Test
+    public void latencyTest() throws InterruptedException {
+        TXQueue queue = new TXQueue(CAPACITY, 1);
+        queue.setOverflowPolicy(TXQueue.OverflowPolicy.COALESCE);
+
+        long before = System.nanoTime();
+        for (int i = 0; i < CAPACITY; i++) {
+            queue.offer(payload(i), i);
+        }
+        long after = System.nanoTime();
+        Thread.sleep(20);
+        assertTrue(queue.offer(payload(CAPACITY), 0)); // replaces the oldest payload
+
+        ByteBuffer out = ByteBuffer.allocate(1);
+        long enqueued = queue.take(out, COPY);
+        assertEquals(CAPACITY, out.get(0));
+        assertTrue("keeps the time the replaced payload was queued", enqueued - before >= 0 && after - enqueued >= 0);
+
+        queue.onSent(enqueued);
+        assertEquals(1, queue.getSent());
+        assertTrue(queue.getMeanLatency() >= TimeUnit.MILLISECONDS.toNanos(20));
+        assertEquals(queue.getMeanLatency(), queue.getMaximumLatency());
+
+        out.clear();
+        queue.onSent(queue.take(out, COPY));
+        assertEquals(2, queue.getSent());
+        assertTrue(queue.getMeanLatency() <= queue.getMaximumLatency());
+
+        queue.resetStatistics();
+        assertEquals(0, queue.getSent());
+        assertEquals(0, queue.getMeanLatency());
+        assertEquals(0, queue.getCoalesced());
+        assertEquals(1, queue.getMaximumDepth());
+    }
+
+}
@@ -0,0 +1,126 @@
+import edu.sdsu.rocket.server.devices.mock.MockDigitalOutput;
+import edu.sdsu.rocket.server.devices.mock.SimulatedXTend900;
+import edu.sdsu.rocket.server.io.radio.TXQueue;
+import edu.sdsu.rocket.server.io.radio.XTend900;
+import edu.sdsu.rocket.server.io.radio.XTend900Config;
+import edu.sdsu.rocket.server.io.serial.SerialPort;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Loads the radio TX pipeline (queue, writer thread and serial port) over a simulated XTend 900, checking only what
+ * does not depend on timing; throughput and latency are measured by XTend900Benchmark.
+ */
+public class XTend900LoadTest {
+
+    private static final int PAYLOAD = 32; // bytes
+    private static final int HOST_BUFFER_SIZE = 256; // bytes
+
+    private SimulatedXTend900 module;
+    private XTend900 radio;
+    private final ByteArrayOutputStream received = new ByteArrayOutputStream();
+
+    @Before
+    public void setUp() {
+        module = new SimulatedXTend900(HOST_BUFFER_SIZE, SimulatedXTend900.DEFAULT_MODULE_BUFFER_SIZE, 0L);
+        module.setRemote(new SerialPort.SerialPortListener() {
+            @Override
+            public void onDataReceived(ByteBuffer data) {
+                synchronized (received) {
+                    received.write(data.array(), data.arrayOffset() + data.position(), data.remaining());
+                }
+            }
+        }, XTend900Config.APIEnable.DISABLED);
+        module.start();
+
+        radio = new XTend900(module, module.getShutdownPin(), new MockDigitalOutput());
+        radio.turnOn();
+        radio.start();
+    }
+
+    @After
+    public void tearDown() {
+        radio.close();
+        module.close();
+    }
+
+    private byte[] getReceived() {
+        synchronized (received) {
+            return received.toByteArray();
+        }
+    }
+
+    /**
+     * A payload starting with its sequence number.
+     */
+    private static byte[] payload(int sequence) {
+        ByteBuffer payload = ByteBuffer.allocate(PAYLOAD).putInt(sequence);
+        while (payload.hasRemaining()) {
+            payload.put((byte) (sequence + payload.position()));
+        }
+        return payload.array();
+    }
+
+    /**
+     * Offers the payloads at once, then waits for every payload sent to be delivered.
+     */
+    private byte[] burst(int count, ByteArrayOutputStream offered) throws InterruptedException {
+        for (int i = 0; i < count; i++) {
+            byte[] payload = payload(i);
+            radio.send(payload);
+            offered.write(payload, 0, PAYLOAD);
+        }
+        TXQueue queue = radio.getTXQueue();
+        byte[] b;
+        while (queue.getSent() + queue.getDropped() < count || (b = getReceived()).length < queue.getSent() * PAYLOAD) {
+            Thread.sleep(10);
+        }
+        return b;
+    }
+
+    @Test(timeout = 30000)
+    public void deliveryTest() throws InterruptedException {
+        // fits in the queue, so nothing can be dropped however slowly it drains
+        int count = radio.getTXQueue().getCapacity();
+        ByteArrayOutputStream offered = new ByteArrayOutputStream();
+        byte[] b = burst(count, offered);
+
+        assertArrayEquals(offered.toByteArray(), b);
+        assertEquals(0, radio.getTXQueue().getDropped());
+        assertEquals(count, radio.getTXQueue().getSent());
+        assertEquals(0, module.getOverruns());
+    }
+
+    @Test(timeout = 30000)
+    public void overloadTest() throws InterruptedException {
+        TXQueue queue = radio.getTXQueue();
+        int count = 10 * (queue.getCapacity() + HOST_BUFFER_SIZE / PAYLOAD);
+        byte[] b = burst(count, new ByteArrayOutputStream());
+
+        // excess payloads are dropped from the full queue; those sent arrive whole and in order
+        assertTrue(queue.getDropped() > 0);
+        assertEquals(count, queue.getSent() + queue.getDropped());
+        assertEquals(queue.getCapacity(), queue.getMaximumDepth());
+        assertEquals(0, module.getOverruns());
+        assertEquals(0, b.length % PAYLOAD);
+        int last = -1;
+        for (int offset = 0; offset < b.length; offset += PAYLOAD) {
+            int sequence = ByteBuffer.wrap(b, offset, PAYLOAD).getInt();
+            assertTrue(sequence > last);
+            byte[] payload = new byte[PAYLOAD];
+            System.arraycopy(b, offset, payload, 0, PAYLOAD);
+            assertArrayEquals(payload(sequence), payload);
+            last = sequence;
+        }
+        assertEquals(count - 1, last); // the newest payload is never dropped
+    }
+
+}